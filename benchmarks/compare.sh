@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Compares the latest JMH run against the checked-in baseline, one line per benchmark.
+# Requires jq and a result file from: ./mvnw -Pbenchmarks test-compile exec:exec
+#
+#   ./benchmarks/compare.sh                      # target/jmh-result.json vs benchmarks/baseline.json
+#   ./benchmarks/compare.sh --update             # replace the baseline with the latest run
+#   THRESHOLD=10 ./benchmarks/compare.sh         # flag score or allocation changes above 10%
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+BASELINE=benchmarks/baseline.json
+CURRENT=${CURRENT:-target/jmh-result.json}
+THRESHOLD=${THRESHOLD:-5}
+
+[ -f "$CURRENT" ] || { echo "no results at $CURRENT, run the benchmarks first" >&2; exit 1; }
+
+if [ "${1:-}" = "--update" ]; then
+    cp "$CURRENT" "$BASELINE"
+    echo "baseline updated from $CURRENT"
+    exit 0
+fi
+
+# benchmark name -> [score, unit, allocated bytes per op]
+summary() {
+    jq -c 'map({key: (.benchmark | sub("^com\\.example\\.benchmarks\\."; "")),
+                value: [.primaryMetric.score, .primaryMetric.scoreUnit,
+                        (.secondaryMetrics["gc.alloc.rate.norm"].score // null)]}) | from_entries' "$1"
+}
+
+printf '%-50s %14s %14s %8s %12s %12s %8s\n' benchmark base now delta base_B/op now_B/op delta
+jq -rn --argjson base "$(summary "$BASELINE")" --argjson now "$(summary "$CURRENT")" --argjson t "$THRESHOLD" '
+    def pct(a; b): if a == null or b == null or a == 0 then null else (b - a) / a * 100 end;
+    def fmt(x): if x == null then "-" else (x * 100 | round / 100 | tostring) end;
+    $now | to_entries[] | .key as $k | .value as $n | ($base[$k] // [null, null, null]) as $b |
+    pct($b[0]; $n[0]) as $ds | pct($b[2]; $n[2]) as $da |
+    [$k, fmt($b[0]), fmt($n[0]) + " " + $n[1], fmt($ds),
+     fmt($b[2]), fmt($n[2]), fmt($da),
+     (if ($ds // 0 | fabs) > $t or ($da // 0 | fabs) > $t then "<--" else "" end)] | @tsv' |
+    awk -F'\t' '{ printf "%-50s %14s %14s %7s%% %12s %12s %7s%% %s\n", $1, $2, $3, $4, $5, $6, $7, $8 }'
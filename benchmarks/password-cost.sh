@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Picks user.password.iterations from a PasswordHashingBenchmark run: the highest iteration count
+# whose p99 verify time fits the budget. Run it on the hardware that serves logins.
+# Requires jq and a result file from:
+#   ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args=PasswordHashing
+#
+#   ./benchmarks/password-cost.sh          # p99 budget of 250 ms
+#   ./benchmarks/password-cost.sh 100      # p99 budget of 100 ms
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CURRENT=${CURRENT:-target/jmh-result.json}
+BUDGET_MS=${1:-250}
+
+[ -f "$CURRENT" ] || { echo "no results at $CURRENT, run the benchmarks first" >&2; exit 1; }
+
+# The benchmark reports in ms/op, so percentiles compare directly with the budget
+jq -r --argjson budget "$BUDGET_MS" '
+    map(select(.benchmark | endswith("PasswordHashingBenchmark.verify"))
+        | {iterations: (.params.iterations | tonumber), p99: .primaryMetric.scorePercentiles["99.0"]})
+    | sort_by(.iterations)
+    | if length == 0 then "no PasswordHashingBenchmark.verify results in the file" | halt_error(1) else . end
+    | (.[] | "iterations=\(.iterations) p99=\(.p99 * 10 | round / 10) ms"),
+      (map(select(.p99 <= $budget)) | last
+       | if . == null then "no iteration count fits a \($budget) ms p99"
+         else "user.password.iterations=\(.iterations) fits a \($budget) ms p99" end)' "$CURRENT"
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Runs the k6 scenario against the service once per thread mode and prints a side-by-side summary.
+# Requires: a built jar (./mvnw package), k6 and jq, and AWS credentials for a non-production table.
+#
+#   MAX_VUS=2000 ./loadtest/compare.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/UserService-*.jar | grep -v original | head -1)
+PORT=${PORT:-8080}
+RESULTS=loadtest/results
+mkdir -p "$RESULTS"
+
+run_mode() {
+    local mode=$1 virtual=$2
+    echo "=== $mode threads ==="
+    # tracePinnedThreads logs a stack whenever a virtual thread blocks while pinned to its carrier
+    java -Xmx1g -Djdk.tracePinnedThreads=short -jar "$JAR" \
+        --server.port="$PORT" --spring.threads.virtual.enabled="$virtual" > "$RESULTS/$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" RETURN
+    # /users needs a token; the health endpoint is open
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+    k6 run --quiet -e BASE_URL="http://localhost:$PORT" -e MAX_VUS="${MAX_VUS:-2000}" \
+        --summary-export "$RESULTS/$mode.json" loadtest/users.js
+    echo "pinned-thread events: $(grep -c 'onPinned\|<== monitors' "$RESULTS/$mode.log" || true)"
+}
+
+run_mode platform false
+run_mode virtual true
+
+printf '\n%-10s %12s %10s %10s %10s %10s\n' mode req/s p50_ms p95_ms p99_ms failed
+for mode in platform virtual; do
+    jq -r --arg m "$mode" '[$m,
+        (.metrics.http_reqs.rate | floor),
+        .metrics.http_req_duration["p(50)"], .metrics.http_req_duration["p(95)"], .metrics.http_req_duration["p(99)"],
+        .metrics.http_req_failed.value] | @tsv' "$RESULTS/$mode.json" |
+        awk -F'\t' '{ printf "%-10s %12s %10.1f %10.1f %10.1f %10.4f\n", $1, $2, $3, $4, $5, $6 }'
+done
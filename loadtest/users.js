@@ -0,0 +1,55 @@
+// k6 scenario for comparing platform- and virtual-thread modes.
+// Mix: 70% GET /users/{id} (seeded IDs), 20% GET /users page, 10% POST /users.
+// The reads need a token, so setup() signs up a load-test user and logs in as it; every VU shares that token.
+import http from 'k6/http';
+import { check, fail } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '2000', 10);
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: Math.floor(MAX_VUS / 4) },
+                { duration: '60s', target: MAX_VUS },
+                { duration: '60s', target: MAX_VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const n = `setup-${Date.now()}`;
+    const credentials = { username: `load-${n}`, password: 'load-test' };
+    const created = http.post(`${BASE_URL}/users`, JSON.stringify({ ...credentials, email: `load-${n}@example.com` }),
+        { headers: JSON_HEADERS });
+    const login = http.post(`${BASE_URL}/auth/login`, JSON.stringify(credentials), { headers: JSON_HEADERS });
+    if (created.status !== 200 || login.status !== 200) {
+        fail(`could not sign up and log in a load-test user: ${created.status} / ${login.status}`);
+    }
+    // The token lasts user.auth.token-ttl (1h by default), well past the scenario
+    const auth = { Authorization: `Bearer ${login.json('accessToken')}` };
+    const seed = http.get(`${BASE_URL}/users?limit=1000`, { headers: auth }).json();
+    return { auth, seedIds: seed.users.map((u) => u.userId) };
+}
+
+export default function ({ auth, seedIds }) {
+    const roll = Math.random();
+    if (roll < 0.7 && seedIds.length > 0) {
+        const id = seedIds[Math.floor(Math.random() * seedIds.length)];
+        check(http.get(`${BASE_URL}/users/${id}`, { headers: auth, tags: { name: 'getUser' } }), { 'get 200': (r) => r.status === 200 });
+    } else if (roll < 0.9) {
+        check(http.get(`${BASE_URL}/users?limit=50`, { headers: auth, tags: { name: 'listUsers' } }), { 'list 200': (r) => r.status === 200 });
+    } else {
+        const n = `${__VU}-${__ITER}-${Date.now()}`;
+        const payload = JSON.stringify({ username: `load-${n}`, email: `load-${n}@example.com`, password: 'load-test' });
+        check(http.post(`${BASE_URL}/users`, payload, { headers: JSON_HEADERS, tags: { name: 'createUser' } }),
+            { 'create 200': (r) => r.status === 200 });
+    }
+}
@@ -70,143 +70,75 @@ resource "aws_s3_object" "lambda_user_service_bucket" {
   etag   = filemd5(var.jar_file_source_path)
 }
 
-resource "aws_lambda_function" "create_user" {
-  function_name = "create-user-lambda-${var.environment}-${var.aws_region}"
+# One function serves every route (com.example.lambda.LambdaRouter), so all traffic shares
+# the same warm containers, DynamoDB client and user cache
+resource "aws_lambda_function" "user_api" {
+  function_name = "user-api-lambda-${var.environment}-${var.aws_region}"
   runtime       = var.lambda_runtime
-  handler       = "com.example.CreateUser.LambdaHandler::handleRequest"
+  handler       = "com.example.lambda.LambdaRouter::handleRequest"
   s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
   s3_key        = aws_s3_object.lambda_user_service_bucket.key
   role          = aws_iam_role.lambda_exec.arn
   timeout       = var.lambda_timeout
-}
-
-resource "aws_lambda_function" "list_users" {
-  function_name = "list-users-lambda-${var.environment}-${var.aws_region}"
-  runtime       = var.lambda_runtime
-  handler       = "com.example.ListUsers.LambdaHandler::handleRequest"
-  s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
-  s3_key        = aws_s3_object.lambda_user_service_bucket.key
-  role          = aws_iam_role.lambda_exec.arn
-  timeout       = var.lambda_timeout
-}
-
-# Declare the missing lambda function resources
-resource "aws_lambda_function" "get_user_by_id" {
-  function_name = "get-user-by-id-lambda-${var.environment}-${var.aws_region}"
-  runtime       = var.lambda_runtime
-  handler       = "com.example.GetUserById.LambdaHandler::handleRequest"
-  s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
-  s3_key        = aws_s3_object.lambda_user_service_bucket.key
-  role          = aws_iam_role.lambda_exec.arn
-  timeout       = var.lambda_timeout
-}
-
-resource "aws_lambda_function" "update_user" {
-  function_name = "update-user-lambda-${var.environment}-${var.aws_region}"
-  runtime       = var.lambda_runtime
-  handler       = "com.example.UpdateUser.LambdaHandler::handleRequest"
-  s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
-  s3_key        = aws_s3_object.lambda_user_service_bucket.key
-  role          = aws_iam_role.lambda_exec.arn
-  timeout       = var.lambda_timeout
-}
-
-resource "aws_lambda_function" "delete_user" {
-  function_name = "delete-user-lambda-${var.environment}-${var.aws_region}"
-  runtime       = var.lambda_runtime
-  handler       = "com.example.DeleteUser.LambdaHandler::handleRequest"
-  s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
-  s3_key        = aws_s3_object.lambda_user_service_bucket.key
-  role          = aws_iam_role.lambda_exec.arn
-  timeout       = var.lambda_timeout
-}
-
-
-resource "aws_lambda_function" "user_authentication" {
-  function_name = "user-auth-${var.environment}-${var.aws_region}"
-  runtime       = var.lambda_runtime
-  handler       = "com.example.UserAuthentication.LambdaHandler::handleRequest"
-  s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
-  s3_key        = aws_s3_object.lambda_user_service_bucket.key
-  role          = aws_iam_role.lambda_exec.arn
-  timeout       = var.lambda_timeout
-}
+  publish       = var.lambda_snap_start
+
+  environment {
+    variables = {
+      # Every container must sign and verify with the same key (com.example.auth.TokenService)
+      USER_JWT_SECRET           = var.jwt_secret
+      USER_REVOKED_TOKENS_TABLE = aws_dynamodb_table.revoked_tokens.name
+      # Polled for writes made by other containers (com.example.cache.CacheInvalidator)
+      USER_CACHE_INVALIDATIONS_TABLE = aws_dynamodb_table.cache_invalidations.name
+    }
+  }
 
-resource "aws_lambda_function" "user_logout" {
-  function_name = "user-logout-lambda"
-  runtime       = var.lambda_runtime
-  handler       = "com.example.UserLogout.LambdaHandler::handleRequest"
-  s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
-  s3_key        = aws_s3_object.lambda_user_service_bucket.key
-  role          = aws_iam_role.lambda_exec.arn
-  timeout       = var.lambda_timeout
+  # SnapStart snapshots the initialised (and primed) JVM of each published version
+  dynamic "snap_start" {
+    for_each = var.lambda_snap_start ? [1] : []
+    content {
+      apply_on = "PublishedVersions"
+    }
+  }
 }
 
-resource "aws_lambda_function" "change_password" {
-  function_name = "change-password-lambda"
-  runtime       = var.lambda_runtime
-  handler       = "com.example.ChangePassword.LambdaHandler::handleRequest"
-  s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
-  s3_key        = aws_s3_object.lambda_user_service_bucket.key
-  role          = aws_iam_role.lambda_exec.arn
-  timeout       = var.lambda_timeout
+# Create CloudWatch log group for the Lambda function
+resource "aws_cloudwatch_log_group" "user_api_log_group" {
+  name              = "/aws/lambda/${aws_lambda_function.user_api.function_name}"
+  retention_in_days = var.cloudwatch_log_retention
 }
 
-resource "aws_lambda_function" "reset_password" {
-  function_name = "reset-password-lambda"
+# Reads the users table's stream and publishes each change to the cache invalidation feed
+resource "aws_lambda_function" "cache_invalidation" {
+  function_name = "user-cache-invalidation-${var.environment}-${var.aws_region}"
   runtime       = var.lambda_runtime
-  handler       = "com.example.ResetPassword.LambdaHandler::handleRequest"
+  handler       = "com.example.CacheInvalidation.LambdaHandler::handleRequest"
   s3_bucket     = aws_s3_bucket.lambda_bucket.bucket
   s3_key        = aws_s3_object.lambda_user_service_bucket.key
   role          = aws_iam_role.lambda_exec.arn
   timeout       = var.lambda_timeout
-}
-
-
-# Create CloudWatch log groups for Lambda functions
-resource "aws_cloudwatch_log_group" "create_user_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.create_user.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
-}
-
-resource "aws_cloudwatch_log_group" "list_users_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.list_users.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
-}
-
-resource "aws_cloudwatch_log_group" "get_user_by_id_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.get_user_by_id.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
-}
-
-resource "aws_cloudwatch_log_group" "update_user_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.update_user.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
-}
-
-resource "aws_cloudwatch_log_group" "delete_user_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.delete_user.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
-}
-
-resource "aws_cloudwatch_log_group" "user_authentication_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.user_authentication.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
-}
 
-resource "aws_cloudwatch_log_group" "user_logout_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.user_logout.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
+  environment {
+    variables = {
+      USER_CACHE_INVALIDATIONS_TABLE = aws_dynamodb_table.cache_invalidations.name
+    }
+  }
 }
 
-resource "aws_cloudwatch_log_group" "change_password_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.change_password.function_name}"
+resource "aws_cloudwatch_log_group" "cache_invalidation_log_group" {
+  name              = "/aws/lambda/${aws_lambda_function.cache_invalidation.function_name}"
   retention_in_days = var.cloudwatch_log_retention
 }
 
-resource "aws_cloudwatch_log_group" "reset_password_log_group" {
-  name              = "/aws/lambda/${aws_lambda_function.reset_password.function_name}"
-  retention_in_days = var.cloudwatch_log_retention
+# No batching window: the time a change waits here is time nodes serve the old copy. A failing batch
+# is split to find the bad record instead of holding up the shard
+resource "aws_lambda_event_source_mapping" "users_stream" {
+  event_source_arn                   = aws_dynamodb_table.users.stream_arn
+  function_name                      = aws_lambda_function.cache_invalidation.arn
+  starting_position                  = "LATEST"
+  batch_size                         = 100
+  maximum_batching_window_in_seconds = 0
+  bisect_batch_on_function_error     = true
+  maximum_retry_attempts             = 10
 }
 
 # Create CloudWatch log group for API Gateway
@@ -230,15 +162,8 @@ resource "aws_iam_policy" "cloudwatch_log_policy" {
         "logs:PutLogEvents"
       ],
       Resource = [
-        aws_cloudwatch_log_group.create_user_log_group.arn,
-        aws_cloudwatch_log_group.list_users_log_group.arn,
-        aws_cloudwatch_log_group.get_user_by_id_log_group.arn,
-        aws_cloudwatch_log_group.update_user_log_group.arn,
-        aws_cloudwatch_log_group.delete_user_log_group.arn,
-        aws_cloudwatch_log_group.user_authentication_log_group.arn,
-        aws_cloudwatch_log_group.user_logout_log_group.arn,
-        aws_cloudwatch_log_group.change_password_log_group.arn,
-        aws_cloudwatch_log_group.reset_password_log_group.arn,
+        aws_cloudwatch_log_group.user_api_log_group.arn,
+        aws_cloudwatch_log_group.cache_invalidation_log_group.arn,
         aws_cloudwatch_log_group.api_gw_log_group.arn
       ]
     }]
@@ -302,10 +227,11 @@ resource "aws_apigatewayv2_api" "lambda" {
   protocol_type = "HTTP"
 
   cors_configuration {
-    allow_origins = var.cors_allow_origins
-    allow_methods = var.cors_allow_methods
-    allow_headers = var.cors_allow_headers
-    max_age       = var.cors_max_age
+    allow_origins  = var.cors_allow_origins
+    allow_methods  = var.cors_allow_methods
+    allow_headers  = var.cors_allow_headers
+    expose_headers = var.cors_expose_headers
+    max_age        = var.cors_max_age
   }
 }
 
@@ -331,245 +257,45 @@ resource "aws_apigatewayv2_stage" "lambda" {
   }
 }
 
-# Data source to fetch Lambda function ARNs
-data "aws_lambda_function" "lambda_functions" {
-  for_each = {
-    create_user        = aws_lambda_function.create_user.function_name,
-    list_users         = aws_lambda_function.list_users.function_name,
-    get_user_by_id     = aws_lambda_function.get_user_by_id.function_name,
-    update_user        = aws_lambda_function.update_user.function_name,
-    delete_user        = aws_lambda_function.delete_user.function_name,
-    user_authentication = aws_lambda_function.user_authentication.function_name,
-    user_logout        = aws_lambda_function.user_logout.function_name,
-    change_password    = aws_lambda_function.change_password.function_name,
-    reset_password     = aws_lambda_function.reset_password.function_name,
-  }
-
-  function_name = each.value
-}
-
-# Create API Gateway integrations for each Lambda function
-resource "aws_apigatewayv2_integration" "lambda_integrations" {
-  for_each = data.aws_lambda_function.lambda_functions
-
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = each.value.arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
-}
-
-# Create API Gateway routes for each Lambda function
-resource "aws_apigatewayv2_route" "lambda_routes" {
-  for_each = {
-    for key, integration in aws_apigatewayv2_integration.lambda_integrations : key => integration
+locals {
+  # Every route is proxied to the router function, which dispatches on the route key
+  user_api_routes = {
+    create_user         = "POST /users"
+    batch_create_users  = "POST /users:batchCreate"
+    batch_get_users     = "POST /users:batchGet"
+    list_users          = "GET /users"
+    get_user_by_id      = "GET /users/{userId}"
+    update_user         = "PUT /users/{userId}"
+    delete_user         = "DELETE /users/{userId}"
+    change_password     = "PUT /users/{userId}/changepassword"
+    reset_password      = "POST /users/resetpassword"
+    user_authentication = "POST /auth/login"
+    user_logout         = "POST /auth/logout"
   }
-
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = each.key != "user_authentication" && each.key != "user_logout" ? "POST /${replace(each.key, "_", "/")}" : "ANY /${replace(each.key, "_", "/")}"
-  target    = "integrations/${each.value.id}"
-}
-
-data "aws_lambda_function" "functions" {
-  count = length(var.lambda_function_names)
-
-  function_name = var.lambda_function_names[count.index]
-}
-
-resource "aws_apigatewayv2_integration" "create_user" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.create_user.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
-}
-
-resource "aws_apigatewayv2_integration" "list_users" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.list_users.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
-}
-
-resource "aws_apigatewayv2_integration" "get_user_by_id" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.get_user_by_id.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
-}
-
-resource "aws_apigatewayv2_integration" "update_user" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.update_user.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
-}
-
-resource "aws_apigatewayv2_integration" "delete_user" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.delete_user.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
 }
 
-resource "aws_apigatewayv2_integration" "user_authentication" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.user_authentication.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
+resource "aws_apigatewayv2_integration" "user_api" {
+  api_id                 = aws_apigatewayv2_api.lambda.id
+  integration_uri        = aws_lambda_function.user_api.qualified_invoke_arn
+  integration_type       = "AWS_PROXY"
+  integration_method     = "POST"
+  payload_format_version = "1.0"
 }
 
-resource "aws_apigatewayv2_integration" "user_logout" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.user_logout.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
-}
-
-resource "aws_apigatewayv2_integration" "change_password" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.change_password.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
-}
+resource "aws_apigatewayv2_route" "user_api" {
+  for_each = local.user_api_routes
 
-resource "aws_apigatewayv2_integration" "reset_password" {
-  api_id             = aws_apigatewayv2_api.lambda.id
-  integration_uri    = aws_lambda_function.reset_password.invoke_arn
-  integration_type   = "AWS_PROXY"
-  integration_method = "POST"
+  api_id     = aws_apigatewayv2_api.lambda.id
+  route_key  = each.value
+  target     = "integrations/${aws_apigatewayv2_integration.user_api.id}"
+  depends_on = [aws_apigatewayv2_integration.user_api]
 }
 
-
-resource "aws_apigatewayv2_route" "create_user" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "POST /users"
-  target    = "integrations/${aws_apigatewayv2_integration.create_user.id}"
-  depends_on = [aws_apigatewayv2_integration.create_user]
-}
-
-resource "aws_apigatewayv2_route" "list_users" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "GET /users"
-  target    = "integrations/${aws_apigatewayv2_integration.list_users.id}"
-  depends_on = [aws_apigatewayv2_integration.list_users]
-}
-
-resource "aws_apigatewayv2_route" "get_user_by_id" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "GET /users/{userId}"
-  target    = "integrations/${aws_apigatewayv2_integration.get_user_by_id.id}"
-  depends_on = [aws_apigatewayv2_integration.get_user_by_id]
-}
-
-resource "aws_apigatewayv2_route" "update_user" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "PUT /users/{userId}"
-  target    = "integrations/${aws_apigatewayv2_integration.update_user.id}"
-  depends_on = [aws_apigatewayv2_integration.update_user]
-}
-
-resource "aws_apigatewayv2_route" "delete_user" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "DELETE /users/{userId}"
-  target    = "integrations/${aws_apigatewayv2_integration.delete_user.id}"
-  depends_on = [aws_apigatewayv2_integration.delete_user]
-}
-
-resource "aws_apigatewayv2_route" "user_authentication" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "POST /auth/login"
-  target    = "integrations/${aws_apigatewayv2_integration.user_authentication.id}"
-  depends_on = [aws_apigatewayv2_integration.user_authentication]
-}
-
-resource "aws_apigatewayv2_route" "user_logout" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "POST /auth/logout"
-  target    = "integrations/${aws_apigatewayv2_integration.user_logout.id}"
-  depends_on = [aws_apigatewayv2_integration.user_logout]
-}
-
-resource "aws_apigatewayv2_route" "change_password" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "PUT /users/{userId}/changepassword"
-  target    = "integrations/${aws_apigatewayv2_integration.change_password.id}"
-  depends_on = [aws_apigatewayv2_integration.change_password]
-}
-
-resource "aws_apigatewayv2_route" "reset_password" {
-  api_id    = aws_apigatewayv2_api.lambda.id
-  route_key = "POST /users/resetpassword"
-  target    = "integrations/${aws_apigatewayv2_integration.reset_password.id}"
-  depends_on = [aws_apigatewayv2_integration.reset_password]
-}
-
-resource "aws_lambda_permission" "create_user_api_gw" {
-  statement_id  = "AllowExecutionFromAPIGateway"
+resource "aws_lambda_permission" "user_api_api_gw" {
+  statement_id  = "AllowExecutionFromHTTPAPIUserApi"
   action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.create_user.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "change_password_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIChangePassword"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.change_password.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "update_user_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIUpdateUser"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.update_user.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "reset_password_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIResetPassword"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.reset_password.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "list_users_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIListUsers"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.list_users.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "user_logout_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIUserLogout"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.user_logout.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "get_user_by_id_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIGetUserById"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.get_user_by_id.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "delete_user_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIDeleteUser"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.delete_user.function_name
-  principal     = "apigateway.amazonaws.com"
-  source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
-}
-
-resource "aws_lambda_permission" "user_authentication_api_gw" {
-  statement_id  = "AllowExecutionFromHTTPAPIUserAuthentication"
-  action        = "lambda:InvokeFunction"
-  function_name = aws_lambda_function.user_authentication.function_name
+  function_name = aws_lambda_function.user_api.function_name
+  qualifier     = var.lambda_snap_start ? aws_lambda_function.user_api.version : null
   principal     = "apigateway.amazonaws.com"
   source_arn    = "${aws_apigatewayv2_api.lambda.execution_arn}/*/*"
 }
@@ -597,15 +323,8 @@ resource "aws_iam_policy" "api_gateway_policy" {
       Effect    = "Allow",
       Action    = "lambda:InvokeFunction",
       Resource  = [
-        aws_lambda_function.create_user.arn,
-        aws_lambda_function.list_users.arn,
-        aws_lambda_function.get_user_by_id.arn,
-        aws_lambda_function.update_user.arn,
-        aws_lambda_function.delete_user.arn,
-        aws_lambda_function.user_authentication.arn,
-        aws_lambda_function.user_logout.arn,
-        aws_lambda_function.change_password.arn,
-        aws_lambda_function.reset_password.arn,
+        aws_lambda_function.user_api.arn,
+        aws_lambda_function.user_api.qualified_arn,
       ]
     }]
   })
@@ -665,6 +384,97 @@ resource "aws_iam_role_policy_attachment" "lambda_logs" {
   policy_arn = aws_iam_policy.lambda_logging.arn
 }
 
+# User table with the username/email lookup indexes. The table predates this configuration;
+# adopt it with: terraform import aws_dynamodb_table.users jordan-user-service
+resource "aws_dynamodb_table" "users" {
+  name         = var.dynamodb_table_name
+  billing_mode = "PAY_PER_REQUEST"
+  hash_key     = "userId"
+
+  attribute {
+    name = "userId"
+    type = "S"
+  }
+
+  attribute {
+    name = "username"
+    type = "S"
+  }
+
+  attribute {
+    name = "email"
+    type = "S"
+  }
+
+  global_secondary_index {
+    name            = "username-index"
+    hash_key        = "username"
+    projection_type = "ALL"
+  }
+
+  global_secondary_index {
+    name            = "email-index"
+    hash_key        = "email"
+    projection_type = "ALL"
+  }
+
+  # Feeds the cache invalidation function; old images carry the username/email a change freed
+  stream_enabled   = true
+  stream_view_type = "NEW_AND_OLD_IMAGES"
+}
+
+# Marker items ("username#bob", "email#bob@example.com") that enforce uniqueness on create
+resource "aws_dynamodb_table" "user_unique_keys" {
+  name         = var.dynamodb_unique_keys_table_name
+  billing_mode = "PAY_PER_REQUEST"
+  hash_key     = "uniqueKey"
+
+  attribute {
+    name = "uniqueKey"
+    type = "S"
+  }
+}
+
+# Logged-out access tokens, kept only until the token would have expired anyway (the TTL attribute)
+resource "aws_dynamodb_table" "revoked_tokens" {
+  name         = var.dynamodb_revoked_tokens_table_name
+  billing_mode = "PAY_PER_REQUEST"
+  hash_key     = "tokenId"
+
+  attribute {
+    name = "tokenId"
+    type = "S"
+  }
+
+  ttl {
+    attribute_name = "expiresAt"
+    enabled        = true
+  }
+}
+
+# User changes by minute of publication (com.example.cache.DynamoDbInvalidationFeed), kept for an hour
+resource "aws_dynamodb_table" "cache_invalidations" {
+  name         = var.dynamodb_cache_invalidations_table_name
+  billing_mode = "PAY_PER_REQUEST"
+  hash_key     = "bucket"
+  range_key    = "sequence"
+
+  attribute {
+    name = "bucket"
+    type = "N"
+  }
+
+  attribute {
+    name = "sequence"
+    type = "S"
+  }
+
+  ttl {
+    attribute_name = "expiresAt"
+    enabled        = true
+  }
+}
+
 # DynamoDB IAM Policy Attachment
 resource "aws_iam_policy" "dynamodb_unified_access_policy" {
   name        = "DynamoDBUnifiedAccessPolicy"
@@ -678,12 +488,31 @@ resource "aws_iam_policy" "dynamodb_unified_access_policy" {
         Action = [
           "dynamodb:PutItem",
           "dynamodb:GetItem",
+          "dynamodb:BatchWriteItem",
+          "dynamodb:BatchGetItem",
           "dynamodb:Query",
           "dynamodb:Scan",
           "dynamodb:UpdateItem",
-          "dynamodb:DeleteItem"
+          "dynamodb:DeleteItem",
+          "dynamodb:ConditionCheckItem"
+        ],
+        Resource = [
+          var.dynamodb_table_arn,
+          "${var.dynamodb_table_arn}/index/*",
+          aws_dynamodb_table.user_unique_keys.arn,
+          aws_dynamodb_table.revoked_tokens.arn,
+          aws_dynamodb_table.cache_invalidations.arn
+        ]
+      },
+      {
+        Effect = "Allow",
+        Action = [
+          "dynamodb:DescribeStream",
+          "dynamodb:GetRecords",
+          "dynamodb:GetShardIterator",
+          "dynamodb:ListStreams"
         ],
-        Resource = var.dynamodb_table_arn
+        Resource = aws_dynamodb_table.users.stream_arn
       }
     ]
   })
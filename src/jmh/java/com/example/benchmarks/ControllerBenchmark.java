@@ -0,0 +1,103 @@
+package com.example.benchmarks;
+
+import com.example.UserService.UserService;
+import com.example.auth.AuthInterceptor;
+import com.example.auth.InMemoryRevocationStore;
+import com.example.auth.RevocationList;
+import com.example.auth.TokenService;
+import com.example.controller.UserController;
+import com.example.credentials.PasswordHasher;
+import com.example.credentials.PasswordHashing;
+import com.example.logging.LogSampler;
+import com.example.logging.RequestLogger;
+import com.example.model.User;
+import com.example.repository.DynamoDbUserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * The Spring MVC path (argument binding, the async controller, message conversion) via MockMvc,
+ * without a servlet container or network. Reads carry a bearer token, so the auth interceptor's
+ * cached verification is included. Request logs are discarded rather than written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+    private static final String NEW_USER = "{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"username\":\"jane\","
+            + "\"password\":\"secret\",\"email\":\"jane@example.com\"}";
+
+    private UserService userService;
+    private TokenService tokenService;
+    private MockMvc mockMvc;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        InMemoryDynamoDb dynamoDb = Fixtures.seededDynamoDb(UserService.TABLE_NAME, 1_000);
+        userService = new UserService(
+                new DynamoDbUserRepository(dynamoDb.async(), UserService.TABLE_NAME, UserService.UNIQUE_KEYS_TABLE_NAME),
+                10_000, Duration.ofSeconds(60), 8, false,
+                new PasswordHashing(new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS), 0, 256));
+        RequestLogger requestLogger = new RequestLogger(new LogSampler(1.0, Map.of()), entry -> { });
+        tokenService = new TokenService(TokenService.signingKey(null), Duration.ofHours(1),
+                new RevocationList(new InMemoryRevocationStore(), 1_000, Duration.ofSeconds(30)), 10_000, Duration.ofMinutes(5));
+        User reader = new User("user-42", "Jane", "Doe", "user42", null, "user42@example.com", null);
+        authorization = "Bearer " + tokenService.issue(reader);
+        ObjectMapper objectMapper = new ObjectMapper();
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, objectMapper, requestLogger, tokenService))
+                .addInterceptors(new AuthInterceptor(tokenService, objectMapper, requestLogger))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        userService.shutdown();
+        tokenService.shutdown();
+    }
+
+    @Benchmark
+    public byte[] getUserById() throws Exception {
+        return dispatch(mockMvc.perform(get("/users/{userId}", "user-42").header("Authorization", authorization)).andReturn());
+    }
+
+    @Benchmark
+    public byte[] listUsers() throws Exception {
+        return dispatch(mockMvc.perform(get("/users").param("limit", "100").header("Authorization", authorization)).andReturn());
+    }
+
+    @Benchmark
+    public byte[] createUser() throws Exception {
+        return dispatch(mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(NEW_USER)).andReturn());
+    }
+
+    // The endpoints return CompletableFuture, so the response is produced on the async dispatch
+    private byte[] dispatch(MvcResult started) throws Exception {
+        return mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsByteArray();
+    }
+}
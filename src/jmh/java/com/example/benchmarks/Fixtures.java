@@ -0,0 +1,30 @@
+package com.example.benchmarks;
+
+import com.example.CreateUser.PutUserItem;
+import com.example.model.User;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static User user(int i) {
+        return new User("user-" + i, "First" + i, "Last" + i, "user" + i, "password-" + i,
+                "user" + i + "@example.com", "2024-01-01T00:00:00");
+    }
+
+    static Map<String, AttributeValue> item(int i) {
+        return PutUserItem.toItem(user(i));
+    }
+
+    static InMemoryDynamoDb seededDynamoDb(String tableName, int users) {
+        InMemoryDynamoDb dynamoDb = new InMemoryDynamoDb();
+        for (int i = 0; i < users; i++) {
+            dynamoDb.seed(tableName, "userId", item(i));
+        }
+        return dynamoDb;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.benchmarks;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DynamoDB stand-in for benchmarks: answers GetItem, Scan and TransactWriteItems from memory so
+ * a benchmark measures this service's code rather than the network. Writes are acknowledged but
+ * not kept, so a long benchmark run does not grow the data set it is reading.
+ */
+final class InMemoryDynamoDb {
+    private final Map<String, Map<String, Map<String, AttributeValue>>> tables = new ConcurrentHashMap<>();
+
+    void seed(String tableName, String keyAttribute, Map<String, AttributeValue> item) {
+        table(tableName).put(item.get(keyAttribute).s(), item);
+    }
+
+    private Map<String, Map<String, AttributeValue>> table(String tableName) {
+        return tables.computeIfAbsent(tableName, name -> new ConcurrentHashMap<>());
+    }
+
+    private GetItemResponse getItem(GetItemRequest request) {
+        Map<String, AttributeValue> item = table(request.tableName()).get(request.key().values().iterator().next().s());
+        return item == null ? GetItemResponse.builder().build() : GetItemResponse.builder().item(item).build();
+    }
+
+    private ScanResponse scan(ScanRequest request) {
+        int limit = request.limit() != null ? request.limit() : Integer.MAX_VALUE;
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (Map<String, AttributeValue> item : table(request.tableName()).values()) {
+            if (items.size() == limit) {
+                break;
+            }
+            items.add(item);
+        }
+        return ScanResponse.builder().items(items).count(items.size()).build();
+    }
+
+    DynamoDbClient sync() {
+        return new DynamoDbClient() {
+            @Override
+            public GetItemResponse getItem(GetItemRequest request) {
+                return InMemoryDynamoDb.this.getItem(request);
+            }
+
+            @Override
+            public ScanResponse scan(ScanRequest request) {
+                return InMemoryDynamoDb.this.scan(request);
+            }
+
+            @Override
+            public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+                return TransactWriteItemsResponse.builder().build();
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    DynamoDbAsyncClient async() {
+        return new DynamoDbAsyncClient() {
+            @Override
+            public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+                return CompletableFuture.completedFuture(InMemoryDynamoDb.this.getItem(request));
+            }
+
+            @Override
+            public CompletableFuture<ScanResponse> scan(ScanRequest request) {
+                return CompletableFuture.completedFuture(InMemoryDynamoDb.this.scan(request));
+            }
+
+            @Override
+            public CompletableFuture<TransactWriteItemsResponse> transactWriteItems(TransactWriteItemsRequest request) {
+                return CompletableFuture.completedFuture(TransactWriteItemsResponse.builder().build());
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
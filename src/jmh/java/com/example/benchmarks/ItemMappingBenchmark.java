@@ -0,0 +1,83 @@
+package com.example.benchmarks;
+
+import com.example.CreateUser.PutUserItem;
+import com.example.GetUserById.QueryUser;
+import com.example.ListUsers.GetAllUsers;
+import com.example.model.User;
+import com.example.model.UserPage;
+import com.example.repository.UserItemMapper;
+import com.example.repository.UserProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// User <-> AttributeValue mapping as used by QueryUser, GetAllUsers and PutUserItem (all through UserItemMapper)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemMappingBenchmark {
+    private static final int PAGE_SIZE = 100;
+    private static final UserProjection NAMES = UserProjection.of(
+            UserProjection.Attribute.USER_ID, UserProjection.Attribute.FIRST_NAME, UserProjection.Attribute.LAST_NAME);
+
+    private User user;
+    private Map<String, AttributeValue> item;
+    private GetItemResponse getItemResponse;
+    private ScanResponse scanPage;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(1);
+        item = Fixtures.item(1);
+        getItemResponse = GetItemResponse.builder().item(item).build();
+        List<Map<String, AttributeValue>> items = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            items.add(Fixtures.item(i));
+        }
+        scanPage = ScanResponse.builder().items(items).count(PAGE_SIZE).build();
+    }
+
+    @Benchmark
+    public User queryUserToUser() {
+        return QueryUser.toUser(getItemResponse);
+    }
+
+    @Benchmark
+    public User mapToUser() {
+        return UserItemMapper.toUser(item);
+    }
+
+    @Benchmark
+    public User mapToUserProjected() {
+        return UserItemMapper.toUser(item, NAMES);
+    }
+
+    @Benchmark
+    public UserPage getAllUsersToPage() {
+        return GetAllUsers.toPage(scanPage);
+    }
+
+    // The AttributeValue map putUserItemInTable sends
+    @Benchmark
+    public Map<String, AttributeValue> putUserItemValues() {
+        return PutUserItem.toItem(user);
+    }
+}
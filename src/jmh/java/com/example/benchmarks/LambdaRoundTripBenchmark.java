@@ -0,0 +1,129 @@
+package com.example.benchmarks;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.example.UserService.UserService;
+import com.example.config.DynamoDbClientProvider;
+import com.example.lambda.LambdaBootstrap;
+import com.example.lambda.LambdaRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole Lambda path: event parsing, routing, UserService, the repository, response streaming,
+ * token verification, request logging and the EMF flush, with DynamoDB answered from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LambdaRoundTripBenchmark {
+    // Reads need a bearer token; {token} is filled in once the router's TokenService exists
+    private static final String GET_USER = "{\"httpMethod\":\"GET\",\"resource\":\"/users/{userId}\",\"path\":\"/users/user-42\","
+            + "\"pathParameters\":{\"userId\":\"user-42\"},\"headers\":{\"Accept\":\"application/json\",\"Authorization\":\"Bearer {token}\"},"
+            + "\"requestContext\":{\"stage\":\"dev\",\"identity\":{\"sourceIp\":\"127.0.0.1\"}},\"body\":null,\"isBase64Encoded\":false}";
+    private static final String LIST_USERS = "{\"httpMethod\":\"GET\",\"resource\":\"/users\",\"path\":\"/users\","
+            + "\"headers\":{\"Authorization\":\"Bearer {token}\"},"
+            + "\"queryStringParameters\":{\"limit\":\"100\"},\"body\":null,\"isBase64Encoded\":false}";
+    // The dashboard's sparse read: only ids and names are fetched and serialized
+    private static final String LIST_USER_NAMES = "{\"httpMethod\":\"GET\",\"resource\":\"/users\",\"path\":\"/users\","
+            + "\"headers\":{\"Authorization\":\"Bearer {token}\"},"
+            + "\"queryStringParameters\":{\"limit\":\"100\",\"fields\":\"userId,firstName,lastName\"},\"body\":null,\"isBase64Encoded\":false}";
+    // An internal caller's page: Smile instead of JSON, gzipped, so the body is base64 rather than escaped
+    private static final String LIST_USERS_SMILE_GZIP = "{\"httpMethod\":\"GET\",\"resource\":\"/users\",\"path\":\"/users\","
+            + "\"headers\":{\"Authorization\":\"Bearer {token}\",\"Accept\":\"application/x-jackson-smile\",\"Accept-Encoding\":\"gzip\"},"
+            + "\"queryStringParameters\":{\"limit\":\"100\"},\"body\":null,\"isBase64Encoded\":false}";
+    private static final byte[] CREATE_USER = event("{\"httpMethod\":\"POST\",\"resource\":\"/users\",\"path\":\"/users\","
+            + "\"headers\":{\"Content-Type\":\"application/json\"},\"body\":\"{\\\"firstName\\\":\\\"Jane\\\",\\\"lastName\\\":\\\"Doe\\\","
+            + "\\\"username\\\":\\\"jane\\\",\\\"password\\\":\\\"secret\\\",\\\"email\\\":\\\"jane@example.com\\\"}\",\"isBase64Encoded\":false}");
+
+    private final Context context = new BenchmarkLambdaContext();
+    private PrintStream stdout;
+    private LambdaRouter router;
+    private UserService userService;
+    private byte[] getUser;
+    private byte[] listUsers;
+    private byte[] listUserNames;
+    private byte[] listUsersSmileGzip;
+
+    @Setup
+    public void setUp() {
+        // Must happen before the router's static init builds real clients
+        InMemoryDynamoDb dynamoDb = Fixtures.seededDynamoDb(UserService.TABLE_NAME, 1_000);
+        DynamoDbClientProvider.useClients(dynamoDb.sync(), dynamoDb.async());
+        // EMF lines go to stdout once per invocation; keep them out of the benchmark output
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        router = new LambdaRouter();
+        userService = LambdaBootstrap.userService();
+        String token = LambdaBootstrap.tokenService().issue(userService.getUserById("user-42"));
+        getUser = event(GET_USER.replace("{token}", token));
+        listUsers = event(LIST_USERS.replace("{token}", token));
+        listUserNames = event(LIST_USER_NAMES.replace("{token}", token));
+        listUsersSmileGzip = event(LIST_USERS_SMILE_GZIP.replace("{token}", token));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream getUserByIdCached() throws IOException {
+        return invoke(getUser);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream getUserByIdUncached() throws IOException {
+        userService.clearCaches();
+        return invoke(getUser);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream listUsers() throws IOException {
+        return invoke(listUsers);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream listUserNames() throws IOException {
+        return invoke(listUserNames);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream listUsersSmileGzip() throws IOException {
+        return invoke(listUsersSmileGzip);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream createUser() throws IOException {
+        return invoke(CREATE_USER);
+    }
+
+    private ByteArrayOutputStream invoke(byte[] event) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        router.handleRequest(new ByteArrayInputStream(event), out, context);
+        return out;
+    }
+
+    private static byte[] event(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.benchmarks;
+
+import com.example.credentials.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of one login's password check per iteration count. Sampled, so the report includes p99;
+// benchmarks/password-cost.sh picks the highest count whose p99 fits a latency budget
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 4)
+@Fork(1)
+public class PasswordHashingBenchmark {
+    @Param({"210000", "310000", "600000", "800000", "1000000"})
+    public int iterations;
+
+    private PasswordHasher hasher;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher(iterations);
+        encoded = hasher.hash("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.verify("correct horse battery staple", encoded);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.benchmarks;
+
+import com.example.UserService.UserService;
+import com.example.model.User;
+import com.example.model.UserPage;
+import com.example.repository.DynamoDbUserRepository;
+import com.example.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Request building and response mapping in the repository, with DynamoDB answered from memory
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+    private UserRepository repository;
+    private User newUser;
+
+    @Setup
+    public void setUp() {
+        InMemoryDynamoDb dynamoDb = Fixtures.seededDynamoDb(UserService.TABLE_NAME, 1_000);
+        repository = new DynamoDbUserRepository(dynamoDb.async(), UserService.TABLE_NAME, UserService.UNIQUE_KEYS_TABLE_NAME);
+        newUser = Fixtures.user(5_000);
+    }
+
+    @Benchmark
+    public User findById() {
+        return repository.findById("user-42").join();
+    }
+
+    @Benchmark
+    public UserPage findPage() {
+        return repository.findPage(100, null).join();
+    }
+
+    @Benchmark
+    public User create() {
+        return repository.create(newUser).join();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.BatchCreateUsers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.example.UserService.UserService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.logging.RequestLogEntry;
+import com.example.model.BatchCreateUsersRequest;
+import com.example.model.BatchResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class BatchCreateUsersOperation implements ProxyOperation {
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    public BatchCreateUsersOperation(ObjectMapper objectMapper, UserService userService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+    }
+
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        BatchCreateUsersRequest batchRequest = request.readBody(objectMapper, BatchCreateUsersRequest.class);
+        log.items(batchRequest.getUsers() == null ? 0 : batchRequest.getUsers().size());
+        BatchResult result = userService.batchCreateUsers(batchRequest.getUsers());
+
+        log.failedItems(result.getFailed());
+        ProxyResponses.ok(outputStream, result);
+    }
+}
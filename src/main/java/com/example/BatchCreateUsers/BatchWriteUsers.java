@@ -0,0 +1,101 @@
+package com.example.BatchCreateUsers;
+
+import com.example.CreateUser.PutUniqueUser;
+import com.example.UserService.DuplicateUserException;
+import com.example.model.BatchItemResult;
+import com.example.model.User;
+import com.example.resilience.Backoff;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes users the way single creates do: each user is its own {@link PutUniqueUser} transaction, so
+ * its username and email are claimed with it and a taken one fails only that user. Users are split
+ * into 25-user chunks that run concurrently; throttled or conflicting transactions are retried with
+ * jittered exponential backoff, and a user that still could not be written is reported as a failed
+ * item rather than failing the whole batch.
+ */
+public class BatchWriteUsers {
+    public static final int MAX_ITEMS_PER_REQUEST = 25;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+    // Cancellation reasons worth resending the transaction for
+    private static final Set<String> RETRYABLE = Set.of("ThrottlingError", "TransactionConflict", "ProvisionedThroughputExceeded");
+
+    public static List<BatchItemResult> putUsers(DynamoDbClient ddb, String tableName, String uniqueKeysTableName,
+                                                 List<User> users, Executor executor) {
+        List<CompletableFuture<List<BatchItemResult>>> chunks = new ArrayList<>((users.size() + MAX_ITEMS_PER_REQUEST - 1) / MAX_ITEMS_PER_REQUEST);
+        for (int start = 0; start < users.size(); start += MAX_ITEMS_PER_REQUEST) {
+            List<User> chunk = users.subList(start, Math.min(start + MAX_ITEMS_PER_REQUEST, users.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> writeChunk(ddb, tableName, uniqueKeysTableName, chunk), executor));
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(users.size());
+        for (CompletableFuture<List<BatchItemResult>> chunk : chunks) {
+            results.addAll(chunk.join());
+        }
+        return results;
+    }
+
+    private static List<BatchItemResult> writeChunk(DynamoDbClient ddb, String tableName, String uniqueKeysTableName, List<User> chunk) {
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        for (User user : chunk) {
+            String error = putUser(ddb, tableName, uniqueKeysTableName, user);
+            results.add(error == null ? BatchItemResult.created(user) : BatchItemResult.failed(user.getUserId(), error));
+        }
+        return results;
+    }
+
+    // Returns null once the user is written, otherwise why it wasn't
+    private static String putUser(DynamoDbClient ddb, String tableName, String uniqueKeysTableName, User user) {
+        String error = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                try {
+                    Backoff.sleep(attempt - 1, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return "Interrupted while retrying";
+                }
+            }
+            try {
+                ddb.transactWriteItems(PutUniqueUser.transactionRequest(tableName, uniqueKeysTableName, user));
+                return null;
+            } catch (TransactionCanceledException e) {
+                RuntimeException translated = PutUniqueUser.translate(e, user);
+                if (translated instanceof DuplicateUserException || !retryable(e)) {
+                    return translated.getMessage();
+                }
+                error = e.getMessage();
+            } catch (ProvisionedThroughputExceededException | RequestLimitExceededException e) {
+                error = e.getMessage();
+            } catch (SdkException e) {
+                return e.getMessage();
+            }
+        }
+        return "Not written after " + MAX_ATTEMPTS + " attempts: " + error;
+    }
+
+    static boolean retryable(TransactionCanceledException e) {
+        if (!e.hasCancellationReasons()) {
+            return false;
+        }
+        for (CancellationReason reason : e.cancellationReasons()) {
+            if (RETRYABLE.contains(reason.code())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.BatchGetUsers;
+
+import com.example.model.User;
+import com.example.repository.UserItemMapper;
+import com.example.repository.UserProjection;
+import com.example.resilience.Backoff;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads users with BatchGetItem. Keys are split into 100-key chunks that run concurrently and
+ * UnprocessedKeys are retried with jittered exponential backoff.
+ */
+public class BatchGetUsers {
+    public static final int MAX_KEYS_PER_REQUEST = 100;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    public static class Result {
+        private final Map<String, User> found;
+        private final Map<String, String> failed;
+
+        public Result(Map<String, User> found, Map<String, String> failed) {
+            this.found = found;
+            this.failed = failed;
+        }
+
+        public Map<String, User> getFound() {
+            return found;
+        }
+
+        // userId -> error for keys that could not be read
+        public Map<String, String> getFailed() {
+            return failed;
+        }
+    }
+
+    // userIds must not contain duplicates; BatchGetItem rejects repeated keys
+    public static Result getUsers(DynamoDbClient ddb, String tableName, List<String> userIds, Executor executor) {
+        List<CompletableFuture<Result>> chunks = new ArrayList<>((userIds.size() + MAX_KEYS_PER_REQUEST - 1) / MAX_KEYS_PER_REQUEST);
+        for (int start = 0; start < userIds.size(); start += MAX_KEYS_PER_REQUEST) {
+            List<String> chunk = userIds.subList(start, Math.min(start + MAX_KEYS_PER_REQUEST, userIds.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> readChunk(ddb, tableName, chunk), executor));
+        }
+
+        Map<String, User> found = new HashMap<>(userIds.size() * 2);
+        Map<String, String> failed = new HashMap<>();
+        for (CompletableFuture<Result> chunk : chunks) {
+            Result result = chunk.join();
+            found.putAll(result.found);
+            failed.putAll(result.failed);
+        }
+        return new Result(found, failed);
+    }
+
+    private static Result readChunk(DynamoDbClient ddb, String tableName, List<String> chunk) {
+        List<Map<String, AttributeValue>> pending = new ArrayList<>(chunk.size());
+        for (String userId : chunk) {
+            pending.add(UserItemMapper.key(userId));
+        }
+
+        Map<String, User> found = new HashMap<>(chunk.size() * 2);
+        String error = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            if (attempt > 1) {
+                try {
+                    Backoff.sleep(attempt - 1, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = "Interrupted while retrying";
+                    break;
+                }
+            }
+            try {
+                BatchGetItemResponse response = ddb.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(Map.of(tableName, KeysAndAttributes.builder()
+                                .keys(pending)
+                                // A read API: the password hash is never fetched
+                                .projectionExpression(UserProjection.READABLE.projectionExpression())
+                                .expressionAttributeNames(UserProjection.READABLE.expressionAttributeNames())
+                                .build()))
+                        .build());
+                List<Map<String, AttributeValue>> items = response.responses().get(tableName);
+                if (items != null) {
+                    for (Map<String, AttributeValue> item : items) {
+                        User user = UserItemMapper.toUser(item, UserProjection.READABLE);
+                        found.put(user.getUserId(), user);
+                    }
+                }
+                KeysAndAttributes unprocessed = response.hasUnprocessedKeys()
+                        ? response.unprocessedKeys().get(tableName)
+                        : null;
+                pending = unprocessed == null ? List.of() : unprocessed.keys();
+                error = pending.isEmpty() ? null : "Unprocessed after " + attempt + " attempts";
+            } catch (ProvisionedThroughputExceededException | RequestLimitExceededException e) {
+                // No key in the chunk could be read; back off and resend all of them
+                error = e.getMessage();
+            } catch (SdkException e) {
+                error = e.getMessage();
+                break;
+            }
+        }
+
+        Map<String, String> failed = new HashMap<>();
+        for (Map<String, AttributeValue> key : pending) {
+            failed.put(key.get(UserItemMapper.USER_ID).s(), error);
+        }
+        return new Result(found, failed);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.BatchGetUsers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.example.UserService.UserService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.lambda.ResponseEncoding;
+import com.example.logging.RequestLogEntry;
+import com.example.model.BatchGetUsersRequest;
+import com.example.model.BatchResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class BatchGetUsersOperation implements ProxyOperation {
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    public BatchGetUsersOperation(ObjectMapper objectMapper, UserService userService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+    }
+
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        BatchGetUsersRequest batchRequest = request.readBody(objectMapper, BatchGetUsersRequest.class);
+        log.items(batchRequest.getUserIds() == null ? 0 : batchRequest.getUserIds().size());
+        BatchResult result = userService.batchGetUsers(batchRequest.getUserIds());
+
+        log.failedItems(result.getFailed());
+        ProxyResponses.ok(outputStream, result, ResponseEncoding.negotiate(request), null, null);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.CacheInvalidation;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.cache.CacheInvalidator;
+import com.example.cache.DynamoDbInvalidationFeed;
+import com.example.cache.InvalidationFeed;
+import com.example.cache.UserInvalidation;
+import com.example.config.DynamoDbClientProvider;
+import com.example.metrics.EmfMetrics;
+import com.example.metrics.UserMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Consumes the users table's DynamoDB stream and publishes every change to the cache
+ * invalidation feed, which each API node polls (see {@link CacheInvalidator}). It runs as its own
+ * function, beside the API router. A failed publish fails the batch so Lambda redelivers it;
+ * nodes apply the repeats harmlessly.
+ */
+public class LambdaHandler implements RequestStreamHandler {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final InvalidationFeed feed = new DynamoDbInvalidationFeed(DynamoDbClientProvider::get,
+            System.getenv().getOrDefault("USER_CACHE_INVALIDATIONS_TABLE", DynamoDbInvalidationFeed.TABLE_NAME));
+    private static final EmfMetrics emfMetrics = UserMetrics.enableEmf(System.getenv().getOrDefault("USER_METRICS_NAMESPACE", "UserService"));
+
+    @Override
+    public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) throws IOException {
+        try {
+            List<UserInvalidation> invalidations = StreamRecords.toInvalidations(objectMapper.readTree(inputStream), System.currentTimeMillis());
+            feed.publish(invalidations);
+            long now = System.currentTimeMillis();
+            for (UserInvalidation invalidation : invalidations) {
+                CacheInvalidator.recordLag(invalidation, now, "published");
+            }
+        } finally {
+            emfMetrics.flush(System.out);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.CacheInvalidation;
+
+import com.example.CreateUser.PutUniqueUser;
+import com.example.cache.UserInvalidation;
+import com.example.model.User;
+import com.example.repository.UserItemMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a DynamoDB Streams event for the users table (NEW_AND_OLD_IMAGES) into invalidations.
+ * The event is walked as a Jackson tree instead of through aws-lambda-java-events, which would
+ * be a dependency for the handful of fields used here.
+ */
+final class StreamRecords {
+
+    private StreamRecords() {
+    }
+
+    static List<UserInvalidation> toInvalidations(JsonNode event, long publishedAt) {
+        JsonNode records = event.path("Records");
+        List<UserInvalidation> invalidations = new ArrayList<>(records.size());
+        for (JsonNode record : records) {
+            UserInvalidation invalidation = toInvalidation(record, publishedAt);
+            if (invalidation != null) {
+                invalidations.add(invalidation);
+            }
+        }
+        return invalidations;
+    }
+
+    // Null for a record without a userId key, which the users table never produces
+    static UserInvalidation toInvalidation(JsonNode record, long publishedAt) {
+        JsonNode change = record.path("dynamodb");
+        String userId = change.path("Keys").path(UserItemMapper.USER_ID).path("S").asText(null);
+        if (userId == null) {
+            return null;
+        }
+        boolean deleted = "REMOVE".equals(record.path("eventName").asText());
+        User oldImage = image(change.path("OldImage"));
+        User newImage = image(change.path("NewImage"));
+
+        // Old and new: a freed username must stop resolving, a taken one must stop missing
+        Set<String> uniqueKeys = new LinkedHashSet<>();
+        for (User image : new User[]{oldImage, newImage}) {
+            if (image != null && image.getUsername() != null) {
+                uniqueKeys.add(PutUniqueUser.usernameKey(image.getUsername()));
+            }
+            if (image != null && image.getEmail() != null) {
+                uniqueKeys.add(PutUniqueUser.emailKey(image.getEmail()));
+            }
+        }
+        Long version = deleted || newImage == null ? null : newImage.getVersion();
+        // Epoch seconds; without it the change is dated at publication
+        JsonNode created = change.path("ApproximateCreationDateTime");
+        long changedAt = created.isNumber() ? (long) (created.asDouble() * 1000) : publishedAt;
+        return new UserInvalidation(userId, version, deleted, List.copyOf(uniqueKeys), changedAt, publishedAt);
+    }
+
+    // Only the string and number attributes a user item has
+    private static User image(JsonNode image) {
+        if (!image.isObject()) {
+            return null;
+        }
+        Map<String, AttributeValue> item = new HashMap<>(16);
+        image.fields().forEachRemaining(field -> {
+            JsonNode value = field.getValue();
+            if (value.hasNonNull("S")) {
+                item.put(field.getKey(), AttributeValue.fromS(value.get("S").asText()));
+            } else if (value.hasNonNull("N")) {
+                item.put(field.getKey(), AttributeValue.fromN(value.get("N").asText()));
+            }
+        });
+        return UserItemMapper.toUser(item);
+    }
+}
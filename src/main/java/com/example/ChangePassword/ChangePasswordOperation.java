@@ -0,0 +1,50 @@
+package com.example.ChangePassword;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import com.example.UserService.UserService;
+import com.example.auth.TokenService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.logging.RequestLogEntry;
+import com.example.model.NewPassword;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ChangePasswordOperation implements ProxyOperation {
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+    private final TokenService tokenService;
+
+    public ChangePasswordOperation(ObjectMapper objectMapper, UserService userService, TokenService tokenService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+        this.tokenService = tokenService;
+    }
+
+    // A weak password is a 400, a wrong current password a 403 and a full hashing queue a 503, all mapped by the router
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        Map<String, String> pathParameters = request.getPathParameters();
+        if (!pathParameters.containsKey("userId")) {
+            log.status(400);
+            ProxyResponses.error(outputStream, 400, "No userId provided in pathParameters");
+            return;
+        }
+
+        String userId = pathParameters.get("userId");
+        log.userId(userId);
+        NewPassword newPassword = request.readBody(objectMapper, NewPassword.class);
+        if (!userService.changePassword(userId, newPassword)) {
+            log.status(404);
+            ProxyResponses.error(outputStream, 404, "User not found");
+            return;
+        }
+        // Tokens issued under the old password, possibly to someone else, stop working everywhere
+        tokenService.revokeAll(userId);
+        ProxyResponses.text(outputStream, "Password changed for user " + userId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ChangePassword;
+
+import com.example.repository.UserItemMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a new password hash. The version is left alone: it guards the profile attributes the
+ * read APIs return, and the password is never one of them.
+ */
+public class UpdatePasswordItem {
+
+    // With an expected hash (a rehash at login) the write only lands if nobody changed the password since it was read
+    public static UpdateItemRequest updateRequest(String tableName, String userId, String passwordHash, String expectedHash) {
+        Map<String, String> names = new HashMap<>(4);
+        Map<String, AttributeValue> values = new HashMap<>(4);
+        names.put("#password", UserItemMapper.PASSWORD);
+        values.put(":password", AttributeValue.fromS(passwordHash));
+        String condition;
+        if (expectedHash == null) {
+            names.put("#userId", UserItemMapper.USER_ID);
+            condition = "attribute_exists(#userId)";
+        } else {
+            values.put(":expected", AttributeValue.fromS(expectedHash));
+            condition = "#password = :expected";
+        }
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(UserItemMapper.key(userId))
+                .updateExpression("SET #password = :password")
+                .conditionExpression(condition)
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build();
+    }
+}
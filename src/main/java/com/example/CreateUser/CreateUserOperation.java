@@ -0,0 +1,34 @@
+package com.example.CreateUser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.example.UserService.UserService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.logging.RequestLogEntry;
+import com.example.model.User;
+import com.example.model.UserView;
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CreateUserOperation implements ProxyOperation {
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    public CreateUserOperation(ObjectMapper objectMapper, UserService userService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+    }
+
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        User user = request.readBody(objectMapper, User.class);
+        User createdUser = userService.createUser(user);
+        log.user(createdUser);
+
+        ProxyResponses.ok(outputStream, new UserView(createdUser, UserProjection.READABLE));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.CreateUser;
+
+import com.example.UserService.DuplicateUserException;
+import com.example.model.User;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates a user and claims its username and email in one transaction. Each claim is a marker
+ * item in the unique-keys table ("username#bob" -> userId), written only if it doesn't exist yet,
+ * so two concurrent creates can never end up sharing a username or email.
+ */
+public class PutUniqueUser {
+    public static final String UNIQUE_KEY_ATTRIBUTE = "uniqueKey";
+    public static final String OWNER_ATTRIBUTE = "userId";
+
+    public static String usernameKey(String username) {
+        return "username#" + username;
+    }
+
+    public static String emailKey(String email) {
+        return "email#" + email;
+    }
+
+    public static void putUser(DynamoDbClient ddb, String tableName, String uniqueKeysTableName, User user) {
+        try {
+            ddb.transactWriteItems(transactionRequest(tableName, uniqueKeysTableName, user));
+        } catch (TransactionCanceledException e) {
+            throw translate(e, user);
+        }
+    }
+
+    public static TransactWriteItemsRequest transactionRequest(String tableName, String uniqueKeysTableName, User user) {
+        List<TransactWriteItem> items = new ArrayList<>(3);
+        items.add(TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(tableName)
+                        .item(PutUserItem.toItem(user))
+                        .conditionExpression("attribute_not_exists(userId)")
+                        .build())
+                .build());
+        if (user.getUsername() != null) {
+            items.add(claim(uniqueKeysTableName, usernameKey(user.getUsername()), user.getUserId()));
+        }
+        if (user.getEmail() != null) {
+            items.add(claim(uniqueKeysTableName, emailKey(user.getEmail()), user.getUserId()));
+        }
+
+        return TransactWriteItemsRequest.builder()
+                .transactItems(items)
+                .build();
+    }
+
+    // Turns a lost username/email claim into a DuplicateUserException; anything else is returned as-is
+    public static RuntimeException translate(TransactionCanceledException e, User user) {
+        List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+        // Reasons are positional: [user, username?, email?]
+        int index = 1;
+        if (user.getUsername() != null) {
+            if (isConditionFailure(reasons, index)) {
+                return new DuplicateUserException("username", user.getUsername());
+            }
+            index++;
+        }
+        if (user.getEmail() != null && isConditionFailure(reasons, index)) {
+            return new DuplicateUserException("email", user.getEmail());
+        }
+        return e;
+    }
+
+    public static TransactWriteItem claim(String uniqueKeysTableName, String uniqueKey, String userId) {
+        return TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(uniqueKeysTableName)
+                        .item(Map.of(
+                                UNIQUE_KEY_ATTRIBUTE, AttributeValue.builder().s(uniqueKey).build(),
+                                OWNER_ATTRIBUTE, AttributeValue.builder().s(userId).build()))
+                        .conditionExpression("attribute_not_exists(" + UNIQUE_KEY_ATTRIBUTE + ")")
+                        .build())
+                .build();
+    }
+
+    private static boolean isConditionFailure(List<CancellationReason> reasons, int index) {
+        return index < reasons.size() && "ConditionalCheckFailed".equals(reasons.get(index).code());
+    }
+}
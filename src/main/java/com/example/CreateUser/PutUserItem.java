@@ -1,12 +1,12 @@
 package com.example.CreateUser;
 
-import software.amazon.awssdk.regions.Region;
+import com.example.model.User;
+import com.example.config.DynamoDbClientProvider;
+import com.example.repository.UserItemMapper;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
-import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
 
 import java.util.HashMap;
 
@@ -28,8 +28,7 @@ public class PutUserItem {
 
     public void execute(String[] args) {
         if (args.length != 8) {
-            System.out.println(USAGE);
-            System.exit(1);
+            throw new IllegalArgumentException(USAGE);
         }
 
         String tableName = args[0];
@@ -41,14 +40,10 @@ public class PutUserItem {
         String email = args[6];
         String createdAt = args[7];
 
-        Region region = Region.US_EAST_2;
-        DynamoDbClient ddb = DynamoDbClient.builder()
-                .region(region)
-                .build();
+        DynamoDbClient ddb = DynamoDbClientProvider.get();
 
         putUserItemInTable(ddb, tableName, userId, firstName, lastName, username, password, email, createdAt);
         System.out.println("Done!");
-        ddb.close();
     }
 
     public static void putUserItemInTable(DynamoDbClient ddb,
@@ -61,33 +56,21 @@ public class PutUserItem {
                                           String email,
                                           String createdAt) {
 
-        HashMap<String, AttributeValue> itemValues = new HashMap<>();
-        itemValues.put("userId", AttributeValue.builder().s(userId).build());
-        itemValues.put("firstName", AttributeValue.builder().s(firstName).build());
-        itemValues.put("lastName", AttributeValue.builder().s(lastName).build());
-        itemValues.put("username", AttributeValue.builder().s(username).build());
-        itemValues.put("password", AttributeValue.builder().s(password).build());
-        itemValues.put("email", AttributeValue.builder().s(email).build());
-        itemValues.put("createdAt", AttributeValue.builder().s(createdAt).build());
+        HashMap<String, AttributeValue> itemValues =
+                toItem(new User(userId, firstName, lastName, username, password, email, createdAt));
 
         PutItemRequest request = PutItemRequest.builder()
                 .tableName(tableName)
                 .item(itemValues)
                 .build();
 
-        try {
-            PutItemResponse response = ddb.putItem(request);
-            System.out.println(tableName + " was successfully updated. The request id is " + response.responseMetadata().requestId());
+        // Failures (a missing table, throttling after the client's retries) propagate to the caller;
+        // exiting here would take the whole Lambda container down with the request
+        PutItemResponse response = ddb.putItem(request);
+        System.out.println(tableName + " was successfully updated. The request id is " + response.responseMetadata().requestId());
+    }
 
-        } catch (ResourceNotFoundException e) {
-            System.err.format("Error: The Amazon DynamoDB table \"%s\" can't be found.\n", tableName);
-            System.err.println("Be sure that it exists and that you've typed its name correctly!");
-            System.exit(1);
-        } catch (DynamoDbException e) {
-            System.err.println("Error putting item in DynamoDB");
-            System.err.println(e.getMessage());
-            e.printStackTrace();
-            System.exit(1);
-        }
+    public static HashMap<String, AttributeValue> toItem(User user) {
+        return UserItemMapper.toItem(user);
     }
 }
@@ -1,13 +1,33 @@
 package com.example.DeleteUser;
 
-import software.amazon.awssdk.regions.Region;
+import com.example.CreateUser.PutUniqueUser;
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.VersionConflictException;
+import com.example.config.DynamoDbClientProvider;
+import com.example.repository.UserItemMapper;
+import com.example.repository.UserProjection;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DeleteUser {
+    // Reads and deletes per call when a concurrent write keeps moving the version without If-Match
+    public static final int MAX_ATTEMPTS = 3;
+
+    private static final UserProjection CLAIMED_ATTRIBUTES = UserProjection.of(
+            UserProjection.Attribute.USERNAME, UserProjection.Attribute.EMAIL, UserProjection.Attribute.VERSION);
 
     public static void execute(String[] args) {
         final String usage = """
@@ -21,27 +41,17 @@ public class DeleteUser {
                 """;
 
         if (args.length != 3) {
-            System.out.println(usage);
-            System.exit(1);
+            throw new IllegalArgumentException(usage);
         }
 
         String tableName = args[0];
         String key = args[1];
         String keyVal = args[2];
 
-        Region region = Region.US_EAST_2;
-        DynamoDbClient ddb = DynamoDbClient.builder()
-                .region(region)
-                .build();
+        DynamoDbClient ddb = DynamoDbClientProvider.get();
 
-        try {
-            deleteUser(ddb, tableName, key, keyVal);
-            System.out.format("Item \"%s\" deleted successfully from table \"%s\"\n", keyVal, tableName);
-        } catch (DynamoDbException e) {
-            System.err.println("Error deleting item: " + e.getMessage());
-        } finally {
-            ddb.close();
-        }
+        deleteUser(ddb, tableName, key, keyVal);
+        System.out.format("Item \"%s\" deleted successfully from table \"%s\"\n", keyVal, tableName);
     }
 
     public static void deleteUser(DynamoDbClient ddb, String tableName, String key, String keyVal) {
@@ -55,4 +65,119 @@ public class DeleteUser {
 
         ddb.deleteItem(deleteRequest);
     }
-}
\ No newline at end of file
+
+    // Deletes the user and releases its username/email claims; returns false if the user didn't exist
+    public static boolean deleteUserAndReleaseKeys(DynamoDbClient ddb, String tableName, String uniqueKeysTableName, String userId) {
+        for (int attempt = 1; ; attempt++) {
+            GetItemResponse existing = ddb.getItem(existingUserRequest(tableName, userId));
+            if (!existing.hasItem() || existing.item().isEmpty()) {
+                return false;
+            }
+            try {
+                ddb.transactWriteItems(deleteTransaction(tableName, uniqueKeysTableName, userId, existing.item()));
+                return true;
+            } catch (TransactionCanceledException e) {
+                if (attempt >= MAX_ATTEMPTS || !versionChanged(e)) {
+                    throw translate(e, userId, existing.item());
+                }
+            }
+        }
+    }
+
+    // Consistent read, so the claims released are the ones currently held; only the claimed attributes
+    // and the version (for If-Match deletes) are fetched
+    public static GetItemRequest existingUserRequest(String tableName, String userId) {
+        return GetItemRequest.builder()
+                .tableName(tableName)
+                .key(UserItemMapper.key(userId))
+                .projectionExpression(CLAIMED_ATTRIBUTES.projectionExpression())
+                .expressionAttributeNames(CLAIMED_ATTRIBUTES.expressionAttributeNames())
+                .consistentRead(true)
+                .build();
+    }
+
+    // The user delete is always conditional on the version in existing. The claims released are the ones
+    // read with it, so a write since the read (say, a username change) must cancel the transaction rather
+    // than delete the user and leave its new claims orphaned. 0 stands for a user stored before versioning
+    public static TransactWriteItemsRequest deleteTransaction(String tableName, String uniqueKeysTableName, String userId,
+                                                              Map<String, AttributeValue> existing) {
+        List<TransactWriteItem> items = new ArrayList<>(3);
+        long version = versionOf(existing);
+        Delete.Builder delete = Delete.builder()
+                .tableName(tableName)
+                .key(UserItemMapper.key(userId));
+        if (version == 0) {
+            delete.conditionExpression("attribute_not_exists(#version)")
+                    .expressionAttributeNames(Map.of("#version", UserItemMapper.VERSION));
+        } else {
+            delete.conditionExpression("#version = :version")
+                    .expressionAttributeNames(Map.of("#version", UserItemMapper.VERSION))
+                    .expressionAttributeValues(Map.of(":version", AttributeValue.builder().n(Long.toString(version)).build()));
+        }
+        items.add(TransactWriteItem.builder().delete(delete.build()).build());
+        String username = claimed(existing, UserItemMapper.USERNAME);
+        if (username != null) {
+            items.add(release(uniqueKeysTableName, PutUniqueUser.usernameKey(username), userId));
+        }
+        String email = claimed(existing, UserItemMapper.EMAIL);
+        if (email != null) {
+            items.add(release(uniqueKeysTableName, PutUniqueUser.emailKey(email), userId));
+        }
+        return TransactWriteItemsRequest.builder().transactItems(items).build();
+    }
+
+    public static long versionOf(Map<String, AttributeValue> existing) {
+        AttributeValue version = existing.get(UserItemMapper.VERSION);
+        return version == null || version.n() == null ? 0 : Long.parseLong(version.n());
+    }
+
+    // The user delete is the first item; its condition only fails on a version change (or a concurrent delete)
+    public static boolean versionChanged(TransactionCanceledException e) {
+        List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+        return !reasons.isEmpty() && "ConditionalCheckFailed".equals(reasons.get(0).code());
+    }
+
+    // Reasons are positional: [user, username release?, email release?]. A release only fails when another
+    // user holds the claim (data written before claims existed), which is a conflict, not a server error
+    public static RuntimeException translate(TransactionCanceledException e, String userId, Map<String, AttributeValue> existing) {
+        if (versionChanged(e)) {
+            return new VersionConflictException(userId, versionOf(existing), null);
+        }
+        List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+        int index = 1;
+        String username = claimed(existing, UserItemMapper.USERNAME);
+        if (username != null) {
+            if (isConditionFailure(reasons, index)) {
+                return new DuplicateUserException("username", username);
+            }
+            index++;
+        }
+        String email = claimed(existing, UserItemMapper.EMAIL);
+        if (email != null && isConditionFailure(reasons, index)) {
+            return new DuplicateUserException("email", email);
+        }
+        return e;
+    }
+
+    private static String claimed(Map<String, AttributeValue> existing, String attribute) {
+        AttributeValue value = existing.get(attribute);
+        return value == null ? null : value.s();
+    }
+
+    private static boolean isConditionFailure(List<CancellationReason> reasons, int index) {
+        return index < reasons.size() && "ConditionalCheckFailed".equals(reasons.get(index).code());
+    }
+
+    public static TransactWriteItem release(String uniqueKeysTableName, String uniqueKey, String userId) {
+        // Only release a claim this user still owns
+        return TransactWriteItem.builder()
+                .delete(Delete.builder()
+                        .tableName(uniqueKeysTableName)
+                        .key(Map.of(PutUniqueUser.UNIQUE_KEY_ATTRIBUTE, AttributeValue.builder().s(uniqueKey).build()))
+                        .conditionExpression("attribute_not_exists(#owner) OR #owner = :userId")
+                        .expressionAttributeNames(Map.of("#owner", PutUniqueUser.OWNER_ATTRIBUTE))
+                        .expressionAttributeValues(Map.of(":userId", AttributeValue.builder().s(userId).build()))
+                        .build())
+                .build();
+    }
+}
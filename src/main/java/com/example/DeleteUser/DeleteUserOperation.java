@@ -0,0 +1,52 @@
+package com.example.DeleteUser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import com.example.UserService.PreconditionFailedException;
+import com.example.UserService.UserService;
+import com.example.UserService.VersionConflictException;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.logging.RequestLogEntry;
+import com.example.model.ETags;
+
+public class DeleteUserOperation implements ProxyOperation {
+
+    private final UserService userService;
+
+    public DeleteUserOperation(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        Map<String, String> pathParameters = request.getPathParameters();
+        if (!pathParameters.containsKey("userId")) {
+            log.status(400);
+            ProxyResponses.error(outputStream, 400, "No userId provided in pathParameters");
+            return;
+        }
+
+        String userId = pathParameters.get("userId");
+        log.userId(userId);
+        // With If-Match only that version (or, for *, an existing user) is deleted
+        String ifMatch = request.getHeader("If-Match");
+        boolean deleted;
+        try {
+            deleted = userService.deleteUser(userId, ETags.requiredVersion(ifMatch));
+        } catch (VersionConflictException e) {
+            if (ifMatch != null) {
+                throw new PreconditionFailedException(e.getMessage());
+            }
+            throw e;
+        }
+        if (!deleted && ifMatch != null) {
+            throw new PreconditionFailedException("No user with ID " + userId);
+        }
+
+        ProxyResponses.text(outputStream, "User with ID " + userId + " deleted successfully");
+    }
+}
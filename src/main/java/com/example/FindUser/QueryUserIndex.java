@@ -0,0 +1,49 @@
+package com.example.FindUser;
+
+import com.example.model.User;
+import com.example.repository.UserItemMapper;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.Map;
+
+/**
+ * Looks users up through the username and email global secondary indexes. Both indexes project
+ * all attributes, so one Query returns the whole user without a follow-up GetItem.
+ */
+public class QueryUserIndex {
+    public static final String USERNAME_INDEX = "username-index";
+    public static final String EMAIL_INDEX = "email-index";
+
+    public static User findByUsername(DynamoDbClient ddb, String tableName, String username) {
+        return queryIndex(ddb, tableName, USERNAME_INDEX, "username", username);
+    }
+
+    public static User findByEmail(DynamoDbClient ddb, String tableName, String email) {
+        return queryIndex(ddb, tableName, EMAIL_INDEX, "email", email);
+    }
+
+    private static User queryIndex(DynamoDbClient ddb, String tableName, String indexName, String attribute, String value) {
+        return firstUser(ddb.query(indexQuery(tableName, indexName, attribute, value)));
+    }
+
+    public static QueryRequest indexQuery(String tableName, String indexName, String attribute, String value) {
+        return QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(indexName)
+                .keyConditionExpression("#key = :value")
+                .expressionAttributeNames(Map.of("#key", attribute))
+                .expressionAttributeValues(Map.of(":value", AttributeValue.builder().s(value).build()))
+                .limit(1)
+                .build();
+    }
+
+    public static User firstUser(QueryResponse response) {
+        if (response.items().isEmpty()) {
+            return null;
+        }
+        return UserItemMapper.toUser(response.items().get(0));
+    }
+}
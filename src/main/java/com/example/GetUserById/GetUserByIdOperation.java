@@ -0,0 +1,65 @@
+package com.example.GetUserById;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import com.example.UserService.UserService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.lambda.ResponseEncoding;
+import com.example.logging.RequestLogEntry;
+import com.example.model.ETags;
+import com.example.model.User;
+import com.example.model.UserView;
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class GetUserByIdOperation implements ProxyOperation {
+
+    private static final Map<String, String> NOT_FOUND_BODY = Map.of("error", "User not found");
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    public GetUserByIdOperation(ObjectMapper objectMapper, UserService userService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+    }
+
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        Map<String, String> pathParameters = request.getPathParameters();
+        if (!pathParameters.containsKey("userId")) {
+            log.status(400);
+            ProxyResponses.error(outputStream, 400, "No userId provided in pathParameters");
+            return;
+        }
+
+        String userId = pathParameters.get("userId");
+        log.userId(userId);
+        UserProjection projection;
+        try {
+            projection = UserProjection.readable(request.getQueryStringParameters().get("fields"));
+        } catch (IllegalArgumentException e) {
+            log.status(400).error(e);
+            ProxyResponses.error(outputStream, 400, e.getMessage());
+            return;
+        }
+        User user = userService.getUserById(userId, projection);
+        if (user != null) {
+            log.user(user);
+            String etag = ETags.of(user, projection);
+            if (ETags.noneMatchFails(request.getHeader("If-None-Match"), etag)) {
+                log.status(304);
+                ProxyResponses.notModified(outputStream, etag, ETags.CACHE_REVALIDATE);
+                return;
+            }
+            ProxyResponses.ok(outputStream, new UserView(user, projection), ResponseEncoding.negotiate(request), etag,
+                    ETags.CACHE_REVALIDATE);
+        } else {
+            ProxyResponses.ok(outputStream, NOT_FOUND_BODY);
+        }
+    }
+}
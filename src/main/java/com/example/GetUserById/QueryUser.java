@@ -1,14 +1,12 @@
 package com.example.GetUserById;
 
 import com.example.model.User;
-import software.amazon.awssdk.regions.Region;
+import com.example.config.DynamoDbClientProvider;
+import com.example.repository.UserItemMapper;
+import com.example.repository.UserProjection;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 public class QueryUser {
 
     public static User execute(String[] args) {
@@ -22,69 +20,54 @@ public class QueryUser {
                     userId - The unique identifier of the user to retrieve.
                 """;
         if (args.length != 2) {
-            System.out.println(usage);
-            System.exit(1);
+            throw new IllegalArgumentException(usage);
         }
 
         String tableName = args[0];
         String userId = args[1];
         System.out.println("Querying user with ID: " + userId + " from table: " + tableName);
-        // Set up your DynamoDB client and region
-        Region region = Region.US_EAST_2;
-        DynamoDbClient ddb = DynamoDbClient.builder()
-                .region(region)
-                .build();
+        // Reuse the shared, warm DynamoDB client
+        DynamoDbClient ddb = DynamoDbClientProvider.get();
 
         // Call the method to query the user item from DynamoDB
         return getUserItemByIdFromDynamoDB(ddb, tableName, userId);
     }
 
+    // null means no such user; a DynamoDB failure is thrown rather than passed off as a missing user
     public static User getUserItemByIdFromDynamoDB(DynamoDbClient ddb, String tableName, String userId) {
-        // Set up mapping of the partition name with the value.
-        HashMap<String, String> attrNameAlias = new HashMap<>();
-        attrNameAlias.put("#userId", "userId");
+        User user = toUser(ddb.getItem(getItemRequest(tableName, userId)));
+        if (user == null) {
+            System.out.format("No item found with the userId: %s!\n", userId);
+        }
+        return user;
+    }
 
-        // Set up mapping of the partition name with the value.
-        HashMap<String, AttributeValue> attrValues = new HashMap<>();
-        attrValues.put(":userId", AttributeValue.builder().s(userId).build());
+    // userId is the table's partition key, so a single GetItem replaces the Query
+    public static GetItemRequest getItemRequest(String tableName, String userId) {
+        return getItemRequest(tableName, userId, UserProjection.ALL);
+    }
 
-        QueryRequest queryRequest = QueryRequest.builder()
+    // Only the projected attributes are read and transferred
+    public static GetItemRequest getItemRequest(String tableName, String userId, UserProjection projection) {
+        GetItemRequest.Builder request = GetItemRequest.builder()
                 .tableName(tableName)
-                .keyConditionExpression("#userId = :userId")
-                .expressionAttributeNames(attrNameAlias)
-                .expressionAttributeValues(attrValues)
-                .build();
+                .key(UserItemMapper.key(userId));
+        if (!projection.isAll()) {
+            request.projectionExpression(projection.projectionExpression())
+                    .expressionAttributeNames(projection.expressionAttributeNames());
+        }
+        return request.build();
+    }
 
-        try {
-            QueryResponse response = ddb.query(queryRequest);
-            List<Map<String, AttributeValue>> items = response.items();
+    public static User toUser(GetItemResponse response) {
+        return toUser(response, UserProjection.ALL);
+    }
 
-            if (items.isEmpty()) {
-                System.out.format("No item found with the userId: %s!\n", userId);
-                return null;
-            } else {
-                // Assuming userId is unique, take the first item from the list
-                Map<String, AttributeValue> item = items.get(0);
-                // Construct and return the User object
-                return mapToUser(item);
-            }
-        } catch (DynamoDbException e) {
-            System.err.println(e.getMessage());
-            // Handle the exception according to your application's requirements
+    public static User toUser(GetItemResponse response, UserProjection projection) {
+        if (!response.hasItem() || response.item().isEmpty()) {
             return null;
         }
-    }
-
-    private static User mapToUser(Map<String, AttributeValue> item) {
-        // Construct and return the User object based on the item attributes
-        return new User(
-                item.get("userId").s(),
-                item.get("firstName").s(),
-                item.get("lastName").s(),
-                item.get("username").s(),
-                item.get("password").s(),
-                item.get("email").s(),
-                item.get("createdAt").s()
-        );
+        // Construct and return the User object
+        return UserItemMapper.toUser(response.item(), projection);
     }
 }
@@ -1,16 +1,19 @@
 package com.example.ListUsers;
 
 import com.example.model.User;
-import software.amazon.awssdk.regions.Region;
+import com.example.model.UserPage;
+import com.example.config.DynamoDbClientProvider;
+import com.example.repository.UserItemMapper;
+import com.example.repository.UserProjection;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
 import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class GetAllUsers {
 
@@ -25,17 +28,13 @@ public class GetAllUsers {
                 userId - The unique identifier of the user to retrieve.
             """;
         if (args.length != 1) {
-            System.out.println(usage);
-            System.exit(1);
+            throw new IllegalArgumentException(usage);
         }
 
         String tableName = args[0];
         System.out.println("Querying all users from table: " + tableName);
-        // Set up your DynamoDB client and region
-        Region region = Region.US_EAST_2;
-        DynamoDbClient ddb = DynamoDbClient.builder()
-                .region(region)
-                .build();
+        // Reuse the shared, warm DynamoDB client
+        DynamoDbClient ddb = DynamoDbClientProvider.get();
 
         // Call the method to query all user items from DynamoDB
         return getAllUserItemsFromDynamoDB(ddb, tableName);
@@ -48,32 +47,72 @@ public class GetAllUsers {
                 .tableName(tableName)
                 .build();
 
-        try {
-            ScanResponse response = ddb.scan(scanRequest);
-            List<Map<String, AttributeValue>> items = response.items();
-
-            for (Map<String, AttributeValue> item : items) {
+        // Follow LastEvaluatedKey so the result isn't truncated at the 1 MB scan page. A failure is
+        // thrown: null would read as "no users" to the caller
+        for (ScanResponse response : ddb.scanPaginator(scanRequest)) {
+            for (Map<String, AttributeValue> item : response.items()) {
                 // Construct User object for each item and add to the userList
-                userList.add(mapToUser(item));
+                userList.add(UserItemMapper.toUser(item));
             }
+        }
+
+        return userList;
+    }
+
+    public static UserPage getUserPage(DynamoDbClient ddb, String tableName, int limit, String cursor) {
+        return toPage(ddb.scan(pageRequest(tableName, limit, cursor)));
+    }
+
+    public static ScanRequest pageRequest(String tableName, int limit, String cursor) {
+        return pageRequest(tableName, limit, cursor, UserProjection.ALL);
+    }
 
-            return userList;
-        } catch (DynamoDbException e) {
-            System.err.println(e.getMessage());
-            // Handle the exception according to your application's requirements
-            return null;
+    public static ScanRequest pageRequest(String tableName, int limit, String cursor, UserProjection projection) {
+        ScanRequest.Builder scanRequest = ScanRequest.builder()
+                .tableName(tableName)
+                .limit(limit);
+        if (cursor != null && !cursor.isEmpty()) {
+            scanRequest.exclusiveStartKey(PageCursor.decode(cursor));
         }
+        return project(scanRequest, projection).build();
     }
 
-    private static User mapToUser(Map<String, AttributeValue> item) {
-        String userId = item.containsKey("userId") ? item.get("userId").s() : null;
-        String firstName = item.containsKey("firstName") ? item.get("firstName").s() : null;
-        String lastName = item.containsKey("lastName") ? item.get("lastName").s() : null;
-        String username = item.containsKey("username") ? item.get("username").s() : null;
-        String password = item.containsKey("password") ? item.get("password").s() : null;
-        String email = item.containsKey("email") ? item.get("email").s() : null;
-        String createdAt = item.containsKey("createdAt") ? item.get("createdAt").s() : null;
+    public static UserPage toPage(ScanResponse response) {
+        return toPage(response, UserProjection.ALL);
+    }
 
-        return new User(userId, firstName, lastName, username, password, email, createdAt);
+    public static UserPage toPage(ScanResponse response, UserProjection projection) {
+        List<User> users = new ArrayList<>(response.count());
+        for (Map<String, AttributeValue> item : response.items()) {
+            users.add(UserItemMapper.toUser(item, projection));
+        }
+
+        String nextCursor = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                ? PageCursor.encode(response.lastEvaluatedKey())
+                : null;
+        return new UserPage(users, nextCursor);
+    }
+
+    // Hands each user to the consumer one scan page at a time; only the current page is held in memory
+    public static void forEachUser(DynamoDbClient ddb, String tableName, Consumer<User> consumer) {
+        forEachUser(ddb, tableName, UserProjection.ALL, consumer);
+    }
+
+    public static void forEachUser(DynamoDbClient ddb, String tableName, UserProjection projection, Consumer<User> consumer) {
+        ScanRequest scanRequest = project(ScanRequest.builder().tableName(tableName), projection).build();
+
+        for (ScanResponse response : ddb.scanPaginator(scanRequest)) {
+            for (Map<String, AttributeValue> item : response.items()) {
+                consumer.accept(UserItemMapper.toUser(item, projection));
+            }
+        }
+    }
+
+    private static ScanRequest.Builder project(ScanRequest.Builder scanRequest, UserProjection projection) {
+        if (!projection.isAll()) {
+            scanRequest.projectionExpression(projection.projectionExpression())
+                    .expressionAttributeNames(projection.expressionAttributeNames());
+        }
+        return scanRequest;
     }
 }
\ No newline at end of file
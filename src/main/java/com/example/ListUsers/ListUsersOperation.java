@@ -0,0 +1,86 @@
+package com.example.ListUsers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import com.example.UserService.UserService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.lambda.ResponseEncoding;
+import com.example.lambda.StreamingProxyResponse;
+import com.example.logging.RequestLogEntry;
+import com.example.model.ETags;
+import com.example.model.UserPage;
+import com.example.model.UserView;
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ListUsersOperation implements ProxyOperation {
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    public ListUsersOperation(ObjectMapper objectMapper, UserService userService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+    }
+
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        Map<String, String> queryParameters = request.getQueryStringParameters();
+        UserProjection projection;
+        try {
+            projection = UserProjection.readable(queryParameters.get("fields"));
+        } catch (IllegalArgumentException e) {
+            log.status(400).error(e);
+            ProxyResponses.error(outputStream, 400, e.getMessage());
+            return;
+        }
+        // JSON unless Accept asks for Smile or CBOR; gzipped when accepted and worth it
+        ResponseEncoding encoding = ResponseEncoding.negotiate(request);
+        if (Boolean.parseBoolean(queryParameters.get("export"))) {
+            // Built in full before anything is sent: a read that fails part way still gets a clean error, and
+            // Lambda can't return more than 6 MB however the body is produced
+            try {
+                StreamingProxyResponse.writeBuffered(objectMapper, outputStream, 200, null, ETags.CACHE_NONE, encoding,
+                        StreamingProxyResponse.MAX_RESPONSE_BYTES, generator -> exportUsers(generator, projection));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(e.getMessage()
+                        + "; page through GET /users with limit and cursor instead", e);
+            }
+            return;
+        }
+
+        Integer limit = queryParameters.get("limit") != null
+                ? Integer.valueOf(queryParameters.get("limit"))
+                : null;
+        String cursor = queryParameters.get("cursor");
+
+        UserPage page = userService.listUsers(limit, cursor, projection);
+        String etag = ETags.of(page, projection);
+        if (ETags.noneMatchFails(request.getHeader("If-None-Match"), etag)) {
+            log.status(304);
+            ProxyResponses.notModified(outputStream, etag, ETags.CACHE_REVALIDATE);
+            return;
+        }
+        log.items(page.getUsers().size());
+        StreamingProxyResponse.write(objectMapper, outputStream, 200, etag, ETags.CACHE_REVALIDATE, encoding,
+                generator -> generator.writeObject(new UserView.Page(page, projection)));
+    }
+
+    private void exportUsers(JsonGenerator generator, UserProjection projection) throws IOException {
+        generator.writeStartArray();
+        userService.exportUsers(projection, user -> {
+            try {
+                UserView.write(generator, user, projection);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndArray();
+    }
+}
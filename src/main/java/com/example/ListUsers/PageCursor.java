@@ -0,0 +1,56 @@
+package com.example.ListUsers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for paged scans. The token is the scan's LastEvaluatedKey
+ * (string key attributes only) as URL-safe base64 JSON, so clients can't depend on its shape.
+ */
+public final class PageCursor {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> KEY_TYPE = new TypeReference<>() {
+    };
+
+    private PageCursor() {
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        Map<String, String> key = new HashMap<>(lastEvaluatedKey.size() * 2);
+        for (Map.Entry<String, AttributeValue> entry : lastEvaluatedKey.entrySet()) {
+            String value = entry.getValue().s();
+            if (value == null) {
+                throw new IllegalStateException("Unsupported key attribute type for " + entry.getKey());
+            }
+            key.put(entry.getKey(), value);
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(key));
+        } catch (IOException e) {
+            throw new IllegalStateException("Error encoding page cursor", e);
+        }
+    }
+
+    public static Map<String, AttributeValue> decode(String cursor) {
+        Map<String, String> key;
+        try {
+            key = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), KEY_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Map<String, AttributeValue> exclusiveStartKey = new HashMap<>(key.size() * 2);
+        for (Map.Entry<String, String> entry : key.entrySet()) {
+            exclusiveStartKey.put(entry.getKey(), AttributeValue.builder().s(entry.getValue()).build());
+        }
+        return exclusiveStartKey;
+    }
+}
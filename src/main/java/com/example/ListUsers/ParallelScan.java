@@ -0,0 +1,225 @@
+package com.example.ListUsers;
+
+import com.example.model.User;
+import com.example.repository.UserItemMapper;
+import com.example.repository.UserProjection;
+import com.example.resilience.Backoff;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole table with a DynamoDB parallel scan (Segment/TotalSegments). Each segment runs
+ * on its own worker and hands pages to the calling thread through bounded queues, so a slow sink
+ * throttles the scan instead of buffering the table. In ordered mode users are delivered segment
+ * by segment; otherwise pages are delivered as they arrive.
+ */
+public class ParallelScan {
+    private static final long OFFER_TIMEOUT_MILLIS = 200;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final DynamoDbClient ddb;
+    private final String tableName;
+    private final int totalSegments;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final UserProjection projection;
+    private final ThreadFactory threadFactory;
+
+    public ParallelScan(DynamoDbClient ddb, String tableName, int totalSegments, int queueCapacity, int maxAttempts) {
+        this(ddb, tableName, totalSegments, queueCapacity, maxAttempts, daemonThreadFactory());
+    }
+
+    public ParallelScan(DynamoDbClient ddb, String tableName, int totalSegments, int queueCapacity, int maxAttempts,
+                        ThreadFactory threadFactory) {
+        this(ddb, tableName, totalSegments, queueCapacity, maxAttempts, UserProjection.ALL, threadFactory);
+    }
+
+    // Only the projection's attributes are read and mapped
+    public ParallelScan(DynamoDbClient ddb, String tableName, int totalSegments, int queueCapacity, int maxAttempts,
+                        UserProjection projection, ThreadFactory threadFactory) {
+        if (totalSegments < 1 || totalSegments > 1_000_000) {
+            throw new IllegalArgumentException("totalSegments must be between 1 and 1000000");
+        }
+        this.ddb = ddb;
+        this.tableName = tableName;
+        this.totalSegments = totalSegments;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.projection = projection;
+        this.threadFactory = threadFactory;
+    }
+
+    public ScanProgress run(Consumer<User> sink, boolean ordered) {
+        return run(sink, ordered, new ScanProgress(totalSegments));
+    }
+
+    public ScanProgress run(Consumer<User> sink, boolean ordered, ScanProgress progress) {
+        List<BlockingQueue<Batch>> queues = new ArrayList<>(totalSegments);
+        BlockingQueue<Batch> shared = ordered ? null : new ArrayBlockingQueue<>(queueCapacity * totalSegments);
+        for (int segment = 0; segment < totalSegments; segment++) {
+            queues.add(ordered ? new ArrayBlockingQueue<>(queueCapacity) : shared);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(totalSegments, threadFactory);
+        try {
+            for (int segment = 0; segment < totalSegments; segment++) {
+                int current = segment;
+                executor.execute(() -> scanSegment(current, queues.get(current), progress));
+            }
+
+            int finished = 0;
+            int currentSegment = 0;
+            while (finished < totalSegments) {
+                Batch batch = queues.get(ordered ? currentSegment : 0).take();
+                if (batch.end) {
+                    finished++;
+                    currentSegment++;
+                    if (batch.error != null) {
+                        throw new ParallelScanException("Segment " + batch.segment + " failed", batch.error);
+                    }
+                    continue;
+                }
+                for (User user : batch.users) {
+                    sink.accept(user);
+                }
+                progress.delivered.addAndGet(batch.users.size());
+            }
+            return progress;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParallelScanException("Parallel scan interrupted", e);
+        } finally {
+            progress.cancelled = progress.segmentsCompleted.get() < totalSegments;
+            executor.shutdownNow();
+        }
+    }
+
+    private void scanSegment(int segment, BlockingQueue<Batch> queue, ScanProgress progress) {
+        Map<String, AttributeValue> startKey = null;
+        try {
+            do {
+                ScanRequest.Builder request = ScanRequest.builder()
+                        .tableName(tableName)
+                        .segment(segment)
+                        .totalSegments(totalSegments);
+                if (startKey != null) {
+                    request.exclusiveStartKey(startKey);
+                }
+                if (!projection.isAll()) {
+                    request.projectionExpression(projection.projectionExpression())
+                            .expressionAttributeNames(projection.expressionAttributeNames());
+                }
+
+                ScanResponse response = scanWithRetry(request.build(), progress);
+                List<User> users = new ArrayList<>(response.count());
+                for (Map<String, AttributeValue> item : response.items()) {
+                    users.add(UserItemMapper.toUser(item, projection));
+                }
+                progress.pagesScanned.incrementAndGet();
+                progress.itemsScanned.addAndGet(users.size());
+
+                if (!users.isEmpty() && !offer(queue, new Batch(segment, users, false, null), progress)) {
+                    return;
+                }
+                startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                        ? response.lastEvaluatedKey()
+                        : null;
+            } while (startKey != null);
+
+            progress.segmentsCompleted.incrementAndGet();
+            offer(queue, new Batch(segment, List.of(), true, null), progress);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            progress.segmentsFailed.incrementAndGet();
+            try {
+                offer(queue, new Batch(segment, List.of(), true, e), progress);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Blocks while the consumer is behind; gives up once the run has been abandoned
+    private boolean offer(BlockingQueue<Batch> queue, Batch batch, ScanProgress progress) throws InterruptedException {
+        while (!queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            progress.backpressureWaits.incrementAndGet();
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ScanResponse scanWithRetry(ScanRequest request, ScanProgress progress) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return ddb.scan(request);
+            } catch (DynamoDbException | SdkClientException e) {
+                if (attempt >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+                progress.retries.incrementAndGet();
+                Backoff.sleep(attempt, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof ProvisionedThroughputExceededException || e instanceof RequestLimitExceededException) {
+            return true;
+        }
+        if (e instanceof DynamoDbException dynamoDbException) {
+            return dynamoDbException.isThrottlingException() || dynamoDbException.statusCode() >= 500;
+        }
+        return true;
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "parallel-scan-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Batch {
+        final int segment;
+        final List<User> users;
+        final boolean end;
+        final RuntimeException error;
+
+        Batch(int segment, List<User> users, boolean end, RuntimeException error) {
+            this.segment = segment;
+            this.users = users;
+            this.end = end;
+            this.error = error;
+        }
+    }
+
+    public static class ParallelScanException extends RuntimeException {
+        public ParallelScanException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ListUsers;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters for a {@link ParallelScan} run. Safe to read from other threads while the scan is running.
+ */
+public class ScanProgress {
+    private final int totalSegments;
+    private final Instant startedAt = Instant.now();
+    final AtomicInteger segmentsCompleted = new AtomicInteger();
+    final AtomicInteger segmentsFailed = new AtomicInteger();
+    final AtomicLong pagesScanned = new AtomicLong();
+    final AtomicLong itemsScanned = new AtomicLong();
+    final AtomicLong delivered = new AtomicLong();
+    final AtomicLong retries = new AtomicLong();
+    final AtomicLong backpressureWaits = new AtomicLong();
+    volatile boolean cancelled;
+
+    public ScanProgress(int totalSegments) {
+        this.totalSegments = totalSegments;
+    }
+
+    // For sources other than ParallelScan: a whole segment was read and handed to the consumer
+    public void segmentDelivered(int items) {
+        pagesScanned.incrementAndGet();
+        itemsScanned.addAndGet(items);
+        delivered.addAndGet(items);
+        segmentsCompleted.incrementAndGet();
+    }
+
+    @JsonProperty("totalSegments")
+    public int getTotalSegments() {
+        return totalSegments;
+    }
+
+    @JsonProperty("segmentsCompleted")
+    public int getSegmentsCompleted() {
+        return segmentsCompleted.get();
+    }
+
+    @JsonProperty("segmentsFailed")
+    public int getSegmentsFailed() {
+        return segmentsFailed.get();
+    }
+
+    @JsonProperty("pagesScanned")
+    public long getPagesScanned() {
+        return pagesScanned.get();
+    }
+
+    @JsonProperty("itemsScanned")
+    public long getItemsScanned() {
+        return itemsScanned.get();
+    }
+
+    @JsonProperty("itemsDelivered")
+    public long getItemsDelivered() {
+        return delivered.get();
+    }
+
+    @JsonProperty("retries")
+    public long getRetries() {
+        return retries.get();
+    }
+
+    @JsonProperty("backpressureWaits")
+    public long getBackpressureWaits() {
+        return backpressureWaits.get();
+    }
+
+    @JsonProperty("cancelled")
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @JsonProperty("startedAt")
+    public String getStartedAt() {
+        return startedAt.toString();
+    }
+
+    @JsonProperty("elapsedMillis")
+    public long getElapsedMillis() {
+        return Duration.between(startedAt, Instant.now()).toMillis();
+    }
+}
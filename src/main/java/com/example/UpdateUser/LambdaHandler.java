@@ -1,5 +1,23 @@
-package com.example.UpdateUser;
-
-public class LambdaHandler {
-    
-}
+package com.example.UpdateUser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.lambda.LambdaRouter;
+
+/**
+ * Kept so functions still configured with this handler keep working; requests are served by
+ * the shared {@link LambdaRouter}, which dispatches on the route.
+ */
+public class LambdaHandler implements RequestStreamHandler {
+
+    private final LambdaRouter router = new LambdaRouter();
+
+    @Override
+    public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) throws IOException {
+        router.handleRequest(inputStream, outputStream, context);
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.UpdateUser;
+
+import com.example.CreateUser.PutUniqueUser;
+import com.example.DeleteUser.DeleteUser;
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.VersionConflictException;
+import com.example.model.User;
+import com.example.repository.UserItemMapper;
+import com.example.repository.UserProjection;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Partial, versioned user updates. Only the attributes present in the request are sent, in one
+ * UpdateItem that bumps the version and returns the new item, so no read precedes the write.
+ * Changing the username or email also moves its claim in the unique-keys table; that takes a
+ * consistent read of the current claims and a transaction instead.
+ */
+public class UpdateUserItem {
+    private static final AttributeValue ONE = AttributeValue.fromN("1");
+
+    // The key, createdAt and version belong to the service; the password has its own endpoint
+    public static void validate(User changes) {
+        if (changes == null) {
+            throw new IllegalArgumentException("No user provided in the request body");
+        }
+        if (changes.getPassword() != null) {
+            throw new IllegalArgumentException("password cannot be changed through an update");
+        }
+        if (changes.getFirstName() == null && changes.getLastName() == null
+                && changes.getUsername() == null && changes.getEmail() == null) {
+            throw new IllegalArgumentException("No updatable attributes (firstName, lastName, username, email) provided");
+        }
+        if (changes.getVersion() != null && changes.getVersion() < 0) {
+            throw new IllegalArgumentException("version must not be negative");
+        }
+    }
+
+    public static boolean mayMoveClaims(User changes) {
+        return changes.getUsername() != null || changes.getEmail() != null;
+    }
+
+    public static boolean movesClaims(User current, User changes) {
+        return changed(current.getUsername(), changes.getUsername()) || changed(current.getEmail(), changes.getEmail());
+    }
+
+    // Conditional on the client's version when one is sent; version 0 matches users written before versioning
+    public static UpdateItemRequest updateRequest(String tableName, String userId, User changes) {
+        Expression expression = new Expression(changes, changes.getVersion());
+        return UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(UserItemMapper.key(userId))
+                .updateExpression(expression.update)
+                .conditionExpression(expression.condition)
+                .expressionAttributeNames(expression.names)
+                .expressionAttributeValues(expression.values)
+                .returnValues(ReturnValue.ALL_NEW)
+                // Tells a missing user apart from a stale version without another read
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                .build();
+    }
+
+    // Returns null when the user doesn't exist; throws VersionConflictException when it does
+    public static User failedUpdate(ConditionalCheckFailedException e, String userId, Long expectedVersion) {
+        if (!e.hasItem() || e.item().isEmpty()) {
+            return null;
+        }
+        throw new VersionConflictException(userId, expectedVersion, UserItemMapper.toUser(e.item(), UserProjection.READABLE).getVersion());
+    }
+
+    // Consistent, so the claims released are the ones currently held
+    public static GetItemRequest currentRequest(String tableName, String userId) {
+        return GetItemRequest.builder()
+                .tableName(tableName)
+                .key(UserItemMapper.key(userId))
+                .projectionExpression(UserProjection.READABLE.projectionExpression())
+                .expressionAttributeNames(UserProjection.READABLE.expressionAttributeNames())
+                .consistentRead(true)
+                .build();
+    }
+
+    public static void checkVersion(User current, User changes) {
+        if (changes.getVersion() != null && changes.getVersion() != versionOf(current)) {
+            throw new VersionConflictException(current.getUserId(), changes.getVersion(), current.getVersion());
+        }
+    }
+
+    // Conditional on the version just read, so a write in between cancels the transaction
+    public static TransactWriteItemsRequest claimTransaction(String tableName, String uniqueKeysTableName, User current, User changes) {
+        String userId = current.getUserId();
+        Expression expression = new Expression(changes, versionOf(current));
+        List<TransactWriteItem> items = new ArrayList<>(5);
+        items.add(TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(tableName)
+                        .key(UserItemMapper.key(userId))
+                        .updateExpression(expression.update)
+                        .conditionExpression(expression.condition)
+                        .expressionAttributeNames(expression.names)
+                        .expressionAttributeValues(expression.values)
+                        .build())
+                .build());
+        if (changed(current.getUsername(), changes.getUsername())) {
+            items.add(PutUniqueUser.claim(uniqueKeysTableName, PutUniqueUser.usernameKey(changes.getUsername()), userId));
+            if (current.getUsername() != null) {
+                items.add(DeleteUser.release(uniqueKeysTableName, PutUniqueUser.usernameKey(current.getUsername()), userId));
+            }
+        }
+        if (changed(current.getEmail(), changes.getEmail())) {
+            items.add(PutUniqueUser.claim(uniqueKeysTableName, PutUniqueUser.emailKey(changes.getEmail()), userId));
+            if (current.getEmail() != null) {
+                items.add(DeleteUser.release(uniqueKeysTableName, PutUniqueUser.emailKey(current.getEmail()), userId));
+            }
+        }
+        return TransactWriteItemsRequest.builder().transactItems(items).build();
+    }
+
+    // Reasons are positional: [user, username claim?, username release?, email claim?, email release?]
+    public static RuntimeException translate(TransactionCanceledException e, User current, User changes) {
+        List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+        if (isConditionFailure(reasons, 0)) {
+            return new VersionConflictException(current.getUserId(), changes.getVersion(), current.getVersion());
+        }
+        // A failed release means another user holds the old claim (data written before claims existed):
+        // a conflict like a failed claim, not a server error
+        int index = 1;
+        if (changed(current.getUsername(), changes.getUsername())) {
+            if (isConditionFailure(reasons, index)) {
+                return new DuplicateUserException("username", changes.getUsername());
+            }
+            if (current.getUsername() != null && isConditionFailure(reasons, index + 1)) {
+                return new DuplicateUserException("username", current.getUsername());
+            }
+            index += current.getUsername() != null ? 2 : 1;
+        }
+        if (changed(current.getEmail(), changes.getEmail())) {
+            if (isConditionFailure(reasons, index)) {
+                return new DuplicateUserException("email", changes.getEmail());
+            }
+            if (current.getEmail() != null && isConditionFailure(reasons, index + 1)) {
+                return new DuplicateUserException("email", current.getEmail());
+            }
+        }
+        return e;
+    }
+
+    // What the transaction wrote, without reading it back
+    public static User merged(User current, User changes) {
+        User user = new User(current.getUserId(),
+                changes.getFirstName() != null ? changes.getFirstName() : current.getFirstName(),
+                changes.getLastName() != null ? changes.getLastName() : current.getLastName(),
+                changes.getUsername() != null ? changes.getUsername() : current.getUsername(),
+                null,
+                changes.getEmail() != null ? changes.getEmail() : current.getEmail(),
+                current.getCreatedAt());
+        user.setVersion(versionOf(current) + 1);
+        return user;
+    }
+
+    private static long versionOf(User user) {
+        return user.getVersion() == null ? 0 : user.getVersion();
+    }
+
+    private static boolean changed(String current, String requested) {
+        return requested != null && !Objects.equals(current, requested);
+    }
+
+    private static boolean isConditionFailure(List<CancellationReason> reasons, int index) {
+        return index < reasons.size() && "ConditionalCheckFailed".equals(reasons.get(index).code());
+    }
+
+    // SET for each provided attribute, ADD for the version, and the existence/version condition
+    private static final class Expression {
+        final Map<String, String> names = new HashMap<>(8);
+        final Map<String, AttributeValue> values = new HashMap<>(8);
+        final String update;
+        final String condition;
+
+        Expression(User changes, Long expectedVersion) {
+            StringBuilder set = new StringBuilder(96).append("SET ");
+            set(set, UserItemMapper.FIRST_NAME, changes.getFirstName());
+            set(set, UserItemMapper.LAST_NAME, changes.getLastName());
+            set(set, UserItemMapper.USERNAME, changes.getUsername());
+            set(set, UserItemMapper.EMAIL, changes.getEmail());
+            names.put("#version", UserItemMapper.VERSION);
+            values.put(":one", ONE);
+            update = set.append(" ADD #version :one").toString();
+
+            if (expectedVersion == null) {
+                names.put("#userId", UserItemMapper.USER_ID);
+                condition = "attribute_exists(#userId)";
+            } else if (expectedVersion == 0) {
+                names.put("#userId", UserItemMapper.USER_ID);
+                condition = "attribute_exists(#userId) AND attribute_not_exists(#version)";
+            } else {
+                values.put(":expected", AttributeValue.fromN(expectedVersion.toString()));
+                condition = "#version = :expected";
+            }
+        }
+
+        private void set(StringBuilder set, String name, String value) {
+            if (value == null) {
+                return;
+            }
+            if (!names.isEmpty()) {
+                set.append(", ");
+            }
+            set.append('#').append(name).append(" = :").append(name);
+            names.put("#" + name, name);
+            values.put(":" + name, AttributeValue.fromS(value));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.UpdateUser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import com.example.UserService.PreconditionFailedException;
+import com.example.UserService.UserService;
+import com.example.UserService.VersionConflictException;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.logging.RequestLogEntry;
+import com.example.model.ETags;
+import com.example.model.User;
+import com.example.model.UserView;
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class UpdateUserOperation implements ProxyOperation {
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+
+    public UpdateUserOperation(ObjectMapper objectMapper, UserService userService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+    }
+
+    // Conflicts (stale version, taken username/email) surface as 409 from the router; a failed
+    // If-Match precondition as 412
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        Map<String, String> pathParameters = request.getPathParameters();
+        if (!pathParameters.containsKey("userId")) {
+            log.status(400);
+            ProxyResponses.error(outputStream, 400, "No userId provided in pathParameters");
+            return;
+        }
+
+        String userId = pathParameters.get("userId");
+        log.userId(userId);
+        User changes = request.readBody(objectMapper, User.class);
+        String ifMatch = request.getHeader("If-Match");
+        Long required = ETags.requiredVersion(ifMatch);
+        if (required != null && changes.getVersion() != null && !required.equals(changes.getVersion())) {
+            throw new PreconditionFailedException("If-Match names version " + required + " but the body version " + changes.getVersion());
+        }
+        if (required != null) {
+            changes.setVersion(required);
+        }
+        User user;
+        try {
+            user = userService.updateUser(userId, changes);
+        } catch (VersionConflictException e) {
+            if (ifMatch != null) {
+                throw new PreconditionFailedException(e.getMessage());
+            }
+            throw e;
+        }
+        if (user == null && ifMatch != null) {
+            throw new PreconditionFailedException("No user with ID " + userId);
+        }
+        if (user == null) {
+            log.status(404);
+            ProxyResponses.error(outputStream, 404, "User not found");
+            return;
+        }
+        log.user(user);
+        ProxyResponses.ok(outputStream, new UserView(user, UserProjection.READABLE), ETags.of(user, UserProjection.READABLE), null);
+    }
+}
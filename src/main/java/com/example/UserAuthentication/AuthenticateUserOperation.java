@@ -0,0 +1,44 @@
+package com.example.UserAuthentication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.example.UserService.UserService;
+import com.example.auth.TokenService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.logging.RequestLogEntry;
+import com.example.model.ETags;
+import com.example.model.LoginResponse;
+import com.example.model.User;
+import com.example.model.UserCredentials;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class AuthenticateUserOperation implements ProxyOperation {
+
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+    private final TokenService tokenService;
+
+    public AuthenticateUserOperation(ObjectMapper objectMapper, UserService userService, TokenService tokenService) {
+        this.objectMapper = objectMapper;
+        this.userService = userService;
+        this.tokenService = tokenService;
+    }
+
+    // An unknown username and a wrong password get the same 401; a match gets a signed access token
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        UserCredentials credentials = request.readBody(objectMapper, UserCredentials.class);
+        User user = userService.authenticate(credentials);
+        if (user == null) {
+            log.status(401);
+            ProxyResponses.error(outputStream, 401, "Invalid username or password");
+            return;
+        }
+        log.user(user);
+        ProxyResponses.ok(outputStream, new LoginResponse(tokenService.issue(user), tokenService.getTokenTtl().toSeconds(), user),
+                null, ETags.CACHE_NONE);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.UserLogout;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.example.auth.TokenClaims;
+import com.example.auth.TokenService;
+import com.example.lambda.ProxyOperation;
+import com.example.lambda.ProxyRequest;
+import com.example.lambda.ProxyResponses;
+import com.example.logging.RequestLogEntry;
+
+public class LogoutOperation implements ProxyOperation {
+
+    private final TokenService tokenService;
+
+    public LogoutOperation(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    // The router verified the token already, so this is a cache hit; a bad token is a 401 from the router
+    @Override
+    public void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException {
+        TokenClaims claims = tokenService.verify(TokenService.bearerToken(request.getHeader("Authorization")));
+        log.userId(claims.getSubject());
+        tokenService.revoke(claims);
+        ProxyResponses.text(outputStream, "Logged out");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.UserService;
+
+public class DuplicateUserException extends RuntimeException {
+    private final String field;
+
+    public DuplicateUserException(String field, String value) {
+        super("A user with " + field + " '" + value + "' already exists");
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
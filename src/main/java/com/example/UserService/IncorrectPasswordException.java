@@ -0,0 +1,9 @@
+package com.example.UserService;
+
+// A password change named a current password that doesn't match the stored one; answered with 403
+public class IncorrectPasswordException extends RuntimeException {
+
+    public IncorrectPasswordException(String userId) {
+        super("The current password for user " + userId + " is incorrect");
+    }
+}
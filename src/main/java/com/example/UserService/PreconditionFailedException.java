@@ -0,0 +1,9 @@
+package com.example.UserService;
+
+// An If-Match precondition did not hold; answered with 412
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
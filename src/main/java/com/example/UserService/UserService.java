@@ -1,128 +1,664 @@
 package com.example.UserService;
 
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
-import com.example.ListUsers.GetAllUsers;
-import com.example.CreateUser.PutUserItem;
+import com.example.BatchGetUsers.BatchGetUsers;
+import com.example.ListUsers.ScanProgress;
+import com.example.CreateUser.PutUniqueUser;
+import com.example.UpdateUser.UpdateUserItem;
+import com.example.cache.SingleFlight;
+import com.example.cache.TtlCache;
+import com.example.cache.UserInvalidation;
+import com.example.credentials.PasswordHashing;
+import com.example.config.DynamoDbClientProvider;
+import com.example.config.ThreadFactories;
+import com.example.metrics.UserMetrics;
+import com.example.model.BatchItemResult;
+import com.example.model.BatchResult;
+import com.example.model.NewPassword;
 import com.example.model.User;
+import com.example.model.UserCredentials;
+import com.example.model.UserPage;
+import com.example.repository.DynamoDbUserRepository;
+import com.example.repository.InMemoryUserRepository;
+import com.example.repository.ResilientUserRepository;
+import com.example.repository.UserProjection;
+import com.example.repository.UserRepository;
+import com.example.resilience.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class UserService {
+    // Per-request outcomes are logged once by com.example.logging.RequestLogger; this logger is for failures and debugging
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
-    private LambdaLogger lambdaLogger;
 
-    private final List<User> userList = new ArrayList<>();
-    private static final String TABLE_NAME = "jordan-user-service";
+    public static final String TABLE_NAME = "jordan-user-service";
+    public static final String UNIQUE_KEYS_TABLE_NAME = "jordan-user-service-unique-keys";
+    private static final int MISS_CACHE_MAX_SIZE = 10_000;
+    private static final Duration MISS_CACHE_TTL = Duration.ofSeconds(30);
+    // Distinct users with a read in flight that later readers can join; beyond that reads go out on their own
+    private static final int MAX_COALESCED_READS = 10_000;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_SCAN_SEGMENTS = 64;
 
-    public void setLambdaLogger(LambdaLogger lambdaLogger) {
-        this.lambdaLogger = lambdaLogger;
+    public static final int MAX_BATCH_SIZE = 25_000;
+    // Each password is a full PBKDF2 hash (hundreds of ms at the default cost), so batches carrying
+    // passwords stay small enough to finish well inside a request or Lambda timeout
+    public static final int MAX_BATCH_PASSWORDS = 100;
+    // HMAC pre-hashes long keys, so this bounds request size rather than hashing cost
+    public static final int MAX_PASSWORD_LENGTH = 1024;
+    // The fence for a deleted user: no version may be cached past it
+    private static final long DELETED_FENCE = Long.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final TtlCache<String, User> userCache;
+    private final Duration userCacheTtl;
+    // Lowest version each recently invalidated user may be cached at, so a read that started before
+    // the invalidation can't put the old copy back. Kept as long as that copy could have lived
+    private final TtlCache<String, Long> versionFences;
+    private final TtlCache<String, Boolean> missCache = new TtlCache<>(MISS_CACHE_MAX_SIZE, MISS_CACHE_TTL);
+    private final SingleFlight<String, User> userReads = new SingleFlight<>(MAX_COALESCED_READS,
+            () -> UserMetrics.increment(UserMetrics.SERVICE_COALESCED, 1, "operation", "getUserById"));
+    private final ExecutorService batchExecutor;
+    private final PasswordHashing passwordHashing;
+    private final boolean virtualThreads;
+    private volatile ScanProgress lastParallelScan;
+
+    // Used by the Lambda handlers, which have no Spring environment to bind from
+    public UserService() {
+        this(repositoryFromEnvironment(),
+                intEnv("USER_CACHE_MAX_SIZE", 10_000), Duration.ofSeconds(intEnv("USER_CACHE_TTL_SECONDS", 60)),
+                intEnv("USER_BATCH_CONCURRENCY", 8), ThreadFactories.virtualFromEnvironment(), PasswordHashing.fromEnvironment());
+    }
+
+    @Autowired
+    public UserService(UserRepository userRepository,
+                       @Value("${user.cache.max-size:10000}") int cacheMaxSize,
+                       @Value("${user.cache.ttl:60s}") Duration cacheTtl,
+                       @Value("${user.batch.concurrency:8}") int batchConcurrency,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                       PasswordHashing passwordHashing) {
+        this.userRepository = userRepository;
+        this.passwordHashing = passwordHashing;
+        this.userCache = new TtlCache<>(cacheMaxSize, cacheTtl);
+        this.userCacheTtl = cacheTtl;
+        this.versionFences = new TtlCache<>(MISS_CACHE_MAX_SIZE, cacheTtl);
+        this.virtualThreads = virtualThreads;
+        this.batchExecutor = Executors.newFixedThreadPool(batchConcurrency, ThreadFactories.named("user-batch-", virtualThreads));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdown();
+    }
+
+    // USER_REPOSITORY=memory runs the handlers without DynamoDB, e.g. for local invokes and load tests.
+    // USER_RESILIENCE=false, USER_MAX_IN_FLIGHT, USER_CIRCUIT_FAILURE_THRESHOLD and USER_CIRCUIT_OPEN_SECONDS
+    // mirror the user.resilience.* properties
+    private static UserRepository repositoryFromEnvironment() {
+        String repository = System.getenv("USER_REPOSITORY");
+        if (repository == null || repository.isBlank() || repository.trim().equalsIgnoreCase("dynamodb")) {
+            UserRepository dynamoDb = new DynamoDbUserRepository(DynamoDbClientProvider::getAsync, DynamoDbClientProvider::get,
+                    TABLE_NAME, UNIQUE_KEYS_TABLE_NAME);
+            if ("false".equalsIgnoreCase(System.getenv("USER_RESILIENCE"))) {
+                return dynamoDb;
+            }
+            return new ResilientUserRepository(dynamoDb, DynamoDbClientProvider.rateLimiter(),
+                    new CircuitBreaker(intEnv("USER_CIRCUIT_FAILURE_THRESHOLD", 20), Duration.ofSeconds(intEnv("USER_CIRCUIT_OPEN_SECONDS", 5))),
+                    intEnv("USER_MAX_IN_FLIGHT", 500));
+        }
+        if (repository.trim().equalsIgnoreCase("memory")) {
+            return new InMemoryUserRepository();
+        }
+        throw new IllegalArgumentException("USER_REPOSITORY must be dynamodb or memory, not " + repository);
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public TtlCache<String, User> getUserCache() {
+        return userCache;
+    }
+
+    public Duration getUserCacheTtl() {
+        return userCacheTtl;
+    }
+
+    public void clearCaches() {
+        userCache.invalidateAll();
+        missCache.invalidateAll();
+    }
+
+    // A change made on any node, from com.example.cache.CacheInvalidator. Idempotent and ordered by
+    // version: a cached copy at least as new as the change stays. Returns true when a copy was evicted
+    public boolean applyInvalidation(UserInvalidation invalidation) {
+        String userId = invalidation.getUserId();
+        invalidation.getUniqueKeys().forEach(missCache::invalidate);
+        userReads.forget(userId);
+        Long version = invalidation.getVersion();
+        if (version == null && !invalidation.isDeleted()) {
+            // Written without a version: nothing to order by, so drop whatever is cached
+            return userCache.invalidateIf(userId, cached -> true);
+        }
+        long fence = invalidation.isDeleted() ? DELETED_FENCE : version;
+        raiseFence(userId, fence);
+        return userCache.invalidateIf(userId, cached -> cached.getVersion() == null || cached.getVersion() < fence);
+    }
+
+    // Never lowered: a fence only ever moves up to the newest change seen, from here or another node
+    private void raiseFence(String userId, long fence) {
+        Long current = versionFences.get(userId);
+        if (current == null || current < fence) {
+            versionFences.put(userId, fence);
+        }
     }
 
     public User createUser(User user) {
-        try {
-            String userId = UUID.randomUUID().toString();
-            String createdAt = LocalDateTime.now().toString();
+        return join(createUserAsync(user));
+    }
 
-            user.setUserId(userId);
+    public CompletableFuture<User> createUserAsync(User user) {
+        long start = System.nanoTime();
+        String userId = UUID.randomUUID().toString();
+        String createdAt = LocalDateTime.now().toString();
+
+        user.setUserId(userId);
+        user.setCreatedAt(createdAt);
+        user.setVersion(1L);
+
+        // Hashed on the password pool, so the plaintext never reaches the repository. The username
+        // and email are claimed atomically with the write
+        CompletableFuture<User> created = withHashedPassword(user).thenCompose(userRepository::create).thenApply(createdUser -> {
+            cache(createdUser);
+            forgetMisses(createdUser);
+
+            logger.debug("User created: {}", createdUser.getUserId());
+            return withoutPassword(createdUser);
+        });
+        return timed("createUser", start, failWith(created, "Error creating user"));
+    }
+
+
+    public BatchResult batchCreateUsers(List<User> users) {
+        if (users == null || users.isEmpty() || users.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("users must contain between 1 and " + MAX_BATCH_SIZE + " entries");
+        }
+        if (users.stream().filter(user -> user.getPassword() != null).count() > MAX_BATCH_PASSWORDS) {
+            throw new IllegalArgumentException("at most " + MAX_BATCH_PASSWORDS + " users in a batch may carry a password");
+        }
+        String createdAt = LocalDateTime.now().toString();
+        for (User user : users) {
+            user.setUserId(UUID.randomUUID().toString());
             user.setCreatedAt(createdAt);
+            user.setVersion(1L);
+        }
+
+        logger.debug("Batch creating {} users", users.size());
+        hashPasswords(users);
+        List<BatchItemResult> results = userRepository.createAll(users, batchExecutor);
+        for (int i = 0; i < results.size(); i++) {
+            BatchItemResult result = results.get(i);
+            if (result.getStatus() == BatchItemResult.Status.CREATED) {
+                User created = withoutPassword(result.getUser());
+                cache(created);
+                results.set(i, BatchItemResult.created(created));
+            }
+        }
+        BatchResult batchResult = new BatchResult(results);
+        logger.debug("Batch create finished: {} of {} failed", batchResult.getFailed(), users.size());
+        return batchResult;
+    }
+
+    private CompletableFuture<User> withHashedPassword(User user) {
+        if (user.getPassword() == null) {
+            return CompletableFuture.completedFuture(user);
+        }
+        if (user.getPassword().length() > MAX_PASSWORD_LENGTH) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("password must be at most " + MAX_PASSWORD_LENGTH + " characters"));
+        }
+        return passwordHashing.hash(user.getPassword()).thenApply(hash -> {
+            user.setPassword(hash);
+            return user;
+        });
+    }
 
-            logger.info("User before putting into database: {}", user.toString());
-            if (lambdaLogger != null) {
-                lambdaLogger.log("User before putting into database: " + user.toString());
+    // Bulk imports hash on the batch pool: a large import would otherwise fill the password queue and shed logins
+    private void hashPasswords(List<User> users) {
+        List<CompletableFuture<Void>> hashes = new ArrayList<>(users.size());
+        for (User user : users) {
+            String password = user.getPassword();
+            if (password != null) {
+                if (password.length() > MAX_PASSWORD_LENGTH) {
+                    throw new IllegalArgumentException("password must be at most " + MAX_PASSWORD_LENGTH + " characters");
+                }
+                hashes.add(CompletableFuture.runAsync(() -> user.setPassword(passwordHashing.hasher().hash(password)), batchExecutor));
             }
+        }
+        join(CompletableFuture.allOf(hashes.toArray(new CompletableFuture<?>[0])));
+    }
 
-            PutUserItem putUserItem = new PutUserItem();
+    public BatchResult batchGetUsers(List<String> userIds) {
+        if (userIds == null || userIds.isEmpty() || userIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("userIds must contain between 1 and " + MAX_BATCH_SIZE + " entries");
+        }
 
-            putUserItem.execute(new String[]{"jordan-user-service", user.getUserId(), user.getFirstName(), user.getLastName(), user.getUsername(), user.getPassword(), user.getEmail(), user.getCreatedAt()});
+        // Serve what we can from the cache and fetch each remaining key once
+        Map<String, User> resolved = new HashMap<>(userIds.size() * 2);
+        Set<String> misses = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            User cached = userCache.get(userId);
+            if (cached != null) {
+                resolved.put(userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
 
-            logger.info("User created and added to the userList: {}", user.toString());
-            if (lambdaLogger != null) {
-                lambdaLogger.log("User created and added to the userList: " + user.toString());
+        Map<String, String> failed = Map.of();
+        if (!misses.isEmpty()) {
+            BatchGetUsers.Result fetched = userRepository.findAll(new ArrayList<>(misses), batchExecutor);
+            for (User user : fetched.getFound().values()) {
+                cache(user);
             }
+            resolved.putAll(fetched.getFound());
+            failed = fetched.getFailed();
+        }
 
-            return user;
-        } catch (Exception e) {
-            logger.error("Error creating user", e);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("Error creating user: " + e.getMessage());
+        List<BatchItemResult> results = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            User user = resolved.get(userId);
+            if (user != null) {
+                results.add(BatchItemResult.found(user));
+            } else if (failed.containsKey(userId)) {
+                results.add(BatchItemResult.failed(userId, failed.get(userId)));
+            } else {
+                results.add(BatchItemResult.notFound(userId));
             }
-            throw new RuntimeException("Error creating user", e);
         }
+        return new BatchResult(results);
     }
 
+    public UserPage listUsers(Integer limit, String cursor) {
+        return join(listUsersAsync(limit, cursor));
+    }
 
-    public List<User> listUsers() {
+    public UserPage listUsers(Integer limit, String cursor, UserProjection projection) {
+        return join(listUsersAsync(limit, cursor, projection));
+    }
+
+    public CompletableFuture<UserPage> listUsersAsync(Integer limit, String cursor) {
+        return listUsersAsync(limit, cursor, UserProjection.READABLE);
+    }
+
+    public CompletableFuture<UserPage> listUsersAsync(Integer limit, String cursor, UserProjection projection) {
+        long start = System.nanoTime();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return timed("listUsers", start,
+                    CompletableFuture.failedFuture(new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE)));
+        }
+        return timed("listUsers", start, failWith(userRepository.findPage(pageSize, cursor, projection), "Error listing users from DynamoDB"));
+    }
+
+    public void exportUsers(Consumer<User> consumer) {
+        exportUsers(UserProjection.READABLE, consumer);
+    }
+
+    public void exportUsers(UserProjection projection, Consumer<User> consumer) {
         try {
-            return GetAllUsers.execute(new String[]{TABLE_NAME});
+            userRepository.forEach(projection, consumer);
         } catch (DynamoDbException e) {
-            logger.error("Error listing users from DynamoDB", e);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("Error listing users from DynamoDB: " + e.getMessage());
-            }
-            throw new RuntimeException("Error listing users from DynamoDB", e);
+            logger.error("Error exporting users from DynamoDB", e);
+            throw new RuntimeException("Error exporting users from DynamoDB", e);
         }
     }
 
 
-    public User getUserById(String userId) {
+    public ScanProgress parallelExportUsers(int segments, boolean ordered, UserProjection projection, Consumer<User> consumer) {
+        if (segments < 1 || segments > MAX_SCAN_SEGMENTS) {
+            throw new IllegalArgumentException("segments must be between 1 and " + MAX_SCAN_SEGMENTS);
+        }
+        ScanProgress progress = new ScanProgress(segments);
+        lastParallelScan = progress;
         try {
-            logger.info("Getting user by ID: {}", userId);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("Getting user by ID: " + userId);
+            logger.info("Starting parallel export with {} segments (ordered={})", segments, ordered);
+            userRepository.scanAll(segments, ordered, projection, ThreadFactories.named("parallel-scan-", virtualThreads), consumer, progress);
+            logger.info("Parallel export finished: {} items in {} ms", progress.getItemsDelivered(), progress.getElapsedMillis());
+            return progress;
+        } catch (RuntimeException e) {
+            logger.error("Error exporting users with parallel scan", e);
+            throw new RuntimeException("Error exporting users with parallel scan", e);
+        }
+    }
+
+    public ScanProgress getLastParallelScan() {
+        return lastParallelScan;
+    }
+
+    public User getUserById(String userId) {
+        return join(getUserByIdAsync(userId));
+    }
+
+    public User getUserById(String userId, UserProjection projection) {
+        return join(getUserByIdAsync(userId, projection));
+    }
+
+    public CompletableFuture<User> getUserByIdAsync(String userId) {
+        return getUserByIdAsync(userId, UserProjection.READABLE);
+    }
+
+    // A cached user answers any projection; on a miss only the projected attributes are read,
+    // and the result is cached only if it holds every readable attribute. Concurrent misses for the
+    // same user share one read (the plain GET's projection only; fields= reads are rarer and go out alone)
+    public CompletableFuture<User> getUserByIdAsync(String userId, UserProjection projection) {
+        long start = System.nanoTime();
+        User cached = userCache.get(userId);
+        if (cached != null) {
+            UserMetrics.recordLatency(UserMetrics.SERVICE_OPERATION, System.nanoTime() - start,
+                    "operation", "getUserById", "outcome", "cache_hit");
+            return CompletableFuture.completedFuture(cached);
+        }
+        Supplier<CompletableFuture<User>> read = () -> userRepository.findById(userId, projection).thenApply(user -> {
+            if (user != null && projection.covers(UserProjection.READABLE)) {
+                cache(user);
             }
-            return userList.stream()
-                    .filter(u -> u.getUserId().equals(userId))
-                    .findFirst()
-                    .orElse(null);
-        } catch (Exception e) {
-            logger.error("Error getting user by ID", e);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("Error getting user by ID: " + e.getMessage());
+            return user;
+        });
+        CompletableFuture<User> loaded = projection == UserProjection.READABLE ? userReads.load(userId, read) : read.get();
+        return timed("getUserById", start, failWith(loaded, "Error getting user by ID"));
+    }
+
+    public User findByUsername(String username) {
+        return join(findByUsernameAsync(username));
+    }
+
+    public User findByEmail(String email) {
+        return join(findByEmailAsync(email));
+    }
+
+    public CompletableFuture<User> findByUsernameAsync(String username) {
+        return failWith(findByIndex(PutUniqueUser.usernameKey(username), () -> userRepository.findByUsername(username)),
+                "Error querying user index");
+    }
+
+    public CompletableFuture<User> findByEmailAsync(String email) {
+        return failWith(findByIndex(PutUniqueUser.emailKey(email), () -> userRepository.findByEmail(email)),
+                "Error querying user index");
+    }
+
+    private CompletableFuture<User> findByIndex(String missKey, Supplier<CompletableFuture<User>> query) {
+        // Repeated misses (e.g. failed logins for unknown usernames) are answered locally for a short while
+        if (missCache.get(missKey) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return query.get().thenApply(user -> {
+            if (user == null) {
+                missCache.put(missKey, Boolean.TRUE);
+                return null;
             }
-            throw new RuntimeException("Error getting user by ID", e);
+            cache(user);
+            return user;
+        });
+    }
+
+    public User authenticate(UserCredentials credentials) {
+        return join(authenticateAsync(credentials));
+    }
+
+    // Completes with the user, without its password, when the credentials match and with null otherwise.
+    // Verification runs on the password pool; a hash made with older parameters is replaced afterwards
+    public CompletableFuture<User> authenticateAsync(UserCredentials credentials) {
+        long start = System.nanoTime();
+        if (credentials == null || credentials.getUsername() == null || credentials.getPassword() == null
+                || credentials.getPassword().length() > MAX_PASSWORD_LENGTH) {
+            return timed("authenticate", start,
+                    CompletableFuture.failedFuture(new IllegalArgumentException("username and password are required")));
         }
+        String password = credentials.getPassword();
+        String username = credentials.getUsername();
+        // The miss cache spares DynamoDB repeated lookups of unknown usernames, but those still pay for a
+        // verification against a dummy hash: answering them early would reveal which usernames exist
+        CompletableFuture<User> authenticated = findByIndex(PutUniqueUser.usernameKey(username), () -> userRepository.findByUsername(username))
+                .thenCompose(user -> {
+                    if (user == null || user.getPassword() == null) {
+                        return passwordHashing.verifyAbsent(password).thenApply(matches -> null);
+                    }
+                    return passwordHashing.verify(password, user.getPassword()).thenApply(matches -> {
+                        if (!matches) {
+                            return null;
+                        }
+                        if (passwordHashing.hasher().needsRehash(user.getPassword())) {
+                            rehash(user, password);
+                        }
+                        return withoutPassword(user);
+                    });
+                });
+        return timed("authenticate", start, failWith(authenticated, "Error authenticating user"));
     }
 
-    public User updateUser(String userId, User updatedUser) {
-        try {
-            userList.removeIf(u -> u.getUserId().equals(userId));
-            userList.add(updatedUser);
+    // Best effort: the login has already succeeded, and a skipped rehash is simply retried at the next one.
+    // Conditional on the hash just verified, so a password changed in between is never overwritten
+    private void rehash(User user, String password) {
+        passwordHashing.hash(password)
+                .thenCompose(hash -> userRepository.updatePassword(user.getUserId(), hash, user.getPassword()))
+                .whenComplete((written, e) -> {
+                    if (e != null) {
+                        logger.debug("Password rehash for user {} skipped: {}", user.getUserId(), e.toString());
+                    } else {
+                        logger.debug("Password rehashed for user {} (written={})", user.getUserId(), written);
+                    }
+                });
+    }
 
-            logger.info("User updated: {}", updatedUser);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("User updated: " + updatedUser);
-            }
-            return updatedUser;
-        } catch (Exception e) {
-            logger.error("Error updating user", e);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("Error updating user: " + e.getMessage());
+    public boolean changePassword(String userId, NewPassword newPassword) {
+        return join(changePasswordAsync(userId, newPassword));
+    }
+
+    // Completes with false when no user has the ID. A token alone isn't enough to change the password: the
+    // current one must match, or the change fails with IncorrectPasswordException. The write is conditional
+    // on the hash just verified, so if the password changed in between this one fails the same way
+    public CompletableFuture<Boolean> changePasswordAsync(String userId, NewPassword newPassword) {
+        long start = System.nanoTime();
+        String current = newPassword == null ? null : newPassword.getCurrentPassword();
+        String password = newPassword == null ? null : newPassword.getNewPassword();
+        if (current == null || current.length() > MAX_PASSWORD_LENGTH) {
+            return timed("changePassword", start, CompletableFuture.failedFuture(
+                    new IllegalArgumentException("currentPassword is required")));
+        }
+        if (password == null || password.isBlank() || password.length() > MAX_PASSWORD_LENGTH) {
+            return timed("changePassword", start, CompletableFuture.failedFuture(
+                    new IllegalArgumentException("newPassword must be between 1 and " + MAX_PASSWORD_LENGTH + " characters")));
+        }
+        CompletableFuture<Boolean> changed = userRepository.findById(userId).thenCompose(user -> {
+            if (user == null) {
+                return CompletableFuture.completedFuture(false);
             }
-            throw new RuntimeException("Error updating user", e);
+            CompletableFuture<Boolean> verified = user.getPassword() == null
+                    ? passwordHashing.verifyAbsent(current)
+                    : passwordHashing.verify(current, user.getPassword());
+            return verified.thenCompose(matches -> {
+                if (!matches) {
+                    return CompletableFuture.failedFuture(new IncorrectPasswordException(userId));
+                }
+                return passwordHashing.hash(password)
+                        .thenCompose(hash -> userRepository.updatePassword(userId, hash, user.getPassword()))
+                        .thenApply(written -> {
+                            if (!written) {
+                                throw new IncorrectPasswordException(userId);
+                            }
+                            return true;
+                        });
+            });
+        });
+        return timed("changePassword", start, failWith(changed, "Error changing password"));
+    }
+
+    // The cache only answers the read APIs, so it never holds a password hash. The fence is checked
+    // after the put: an invalidation applied in between has then either evicted this copy or is seen here
+    private void cache(User user) {
+        userCache.put(user.getUserId(), withoutPassword(user));
+        Long fence = versionFences.get(user.getUserId());
+        if (fence != null && (user.getVersion() == null || user.getVersion() < fence)) {
+            userCache.invalidate(user.getUserId());
         }
     }
 
-    public void deleteUser(String userId) {
+    private static User withoutPassword(User user) {
+        if (user.getPassword() == null) {
+            return user;
+        }
+        User copy = new User(user.getUserId(), user.getFirstName(), user.getLastName(), user.getUsername(),
+                null, user.getEmail(), user.getCreatedAt());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+
+    private void forgetMisses(User user) {
+        if (user.getUsername() != null) {
+            missCache.invalidate(PutUniqueUser.usernameKey(user.getUsername()));
+        }
+        if (user.getEmail() != null) {
+            missCache.invalidate(PutUniqueUser.emailKey(user.getEmail()));
+        }
+    }
+
+    public User updateUser(String userId, User changes) {
+        return join(updateUserAsync(userId, changes));
+    }
+
+    // Completes with null when no user has the ID. A version in changes makes the update conditional:
+    // a stale one fails with VersionConflictException
+    public CompletableFuture<User> updateUserAsync(String userId, User changes) {
+        long start = System.nanoTime();
         try {
-            userList.removeIf(u -> u.getUserId().equals(userId));
-            logger.info("User deleted with ID: {}", userId);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("User deleted with ID: " + userId);
+            UpdateUserItem.validate(changes);
+        } catch (IllegalArgumentException e) {
+            return timed("updateUser", start, CompletableFuture.failedFuture(e));
+        }
+        CompletableFuture<User> updated = userRepository.update(userId, changes).whenComplete((user, e) -> {
+            userReads.forget(userId);
+            if (user == null) {
+                // Gone, or changed under us: either way the cached copy is stale
+                userCache.invalidate(userId);
+                return;
+            }
+            // As applyInvalidation does for other nodes' writes: a read of the old version already in
+            // flight here can't cache it over this one
+            if (user.getVersion() != null) {
+                raiseFence(userId, user.getVersion());
             }
-        } catch (Exception e) {
-            logger.error("Error deleting user", e);
-            if (lambdaLogger != null) {
-                lambdaLogger.log("Error deleting user: " + e.getMessage());
+            cache(user);
+            forgetMisses(user);
+            logger.debug("User updated: {} (version {})", userId, user.getVersion());
+        });
+        return timed("updateUser", start, failWith(updated, "Error updating user"));
+    }
+
+    public void deleteUser(String userId) {
+        join(deleteUserAsync(userId));
+    }
+
+    // False when no user has the ID
+    public boolean deleteUser(String userId, Long expectedVersion) {
+        return join(deleteUserAsync(userId, expectedVersion));
+    }
+
+    public CompletableFuture<Boolean> deleteUserAsync(String userId) {
+        return deleteUserAsync(userId, null);
+    }
+
+    // With an expected version the delete is conditional: a stale one fails with VersionConflictException
+    public CompletableFuture<Boolean> deleteUserAsync(String userId, Long expectedVersion) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> deleted = userRepository.delete(userId, expectedVersion).whenComplete((existed, e) -> {
+            // Deleted, or changed under us: either way the cached copy is stale. Once deleted, a read
+            // still in flight can't put the user back either
+            userReads.forget(userId);
+            if (Boolean.TRUE.equals(existed)) {
+                raiseFence(userId, DELETED_FENCE);
+            }
+            userCache.invalidate(userId);
+            if (e == null) {
+                logger.debug("User deleted with ID: {}", userId);
+            }
+        });
+        return timed("deleteUser", start, failWith(deleted, "Error deleting user"));
+    }
+
+    // Logs a failed call and wraps it the way the blocking methods always have; client errors pass through untouched
+    private <T> CompletableFuture<T> failWith(CompletableFuture<T> future, String message) {
+        return future.exceptionally(e -> {
+            Throwable cause = unwrap(e);
+            if (cause instanceof DuplicateUserException || cause instanceof VersionConflictException
+                    || cause instanceof IncorrectPasswordException) {
+                logger.debug("Rejected write: {}", cause.getMessage());
+                throw new CompletionException(cause);
+            }
+            if (cause instanceof IllegalArgumentException || cause instanceof RejectedExecutionException) {
+                throw new CompletionException(cause);
+            }
+            logger.error(message, cause);
+            throw new CompletionException(new RuntimeException(message, cause));
+        });
+    }
+
+    // Client errors are tagged apart from failures so they don't hide (or fake) a latency regression
+    private static <T> CompletableFuture<T> timed(String operation, long startNanos, CompletableFuture<T> future) {
+        return future.whenComplete((result, e) -> {
+            String outcome = "success";
+            if (e != null) {
+                Throwable cause = unwrap(e);
+                if (cause instanceof RejectedExecutionException) {
+                    outcome = "shed";
+                } else {
+                    outcome = cause instanceof DuplicateUserException || cause instanceof VersionConflictException
+                            || cause instanceof IncorrectPasswordException || cause instanceof IllegalArgumentException
+                            ? "rejected" : "error";
+                }
+            }
+            UserMetrics.recordLatency(UserMetrics.SERVICE_OPERATION, System.nanoTime() - startNanos,
+                    "operation", operation, "outcome", outcome);
+        });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    // The blocking API (Lambda handlers) keeps throwing the same exceptions it did before the async path existed
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
-            throw new RuntimeException("Error deleting user", e);
+            throw new RuntimeException(cause);
         }
     }
 }
\ No newline at end of file
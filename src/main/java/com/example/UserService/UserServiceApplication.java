@@ -3,7 +3,7 @@ package com.example.UserService;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = "com.example")
 public class UserServiceApplication {
 
 	public static void main(String[] args) {
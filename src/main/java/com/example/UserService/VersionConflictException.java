@@ -0,0 +1,16 @@
+package com.example.UserService;
+
+public class VersionConflictException extends RuntimeException {
+    private final Long currentVersion;
+
+    public VersionConflictException(String userId, Long expectedVersion, Long currentVersion) {
+        super("User '" + userId + "' is at version " + (currentVersion == null ? 0 : currentVersion)
+                + (expectedVersion == null ? " and was modified concurrently" : ", not " + expectedVersion));
+        this.currentVersion = currentVersion;
+    }
+
+    // Null when the stored user predates versioning or the version could not be read
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.auth;
+
+// A valid token for a different user than the one the request changes; answered with 403
+public class AccessDeniedException extends RuntimeException {
+
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
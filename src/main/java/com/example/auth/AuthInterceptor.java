@@ -0,0 +1,67 @@
+package com.example.auth;
+
+import com.example.ErrorResponse.ErrorResponse;
+import com.example.logging.RequestLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Checks the bearer token before a {@link RoutePolicy protected} controller method runs and
+ * leaves the claims in the request attribute {@link TokenClaims#REQUEST_ATTRIBUTE}. Rejections
+ * are answered and logged here, so the controller only ever sees authorized requests.
+ */
+public class AuthInterceptor implements HandlerInterceptor {
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+    private final RequestLogger requestLogger;
+
+    public AuthInterceptor(TokenService tokenService, ObjectMapper objectMapper, RequestLogger requestLogger) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+        this.requestLogger = requestLogger;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // The async redispatch of a CompletableFuture result was authorized on the way in
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String method = request.getMethod();
+        String template = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!RoutePolicy.requiresToken(method, template)) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String userId = pathVariables == null ? null : pathVariables.get("userId");
+        try {
+            TokenClaims claims = tokenService.authorize(method, template, request.getHeader(HttpHeaders.AUTHORIZATION), userId);
+            request.setAttribute(TokenClaims.REQUEST_ATTRIBUTE, claims);
+            return true;
+        } catch (InvalidTokenException e) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            reject(response, method + " " + template, 401, new ErrorResponse("Unauthorized", e.getMessage()), e);
+            return false;
+        } catch (AccessDeniedException e) {
+            reject(response, method + " " + template, 403, new ErrorResponse("Forbidden", e.getMessage()), e);
+            return false;
+        }
+    }
+
+    private void reject(HttpServletResponse response, String route, int status, ErrorResponse errorResponse, RuntimeException e) throws IOException {
+        requestLogger.finish(requestLogger.start(route).status(status).error(e));
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
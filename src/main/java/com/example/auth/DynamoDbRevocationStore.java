@@ -0,0 +1,75 @@
+package com.example.auth;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link RevocationStore} in a DynamoDB table keyed by tokenId. {@code expiresAt} is the table's
+ * TTL attribute, so DynamoDB deletes each entry once its token could no longer be used anyway and
+ * the table only ever holds tokens that are revoked and otherwise still valid. TTL deletion lags,
+ * so reads also filter on expiresAt.
+ */
+public class DynamoDbRevocationStore implements RevocationStore {
+    public static final String TABLE_NAME = "jordan-user-service-revoked-tokens";
+    static final String TOKEN_ID = "tokenId";
+    static final String EXPIRES_AT = "expiresAt";
+
+    private final Supplier<DynamoDbClient> client;
+    private final String tableName;
+
+    // Resolves the client per call so a rebuilt client (e.g. after a SnapStart restore) is picked up
+    public DynamoDbRevocationStore(Supplier<DynamoDbClient> client, String tableName) {
+        this.client = client;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public void revoke(String tokenId, long expiresAt) {
+        client.get().putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(Map.of(
+                        TOKEN_ID, AttributeValue.builder().s(tokenId).build(),
+                        EXPIRES_AT, AttributeValue.builder().n(Long.toString(expiresAt)).build()))
+                .build());
+    }
+
+    @Override
+    public long revokedUntil(String tokenId, long now) {
+        GetItemResponse response = client.get().getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of(TOKEN_ID, AttributeValue.builder().s(tokenId).build()))
+                .projectionExpression(EXPIRES_AT)
+                .build());
+        AttributeValue expiresAt = response.hasItem() ? response.item().get(EXPIRES_AT) : null;
+        long until = expiresAt == null ? 0 : Long.parseLong(expiresAt.n());
+        return until > now ? until : 0;
+    }
+
+    @Override
+    public void forEachActive(long now, Consumer<String> consumer) {
+        ScanRequest request = ScanRequest.builder()
+                .tableName(tableName)
+                .projectionExpression("#id")
+                .filterExpression("#exp > :now")
+                .expressionAttributeNames(Map.of("#id", TOKEN_ID, "#exp", EXPIRES_AT))
+                .expressionAttributeValues(Map.of(":now", AttributeValue.builder().n(Long.toString(now)).build()))
+                .build();
+        for (ScanResponse page : client.get().scanPaginator(request)) {
+            for (Map<String, AttributeValue> item : page.items()) {
+                AttributeValue tokenId = item.get(TOKEN_ID);
+                if (tokenId != null && tokenId.s() != null) {
+                    consumer.accept(tokenId.s());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.auth;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * {@link RevocationStore} for a single process: tests, local runs and the in-memory repository.
+ * Expired entries are dropped as the filter rebuilds walk over them.
+ */
+public class InMemoryRevocationStore implements RevocationStore {
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Override
+    public void revoke(String tokenId, long expiresAt) {
+        revoked.merge(tokenId, expiresAt, Math::max);
+    }
+
+    @Override
+    public long revokedUntil(String tokenId, long now) {
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > now ? expiresAt : 0;
+    }
+
+    @Override
+    public void forEachActive(long now, Consumer<String> consumer) {
+        revoked.forEach((tokenId, expiresAt) -> {
+            if (expiresAt > now) {
+                consumer.accept(tokenId);
+            } else {
+                revoked.remove(tokenId, expiresAt);
+            }
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.auth;
+
+// Missing, malformed, forged, expired or revoked; always answered with 401
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
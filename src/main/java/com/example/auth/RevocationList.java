@@ -0,0 +1,146 @@
+package com.example.auth;
+
+import com.example.cache.TtlCache;
+import com.example.config.ThreadFactories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory view of the {@link RevocationStore}, so checking a token costs a few bit probes
+ * instead of a database read. The Bloom filter has no false negatives: a token it doesn't
+ * contain was never revoked (as of the last rebuild), and only its rare positives are confirmed
+ * against the store. The filter is rebuilt from the store in the background once it is older
+ * than the refresh interval, which is how logouts on other instances arrive here; logouts on
+ * this instance go into the live filter immediately.
+ */
+public class RevocationList {
+    private static final Logger logger = LoggerFactory.getLogger(RevocationList.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final int CONFIRMED_MAX_SIZE = 10_000;
+
+    private final RevocationStore store;
+    private final int expectedRevocations;
+    private final long refreshIntervalNanos;
+    private final LongSupplier clock;
+    private final ExecutorService refresher =
+            Executors.newSingleThreadExecutor(ThreadFactories.named("token-revocations-", false));
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ReentrantLock loading = new ReentrantLock();
+    // Store answers for filter positives: the entry's expiresAt, or 0 for none. Revocations only ever
+    // extend, so a cached answer can only be stale by missing a later one
+    private final TtlCache<String, Long> confirmed;
+    // Revoked on this instance and not yet expired; the store's scan may not show them yet
+    private final ConcurrentHashMap<String, Long> recent = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+    private volatile long refreshedAt;
+
+    public RevocationList(RevocationStore store, int expectedRevocations, Duration refreshInterval) {
+        this(store, expectedRevocations, refreshInterval, () -> System.currentTimeMillis() / 1000);
+    }
+
+    RevocationList(RevocationStore store, int expectedRevocations, Duration refreshInterval, LongSupplier clock) {
+        this.store = store;
+        this.expectedRevocations = expectedRevocations;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.clock = clock;
+        this.confirmed = new TtlCache<>(CONFIRMED_MAX_SIZE, refreshInterval);
+    }
+
+    public void revoke(String tokenId, long expiresAt) {
+        store.revoke(tokenId, expiresAt);
+        confirmed.put(tokenId, recent.merge(tokenId, expiresAt, Math::max));
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(tokenId);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revokedUntil(tokenId) > clock.getAsLong();
+    }
+
+    // When the revocation stored for tokenId runs out, or 0 when it has none
+    public long revokedUntil(String tokenId) {
+        BloomFilter current = filter;
+        if (current == null) {
+            // First check in this process: wait for the load rather than let revoked tokens through
+            current = load();
+        } else if (System.nanoTime() - refreshedAt > refreshIntervalNanos && refreshing.compareAndSet(false, true)) {
+            refresher.execute(this::refresh);
+        }
+        if (!current.mightContain(tokenId)) {
+            return 0;
+        }
+        Long until = confirmed.get(tokenId);
+        if (until == null) {
+            until = store.revokedUntil(tokenId, clock.getAsLong());
+            confirmed.put(tokenId, until);
+        }
+        return until;
+    }
+
+    // A lock rather than a monitor so virtual threads waiting on the first load don't pin their carrier
+    private BloomFilter load() {
+        loading.lock();
+        try {
+            if (filter == null) {
+                try {
+                    publish(fromStore());
+                } catch (RuntimeException e) {
+                    // Without the store only local logouts are known; the next refresh tries again
+                    logger.warn("Could not load revoked tokens", e);
+                    publish(new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE));
+                }
+                refreshedAt = System.nanoTime();
+            }
+            return filter;
+        } finally {
+            loading.unlock();
+        }
+    }
+
+    private void refresh() {
+        try {
+            publish(fromStore());
+        } catch (RuntimeException e) {
+            // Keep the previous filter; it still holds everything it had
+            logger.warn("Could not refresh revoked tokens", e);
+        } finally {
+            refreshedAt = System.nanoTime();
+            refreshing.set(false);
+        }
+    }
+
+    private BloomFilter fromStore() {
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+        store.forEachActive(clock.getAsLong(), rebuilt::put);
+        return rebuilt;
+    }
+
+    // Local revocations are re-added after the swap: one made during the scan may have gone into the old filter only
+    private void publish(BloomFilter rebuilt) {
+        filter = rebuilt;
+        long now = clock.getAsLong();
+        recent.forEach((tokenId, expiresAt) -> {
+            if (expiresAt > now) {
+                rebuilt.put(tokenId);
+            } else {
+                recent.remove(tokenId, expiresAt);
+            }
+        });
+    }
+
+    public void shutdown() {
+        refresher.shutdown();
+    }
+}
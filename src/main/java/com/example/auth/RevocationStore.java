@@ -0,0 +1,24 @@
+package com.example.auth;
+
+import java.util.function.Consumer;
+
+/**
+ * Durable record of logged-out tokens, shared by every instance. Entries only need to outlive
+ * the token they revoke, so stores are free to drop them once {@code expiresAt} has passed.
+ * Times are epoch seconds. Keys are token ids, or a {@link TokenService} per-user key when a
+ * password change cuts off every token issued to that user so far.
+ */
+public interface RevocationStore {
+
+    void revoke(String tokenId, long expiresAt);
+
+    // The stored expiresAt, or 0 when there is none or it has passed
+    long revokedUntil(String tokenId, long now);
+
+    default boolean isRevoked(String tokenId, long now) {
+        return revokedUntil(tokenId, now) > now;
+    }
+
+    // Every tokenId still revoked at now; used to rebuild the in-memory filter
+    void forEachActive(long now, Consumer<String> consumer);
+}
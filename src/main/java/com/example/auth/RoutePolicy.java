@@ -0,0 +1,46 @@
+package com.example.auth;
+
+import java.util.Set;
+
+/**
+ * Which routes need a token, shared by the MVC interceptor and the Lambda router. Routes are the
+ * same "METHOD /template" keys both sides already log and tag metrics with.
+ */
+public final class RoutePolicy {
+    // Granted by TokenService to the configured admin users
+    public static final String ADMIN_SCOPE = "admin";
+
+    // Signing up and logging in are the only user routes open without a token
+    private static final Set<String> PUBLIC = Set.of("POST /users", "POST /auth/login");
+
+    private RoutePolicy() {
+    }
+
+    public static boolean requiresToken(String method, String template) {
+        // CORS preflights never carry credentials
+        if (template == null || "OPTIONS".equals(method)
+                || !(template.startsWith("/users") || template.startsWith("/auth/") || adminOnly(template))) {
+            return false;
+        }
+        return !PUBLIC.contains(method + " " + template);
+    }
+
+    // Writes to a user (update, delete, change password) are only allowed with that user's own token
+    public static boolean ownerOnly(String method, String template) {
+        return ("PUT".equals(method) || "DELETE".equals(method)) && template.startsWith("/users/{userId}");
+    }
+
+    // Exports and other operator routes read every user
+    public static boolean adminOnly(String template) {
+        return template.startsWith("/admin/");
+    }
+
+    public static void checkAccess(TokenClaims claims, String method, String template, String userId) {
+        if (ownerOnly(method, template) && !claims.getSubject().equals(userId)) {
+            throw new AccessDeniedException("A token for user " + claims.getSubject() + " cannot change user " + userId);
+        }
+        if (adminOnly(template) && !claims.hasScope(ADMIN_SCOPE)) {
+            throw new AccessDeniedException("A token without the " + ADMIN_SCOPE + " scope cannot use " + template);
+        }
+    }
+}
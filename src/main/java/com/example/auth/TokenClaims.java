@@ -0,0 +1,91 @@
+package com.example.auth;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The verified contents of an access token. Field names are the registered JWT claims; times are
+ * epoch seconds.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class TokenClaims {
+    // Where the interceptor leaves the claims for the controller
+    public static final String REQUEST_ATTRIBUTE = "com.example.auth.TokenClaims";
+
+    private final String issuer;
+    private final String subject;
+    private final String username;
+    private final String tokenId;
+    private final long issuedAt;
+    private final long expiresAt;
+    private final String scope;
+
+    @JsonCreator
+    public TokenClaims(@JsonProperty("iss") String issuer,
+                       @JsonProperty("sub") String subject,
+                       @JsonProperty("username") String username,
+                       @JsonProperty("jti") String tokenId,
+                       @JsonProperty("iat") long issuedAt,
+                       @JsonProperty("exp") long expiresAt,
+                       @JsonProperty("scope") String scope) {
+        this.issuer = issuer;
+        this.subject = subject;
+        this.username = username;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.scope = scope;
+    }
+
+    @JsonProperty("iss")
+    public String getIssuer() {
+        return issuer;
+    }
+
+    // The userId
+    @JsonProperty("sub")
+    public String getSubject() {
+        return subject;
+    }
+
+    @JsonProperty("username")
+    public String getUsername() {
+        return username;
+    }
+
+    @JsonProperty("jti")
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    @JsonProperty("iat")
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    @JsonProperty("exp")
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    // Space-separated, as in OAuth; absent for ordinary users
+    @JsonProperty("scope")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getScope() {
+        return scope;
+    }
+
+    public boolean hasScope(String wanted) {
+        if (scope == null) {
+            return false;
+        }
+        for (String granted : scope.split(" ")) {
+            if (granted.equals(wanted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
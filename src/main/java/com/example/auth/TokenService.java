@@ -0,0 +1,244 @@
+package com.example.auth;
+
+import com.example.cache.TtlCache;
+import com.example.config.DynamoDbClientProvider;
+import com.example.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues and verifies HS256 JSON Web Tokens, so a protected request is authorized from the token
+ * alone with no database read. The key is set up once: an initialized {@link Mac} is kept as a
+ * template and cloned per call instead of repeating the key schedule. Tokens that verified are
+ * cached with their claims, so a client repeating its token skips the HMAC and the JSON parse;
+ * expiry and revocation are still checked on every use.
+ */
+public class TokenService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+
+    public static final String ISSUER = "user-service";
+    public static final int MIN_KEY_BYTES = 32;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String BEARER = "bearer ";
+    // Revocation key cutting off a user's tokens; token ids are UUIDs, so it can't collide with one
+    private static final String USER_KEY_PREFIX = "user:";
+
+    // Only one header is ever issued, so it is encoded once and anything else (alg "none", RS256, ...) is rejected
+    private static final String HEADER = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectWriter claimsWriter = objectMapper.writerFor(TokenClaims.class);
+    private static final ObjectReader claimsReader = objectMapper.readerFor(TokenClaims.class);
+
+    private final Mac macTemplate;
+    private final Duration tokenTtl;
+    private final RevocationList revocations;
+    private final TtlCache<String, TokenClaims> verified;
+    private final Set<String> adminUserIds;
+    private final LongSupplier clock;
+
+    public TokenService(byte[] key, Duration tokenTtl, RevocationList revocations, int cacheMaxSize, Duration cacheTtl) {
+        this(key, tokenTtl, revocations, cacheMaxSize, cacheTtl, Set.of());
+    }
+
+    // Tokens issued to adminUserIds carry the admin scope
+    public TokenService(byte[] key, Duration tokenTtl, RevocationList revocations, int cacheMaxSize, Duration cacheTtl,
+                        Set<String> adminUserIds) {
+        this(key, tokenTtl, revocations, cacheMaxSize, cacheTtl, adminUserIds, () -> System.currentTimeMillis() / 1000);
+    }
+
+    TokenService(byte[] key, Duration tokenTtl, RevocationList revocations, int cacheMaxSize, Duration cacheTtl, LongSupplier clock) {
+        this(key, tokenTtl, revocations, cacheMaxSize, cacheTtl, Set.of(), clock);
+    }
+
+    TokenService(byte[] key, Duration tokenTtl, RevocationList revocations, int cacheMaxSize, Duration cacheTtl,
+                 Set<String> adminUserIds, LongSupplier clock) {
+        if (key.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("The signing key must be at least " + MIN_KEY_BYTES + " bytes");
+        }
+        try {
+            this.macTemplate = Mac.getInstance(ALGORITHM);
+            macTemplate.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+        this.tokenTtl = tokenTtl;
+        this.revocations = revocations;
+        this.verified = new TtlCache<>(cacheMaxSize, cacheTtl);
+        this.adminUserIds = Set.copyOf(adminUserIds);
+        this.clock = clock;
+    }
+
+    // Used by the Lambda handlers: USER_JWT_SECRET, USER_TOKEN_TTL_SECONDS, USER_TOKEN_CACHE_MAX_SIZE,
+    // USER_TOKEN_CACHE_TTL_SECONDS, USER_REVOKED_TOKENS_TABLE, USER_REVOCATION_REFRESH_SECONDS and USER_ADMIN_USER_IDS
+    public static TokenService fromEnvironment() {
+        String repository = System.getenv("USER_REPOSITORY");
+        String table = System.getenv("USER_REVOKED_TOKENS_TABLE");
+        RevocationStore store = repository != null && repository.trim().equalsIgnoreCase("memory")
+                ? new InMemoryRevocationStore()
+                : new DynamoDbRevocationStore(DynamoDbClientProvider::get,
+                        table == null || table.isBlank() ? DynamoDbRevocationStore.TABLE_NAME : table.trim());
+        RevocationList revocations = new RevocationList(store, intEnv("USER_REVOKED_TOKENS_EXPECTED", 100_000),
+                Duration.ofSeconds(intEnv("USER_REVOCATION_REFRESH_SECONDS", 30)));
+        return new TokenService(signingKey(System.getenv("USER_JWT_SECRET")),
+                Duration.ofSeconds(intEnv("USER_TOKEN_TTL_SECONDS", 3600)), revocations,
+                intEnv("USER_TOKEN_CACHE_MAX_SIZE", 10_000), Duration.ofSeconds(intEnv("USER_TOKEN_CACHE_TTL_SECONDS", 300)),
+                userIds(System.getenv("USER_ADMIN_USER_IDS")));
+    }
+
+    // A comma-separated list, as in user.auth.admin-user-ids
+    public static Set<String> userIds(String list) {
+        Set<String> userIds = new HashSet<>();
+        if (list != null) {
+            for (String userId : list.split(",")) {
+                if (!userId.isBlank()) {
+                    userIds.add(userId.trim());
+                }
+            }
+        }
+        return userIds;
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    // A base64 secret shared by every instance. Without one each process signs with its own random
+    // key, which is fine for a single local instance but nowhere else
+    public static byte[] signingKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            logger.warn("No JWT secret configured; using a random key, so tokens won't verify on other instances or after a restart");
+            byte[] key = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(key);
+            return key;
+        }
+        return Base64.getDecoder().decode(secret.trim());
+    }
+
+    // The token from an "Authorization: Bearer ..." header, or null
+    public static String bearerToken(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    public Duration getTokenTtl() {
+        return tokenTtl;
+    }
+
+    public String issue(User user) {
+        long now = clock.getAsLong();
+        TokenClaims claims = new TokenClaims(ISSUER, user.getUserId(), user.getUsername(),
+                UUID.randomUUID().toString(), now, now + tokenTtl.toSeconds(),
+                adminUserIds.contains(user.getUserId()) ? RoutePolicy.ADMIN_SCOPE : null);
+        try {
+            String signed = HEADER + '.' + base64Url(claimsWriter.writeValueAsBytes(claims));
+            return signed + '.' + base64Url(sign(signed));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode token claims", e);
+        }
+    }
+
+    public TokenClaims verify(String token) {
+        if (token == null) {
+            throw new InvalidTokenException("Missing bearer token");
+        }
+        TokenClaims claims = verified.get(token);
+        if (claims == null) {
+            claims = verifySignature(token);
+            verified.put(token, claims);
+        }
+        if (claims.getExpiresAt() <= clock.getAsLong()) {
+            verified.invalidate(token);
+            throw new InvalidTokenException("Token has expired");
+        }
+        if (revocations.isRevoked(claims.getTokenId())) {
+            throw new InvalidTokenException("Token has been revoked");
+        }
+        if (claims.getExpiresAt() < revocations.revokedUntil(USER_KEY_PREFIX + claims.getSubject())) {
+            throw new InvalidTokenException("Token was issued before a password change");
+        }
+        return claims;
+    }
+
+    // Verifies the token for a route from RoutePolicy and checks the token's owner where the route needs it
+    public TokenClaims authorize(String method, String template, String authorization, String userId) {
+        TokenClaims claims = verify(bearerToken(authorization));
+        RoutePolicy.checkAccess(claims, method, template, userId);
+        return claims;
+    }
+
+    // Logout: the token stays valid until it expires, so it is revoked until then and no longer
+    public void revoke(TokenClaims claims) {
+        revocations.revoke(claims.getTokenId(), claims.getExpiresAt());
+    }
+
+    // Password change: every token issued to the user so far stops working. One entry per user, stored with
+    // the expiry the newest of those tokens can have, which cuts off any token that expires sooner. Tokens
+    // issued in the same second survive, so a login straight after the change works
+    public void revokeAll(String userId) {
+        revocations.revoke(USER_KEY_PREFIX + userId, clock.getAsLong() + tokenTtl.toSeconds());
+    }
+
+    private TokenClaims verifySignature(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.lastIndexOf('.');
+        if (headerEnd <= 0 || payloadEnd == headerEnd || !token.startsWith(HEADER) || headerEnd != HEADER.length()) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        String signed = token.substring(0, payloadEnd);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(payloadEnd + 1));
+            if (!MessageDigest.isEqual(signature, sign(signed))) {
+                throw new InvalidTokenException("Invalid token signature");
+            }
+            TokenClaims claims = claimsReader.readValue(Base64.getUrlDecoder().decode(token.substring(headerEnd + 1, payloadEnd)));
+            if (!ISSUER.equals(claims.getIssuer()) || claims.getSubject() == null || claims.getTokenId() == null) {
+                throw new InvalidTokenException("Invalid token claims");
+            }
+            return claims;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+    }
+
+    private byte[] sign(String signed) {
+        return mac().doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // A clone of the initialized template; Mac instances are not thread-safe
+    private Mac mac() {
+        try {
+            return (Mac) macTemplate.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " provider does not support cloning", e);
+        }
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public void shutdown() {
+        revocations.shutdown();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.cache;
+
+import com.example.config.ThreadFactories;
+import com.example.metrics.UserMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Brings changes made on other nodes into this node's caches. Each poll reads the
+ * {@link InvalidationFeed} from shortly before the previous one, so entries from a publisher
+ * with a skewed clock, or not yet visible last time, are still seen; applying an entry twice is
+ * harmless. A node that hasn't polled for longer than the cache TTL (a Lambda container frozen
+ * between invocations, a feed outage) clears its caches instead of catching up.
+ *
+ * <p>Staleness is recorded as {@code user.cache.invalidation.lag}: the time from the write in
+ * DynamoDB to its eviction here, with stage=published for the stream consumer's share.
+ */
+public class CacheInvalidator {
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidator.class);
+
+    private static final long OVERLAP_MILLIS = 5_000;
+
+    private final InvalidationFeed feed;
+    // True when the entry evicted something
+    private final Predicate<UserInvalidation> apply;
+    private final Runnable clearAll;
+    private final long pollIntervalMillis;
+    private final long maxGapMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock polling = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+
+    private volatile long polledUntil;
+    private volatile long lastAttempt;
+
+    public CacheInvalidator(InvalidationFeed feed, Predicate<UserInvalidation> apply, Runnable clearAll,
+                            Duration pollInterval, Duration cacheTtl) {
+        this(feed, apply, clearAll, pollInterval, cacheTtl, System::currentTimeMillis);
+    }
+
+    CacheInvalidator(InvalidationFeed feed, Predicate<UserInvalidation> apply, Runnable clearAll,
+                     Duration pollInterval, Duration cacheTtl, LongSupplier clock) {
+        this.feed = feed;
+        this.apply = apply;
+        this.clearAll = clearAll;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.maxGapMillis = cacheTtl.toMillis();
+        this.clock = clock;
+        this.polledUntil = clock.getAsLong();
+        this.lastAttempt = polledUntil;
+    }
+
+    // Spring: poll in the background. Lambda containers are frozen between invocations, so the router calls pollIfDue instead
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(ThreadFactories.named("cache-invalidations-", false));
+        scheduler.scheduleWithFixedDelay(this::pollIfDue, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    // Cheap when not due; a caller that finds a poll already running goes on without waiting
+    public void pollIfDue() {
+        if (clock.getAsLong() - lastAttempt >= pollIntervalMillis && polling.tryLock()) {
+            try {
+                poll();
+            } finally {
+                polling.unlock();
+            }
+        }
+    }
+
+    // Milliseconds since the feed was last read successfully; with the lag, the bound on serving a stale user
+    public long getPollAgeMillis() {
+        return clock.getAsLong() - polledUntil;
+    }
+
+    private void poll() {
+        long now = clock.getAsLong();
+        long previous = polledUntil;
+        lastAttempt = now;
+        if (now - previous > maxGapMillis) {
+            clearAll.run();
+            UserMetrics.increment(UserMetrics.CACHE_INVALIDATIONS, 1, "outcome", "reset");
+            polledUntil = now;
+            return;
+        }
+        try {
+            feed.forEachSince(previous - OVERLAP_MILLIS, now, invalidation -> {
+                boolean evicted = apply.test(invalidation);
+                // Entries from the overlap were counted when first read
+                if (invalidation.getPublishedAt() >= previous) {
+                    UserMetrics.increment(UserMetrics.CACHE_INVALIDATIONS, 1, "outcome", evicted ? "evicted" : "current");
+                    recordLag(invalidation, clock.getAsLong(), "applied");
+                }
+            });
+            polledUntil = now;
+        } catch (RuntimeException e) {
+            // The next poll reads the same window again, or clears the caches once it is too old
+            logger.warn("Could not read cache invalidations", e);
+        }
+    }
+
+    public static void recordLag(UserInvalidation invalidation, long nowMillis, String stage) {
+        UserMetrics.recordLatency(UserMetrics.CACHE_INVALIDATION_LAG,
+                TimeUnit.MILLISECONDS.toNanos(Math.max(0, nowMillis - invalidation.getChangedAt())), "stage", stage);
+    }
+}
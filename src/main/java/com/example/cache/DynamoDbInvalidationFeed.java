@@ -0,0 +1,152 @@
+package com.example.cache;
+
+import com.example.resilience.Backoff;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link InvalidationFeed} in a DynamoDB table partitioned by the minute of publication, with
+ * the publish time leading the sort key, so a node catches up with one Query per minute it
+ * missed (normally one). Entries expire through the table's TTL after an hour; nodes only ever
+ * read back as far as their cache TTL. Every write of the minute lands on one partition, which is
+ * plenty for user writes (1,000 items a second) but not for a high-churn table.
+ */
+public class DynamoDbInvalidationFeed implements InvalidationFeed {
+    public static final String TABLE_NAME = "jordan-user-service-cache-invalidations";
+    static final String BUCKET = "bucket";
+    static final String SEQUENCE = "sequence";
+    static final String USER_ID = "userId";
+    static final String VERSION = "version";
+    static final String DELETED = "deleted";
+    static final String UNIQUE_KEYS = "uniqueKeys";
+    static final String CHANGED_AT = "changedAt";
+    static final String PUBLISHED_AT = "publishedAt";
+    static final String EXPIRES_AT = "expiresAt";
+
+    private static final long BUCKET_MILLIS = 60_000;
+    private static final long RETENTION_SECONDS = 3_600;
+    private static final int MAX_ITEMS_PER_REQUEST = 25;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+
+    private final Supplier<DynamoDbClient> client;
+    private final String tableName;
+
+    // Resolves the client per call so a rebuilt client (e.g. after a SnapStart restore) is picked up
+    public DynamoDbInvalidationFeed(Supplier<DynamoDbClient> client, String tableName) {
+        this.client = client;
+        this.tableName = tableName;
+    }
+
+    // Throws when items are still unprocessed after the retries, so the stream batch is redelivered
+    @Override
+    public void publish(List<UserInvalidation> invalidations) {
+        for (int start = 0; start < invalidations.size(); start += MAX_ITEMS_PER_REQUEST) {
+            List<WriteRequest> pending = new ArrayList<>(MAX_ITEMS_PER_REQUEST);
+            for (UserInvalidation invalidation : invalidations.subList(start, Math.min(start + MAX_ITEMS_PER_REQUEST, invalidations.size()))) {
+                pending.add(WriteRequest.builder().putRequest(PutRequest.builder().item(toItem(invalidation)).build()).build());
+            }
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                if (attempt > MAX_ATTEMPTS) {
+                    throw new IllegalStateException(pending.size() + " invalidations unprocessed after " + MAX_ATTEMPTS + " attempts");
+                }
+                if (attempt > 1) {
+                    try {
+                        Backoff.sleep(attempt - 1, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while publishing invalidations", e);
+                    }
+                }
+                BatchWriteItemResponse response = client.get().batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(tableName, pending))
+                        .build());
+                List<WriteRequest> unprocessed = response.hasUnprocessedItems() ? response.unprocessedItems().get(tableName) : null;
+                pending = unprocessed == null ? List.of() : unprocessed;
+            }
+        }
+    }
+
+    @Override
+    public void forEachSince(long sinceMillis, long nowMillis, Consumer<UserInvalidation> consumer) {
+        for (long bucket = sinceMillis / BUCKET_MILLIS; bucket <= nowMillis / BUCKET_MILLIS; bucket++) {
+            QueryRequest request = QueryRequest.builder()
+                    .tableName(tableName)
+                    .keyConditionExpression("#bucket = :bucket AND #seq >= :from")
+                    .expressionAttributeNames(Map.of("#bucket", BUCKET, "#seq", SEQUENCE))
+                    .expressionAttributeValues(Map.of(
+                            ":bucket", AttributeValue.builder().n(Long.toString(bucket)).build(),
+                            ":from", AttributeValue.builder().s(timestamp(sinceMillis)).build()))
+                    // A just-published entry must not be missed by a poll that then moves past it
+                    .consistentRead(true)
+                    .build();
+            for (QueryResponse page : client.get().queryPaginator(request)) {
+                for (Map<String, AttributeValue> item : page.items()) {
+                    consumer.accept(fromItem(item));
+                }
+            }
+        }
+    }
+
+    // Zero-padded so the sort key orders by time; the rest only keeps entries apart
+    static String sequence(UserInvalidation invalidation) {
+        return timestamp(invalidation.getPublishedAt()) + '#' + invalidation.getUserId() + '#'
+                + (invalidation.isDeleted() ? "deleted" : String.valueOf(invalidation.getVersion()));
+    }
+
+    private static String timestamp(long millis) {
+        return String.format("%013d", millis);
+    }
+
+    static Map<String, AttributeValue> toItem(UserInvalidation invalidation) {
+        Map<String, AttributeValue> item = new HashMap<>(16);
+        item.put(BUCKET, number(invalidation.getPublishedAt() / BUCKET_MILLIS));
+        item.put(SEQUENCE, AttributeValue.builder().s(sequence(invalidation)).build());
+        item.put(USER_ID, AttributeValue.builder().s(invalidation.getUserId()).build());
+        if (invalidation.getVersion() != null) {
+            item.put(VERSION, number(invalidation.getVersion()));
+        }
+        if (invalidation.isDeleted()) {
+            item.put(DELETED, AttributeValue.builder().bool(true).build());
+        }
+        // A string set may not be empty
+        if (!invalidation.getUniqueKeys().isEmpty()) {
+            item.put(UNIQUE_KEYS, AttributeValue.builder().ss(invalidation.getUniqueKeys()).build());
+        }
+        item.put(CHANGED_AT, number(invalidation.getChangedAt()));
+        item.put(PUBLISHED_AT, number(invalidation.getPublishedAt()));
+        item.put(EXPIRES_AT, number(invalidation.getPublishedAt() / 1000 + RETENTION_SECONDS));
+        return item;
+    }
+
+    static UserInvalidation fromItem(Map<String, AttributeValue> item) {
+        AttributeValue version = item.get(VERSION);
+        AttributeValue deleted = item.get(DELETED);
+        AttributeValue uniqueKeys = item.get(UNIQUE_KEYS);
+        return new UserInvalidation(
+                item.get(USER_ID).s(),
+                version == null ? null : Long.valueOf(version.n()),
+                deleted != null && Boolean.TRUE.equals(deleted.bool()),
+                uniqueKeys == null || !uniqueKeys.hasSs() ? List.of() : uniqueKeys.ss(),
+                Long.parseLong(item.get(CHANGED_AT).n()),
+                Long.parseLong(item.get(PUBLISHED_AT).n()));
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fleet-wide log of user changes, written by the DynamoDB Streams consumer and read by every
+ * node's {@link CacheInvalidator}. Readers may see an invalidation more than once; applying one
+ * is idempotent.
+ */
+public interface InvalidationFeed {
+
+    void publish(List<UserInvalidation> invalidations);
+
+    // Everything published at or after sinceMillis, in publish order
+    void forEachSince(long sinceMillis, long nowMillis, Consumer<UserInvalidation> consumer);
+}
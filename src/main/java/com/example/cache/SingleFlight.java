@@ -0,0 +1,72 @@
+package com.example.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller starts the load and callers that
+ * arrive while it is in flight share its result, so a hot key costs one backend read per round
+ * trip instead of one per request. Nothing is kept once a load completes; caching is the
+ * caller's business. At most maxKeys loads are tracked, and callers beyond that load on their
+ * own, so a burst of distinct slow keys can't grow the map without bound.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final Runnable onCoalesced;
+
+    public SingleFlight(int maxKeys, Runnable onCoalesced) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        this.maxKeys = maxKeys;
+        this.onCoalesced = onCoalesced;
+    }
+
+    // Each caller gets its own copy of the shared future, so one cancelling doesn't fail the others
+    public CompletableFuture<V> load(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> existing = inFlight.get(key);
+        if (existing != null) {
+            return join(existing);
+        }
+        if (inFlight.size() >= maxKeys) {
+            return loader.get();
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return join(existing);
+        }
+        CompletableFuture<V> loaded;
+        try {
+            loaded = loader.get();
+        } catch (RuntimeException e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+        loaded.whenComplete((value, e) -> {
+            // Removed before completing, so no caller joins a load that has already finished
+            inFlight.remove(key, flight);
+            if (e != null) {
+                flight.completeExceptionally(e);
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight.copy();
+    }
+
+    // After a write: callers from now on start a fresh load. Those already waiting keep the old one
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private CompletableFuture<V> join(CompletableFuture<V> flight) {
+        onCoalesced.run();
+        return flight.copy();
+    }
+}
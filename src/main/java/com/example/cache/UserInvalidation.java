@@ -0,0 +1,64 @@
+package com.example.cache;
+
+import java.util.List;
+
+/**
+ * A change to one user, as published on the {@link InvalidationFeed}. The version is the item's
+ * version after the change (null for items written before versioning), which is what lets nodes
+ * apply the same invalidation twice, or out of order, without harm. uniqueKeys are the
+ * username/email keys the change touched, old and new, so negative lookups for them are dropped too.
+ */
+public final class UserInvalidation {
+    private final String userId;
+    private final Long version;
+    private final boolean deleted;
+    private final List<String> uniqueKeys;
+    // Epoch millis: when DynamoDB recorded the change (second precision), and when it was published
+    private final long changedAt;
+    private final long publishedAt;
+
+    public UserInvalidation(String userId, Long version, boolean deleted, List<String> uniqueKeys,
+                            long changedAt, long publishedAt) {
+        this.userId = userId;
+        this.version = version;
+        this.deleted = deleted;
+        this.uniqueKeys = List.copyOf(uniqueKeys);
+        this.changedAt = changedAt;
+        this.publishedAt = publishedAt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public List<String> getUniqueKeys() {
+        return uniqueKeys;
+    }
+
+    public long getChangedAt() {
+        return changedAt;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "UserInvalidation{" +
+                "userId='" + userId + '\'' +
+                ", version=" + version +
+                ", deleted=" + deleted +
+                ", changedAt=" + changedAt +
+                ", publishedAt=" + publishedAt +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.config;
+
+import com.example.auth.AuthInterceptor;
+import com.example.auth.DynamoDbRevocationStore;
+import com.example.auth.InMemoryRevocationStore;
+import com.example.auth.RevocationList;
+import com.example.auth.RevocationStore;
+import com.example.auth.TokenService;
+import com.example.logging.RequestLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.time.Duration;
+
+@Configuration
+public class AuthConfig {
+
+    // Revocations live next to the users: in process for user.repository=memory, otherwise in DynamoDB
+    @Bean
+    public RevocationStore revocationStore(
+            @Value("${user.repository:dynamodb}") String repository,
+            @Value("${user.auth.revoked-tokens-table-name:" + DynamoDbRevocationStore.TABLE_NAME + "}") String tableName,
+            DynamoDbClient dynamoDbClient) {
+        if (repository.trim().equalsIgnoreCase("memory")) {
+            return new InMemoryRevocationStore();
+        }
+        return new DynamoDbRevocationStore(() -> dynamoDbClient, tableName);
+    }
+
+    // Stopped on shutdown along with the revocation refresher
+    @Bean(destroyMethod = "shutdown")
+    public TokenService tokenService(
+            RevocationStore revocationStore,
+            @Value("${user.auth.jwt-secret:}") String secret,
+            @Value("${user.auth.token-ttl:1h}") Duration tokenTtl,
+            @Value("${user.auth.token-cache.max-size:10000}") int cacheMaxSize,
+            @Value("${user.auth.token-cache.ttl:5m}") Duration cacheTtl,
+            @Value("${user.auth.revocations.expected:100000}") int expectedRevocations,
+            @Value("${user.auth.revocations.refresh-interval:30s}") Duration refreshInterval,
+            @Value("${user.auth.admin-user-ids:}") String adminUserIds) {
+        RevocationList revocations = new RevocationList(revocationStore, expectedRevocations, refreshInterval);
+        return new TokenService(TokenService.signingKey(secret), tokenTtl, revocations, cacheMaxSize, cacheTtl,
+                TokenService.userIds(adminUserIds));
+    }
+
+    // user.auth.enabled=false serves every route without a token, e.g. behind a gateway that already checks them
+    @Bean
+    public WebMvcConfigurer authInterceptorConfigurer(
+            @Value("${user.auth.enabled:true}") boolean enabled,
+            TokenService tokenService,
+            ObjectMapper objectMapper,
+            RequestLogger requestLogger) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                if (enabled) {
+                    registry.addInterceptor(new AuthInterceptor(tokenService, objectMapper, requestLogger));
+                }
+            }
+        };
+    }
+}
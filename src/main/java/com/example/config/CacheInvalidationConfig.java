@@ -0,0 +1,38 @@
+package com.example.config;
+
+import com.example.UserService.UserService;
+import com.example.cache.CacheInvalidator;
+import com.example.cache.DynamoDbInvalidationFeed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.time.Duration;
+
+// Changes made on other nodes reach this one's user cache through the feed the users-table stream
+// consumer writes. Off in the local profile: an in-memory repository has no other nodes
+@Configuration
+@ConditionalOnProperty(name = "user.cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public CacheInvalidator cacheInvalidator(
+            UserService userService,
+            DynamoDbClient dynamoDbClient,
+            @Value("${user.cache.invalidation.table-name:" + DynamoDbInvalidationFeed.TABLE_NAME + "}") String tableName,
+            @Value("${user.cache.invalidation.poll-interval:1s}") Duration pollInterval) {
+        return new CacheInvalidator(new DynamoDbInvalidationFeed(() -> dynamoDbClient, tableName),
+                userService::applyInvalidation, userService::clearCaches, pollInterval, userService.getUserCacheTtl());
+    }
+
+    @Bean
+    public MeterBinder cacheInvalidationGauges(CacheInvalidator cacheInvalidator) {
+        return registry -> Gauge.builder("user.cache.invalidation.poll.age", cacheInvalidator, CacheInvalidator::getPollAgeMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.config;
+
+import com.example.credentials.PasswordHasher;
+import com.example.credentials.PasswordHashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CredentialsConfig {
+
+    // Stopped on shutdown; queued hashes are finished, new ones rejected
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHashing passwordHashing(
+            @Value("${user.password.iterations:600000}") int iterations,
+            @Value("${user.password.hash-concurrency:0}") int concurrency,
+            @Value("${user.password.hash-queue:256}") int queueCapacity) {
+        return new PasswordHashing(new PasswordHasher(iterations), concurrency, queueCapacity);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.config;
+
+import com.example.metrics.UserMetrics;
+import com.example.resilience.AdaptiveRateLimiter;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Records latency, retries and throttling for every DynamoDB API call the SDK reports. Each
+ * published collection is one API call; its children are the individual attempts, which carry
+ * the error type of any attempt that was throttled and retried. Those attempts are also the
+ * earliest throttling signal for the rate limiter: the call itself may still succeed on a retry.
+ */
+public class DynamoDbCallMetrics implements MetricPublisher {
+    private static final String THROTTLING = "Throttling";
+
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public DynamoDbCallMetrics(AdaptiveRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        String operation = first(metricCollection.metricValues(CoreMetric.OPERATION_NAME), "unknown");
+        boolean successful = first(metricCollection.metricValues(CoreMetric.API_CALL_SUCCESSFUL), Boolean.FALSE);
+        Duration duration = first(metricCollection.metricValues(CoreMetric.API_CALL_DURATION), null);
+        if (duration != null) {
+            UserMetrics.recordLatency(UserMetrics.DYNAMODB_CALL, duration.toNanos(),
+                    "operation", operation, "outcome", successful ? "success" : "error");
+        }
+
+        int retries = first(metricCollection.metricValues(CoreMetric.RETRY_COUNT), 0);
+        if (retries > 0) {
+            UserMetrics.increment(UserMetrics.DYNAMODB_RETRIES, retries, "operation", operation);
+        }
+
+        int throttled = 0;
+        for (MetricCollection attempt : metricCollection.children()) {
+            if (attempt.metricValues(CoreMetric.ERROR_TYPE).contains(THROTTLING)) {
+                throttled++;
+            }
+        }
+        if (throttled > 0) {
+            UserMetrics.increment(UserMetrics.DYNAMODB_THROTTLES, throttled, "operation", operation);
+            rateLimiter.onThrottle();
+        }
+    }
+
+    private static <T> T first(List<T> values, T defaultValue) {
+        return values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    @Override
+    public void close() {
+    }
+}
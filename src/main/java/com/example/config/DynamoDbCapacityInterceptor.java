@@ -0,0 +1,163 @@
+package com.example.config;
+
+import com.example.metrics.EmfMetrics;
+import com.example.metrics.UserMetrics;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactGetItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.List;
+
+/**
+ * Asks DynamoDB to report consumed capacity on every data-plane call (unless the caller already
+ * chose a mode) and records it, along with request and response payload sizes. Installed on both
+ * shared clients, so PutUserItem, QueryUser, GetAllUsers, DeleteUser and the repository are all
+ * covered without touching their request builders.
+ */
+public class DynamoDbCapacityInterceptor implements ExecutionInterceptor {
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        SdkRequest request = context.request();
+        ReturnConsumedCapacity total = ReturnConsumedCapacity.TOTAL;
+        if (request instanceof GetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof PutItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof UpdateItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof DeleteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof QueryRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof ScanRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof BatchGetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof BatchWriteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof TransactWriteItemsRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        if (request instanceof TransactGetItemsRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        return request;
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+        // Recorded per attempt: a retried call really does send its payload again
+        long size = context.requestBody().map(body -> body.optionalContentLength().orElse(-1L))
+                .orElseGet(() -> context.asyncRequestBody().flatMap(body -> body.contentLength()).orElse(-1L));
+        if (size >= 0) {
+            UserMetrics.recordAmount(UserMetrics.DYNAMODB_REQUEST_SIZE, EmfMetrics.Unit.BYTES, size,
+                    "operation", operation(executionAttributes));
+        }
+    }
+
+    @Override
+    public void afterTransmission(Context.AfterTransmission context, ExecutionAttributes executionAttributes) {
+        context.httpResponse().firstMatchingHeader("Content-Length").ifPresent(length -> {
+            try {
+                UserMetrics.recordAmount(UserMetrics.DYNAMODB_RESPONSE_SIZE, EmfMetrics.Unit.BYTES, Long.parseLong(length),
+                        "operation", operation(executionAttributes));
+            } catch (NumberFormatException e) {
+                // Not worth failing a call over a malformed header
+            }
+        });
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        double capacity = capacityUnits(context.response());
+        if (capacity > 0) {
+            UserMetrics.recordAmount(UserMetrics.DYNAMODB_CONSUMED_CAPACITY, EmfMetrics.Unit.NONE, capacity,
+                    "operation", operation(executionAttributes));
+        }
+    }
+
+    private static String operation(ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operation != null ? operation : "unknown";
+    }
+
+    static double capacityUnits(SdkResponse response) {
+        if (response instanceof GetItemResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof PutItemResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof UpdateItemResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof DeleteItemResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof QueryResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof ScanResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof BatchGetItemResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof BatchWriteItemResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof TransactWriteItemsResponse r) {
+            return units(r.consumedCapacity());
+        }
+        if (response instanceof TransactGetItemsResponse r) {
+            return units(r.consumedCapacity());
+        }
+        return 0;
+    }
+
+    private static double units(ConsumedCapacity consumedCapacity) {
+        return consumedCapacity != null && consumedCapacity.capacityUnits() != null ? consumedCapacity.capacityUnits() : 0;
+    }
+
+    private static double units(List<ConsumedCapacity> consumedCapacity) {
+        double total = 0;
+        for (ConsumedCapacity capacity : consumedCapacity) {
+            total += units(capacity);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.config;
+
+import com.example.resilience.AdaptiveRateLimiter;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-wide holder for a single {@link DynamoDbClient} and a single {@link DynamoDbAsyncClient}.
+ * Each client (and its HTTP connection pool and credential chain) is built once and reused across
+ * warm Lambda invocations and Spring requests. Spring initializes it from {@link DynamoDbConfig};
+ * Lambda handlers fall back to environment-based settings on first use.
+ *
+ * <p>Both clients retry with full-jitter backoff, so throttled callers spread out instead of
+ * retrying in lockstep, and report throttled attempts to one process-wide
+ * {@link AdaptiveRateLimiter} that the repository consults before sending.
+ */
+public final class DynamoDbClientProvider {
+    // Never limit below this many requests per second, however hard DynamoDB throttles
+    private static final double MIN_RATE = 5;
+    private static final Duration RETRY_BASE_DELAY = Duration.ofMillis(25);
+    private static final Duration THROTTLED_RETRY_BASE_DELAY = Duration.ofMillis(100);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(2);
+
+    private static final AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(MIN_RATE);
+    private static final DynamoDbPoolMetrics poolMetrics = new DynamoDbPoolMetrics();
+    private static final DynamoDbCallMetrics callMetrics = new DynamoDbCallMetrics(rateLimiter);
+    private static final DynamoDbCapacityInterceptor capacityInterceptor = new DynamoDbCapacityInterceptor();
+    // Building a client reads credential/region config from disk; a monitor here would pin virtual threads
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static volatile DynamoDbClientSettings settings;
+    private static volatile DynamoDbClient client;
+    private static volatile DynamoDbAsyncClient asyncClient;
+
+    private DynamoDbClientProvider() {
+    }
+
+    public static void initialize(DynamoDbClientSettings clientSettings) {
+        lock.lock();
+        try {
+            close();
+            settings = clientSettings;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Swaps in ready-made clients (e.g. an in-memory stand-in for benchmarks); the provider takes ownership
+    public static void useClients(DynamoDbClient syncClient, DynamoDbAsyncClient async) {
+        lock.lock();
+        try {
+            close();
+            client = syncClient;
+            asyncClient = async;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static DynamoDbClient get() {
+        DynamoDbClient current = client;
+        if (current == null) {
+            lock.lock();
+            try {
+                current = client;
+                if (current == null) {
+                    if (settings == null) {
+                        settings = DynamoDbClientSettings.fromEnvironment();
+                    }
+                    current = build(settings);
+                    client = current;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    public static DynamoDbAsyncClient getAsync() {
+        DynamoDbAsyncClient current = asyncClient;
+        if (current == null) {
+            lock.lock();
+            try {
+                current = asyncClient;
+                if (current == null) {
+                    if (settings == null) {
+                        settings = DynamoDbClientSettings.fromEnvironment();
+                    }
+                    current = buildAsync(settings);
+                    asyncClient = current;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    public static DynamoDbPoolMetrics poolMetrics() {
+        return poolMetrics;
+    }
+
+    public static AdaptiveRateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    public static void close() {
+        lock.lock();
+        try {
+            if (client != null) {
+                client.close();
+                client = null;
+            }
+            if (asyncClient != null) {
+                asyncClient.close();
+                asyncClient = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Standard mode also keeps the SDK's retry quota, which stops retrying altogether once most attempts fail
+    private static ClientOverrideConfiguration overrides(DynamoDbClientSettings settings) {
+        return ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.builder(RetryMode.STANDARD)
+                        .numRetries(settings.getMaxRetries())
+                        .backoffStrategy(FullJitterBackoffStrategy.builder()
+                                .baseDelay(RETRY_BASE_DELAY).maxBackoffTime(MAX_RETRY_DELAY).build())
+                        .throttlingBackoffStrategy(FullJitterBackoffStrategy.builder()
+                                .baseDelay(THROTTLED_RETRY_BASE_DELAY).maxBackoffTime(MAX_RETRY_DELAY).build())
+                        .build())
+                .addMetricPublisher(poolMetrics)
+                .addMetricPublisher(callMetrics)
+                .addExecutionInterceptor(capacityInterceptor)
+                .build();
+    }
+
+    private static DynamoDbClient build(DynamoDbClientSettings settings) {
+        ApacheHttpClient.Builder httpClient = ApacheHttpClient.builder()
+                .maxConnections(settings.getMaxConnections())
+                .connectionTimeout(settings.getConnectionTimeout())
+                .connectionAcquisitionTimeout(settings.getConnectionAcquisitionTimeout())
+                .socketTimeout(settings.getSocketTimeout())
+                .connectionTimeToLive(settings.getConnectionTimeToLive())
+                .connectionMaxIdleTime(settings.getConnectionMaxIdleTime())
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(settings.isTcpKeepAlive());
+
+        return DynamoDbClient.builder()
+                .region(settings.getRegion())
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(httpClient)
+                .overrideConfiguration(overrides(settings))
+                .build();
+    }
+
+    // Netty keeps requests off the caller's thread; pending acquires queue instead of blocking
+    private static DynamoDbAsyncClient buildAsync(DynamoDbClientSettings settings) {
+        NettyNioAsyncHttpClient.Builder httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(settings.getMaxConnections())
+                .maxPendingConnectionAcquires(settings.getMaxPendingConnectionAcquires())
+                .connectionTimeout(settings.getConnectionTimeout())
+                .connectionAcquisitionTimeout(settings.getConnectionAcquisitionTimeout())
+                .readTimeout(settings.getSocketTimeout())
+                .writeTimeout(settings.getSocketTimeout())
+                .connectionTimeToLive(settings.getConnectionTimeToLive())
+                .connectionMaxIdleTime(settings.getConnectionMaxIdleTime())
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(settings.isTcpKeepAlive());
+
+        return DynamoDbAsyncClient.builder()
+                .region(settings.getRegion())
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(httpClient)
+                .overrideConfiguration(overrides(settings))
+                .build();
+    }
+}
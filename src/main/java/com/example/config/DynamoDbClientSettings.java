@@ -0,0 +1,134 @@
+package com.example.config;
+
+import software.amazon.awssdk.regions.Region;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for the shared DynamoDB client. Spring binds these from
+ * application.properties; Lambda handlers read them from environment variables.
+ */
+public class DynamoDbClientSettings {
+    private Region region = Region.US_EAST_2;
+    private int maxConnections = 50;
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    private Duration connectionAcquisitionTimeout = Duration.ofSeconds(5);
+    private Duration socketTimeout = Duration.ofSeconds(10);
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+    private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+    private boolean tcpKeepAlive = true;
+    private int maxPendingConnectionAcquires = 10_000;
+    // SDK retries per call, with full-jitter backoff; the SDK's own DynamoDB default is 8
+    private int maxRetries = 4;
+
+    public static DynamoDbClientSettings fromEnvironment() {
+        DynamoDbClientSettings settings = new DynamoDbClientSettings();
+        String region = System.getenv("DYNAMODB_REGION");
+        if (region != null && !region.isBlank()) {
+            settings.setRegion(Region.of(region));
+        }
+        settings.setMaxConnections(intEnv("DYNAMODB_MAX_CONNECTIONS", settings.getMaxConnections()));
+        settings.setConnectionTimeout(millisEnv("DYNAMODB_CONNECTION_TIMEOUT_MS", settings.getConnectionTimeout()));
+        settings.setConnectionAcquisitionTimeout(millisEnv("DYNAMODB_ACQUISITION_TIMEOUT_MS", settings.getConnectionAcquisitionTimeout()));
+        settings.setSocketTimeout(millisEnv("DYNAMODB_SOCKET_TIMEOUT_MS", settings.getSocketTimeout()));
+        settings.setConnectionTimeToLive(millisEnv("DYNAMODB_CONNECTION_TTL_MS", settings.getConnectionTimeToLive()));
+        settings.setConnectionMaxIdleTime(millisEnv("DYNAMODB_CONNECTION_MAX_IDLE_MS", settings.getConnectionMaxIdleTime()));
+        settings.setMaxPendingConnectionAcquires(intEnv("DYNAMODB_MAX_PENDING_ACQUIRES", settings.getMaxPendingConnectionAcquires()));
+        settings.setMaxRetries(intEnv("DYNAMODB_MAX_RETRIES", settings.getMaxRetries()));
+        String keepAlive = System.getenv("DYNAMODB_TCP_KEEP_ALIVE");
+        if (keepAlive != null && !keepAlive.isBlank()) {
+            settings.setTcpKeepAlive(Boolean.parseBoolean(keepAlive));
+        }
+        return settings;
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static Duration millisEnv(String name, Duration defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Duration.ofMillis(Long.parseLong(value.trim()));
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public void setRegion(Region region) {
+        this.region = region;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(Duration connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public Duration getConnectionAcquisitionTimeout() {
+        return connectionAcquisitionTimeout;
+    }
+
+    public void setConnectionAcquisitionTimeout(Duration connectionAcquisitionTimeout) {
+        this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+    }
+
+    public Duration getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public void setSocketTimeout(Duration socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    public Duration getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    public void setConnectionTimeToLive(Duration connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+    }
+
+    public Duration getConnectionMaxIdleTime() {
+        return connectionMaxIdleTime;
+    }
+
+    public void setConnectionMaxIdleTime(Duration connectionMaxIdleTime) {
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+    }
+
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    public void setTcpKeepAlive(boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+    }
+
+    public int getMaxPendingConnectionAcquires() {
+        return maxPendingConnectionAcquires;
+    }
+
+    public void setMaxPendingConnectionAcquires(int maxPendingConnectionAcquires) {
+        this.maxPendingConnectionAcquires = maxPendingConnectionAcquires;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+}
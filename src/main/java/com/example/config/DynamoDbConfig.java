@@ -0,0 +1,126 @@
+package com.example.config;
+
+import com.example.UserService.UserService;
+import com.example.repository.DynamoDbUserRepository;
+import com.example.repository.InMemoryUserRepository;
+import com.example.repository.ResilientUserRepository;
+import com.example.repository.UserRepository;
+import com.example.resilience.AdaptiveRateLimiter;
+import com.example.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.time.Duration;
+
+@Configuration
+public class DynamoDbConfig {
+
+    @Bean
+    public DynamoDbClientSettings dynamoDbClientSettings(
+            @Value("${dynamodb.region:us-east-2}") String region,
+            @Value("${dynamodb.http.max-connections:50}") int maxConnections,
+            @Value("${dynamodb.http.connection-timeout:2s}") Duration connectionTimeout,
+            @Value("${dynamodb.http.connection-acquisition-timeout:5s}") Duration connectionAcquisitionTimeout,
+            @Value("${dynamodb.http.socket-timeout:10s}") Duration socketTimeout,
+            @Value("${dynamodb.http.connection-time-to-live:5m}") Duration connectionTimeToLive,
+            @Value("${dynamodb.http.connection-max-idle-time:60s}") Duration connectionMaxIdleTime,
+            @Value("${dynamodb.http.tcp-keep-alive:true}") boolean tcpKeepAlive,
+            @Value("${dynamodb.http.max-pending-connection-acquires:10000}") int maxPendingConnectionAcquires,
+            @Value("${dynamodb.retry.max-retries:4}") int maxRetries) {
+        DynamoDbClientSettings settings = new DynamoDbClientSettings();
+        settings.setRegion(Region.of(region));
+        settings.setMaxConnections(maxConnections);
+        settings.setConnectionTimeout(connectionTimeout);
+        settings.setConnectionAcquisitionTimeout(connectionAcquisitionTimeout);
+        settings.setSocketTimeout(socketTimeout);
+        settings.setConnectionTimeToLive(connectionTimeToLive);
+        settings.setConnectionMaxIdleTime(connectionMaxIdleTime);
+        settings.setTcpKeepAlive(tcpKeepAlive);
+        settings.setMaxPendingConnectionAcquires(maxPendingConnectionAcquires);
+        settings.setMaxRetries(maxRetries);
+        return settings;
+    }
+
+    // The provider owns the client's lifecycle so the Lambda path and Spring share one instance
+    @Bean(destroyMethod = "")
+    public DynamoDbClient dynamoDbClient(DynamoDbClientSettings settings) {
+        DynamoDbClientProvider.initialize(settings);
+        return DynamoDbClientProvider.get();
+    }
+
+    @Bean(destroyMethod = "")
+    public DynamoDbAsyncClient dynamoDbAsyncClient(DynamoDbClient dynamoDbClient) {
+        // Depends on the sync bean so the provider has been initialized with these settings
+        return DynamoDbClientProvider.getAsync();
+    }
+
+    // user.repository=memory (the local profile) keeps users in process; the clients are built but never called.
+    // DynamoDB calls go through the rate limiter, in-flight cap and circuit breaker unless user.resilience.enabled=false
+    @Bean
+    public UserRepository userRepository(
+            @Value("${user.repository:dynamodb}") String repository,
+            @Value("${user.dynamodb.table-name:" + UserService.TABLE_NAME + "}") String tableName,
+            @Value("${user.dynamodb.unique-keys-table-name:" + UserService.UNIQUE_KEYS_TABLE_NAME + "}") String uniqueKeysTableName,
+            @Value("${user.resilience.enabled:true}") boolean resilience,
+            @Value("${user.resilience.max-in-flight:500}") int maxInFlight,
+            @Value("${user.resilience.circuit-breaker.failure-threshold:20}") int failureThreshold,
+            @Value("${user.resilience.circuit-breaker.open-duration:5s}") Duration openDuration,
+            DynamoDbAsyncClient dynamoDbAsyncClient,
+            DynamoDbClient dynamoDbClient) {
+        return switch (repository.trim().toLowerCase()) {
+            case "dynamodb" -> {
+                UserRepository dynamoDb = new DynamoDbUserRepository(() -> dynamoDbAsyncClient, () -> dynamoDbClient, tableName, uniqueKeysTableName);
+                yield resilience
+                        ? new ResilientUserRepository(dynamoDb, DynamoDbClientProvider.rateLimiter(),
+                                new CircuitBreaker(failureThreshold, openDuration), maxInFlight)
+                        : dynamoDb;
+            }
+            case "memory" -> new InMemoryUserRepository();
+            default -> throw new IllegalArgumentException("user.repository must be dynamodb or memory, not " + repository);
+        };
+    }
+
+    @Bean
+    public DynamoDbPoolMetrics dynamoDbPoolMetrics() {
+        return DynamoDbClientProvider.poolMetrics();
+    }
+
+    @Bean
+    public MeterBinder dynamoDbPoolGauges(DynamoDbPoolMetrics poolMetrics) {
+        return registry -> {
+            Gauge.builder("dynamodb.pool.leased", poolMetrics, DynamoDbPoolMetrics::getLeasedConcurrency).register(registry);
+            Gauge.builder("dynamodb.pool.available", poolMetrics, DynamoDbPoolMetrics::getAvailableConcurrency).register(registry);
+            Gauge.builder("dynamodb.pool.pending", poolMetrics, DynamoDbPoolMetrics::getPendingAcquires).register(registry);
+            Gauge.builder("dynamodb.pool.max", poolMetrics, DynamoDbPoolMetrics::getMaxConcurrency).register(registry);
+        };
+    }
+
+    // Rate is NaN while the limiter isn't limiting; breaker state is 0 closed, 1 half-open, 2 open
+    @Bean
+    public MeterBinder dynamoDbResilienceGauges(UserRepository userRepository) {
+        return registry -> {
+            if (userRepository instanceof ResilientUserRepository resilient) {
+                Gauge.builder("dynamodb.rate.limit", resilient.getRateLimiter(), AdaptiveRateLimiter::getRate).register(registry);
+                Gauge.builder("dynamodb.in.flight", resilient, ResilientUserRepository::getInFlight).register(registry);
+                Gauge.builder("dynamodb.circuit.state", resilient.getCircuitBreaker(),
+                        breaker -> switch (breaker.getState()) {
+                            case CLOSED -> 0;
+                            case HALF_OPEN -> 1;
+                            case OPEN -> 2;
+                        }).register(registry);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        DynamoDbClientProvider.close();
+    }
+}
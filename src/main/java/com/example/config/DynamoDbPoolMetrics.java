@@ -0,0 +1,99 @@
+package com.example.config;
+
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Collects connection-pool usage reported by the SDK's HTTP client on every API call.
+ * Values are kept in atomics so reading them never blocks a request thread.
+ */
+public class DynamoDbPoolMetrics implements MetricPublisher {
+    private final AtomicLong apiCalls = new AtomicLong();
+    private final AtomicLong maxConcurrency = new AtomicLong();
+    private final AtomicLong leasedConcurrency = new AtomicLong();
+    private final AtomicLong peakLeasedConcurrency = new AtomicLong();
+    private final AtomicLong availableConcurrency = new AtomicLong();
+    private final AtomicLong pendingAcquires = new AtomicLong();
+    private final AtomicLong peakPendingAcquires = new AtomicLong();
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        apiCalls.incrementAndGet();
+        record(metricCollection);
+    }
+
+    private void record(MetricCollection collection) {
+        update(collection, HttpMetric.MAX_CONCURRENCY, maxConcurrency, null);
+        update(collection, HttpMetric.LEASED_CONCURRENCY, leasedConcurrency, peakLeasedConcurrency);
+        update(collection, HttpMetric.AVAILABLE_CONCURRENCY, availableConcurrency, null);
+        update(collection, HttpMetric.PENDING_CONCURRENCY_ACQUIRES, pendingAcquires, peakPendingAcquires);
+        for (MetricCollection child : collection.children()) {
+            record(child);
+        }
+    }
+
+    private static void update(MetricCollection collection, SdkMetric<Integer> metric, AtomicLong current, AtomicLong peak) {
+        List<Integer> values = collection.metricValues(metric);
+        if (values.isEmpty()) {
+            return;
+        }
+        long value = values.get(values.size() - 1);
+        current.set(value);
+        if (peak != null) {
+            peak.accumulateAndGet(value, MAX);
+        }
+    }
+
+    private static final LongBinaryOperator MAX = Math::max;
+
+    @Override
+    public void close() {
+    }
+
+    public long getApiCalls() {
+        return apiCalls.get();
+    }
+
+    public long getMaxConcurrency() {
+        return maxConcurrency.get();
+    }
+
+    public long getLeasedConcurrency() {
+        return leasedConcurrency.get();
+    }
+
+    public long getPeakLeasedConcurrency() {
+        return peakLeasedConcurrency.get();
+    }
+
+    public long getAvailableConcurrency() {
+        return availableConcurrency.get();
+    }
+
+    public long getPendingAcquires() {
+        return pendingAcquires.get();
+    }
+
+    public long getPeakPendingAcquires() {
+        return peakPendingAcquires.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DynamoDbPoolMetrics{" +
+                "apiCalls=" + getApiCalls() +
+                ", maxConcurrency=" + getMaxConcurrency() +
+                ", leased=" + getLeasedConcurrency() +
+                ", peakLeased=" + getPeakLeasedConcurrency() +
+                ", available=" + getAvailableConcurrency() +
+                ", pendingAcquires=" + getPendingAcquires() +
+                ", peakPendingAcquires=" + getPeakPendingAcquires() +
+                '}';
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.config;
+
+import com.example.logging.AsyncRequestLogSink;
+import com.example.logging.LogSampler;
+import com.example.logging.RequestLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RequestLoggingConfig {
+
+    // Closed on shutdown, which drains whatever is still buffered
+    @Bean
+    public AsyncRequestLogSink requestLogSink(@Value("${user.log.buffer-size:8192}") int bufferSize) {
+        return new AsyncRequestLogSink(System.out, bufferSize);
+    }
+
+    @Bean
+    public RequestLogger requestLogger(AsyncRequestLogSink requestLogSink,
+                                       @Value("${user.log.sample-rate:1.0}") double sampleRate,
+                                       @Value("${user.log.endpoint-sample-rates:}") String endpointSampleRates) {
+        return new RequestLogger(LogSampler.parse(sampleRate, endpointSampleRates), requestLogSink);
+    }
+}
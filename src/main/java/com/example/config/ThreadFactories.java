@@ -0,0 +1,27 @@
+package com.example.config;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the service's own worker pools. In virtual-thread mode the pools keep
+ * their size (it bounds concurrency against DynamoDB), but each worker is a virtual thread so
+ * a worker blocked on I/O does not hold a carrier thread.
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+    }
+
+    public static ThreadFactory named(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        return Thread.ofPlatform().name(prefix, 1).daemon(true).factory();
+    }
+
+    // Lambda handlers have no Spring environment; mirror spring.threads.virtual.enabled with an env var
+    public static boolean virtualFromEnvironment() {
+        String value = System.getenv("USER_VIRTUAL_THREADS");
+        return value != null && Boolean.parseBoolean(value.trim());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.controller;
+
+import com.example.ErrorResponse.ErrorResponse;
+import com.example.ListUsers.ScanProgress;
+import com.example.UserService.UserService;
+import com.example.model.UserView;
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/admin/users")
+public class AdminController {
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public AdminController(UserService userService, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Full-table export for reconciliation jobs, read with a parallel segmented scan. Admin tokens only
+    // (RoutePolicy); the password is never read, let alone written
+    @GetMapping("/export")
+    // Declared as StreamingResponseBody, not ResponseEntity<?>, so Spring streams the body instead of handing the
+    // lambda to Jackson
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "8") int segments,
+                                                             @RequestParam(defaultValue = "false") boolean ordered) {
+        if (segments < 1 || segments > UserService.MAX_SCAN_SEGMENTS) {
+            ErrorResponse errorResponse = new ErrorResponse("Invalid export request",
+                    "segments must be between 1 and " + UserService.MAX_SCAN_SEGMENTS);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, errorResponse));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                userService.parallelExportUsers(segments, ordered, UserProjection.READABLE, user -> {
+                    try {
+                        UserView.write(generator, user, UserProjection.READABLE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/export/progress")
+    public ResponseEntity<ScanProgress> exportProgress() {
+        ScanProgress progress = userService.getLastParallelScan();
+        if (progress == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(progress);
+    }
+}
@@ -1,146 +1,494 @@
-package com.example.controller;
-
-import com.example.ErrorResponse.ErrorResponse;
-import com.example.UserService.UserService;
-import com.example.model.User;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
-
-@RestController
-@RequestMapping("/users")
-@CrossOrigin(origins = "*")
-public class UserController {
-    private final UserService userService;
-
-    @Autowired
-    public UserController(UserService userService) {
-        this.userService = userService;
-    }
-
-    @PostMapping
-    public ResponseEntity<?> createUser(@RequestBody User user) {
-        try {
-            System.out.println("Received request to create user: " + user);
-
-            User createdUser = userService.createUser(user);
-
-            System.out.println("User created successfully: " + createdUser);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-
-            return ResponseEntity.ok().headers(headers).body(createdUser);
-        } catch (Exception e) {
-            System.err.println("Error creating user: " + e.getMessage());
-            e.printStackTrace();
-
-            ErrorResponse errorResponse = new ErrorResponse("Error creating user", e.getMessage());
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).headers(headers).body(errorResponse);
-        }
-    }
-
-    @GetMapping
-    public ResponseEntity<?> listUsers() {
-        try {
-            System.out.println("Received request to list users");
-
-            List<User> userList = (List<User>) userService.listUsers();
-
-            System.out.println("Returning list of users: " + userList);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-
-            return ResponseEntity.ok().headers(headers).body(userList);
-        } catch (Exception e) {
-
-            System.err.println("Error listing users: " + e.getMessage());
-            e.printStackTrace();
-
-            ErrorResponse errorResponse = new ErrorResponse("Error listing users", e.getMessage());
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).headers(headers).body(errorResponse);
-        }
-    }
-
-    @GetMapping("/{userId}")
-    public ResponseEntity<?> getUserById(@PathVariable String userId) {
-        try {
-            System.out.println("Received request to get user by ID: " + userId);
-
-            User user = userService.getUserById(userId);
-
-            System.out.println("User found: " + user);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-
-            return ResponseEntity.ok().headers(headers).body(user);
-        } catch (Exception e) {
-
-            System.err.println("Error getting user by ID: " + e.getMessage());
-            e.printStackTrace();
-
-            ErrorResponse errorResponse = new ErrorResponse("Error getting user by ID", e.getMessage());
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).headers(headers).body(errorResponse);
-        }
-    }
-
-    @PutMapping("/{userId}")
-    public ResponseEntity<?> updateUser(@PathVariable String userId, @RequestBody User updatedUser) {
-        try {
-            System.out.println("Received request to update user with ID " + userId + ": " + updatedUser);
-
-            User user = userService.updateUser(userId, updatedUser);
-
-            System.out.println("User updated successfully: " + user);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-
-            return ResponseEntity.ok().headers(headers).body(user);
-        } catch (Exception e) {
-            System.err.println("Error updating user: " + e.getMessage());
-            e.printStackTrace();
-
-            ErrorResponse errorResponse = new ErrorResponse("Error updating user", e.getMessage());
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).headers(headers).body(errorResponse);
-        }
-    }
-
-    @DeleteMapping("/{userId}")
-    public ResponseEntity<?> deleteUser(@PathVariable String userId) {
-        try {
-            System.out.println("Received request to delete user with ID: " + userId);
-
-            userService.deleteUser(userId);
-
-            System.out.println("User deleted successfully with ID: " + userId);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-
-            return ResponseEntity.ok().headers(headers).build();
-        } catch (Exception e) {
-            System.err.println("Error deleting user: " + e.getMessage());
-            e.printStackTrace();
-
-            ErrorResponse errorResponse = new ErrorResponse("Error deleting user", e.getMessage());
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Access-Control-Allow-Origin", "*");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).headers(headers).body(errorResponse);
-        }
-    }
+package com.example.controller;
+
+import com.example.ErrorResponse.ErrorResponse;
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.IncorrectPasswordException;
+import com.example.UserService.PreconditionFailedException;
+import com.example.UserService.UserService;
+import com.example.UserService.VersionConflictException;
+import com.example.auth.TokenClaims;
+import com.example.auth.TokenService;
+import com.example.logging.RequestLogEntry;
+import com.example.logging.RequestLogger;
+import com.example.model.BatchCreateUsersRequest;
+import com.example.model.BatchGetUsersRequest;
+import com.example.model.BatchResult;
+import com.example.model.BodyFormat;
+import com.example.model.ETags;
+import com.example.model.LoginResponse;
+import com.example.model.NewPassword;
+import com.example.model.User;
+import com.example.model.UserCredentials;
+import com.example.model.UserView;
+import com.example.repository.UserProjection;
+import com.example.resilience.CircuitOpenException;
+import com.example.resilience.OverloadedException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+// CORS headers come from here alone; browsers may read the ETag for If-Match and Retry-After when shed
+@CrossOrigin(origins = "*", exposedHeaders = {HttpHeaders.ETAG, HttpHeaders.RETRY_AFTER})
+public class UserController {
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final RequestLogger requestLogger;
+    private final TokenService tokenService;
+
+    @Autowired
+    public UserController(UserService userService, ObjectMapper objectMapper, RequestLogger requestLogger, TokenService tokenService) {
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.requestLogger = requestLogger;
+        this.tokenService = tokenService;
+    }
+
+    // Single-user endpoints return futures so the servlet thread is released while DynamoDB is in flight
+    @PostMapping("/users")
+    public CompletableFuture<ResponseEntity<?>> createUser(@RequestBody User user) {
+        RequestLogEntry log = requestLogger.start("POST /users");
+
+        return userService.createUserAsync(user).<ResponseEntity<?>>thenApply(createdUser -> {
+            requestLogger.finish(log.user(createdUser));
+
+            return ResponseEntity.ok(new UserView(createdUser, UserProjection.READABLE));
+        }).exceptionally(failure -> {
+            Throwable e = cause(failure);
+            if (e instanceof OverloadedException overloaded) {
+                return shed(log, overloaded);
+            }
+            if (e instanceof DuplicateUserException) {
+                requestLogger.finish(log.status(409).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("User already exists", e.getMessage());
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            }
+            if (e instanceof IllegalArgumentException) {
+                requestLogger.finish(log.status(400).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Invalid user", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+            if (e instanceof RejectedExecutionException) {
+                return overloaded(log, e);
+            }
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error creating user", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        });
+    }
+
+    // Spring joins a class-level prefix and a method path with "/", so /users:batchCreate needs full paths on every mapping
+    @PostMapping("/users:batchCreate")
+    public ResponseEntity<?> batchCreateUsers(@RequestBody BatchCreateUsersRequest request) {
+        RequestLogEntry log = requestLogger.start("POST /users:batchCreate");
+        try {
+            log.items(request.getUsers() == null ? 0 : request.getUsers().size());
+
+            BatchResult result = userService.batchCreateUsers(request.getUsers());
+            requestLogger.finish(log.failedItems(result.getFailed()));
+
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            requestLogger.finish(log.status(400).error(e));
+            ErrorResponse errorResponse = new ErrorResponse("Invalid batch create request", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (OverloadedException e) {
+            return shed(log, e);
+        } catch (Exception e) {
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error batch creating users", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/users:batchGet")
+    public ResponseEntity<?> batchGetUsers(@RequestBody BatchGetUsersRequest request) {
+        RequestLogEntry log = requestLogger.start("POST /users:batchGet");
+        try {
+            log.items(request.getUserIds() == null ? 0 : request.getUserIds().size());
+
+            BatchResult result = userService.batchGetUsers(request.getUserIds());
+            requestLogger.finish(log.failedItems(result.getFailed()));
+
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            requestLogger.finish(log.status(400).error(e));
+            ErrorResponse errorResponse = new ErrorResponse("Invalid batch get request", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (OverloadedException e) {
+            return shed(log, e);
+        } catch (Exception e) {
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error batch getting users", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @GetMapping("/users")
+    public CompletableFuture<ResponseEntity<?>> listUsers(@RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) String fields,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        RequestLogEntry log = requestLogger.start("GET /users");
+
+        UserProjection projection;
+        try {
+            projection = UserProjection.readable(fields);
+        } catch (IllegalArgumentException e) {
+            requestLogger.finish(log.status(400).error(e));
+            ErrorResponse errorResponse = new ErrorResponse("Invalid fields", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+
+        return userService.listUsersAsync(limit, cursor, projection).<ResponseEntity<?>>thenApply(page -> {
+            String etag = ETags.of(page, projection);
+            if (ETags.noneMatchFails(ifNoneMatch, etag)) {
+                return notModified(log, etag);
+            }
+            requestLogger.finish(log.items(page.getUsers().size()));
+
+            return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, ETags.CACHE_REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT).body(new UserView.Page(page, projection));
+        }).exceptionally(failure -> {
+            Throwable e = cause(failure);
+            if (e instanceof OverloadedException overloaded) {
+                return shed(log, overloaded);
+            }
+            if (e instanceof IllegalArgumentException) {
+                requestLogger.finish(log.status(400).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Invalid list request", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error listing users", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        });
+    }
+
+    // GET /users?export=true streams every user to the client as it is scanned instead of building the full
+    // list, in JSON unless Accept asks for Smile or CBOR. Tomcat gzips it for clients that accept that.
+    // A mapping of its own, declared as StreamingResponseBody: Spring only streams bodies declared that way
+    // and would otherwise hand the lambda to Jackson
+    @GetMapping(value = "/users", params = "export=true")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) String fields,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        RequestLogEntry log = requestLogger.start("GET /users");
+
+        UserProjection projection;
+        try {
+            projection = UserProjection.readable(fields);
+        } catch (IllegalArgumentException e) {
+            requestLogger.finish(log.status(400).error(e));
+            ErrorResponse errorResponse = new ErrorResponse("Invalid fields", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, errorResponse));
+        }
+
+        BodyFormat format = BodyFormat.forAccept(accept);
+        StreamingResponseBody body = outputStream -> {
+            // Logged once the stream ends, so the line carries the export's duration, size and failure
+            int[] items = {0};
+            try (JsonGenerator generator = format.createGenerator(objectMapper, outputStream)) {
+                generator.writeStartArray();
+                userService.exportUsers(projection, user -> {
+                    try {
+                        UserView.write(generator, user, projection);
+                        items[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (IOException | RuntimeException e) {
+                log.status(500).error(e);
+                throw e;
+            } finally {
+                requestLogger.finish(log.items(items[0]));
+            }
+        };
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaType.parseMediaType(format.contentType())).body(body);
+    }
+
+    @GetMapping("/users/{userId}")
+    public CompletableFuture<ResponseEntity<?>> getUserById(@PathVariable String userId,
+                                                            @RequestParam(required = false) String fields,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        RequestLogEntry log = requestLogger.start("GET /users/{userId}").userId(userId);
+
+        UserProjection projection;
+        try {
+            projection = UserProjection.readable(fields);
+        } catch (IllegalArgumentException e) {
+            requestLogger.finish(log.status(400).error(e));
+            ErrorResponse errorResponse = new ErrorResponse("Invalid fields", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+
+        return userService.getUserByIdAsync(userId, projection).<ResponseEntity<?>>thenApply(user -> {
+            if (user == null) {
+                requestLogger.finish(log.user(null));
+                return ResponseEntity.ok(null);
+            }
+            String etag = ETags.of(user, projection);
+            if (ETags.noneMatchFails(ifNoneMatch, etag)) {
+                return notModified(log.user(user), etag);
+            }
+            requestLogger.finish(log.user(user));
+
+            return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, ETags.CACHE_REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT).body(new UserView(user, projection));
+        }).exceptionally(failure -> {
+            Throwable e = cause(failure);
+            if (e instanceof OverloadedException overloaded) {
+                return shed(log, overloaded);
+            }
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error getting user by ID", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        });
+    }
+
+    // Partial update: only the attributes in the body change. Send If-Match with the user's ETag minus its W/ (or
+    // "version" in the body) to make it conditional; a stale If-Match gets 412, a stale version 409
+    @PutMapping("/users/{userId}")
+    public CompletableFuture<ResponseEntity<?>> updateUser(@PathVariable String userId, @RequestBody User changes,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RequestLogEntry log = requestLogger.start("PUT /users/{userId}").userId(userId);
+
+        try {
+            Long required = ETags.requiredVersion(ifMatch);
+            if (required != null && changes.getVersion() != null && !required.equals(changes.getVersion())) {
+                throw new PreconditionFailedException("If-Match names version " + required + " but the body version " + changes.getVersion());
+            }
+            if (required != null) {
+                changes.setVersion(required);
+            }
+        } catch (PreconditionFailedException e) {
+            return CompletableFuture.completedFuture(preconditionFailed(log, e));
+        }
+
+        return userService.updateUserAsync(userId, changes).<ResponseEntity<?>>thenApply(user -> {
+            if (user == null && ifMatch != null) {
+                return preconditionFailed(log, new PreconditionFailedException("No user with ID " + userId));
+            }
+            if (user == null) {
+                requestLogger.finish(log.status(404));
+                ErrorResponse errorResponse = new ErrorResponse("User not found", "No user with ID " + userId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+            requestLogger.finish(log.user(user));
+
+            return ResponseEntity.ok().eTag(ETags.of(user, UserProjection.READABLE)).body(new UserView(user, UserProjection.READABLE));
+        }).exceptionally(failure -> {
+            Throwable e = cause(failure);
+            if (e instanceof OverloadedException overloaded) {
+                return shed(log, overloaded);
+            }
+            if (e instanceof VersionConflictException && ifMatch != null) {
+                return preconditionFailed(log, e);
+            }
+            if (e instanceof VersionConflictException || e instanceof DuplicateUserException) {
+                requestLogger.finish(log.status(409).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Update conflict", e.getMessage());
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            }
+            if (e instanceof IllegalArgumentException) {
+                requestLogger.finish(log.status(400).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Invalid update request", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error updating user", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        });
+    }
+
+    // With If-Match the user is only deleted at that version (or, for *, only if it exists)
+    @DeleteMapping("/users/{userId}")
+    public CompletableFuture<ResponseEntity<?>> deleteUser(@PathVariable String userId,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RequestLogEntry log = requestLogger.start("DELETE /users/{userId}").userId(userId);
+
+        Long required;
+        try {
+            required = ETags.requiredVersion(ifMatch);
+        } catch (PreconditionFailedException e) {
+            return CompletableFuture.completedFuture(preconditionFailed(log, e));
+        }
+
+        return userService.deleteUserAsync(userId, required).<ResponseEntity<?>>thenApply(deleted -> {
+            if (!deleted && ifMatch != null) {
+                return preconditionFailed(log, new PreconditionFailedException("No user with ID " + userId));
+            }
+            requestLogger.finish(log);
+
+            return ResponseEntity.ok().build();
+        }).exceptionally(failure -> {
+            Throwable e = cause(failure);
+            if (e instanceof OverloadedException overloaded) {
+                return shed(log, overloaded);
+            }
+            if (e instanceof VersionConflictException && ifMatch != null) {
+                return preconditionFailed(log, e);
+            }
+            // Without If-Match the delete was retried while concurrent writes kept changing the user; a
+            // duplicate is a username or email claim held by another user, which the delete can't release
+            if (e instanceof VersionConflictException || e instanceof DuplicateUserException) {
+                requestLogger.finish(log.status(409).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Delete conflict", e.getMessage());
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            }
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error deleting user", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        });
+    }
+
+    // Same 401 for an unknown username and a wrong password; a match gets a signed access token
+    @PostMapping("/auth/login")
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody UserCredentials credentials) {
+        RequestLogEntry log = requestLogger.start("POST /auth/login");
+
+        return userService.authenticateAsync(credentials).<ResponseEntity<?>>thenApply(user -> {
+            if (user == null) {
+                requestLogger.finish(log.status(401));
+                ErrorResponse errorResponse = new ErrorResponse("Authentication failed", "Invalid username or password");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+            }
+            requestLogger.finish(log.user(user));
+
+            LoginResponse loginResponse = new LoginResponse(tokenService.issue(user), tokenService.getTokenTtl().toSeconds(), user);
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(loginResponse);
+        }).exceptionally(failure -> {
+            Throwable e = cause(failure);
+            if (e instanceof OverloadedException overloaded) {
+                return shed(log, overloaded);
+            }
+            if (e instanceof IllegalArgumentException) {
+                requestLogger.finish(log.status(400).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Invalid login request", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+            if (e instanceof RejectedExecutionException) {
+                return overloaded(log, e);
+            }
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error authenticating user", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        });
+    }
+
+    // The interceptor has already verified the token; revoking it makes every instance refuse it
+    @PostMapping("/auth/logout")
+    public ResponseEntity<?> logout(@RequestAttribute(TokenClaims.REQUEST_ATTRIBUTE) TokenClaims claims) {
+        RequestLogEntry log = requestLogger.start("POST /auth/logout").userId(claims.getSubject());
+
+        try {
+            tokenService.revoke(claims);
+            requestLogger.finish(log.status(204));
+
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error logging out", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    @PutMapping("/users/{userId}/changepassword")
+    public CompletableFuture<ResponseEntity<?>> changePassword(@PathVariable String userId, @RequestBody NewPassword newPassword) {
+        RequestLogEntry log = requestLogger.start("PUT /users/{userId}/changepassword").userId(userId);
+
+        return userService.changePasswordAsync(userId, newPassword).<ResponseEntity<?>>thenApply(changed -> {
+            if (!changed) {
+                requestLogger.finish(log.status(404));
+                ErrorResponse errorResponse = new ErrorResponse("User not found", "No user with ID " + userId);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            }
+            // Tokens issued under the old password, possibly to someone else, stop working everywhere
+            tokenService.revokeAll(userId);
+            requestLogger.finish(log.status(204));
+
+            return ResponseEntity.noContent().build();
+        }).exceptionally(failure -> {
+            Throwable e = cause(failure);
+            if (e instanceof OverloadedException overloaded) {
+                return shed(log, overloaded);
+            }
+            if (e instanceof IllegalArgumentException) {
+                requestLogger.finish(log.status(400).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Invalid password", e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            }
+            if (e instanceof IncorrectPasswordException) {
+                // The token is valid, so this isn't a 401 that would send the client back to log in
+                requestLogger.finish(log.status(403).error(e));
+                ErrorResponse errorResponse = new ErrorResponse("Incorrect password", e.getMessage());
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+            }
+            if (e instanceof RejectedExecutionException) {
+                return overloaded(log, e);
+            }
+            requestLogger.finish(log.status(500).error(e));
+
+            ErrorResponse errorResponse = new ErrorResponse("Error changing password", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        });
+    }
+
+    // The client's copy is current: no body, but the validators again so it can keep revalidating
+    private ResponseEntity<?> notModified(RequestLogEntry log, String etag) {
+        requestLogger.finish(log.status(304));
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).header(HttpHeaders.CACHE_CONTROL, ETags.CACHE_REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    private ResponseEntity<?> preconditionFailed(RequestLogEntry log, Throwable e) {
+        requestLogger.finish(log.status(412).error(e));
+        ErrorResponse errorResponse = new ErrorResponse("Precondition failed", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    // The password pool's queue is full: tell the client to back off rather than queueing behind it
+    private ResponseEntity<?> overloaded(RequestLogEntry log, Throwable e) {
+        requestLogger.finish(log.status(503).error(e));
+        ErrorResponse errorResponse = new ErrorResponse("Too many password requests", "Try again shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+    }
+
+    // DynamoDB is throttling us or unreachable: shed with 429 (503 while the breaker is open) instead of queueing
+    private ResponseEntity<?> shed(RequestLogEntry log, OverloadedException e) {
+        boolean circuitOpen = e instanceof CircuitOpenException;
+        requestLogger.finish(log.status(circuitOpen ? 503 : 429).error(e));
+        ErrorResponse errorResponse = new ErrorResponse(circuitOpen ? "Service unavailable" : "Too many requests", e.getMessage());
+        return ResponseEntity.status(circuitOpen ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds())).body(errorResponse);
+    }
+
+    private static Throwable cause(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
 }
\ No newline at end of file
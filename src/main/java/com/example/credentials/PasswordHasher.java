@@ -0,0 +1,95 @@
+package com.example.credentials;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes. The iteration count is the cost knob: each
+ * encoded hash records the count it was made with ({@code $pbkdf2-sha256$i=600000$salt$hash}),
+ * so raising it only affects new hashes, and {@link #needsRehash} spots the old ones at login.
+ * Hashing is CPU-bound and deliberately slow; run it on {@link PasswordHashing}'s pool.
+ */
+public final class PasswordHasher {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "$pbkdf2-sha256$i=";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+    // OWASP's 2023 floor for PBKDF2-HMAC-SHA256; tune upwards with PasswordHashingBenchmark
+    public static final int DEFAULT_ITERATIONS = 600_000;
+    public static final int MIN_ITERATIONS = 1_000;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS) {
+            throw new IllegalArgumentException("iterations must be at least " + MIN_ITERATIONS);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return PREFIX + iterations + '$' + ENCODER.encodeToString(salt) + '$'
+                + ENCODER.encodeToString(derive(password, salt, iterations, HASH_BYTES));
+    }
+
+    // Constant-time in the hash length. Anything not in our format is a password stored before
+    // hashing, compared as is so those users can still log in once and be rehashed
+    public boolean verify(String password, String encoded) {
+        if (password == null || encoded == null) {
+            return false;
+        }
+        if (!encoded.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), encoded.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = encoded.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[0]);
+            byte[] salt = DECODER.decode(parts[1]);
+            byte[] expected = DECODER.decode(parts[2]);
+            if (storedIterations < 1 || expected.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(expected, derive(password, salt, storedIterations, expected.length));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // True for legacy plaintext and for hashes made with a different iteration count
+    public boolean needsRehash(String encoded) {
+        if (encoded == null || !encoded.startsWith(PREFIX)) {
+            return true;
+        }
+        int end = encoded.indexOf('$', PREFIX.length());
+        return end < 0 || !encoded.substring(PREFIX.length(), end).equals(Integer.toString(iterations));
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int length) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
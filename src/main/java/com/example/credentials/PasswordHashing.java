@@ -0,0 +1,99 @@
+package com.example.credentials;
+
+import com.example.config.ThreadFactories;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs a {@link PasswordHasher} on its own small pool of platform threads with a bounded queue.
+ * A login burst can then use at most that many cores; once the queue is full further work fails
+ * fast with {@link RejectedExecutionException} instead of piling up behind the other endpoints.
+ */
+public class PasswordHashing {
+    private final PasswordHasher hasher;
+    private final ThreadPoolExecutor executor;
+    // Made once with the current parameters, so checking against it costs what a real verify does. On first
+    // use rather than in the constructor, which runs in the Lambda init phase: at the default iterations it
+    // would add a full hash to every cold start
+    private volatile String absentHash;
+
+    // concurrency 0 means half the available cores
+    public PasswordHashing(PasswordHasher hasher, int concurrency, int queueCapacity) {
+        int threads = concurrency > 0 ? concurrency : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hasher = hasher;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                // Hashing is CPU-bound; virtual threads would only hide the queue
+                ThreadFactories.named("password-hash-", false),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Used by the Lambda handlers: USER_PASSWORD_ITERATIONS, USER_PASSWORD_HASH_CONCURRENCY, USER_PASSWORD_HASH_QUEUE
+    public static PasswordHashing fromEnvironment() {
+        return new PasswordHashing(new PasswordHasher(intEnv("USER_PASSWORD_ITERATIONS", PasswordHasher.DEFAULT_ITERATIONS)),
+                intEnv("USER_PASSWORD_HASH_CONCURRENCY", 0), intEnv("USER_PASSWORD_HASH_QUEUE", 256));
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public PasswordHasher hasher() {
+        return hasher;
+    }
+
+    public CompletableFuture<String> hash(String password) {
+        return submit(() -> hasher.hash(password));
+    }
+
+    public CompletableFuture<Boolean> verify(String password, String encoded) {
+        return submit(() -> hasher.verify(password, encoded));
+    }
+
+    // For a login whose user doesn't exist (or has no password): does the same work as verify, on the same
+    // pool, so the response time doesn't tell unknown usernames from wrong passwords. Always false
+    public CompletableFuture<Boolean> verifyAbsent(String password) {
+        return submit(() -> {
+            hasher.verify(password, absentHash());
+            return false;
+        });
+    }
+
+    // Runs on the pool. Two first calls racing may each make one; either hash serves
+    private String absentHash() {
+        String hash = absentHash;
+        if (hash == null) {
+            hash = hasher.hash(UUID.randomUUID().toString());
+            absentHash = hash;
+        }
+        return hash;
+    }
+
+    // Package-private so tests can occupy the pool
+    <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
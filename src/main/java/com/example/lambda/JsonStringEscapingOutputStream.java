@@ -0,0 +1,159 @@
+package com.example.lambda;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escapes UTF-8 bytes written to it as the contents of a JSON string literal, so a nested JSON
+ * document can be generated straight into the "body" field of an API Gateway proxy response.
+ * Multi-byte UTF-8 sequences never contain bytes below 0x80, so escaping works byte by byte
+ * without decoding to chars.
+ *
+ * <p>Output is staged in a per-thread buffer that is reused across invocations; call
+ * {@link #release()} when done so the next response can take it.
+ */
+class JsonStringEscapingOutputStream extends OutputStream {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<byte[]> buffers = new ThreadLocal<>();
+
+    private final OutputStream delegate;
+    private byte[] buffer;
+    private int count;
+    private boolean escaping;
+    private boolean committed;
+
+    JsonStringEscapingOutputStream(OutputStream delegate) {
+        this.delegate = delegate;
+        byte[] pooled = buffers.get();
+        if (pooled != null) {
+            buffers.remove();
+            this.buffer = pooled;
+        } else {
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+    }
+
+    // Envelope bytes around the body are written verbatim
+    void writeRaw(byte[] bytes) throws IOException {
+        boolean wasEscaping = escaping;
+        escaping = false;
+        write(bytes, 0, bytes.length);
+        escaping = wasEscaping;
+    }
+
+    void startEscaping() {
+        escaping = true;
+    }
+
+    void stopEscaping() {
+        escaping = false;
+    }
+
+    // True once any byte has gone past the staging buffer to the underlying stream
+    boolean isCommitted() {
+        return committed;
+    }
+
+    // Drops whatever is staged; only meaningful while nothing is committed
+    void discard() {
+        count = 0;
+        escaping = false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (escaping && needsEscape(b & 0xFF)) {
+            writeEscaped(b & 0xFF);
+            return;
+        }
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        int end = off + len;
+        int runStart = off;
+        if (escaping) {
+            for (int i = off; i < end; i++) {
+                int b = bytes[i] & 0xFF;
+                if (!needsEscape(b)) {
+                    continue;
+                }
+                copy(bytes, runStart, i - runStart);
+                writeEscaped(b);
+                runStart = i + 1;
+            }
+        }
+        copy(bytes, runStart, end - runStart);
+    }
+
+    private void copy(byte[] bytes, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(bytes, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private static boolean needsEscape(int b) {
+        return b < 0x20 || b == '"' || b == '\\';
+    }
+
+    private void writeEscaped(int b) throws IOException {
+        if (buffer.length - count < 6) {
+            flushBuffer();
+        }
+        buffer[count++] = '\\';
+        switch (b) {
+            case '"' -> buffer[count++] = '"';
+            case '\\' -> buffer[count++] = '\\';
+            case '\n' -> buffer[count++] = 'n';
+            case '\r' -> buffer[count++] = 'r';
+            case '\t' -> buffer[count++] = 't';
+            default -> {
+                buffer[count++] = 'u';
+                buffer[count++] = '0';
+                buffer[count++] = '0';
+                buffer[count++] = HEX[(b >> 4) & 0xF];
+                buffer[count++] = HEX[b & 0xF];
+            }
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            committed = true;
+            delegate.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        delegate.flush();
+    }
+
+    // The enclosing envelope still has to be closed, so never close the underlying stream here
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    void release() {
+        if (buffer != null) {
+            buffers.set(buffer);
+            buffer = null;
+        }
+    }
+}
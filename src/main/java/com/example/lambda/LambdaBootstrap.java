@@ -0,0 +1,158 @@
+package com.example.lambda;
+
+import com.example.UserService.UserService;
+import com.example.auth.TokenService;
+import com.example.cache.CacheInvalidator;
+import com.example.cache.DynamoDbInvalidationFeed;
+import com.example.config.DynamoDbClientProvider;
+import com.example.metrics.UserMetrics;
+import com.example.model.BatchCreateUsersRequest;
+import com.example.model.BatchGetUsersRequest;
+import com.example.model.BatchItemResult;
+import com.example.model.BatchResult;
+import com.example.model.User;
+import com.example.model.UserCredentials;
+import com.example.model.UserPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Process-wide state shared by every Lambda handler. The ObjectMapper, both DynamoDB clients,
+ * the UserService (with its caches and their invalidator) and the TokenService are built once in the static initializer, so the work happens
+ * in the Lambda init phase instead of on the first request.
+ *
+ * <p>With SnapStart (or any CRaC runtime) the bootstrap primes Jackson and the SDK HTTP stack
+ * before the snapshot, then drops cached users and rebuilds the clients after restore so no
+ * connection or credential from snapshot time is reused.
+ */
+public final class LambdaBootstrap implements Resource {
+    private static final Logger logger = LoggerFactory.getLogger(LambdaBootstrap.class);
+
+    // A key that is never written; priming reads it to exercise the full request path
+    private static final String PRIMING_USER_ID = "__lambda-priming__";
+    private static final String PRIMING_REQUEST = "{\"httpMethod\":\"POST\",\"path\":\"/users\","
+            + "\"pathParameters\":{\"userId\":\"" + PRIMING_USER_ID + "\"},"
+            + "\"queryStringParameters\":{\"limit\":\"1\"},"
+            + "\"headers\":{\"Content-Type\":\"application/json\"},"
+            + "\"body\":\"{\\\"username\\\":\\\"priming\\\",\\\"email\\\":\\\"priming@example.com\\\",\\\"password\\\":\\\"priming\\\"}\"}";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // CRaC only keeps weak references to registered resources
+    private static final LambdaBootstrap instance = new LambdaBootstrap();
+    private static final UserService userService;
+    private static final TokenService tokenService;
+    private static final CacheInvalidator cacheInvalidator;
+
+    static {
+        long start = System.nanoTime();
+        DynamoDbClientProvider.get();
+        DynamoDbClientProvider.getAsync();
+        userService = new UserService();
+        tokenService = TokenService.fromEnvironment();
+        cacheInvalidator = cacheInvalidatorFromEnvironment(userService);
+        Core.getGlobalContext().register(instance);
+        if (Boolean.parseBoolean(System.getenv("USER_PRIME_ON_INIT"))) {
+            prime();
+        }
+        logger.info("Lambda bootstrap finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private LambdaBootstrap() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    public static UserService userService() {
+        return userService;
+    }
+
+    public static TokenService tokenService() {
+        return tokenService;
+    }
+
+    // Null when invalidation is off
+    public static CacheInvalidator cacheInvalidator() {
+        return cacheInvalidator;
+    }
+
+    // USER_CACHE_INVALIDATION=false turns it off; with USER_REPOSITORY=memory there are no other nodes to hear from.
+    // USER_CACHE_INVALIDATIONS_TABLE and USER_CACHE_INVALIDATION_POLL_MS mirror the user.cache.invalidation.* properties
+    private static CacheInvalidator cacheInvalidatorFromEnvironment(UserService userService) {
+        if ("false".equalsIgnoreCase(System.getenv("USER_CACHE_INVALIDATION"))
+                || "memory".equalsIgnoreCase(System.getenv().getOrDefault("USER_REPOSITORY", "").trim())) {
+            return null;
+        }
+        String pollMillis = System.getenv("USER_CACHE_INVALIDATION_POLL_MS");
+        return new CacheInvalidator(
+                new DynamoDbInvalidationFeed(DynamoDbClientProvider::get,
+                        System.getenv().getOrDefault("USER_CACHE_INVALIDATIONS_TABLE", DynamoDbInvalidationFeed.TABLE_NAME)),
+                userService::applyInvalidation, userService::clearCaches,
+                Duration.ofMillis(pollMillis == null || pollMillis.isBlank() ? 1000 : Long.parseLong(pollMillis.trim())),
+                userService.getUserCacheTtl());
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        prime();
+        // A login for an unknown username makes the dummy password hash, so restored instances don't pay for
+        // it. Only here: the hash is too slow for priming during a cold start
+        try {
+            userService.authenticate(new UserCredentials(PRIMING_USER_ID, "priming"));
+        } catch (RuntimeException e) {
+            logger.warn("Login priming failed", e);
+        }
+        // Nothing cached or connected at snapshot time may be shared by every restored instance
+        userService.clearCaches();
+        DynamoDbClientProvider.close();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        long start = System.nanoTime();
+        DynamoDbClientProvider.get();
+        DynamoDbClientProvider.getAsync();
+        logger.info("DynamoDB clients rebuilt after restore in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    static void prime() {
+        // Jackson builds (de)serializers lazily; touch every type the handlers read or write
+        try {
+            ProxyRequest request = ProxyRequest.parse(objectMapper.getFactory(),
+                    new ByteArrayInputStream(PRIMING_REQUEST.getBytes(StandardCharsets.UTF_8)));
+            User user = request.readBody(objectMapper, User.class);
+            user.setUserId(PRIMING_USER_ID);
+            OutputStream discard = OutputStream.nullOutputStream();
+            ProxyResponses.ok(discard, user);
+            ProxyResponses.ok(discard, new UserPage(List.of(user), null));
+            ProxyResponses.ok(discard, new BatchResult(List.of(BatchItemResult.found(user), BatchItemResult.notFound(PRIMING_USER_ID))));
+            ProxyResponses.error(discard, 404, "priming");
+            objectMapper.readValue("{\"users\":[]}", BatchCreateUsersRequest.class);
+            objectMapper.readValue("{\"userIds\":[]}", BatchGetUsersRequest.class);
+        } catch (IOException e) {
+            logger.warn("Jackson priming failed", e);
+        }
+
+        // One read per client through the configured repository; against DynamoDB this loads the
+        // marshallers, signer, credential chain, TLS and connection pool
+        try {
+            userService.batchGetUsers(List.of(PRIMING_USER_ID));
+            userService.getUserById(PRIMING_USER_ID);
+        } catch (RuntimeException e) {
+            logger.warn("Repository priming failed", e);
+        }
+        UserMetrics.discardPending();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.example.BatchCreateUsers.BatchCreateUsersOperation;
+import com.example.BatchGetUsers.BatchGetUsersOperation;
+import com.example.ChangePassword.ChangePasswordOperation;
+import com.example.CreateUser.CreateUserOperation;
+import com.example.DeleteUser.DeleteUserOperation;
+import com.example.GetUserById.GetUserByIdOperation;
+import com.example.ListUsers.ListUsersOperation;
+import com.example.UpdateUser.UpdateUserOperation;
+import com.example.UserAuthentication.AuthenticateUserOperation;
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.IncorrectPasswordException;
+import com.example.UserService.PreconditionFailedException;
+import com.example.UserService.UserService;
+import com.example.UserService.VersionConflictException;
+import com.example.UserLogout.LogoutOperation;
+import com.example.auth.AccessDeniedException;
+import com.example.auth.InvalidTokenException;
+import com.example.auth.RoutePolicy;
+import com.example.auth.TokenService;
+import com.example.cache.CacheInvalidator;
+import com.example.logging.BufferedRequestLogSink;
+import com.example.logging.LogSampler;
+import com.example.logging.RequestLogEntry;
+import com.example.logging.RequestLogger;
+import com.example.metrics.EmfMetrics;
+import com.example.metrics.UserMetrics;
+import com.example.resilience.CircuitOpenException;
+import com.example.resilience.OverloadedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Single Lambda entry point for the whole API. Every route is served by one function, so all
+ * traffic shares one pool of warm containers, one DynamoDB client and one user cache.
+ */
+public class LambdaRouter implements RequestStreamHandler {
+
+    private static final RouteTable routes = new RouteTable();
+    private static final BufferedRequestLogSink logSink = new BufferedRequestLogSink();
+    private static final RequestLogger requestLogger = new RequestLogger(LogSampler.fromEnvironment(), logSink);
+    // USER_AUTH_ENABLED=false serves every route without a token, e.g. behind an API Gateway authorizer
+    private static final boolean authEnabled = !"false".equalsIgnoreCase(System.getenv("USER_AUTH_ENABLED"));
+    private static final EmfMetrics emfMetrics = UserMetrics.enableEmf(System.getenv().getOrDefault("USER_METRICS_NAMESPACE", "UserService"));
+    private static final CacheInvalidator cacheInvalidator = LambdaBootstrap.cacheInvalidator();
+
+    static {
+        ObjectMapper objectMapper = LambdaBootstrap.objectMapper();
+        UserService userService = LambdaBootstrap.userService();
+        TokenService tokenService = LambdaBootstrap.tokenService();
+        routes.add("POST", "/users", new CreateUserOperation(objectMapper, userService));
+        routes.add("POST", "/users:batchCreate", new BatchCreateUsersOperation(objectMapper, userService));
+        routes.add("POST", "/users:batchGet", new BatchGetUsersOperation(objectMapper, userService));
+        routes.add("GET", "/users", new ListUsersOperation(objectMapper, userService));
+        routes.add("GET", "/users/{userId}", new GetUserByIdOperation(objectMapper, userService));
+        routes.add("PUT", "/users/{userId}", new UpdateUserOperation(objectMapper, userService));
+        routes.add("DELETE", "/users/{userId}", new DeleteUserOperation(userService));
+        routes.add("PUT", "/users/{userId}/changepassword", new ChangePasswordOperation(objectMapper, userService, tokenService));
+        routes.add("POST", "/auth/login", new AuthenticateUserOperation(objectMapper, userService, tokenService));
+        routes.add("POST", "/auth/logout", new LogoutOperation(tokenService));
+    }
+
+    private final ObjectMapper objectMapper = LambdaBootstrap.objectMapper();
+
+    @Override
+    public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) throws IOException {
+        long start = System.nanoTime();
+        String route = "unmatched";
+        RequestLogEntry log = null;
+        // Before anything is served from the cache: a frozen container has no background poller. At most once per
+        // poll interval, and it never throws
+        if (cacheInvalidator != null) {
+            cacheInvalidator.pollIfDue();
+        }
+        try {
+            ProxyRequest request = ProxyRequest.parse(objectMapper.getFactory(), inputStream);
+            ProxyOperation operation = routes.resolve(request);
+            if (operation == null) {
+                String requested = request.getHttpMethod() + " " + request.getPath();
+                log = requestLogger.start("unmatched").status(404);
+                ProxyResponses.error(outputStream, 404, "No route for " + requested);
+                return;
+            }
+            // Keyed by template, never by raw path, so log sampling and metric tags stay bounded
+            route = request.getHttpMethod() + " " + request.getResource();
+            log = requestLogger.start(route);
+            if (authEnabled && RoutePolicy.requiresToken(request.getHttpMethod(), request.getResource())) {
+                LambdaBootstrap.tokenService().authorize(request.getHttpMethod(), request.getResource(),
+                        request.getHeader("Authorization"), request.getPathParameters().get("userId"));
+            }
+            operation.handle(request, outputStream, log);
+        } catch (ResponseCommittedException e) {
+            // Part of the response has already been written; an error envelope after it would be unparseable,
+            // so fail the invocation and let API Gateway answer with a 502
+            log = failed(log, 500, e);
+            throw e;
+        } catch (InvalidTokenException e) {
+            log = failed(log, 401, e);
+            ProxyResponses.error(outputStream, 401, "Unauthorized: " + e.getMessage());
+        } catch (AccessDeniedException | IncorrectPasswordException e) {
+            log = failed(log, 403, e);
+            ProxyResponses.error(outputStream, 403, "Forbidden: " + e.getMessage());
+        } catch (DuplicateUserException | VersionConflictException e) {
+            log = failed(log, 409, e);
+            ProxyResponses.error(outputStream, 409, e.getMessage());
+        } catch (PreconditionFailedException e) {
+            log = failed(log, 412, e);
+            ProxyResponses.error(outputStream, 412, e.getMessage());
+        } catch (OverloadedException e) {
+            // Shed before reaching DynamoDB; a crash or a long retry here would only add cold starts
+            int status = e instanceof CircuitOpenException ? 503 : 429;
+            log = failed(log, status, e);
+            ProxyResponses.retryLater(outputStream, status, e.getMessage(), e.getRetryAfterSeconds());
+        } catch (RejectedExecutionException e) {
+            // The password pool is saturated; API Gateway clients retry a 503
+            log = failed(log, 503, e);
+            ProxyResponses.error(outputStream, 503, "Too many password requests, try again shortly");
+        } catch (IllegalArgumentException e) {
+            log = failed(log, 400, e);
+            ProxyResponses.error(outputStream, 400, "Invalid request: " + e.getMessage());
+        } catch (IOException e) {
+            log = failed(log, 400, e);
+            ProxyResponses.error(outputStream, 400, "Error processing request: Input/output issue");
+        } catch (Exception e) {
+            log = failed(log, 400, e);
+            ProxyResponses.error(outputStream, 400, "Error processing request: Unexpected error occurred");
+        } finally {
+            int status = log != null ? log.getStatus() : 200;
+            UserMetrics.recordLatency(UserMetrics.LAMBDA_INVOCATION, System.nanoTime() - start,
+                    "route", route, "status", Integer.toString(status));
+            // One write each for the request log and the metrics, after the response is complete
+            if (log != null) {
+                requestLogger.finish(log);
+            }
+            logSink.flushTo(context.getLogger());
+            emfMetrics.flush(System.out);
+        }
+    }
+
+    // The request may fail before its route is known (e.g. an unparseable event)
+    private RequestLogEntry failed(RequestLogEntry log, int status, Exception e) {
+        return (log != null ? log : requestLogger.start("unknown route")).status(status).error(e);
+    }
+}
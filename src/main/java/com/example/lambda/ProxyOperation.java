@@ -0,0 +1,17 @@
+package com.example.lambda;
+
+import com.example.logging.RequestLogEntry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * One API operation served by {@link LambdaRouter}. The router has already parsed the proxy
+ * request and filled in path parameters; failures propagate back to it and are mapped to a
+ * status code in one place. Operations add what they know (user, item counts, a non-200 status)
+ * to the request's log entry instead of logging themselves.
+ */
+@FunctionalInterface
+public interface ProxyOperation {
+    void handle(ProxyRequest request, OutputStream outputStream, RequestLogEntry log) throws IOException;
+}
@@ -0,0 +1,173 @@
+package com.example.lambda;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The parts of an API Gateway (payload 1.0) proxy event the operations use. Parsed with the
+ * streaming token API: unused sections such as {@code requestContext} are skipped without being
+ * bound, and the body is kept as the parser's characters so it is parsed once, in place, instead
+ * of being copied into a String and parsed as a second document.
+ */
+public final class ProxyRequest {
+    private String httpMethod;
+    private String resource;
+    private String path;
+    private Map<String, String> pathParameters = Map.of();
+    private Map<String, String> queryStringParameters = Map.of();
+    private Map<String, String> headers = Map.of();
+    private char[] body;
+    private byte[] binaryBody;
+
+    public static ProxyRequest parse(JsonFactory jsonFactory, InputStream inputStream) throws IOException {
+        ProxyRequest request = new ProxyRequest();
+        boolean base64Encoded = false;
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a proxy request object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "httpMethod" -> request.httpMethod = text(parser, value);
+                    case "resource" -> request.resource = text(parser, value);
+                    case "path" -> request.path = text(parser, value);
+                    case "pathParameters" -> request.pathParameters = stringMap(parser, value, false);
+                    case "queryStringParameters" -> request.queryStringParameters = stringMap(parser, value, false);
+                    // Header names are case-insensitive; store them lower-cased
+                    case "headers" -> request.headers = stringMap(parser, value, true);
+                    case "isBase64Encoded" -> base64Encoded = value == JsonToken.VALUE_TRUE;
+                    case "body" -> {
+                        if (value == JsonToken.VALUE_STRING) {
+                            int offset = parser.getTextOffset();
+                            request.body = Arrays.copyOfRange(parser.getTextCharacters(), offset, offset + parser.getTextLength());
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (base64Encoded && request.body != null) {
+            // Base64 is ASCII, so the chars narrow to bytes one to one
+            byte[] encoded = new byte[request.body.length];
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = (byte) request.body[i];
+            }
+            request.binaryBody = Base64.getDecoder().decode(encoded);
+            request.body = null;
+        }
+        return request;
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private static Map<String, String> stringMap(JsonParser parser, JsonToken value, boolean lowerCaseKeys) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            return Map.of();
+        }
+        Map<String, String> map = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = lowerCaseKeys ? parser.currentName().toLowerCase(Locale.ROOT) : parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                map.put(key, parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return map;
+    }
+
+    public boolean hasBody() {
+        return body != null || binaryBody != null;
+    }
+
+    // Binds the body straight from the request's characters; no intermediate String is created
+    public <T> T readBody(ObjectMapper objectMapper, Class<T> type) throws IOException {
+        if (binaryBody != null) {
+            return objectMapper.readValue(binaryBody, type);
+        }
+        if (body == null || body.length == 0) {
+            throw new IllegalArgumentException("Request body is required");
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(body, 0, body.length)) {
+            return objectMapper.readValue(parser, type);
+        }
+    }
+
+    public String bodyAsString() {
+        if (binaryBody != null) {
+            return new String(binaryBody, StandardCharsets.UTF_8);
+        }
+        return body == null ? null : new String(body);
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public void setHttpMethod(String httpMethod) {
+        this.httpMethod = httpMethod;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public Map<String, String> getPathParameters() {
+        return pathParameters;
+    }
+
+    public void setPathParameters(Map<String, String> pathParameters) {
+        this.pathParameters = pathParameters != null ? pathParameters : Map.of();
+    }
+
+    public Map<String, String> getQueryStringParameters() {
+        return queryStringParameters;
+    }
+
+    public void setQueryStringParameters(Map<String, String> queryStringParameters) {
+        this.queryStringParameters = queryStringParameters != null ? queryStringParameters : Map.of();
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, String> headers) {
+        Map<String, String> lowerCased = new HashMap<>();
+        headers.forEach((name, value) -> lowerCased.put(name.toLowerCase(Locale.ROOT), value));
+        this.headers = lowerCased;
+    }
+}
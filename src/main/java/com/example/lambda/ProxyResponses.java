@@ -0,0 +1,46 @@
+package com.example.lambda;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public final class ProxyResponses {
+
+    private ProxyResponses() {
+    }
+
+    public static void ok(OutputStream outputStream, Object responseBody) throws IOException {
+        json(outputStream, 200, responseBody);
+    }
+
+    public static void ok(OutputStream outputStream, Object responseBody, String etag, String cacheControl) throws IOException {
+        StreamingProxyResponse.write(LambdaBootstrap.objectMapper(), outputStream, 200, etag, cacheControl,
+                generator -> generator.writeObject(responseBody));
+    }
+
+    public static void ok(OutputStream outputStream, Object responseBody, ResponseEncoding encoding, String etag,
+                          String cacheControl) throws IOException {
+        StreamingProxyResponse.write(LambdaBootstrap.objectMapper(), outputStream, 200, etag, cacheControl, encoding,
+                generator -> generator.writeObject(responseBody));
+    }
+
+    public static void notModified(OutputStream outputStream, String etag, String cacheControl) throws IOException {
+        StreamingProxyResponse.writeNotModified(outputStream, etag, cacheControl);
+    }
+
+    public static void json(OutputStream outputStream, int statusCode, Object responseBody) throws IOException {
+        StreamingProxyResponse.write(LambdaBootstrap.objectMapper(), outputStream, statusCode,
+                generator -> generator.writeObject(responseBody));
+    }
+
+    public static void text(OutputStream outputStream, String responseBody) throws IOException {
+        StreamingProxyResponse.writeText(outputStream, 200, responseBody);
+    }
+
+    public static void error(OutputStream outputStream, int statusCode, String errorMessage) throws IOException {
+        StreamingProxyResponse.writeText(outputStream, statusCode, errorMessage);
+    }
+
+    public static void retryLater(OutputStream outputStream, int statusCode, String errorMessage, long retryAfterSeconds) throws IOException {
+        StreamingProxyResponse.writeText(outputStream, statusCode, errorMessage, retryAfterSeconds);
+    }
+}
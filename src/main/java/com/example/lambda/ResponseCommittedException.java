@@ -0,0 +1,14 @@
+package com.example.lambda;
+
+import java.io.IOException;
+
+/**
+ * A response failed after its envelope head had already reached the Lambda output stream. Another
+ * envelope written after it would only make the output unparseable, so callers must not answer
+ * with an error response; the invocation fails instead and API Gateway returns a 502.
+ */
+public class ResponseCommittedException extends IOException {
+    public ResponseCommittedException(Exception cause) {
+        super("Response failed after it was committed: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.lambda;
+
+import com.example.model.BodyFormat;
+
+/**
+ * How a proxy response body is encoded: the format picked from Accept, and whether the client takes
+ * gzip. Brotli isn't offered: the JDK has no encoder, and a native one would add to every cold start.
+ */
+public final class ResponseEncoding {
+    public static final ResponseEncoding IDENTITY = new ResponseEncoding(BodyFormat.JSON, false);
+
+    private final BodyFormat format;
+    private final boolean gzip;
+
+    public ResponseEncoding(BodyFormat format, boolean gzip) {
+        this.format = format;
+        this.gzip = gzip;
+    }
+
+    public static ResponseEncoding negotiate(ProxyRequest request) {
+        return new ResponseEncoding(BodyFormat.forAccept(request.getHeader("Accept")),
+                acceptsGzip(request.getHeader("Accept-Encoding")));
+    }
+
+    public BodyFormat format() {
+        return format;
+    }
+
+    public boolean gzip() {
+        return gzip;
+    }
+
+    // "gzip" or "*" with a non-zero q
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            String quality = parts.length > 1 ? parts[1].trim() : "q=1";
+            try {
+                return !quality.startsWith("q=") || Double.parseDouble(quality.substring(2)) > 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.lambda;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route templates ("/users/{userId}") and the operations serving them. Matches on the route key
+ * API Gateway sends in {@code resource}, falling back to the raw path (filling in path parameters
+ * and the matched template as the resource).
+ */
+class RouteTable {
+
+    private final List<Route> routes = new ArrayList<>();
+
+    void add(String method, String template, ProxyOperation operation) {
+        routes.add(new Route(method, template, operation));
+    }
+
+    ProxyOperation resolve(ProxyRequest request) {
+        String method = request.getHttpMethod();
+        if (method == null) {
+            return null;
+        }
+        String resource = request.getResource();
+        if (resource != null) {
+            for (Route route : routes) {
+                if (route.method.equals(method) && route.template.equals(resource)) {
+                    return route.operation;
+                }
+            }
+        }
+
+        // No (or an unknown) route key: match the path, tolerating a leading stage segment
+        String path = request.getPath();
+        if (path == null) {
+            return null;
+        }
+        for (Route route : routes) {
+            if (!route.method.equals(method)) {
+                continue;
+            }
+            Map<String, String> pathParameters = route.match(path);
+            if (pathParameters == null) {
+                int stageEnd = path.indexOf('/', 1);
+                pathParameters = stageEnd > 0 ? route.match(path.substring(stageEnd)) : null;
+            }
+            if (pathParameters != null) {
+                if (request.getPathParameters().isEmpty()) {
+                    request.setPathParameters(pathParameters);
+                }
+                // Downstream logging and metrics key on the template, not the raw path
+                request.setResource(route.template);
+                return route.operation;
+            }
+        }
+        return null;
+    }
+
+    private static final class Route {
+        final String method;
+        final String template;
+        final String[] segments;
+        final ProxyOperation operation;
+
+        Route(String method, String template, ProxyOperation operation) {
+            this.method = method;
+            this.template = template;
+            this.segments = template.substring(1).split("/");
+            this.operation = operation;
+        }
+
+        Map<String, String> match(String path) {
+            String[] parts = path.startsWith("/") ? path.substring(1).split("/") : path.split("/");
+            if (parts.length != segments.length) {
+                return null;
+            }
+            Map<String, String> pathParameters = new HashMap<>();
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (parts[i].isEmpty()) {
+                        return null;
+                    }
+                    pathParameters.put(segment.substring(1, segment.length() - 1), parts[i]);
+                } else if (!segment.equals(parts[i])) {
+                    return null;
+                }
+            }
+            return pathParameters;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.lambda;
+
+import com.example.model.BodyFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes an API Gateway proxy response in one pass: the envelope is emitted as pre-encoded bytes
+ * and the JSON body is generated straight into the escaped "body" field, so neither the body nor
+ * the envelope is ever materialized as a String. Negotiated bodies (gzip, Smile, CBOR) are streamed
+ * through base64 instead, with {@code isBase64Encoded} set so API Gateway sends the raw bytes.
+ */
+public final class StreamingProxyResponse {
+
+    private static final byte[] STATUS_PREFIX = ascii("{\"statusCode\":");
+    private static final byte[] JSON_HEADERS = ascii(",\"headers\":{\"Content-Type\":\"application/json\"},\"isBase64Encoded\":false,\"body\":\"");
+    private static final byte[] TEXT_HEADERS = ascii(",\"headers\":{\"Content-Type\":\"text/plain; charset=utf-8\"},\"isBase64Encoded\":false,\"body\":\"");
+    private static final byte[] SUFFIX = ascii("\"}");
+    // Lambda's limit on a synchronous response payload is 6 MB (6,291,456 bytes); this leaves headroom
+    public static final int MAX_RESPONSE_BYTES = 6_000_000;
+    // Below this a body goes out uncompressed, as with server.compression.min-response-size: the gzip
+    // framing and base64 would cost more than they save
+    static final int COMPRESSION_MIN_BYTES = 2048;
+
+    @FunctionalInterface
+    public interface BodyWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private StreamingProxyResponse() {
+    }
+
+    public static void write(ObjectMapper objectMapper, OutputStream outputStream, int statusCode, BodyWriter bodyWriter) throws IOException {
+        write(objectMapper, outputStream, statusCode, JSON_HEADERS, bodyWriter);
+    }
+
+    // With an ETag and Cache-Control policy (either may be null), for responses clients can revalidate
+    public static void write(ObjectMapper objectMapper, OutputStream outputStream, int statusCode, String etag, String cacheControl,
+                             BodyWriter bodyWriter) throws IOException {
+        write(objectMapper, outputStream, statusCode, headers("application/json", null, etag, cacheControl, false, false), bodyWriter);
+    }
+
+    // In the negotiated format, gzipped when the client takes it and the body reaches COMPRESSION_MIN_BYTES.
+    // The envelope head waits until that is known, so at most that much of the body is ever held
+    public static void write(ObjectMapper objectMapper, OutputStream outputStream, int statusCode, String etag, String cacheControl,
+                             ResponseEncoding encoding, BodyWriter bodyWriter) throws IOException {
+        JsonStringEscapingOutputStream out = new JsonStringEscapingOutputStream(outputStream);
+        try {
+            NegotiatedBody body = new NegotiatedBody(out, statusCode, etag, cacheControl, encoding);
+            try (JsonGenerator generator = encoding.format().createGenerator(objectMapper, body)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                bodyWriter.write(generator);
+            }
+            body.finish();
+            out.writeRaw(SUFFIX);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            abandon(out, e);
+            throw e;
+        } finally {
+            out.release();
+        }
+    }
+
+    // As write, but the whole response is built in memory and only copied out once complete, up to
+    // maxBytes. For bodies generated while reading (exports) that may fail or outgrow Lambda's response
+    // limit part way: either way nothing has been sent, so the caller can still answer with an error
+    public static void writeBuffered(ObjectMapper objectMapper, OutputStream outputStream, int statusCode, String etag,
+                                     String cacheControl, ResponseEncoding encoding, int maxBytes,
+                                     BodyWriter bodyWriter) throws IOException {
+        BoundedBuffer buffer = new BoundedBuffer(maxBytes);
+        try {
+            write(objectMapper, buffer, statusCode, etag, cacheControl, encoding, bodyWriter);
+        } catch (ResponseCommittedException e) {
+            // Committed to the buffer only, which is dropped
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw (IOException) e.getCause();
+        }
+        buffer.writeTo(outputStream);
+        outputStream.flush();
+    }
+
+    // 304: the client's copy is current, so only the validators go back
+    public static void writeNotModified(OutputStream outputStream, String etag, String cacheControl) throws IOException {
+        JsonStringEscapingOutputStream out = new JsonStringEscapingOutputStream(outputStream);
+        try {
+            writeHead(out, 304, headers(null, null, etag, cacheControl, true, false));
+            out.writeRaw(SUFFIX);
+            out.flush();
+        } finally {
+            out.release();
+        }
+    }
+
+    private static void write(ObjectMapper objectMapper, OutputStream outputStream, int statusCode, byte[] headers,
+                              BodyWriter bodyWriter) throws IOException {
+        JsonStringEscapingOutputStream out = new JsonStringEscapingOutputStream(outputStream);
+        try {
+            writeHead(out, statusCode, headers);
+            out.startEscaping();
+            try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                bodyWriter.write(generator);
+            }
+            out.stopEscaping();
+            out.writeRaw(SUFFIX);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            abandon(out, e);
+            throw e;
+        } finally {
+            out.release();
+        }
+    }
+
+    public static void writeText(OutputStream outputStream, int statusCode, String text) throws IOException {
+        writeText(outputStream, statusCode, TEXT_HEADERS, text);
+    }
+
+    // For 429/503 responses telling the client when to come back
+    public static void writeText(OutputStream outputStream, int statusCode, String text, long retryAfterSeconds) throws IOException {
+        writeText(outputStream, statusCode, ascii(",\"headers\":{\"Content-Type\":\"text/plain; charset=utf-8\",\"Retry-After\":\""
+                + retryAfterSeconds + "\"},\"isBase64Encoded\":false,\"body\":\""), text);
+    }
+
+    private static void writeText(OutputStream outputStream, int statusCode, byte[] headers, String text) throws IOException {
+        JsonStringEscapingOutputStream out = new JsonStringEscapingOutputStream(outputStream);
+        try {
+            writeHead(out, statusCode, headers);
+            out.startEscaping();
+            if (text != null) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            out.stopEscaping();
+            out.writeRaw(SUFFIX);
+            out.flush();
+        } finally {
+            out.release();
+        }
+    }
+
+    // A body that fails while still inside the staging buffer is dropped, so the caller can answer with an
+    // error envelope instead. Once the head has gone out, that second envelope would corrupt the output
+    private static void abandon(JsonStringEscapingOutputStream out, Exception e) throws ResponseCommittedException {
+        if (e instanceof ResponseCommittedException) {
+            return;
+        }
+        if (out.isCommitted()) {
+            throw new ResponseCommittedException(e);
+        }
+        out.discard();
+    }
+
+    private static void writeHead(JsonStringEscapingOutputStream out, int statusCode, byte[] headers) throws IOException {
+        out.writeRaw(STATUS_PREFIX);
+        out.writeRaw(ascii(Integer.toString(statusCode)));
+        out.writeRaw(headers);
+    }
+
+    // ETags are quoted strings, so their quotes are escaped for the envelope. Responses that can be
+    // negotiated say so in Vary, so a cache never hands a JSON client someone else's gzipped Smile
+    private static byte[] headers(String contentType, String contentEncoding, String etag, String cacheControl,
+                                  boolean negotiated, boolean base64) {
+        StringBuilder headers = new StringBuilder(",\"headers\":{");
+        if (contentType != null) {
+            headers.append("\"Content-Type\":\"").append(contentType).append("\",");
+        }
+        if (contentEncoding != null) {
+            headers.append("\"Content-Encoding\":\"").append(contentEncoding).append("\",");
+        }
+        if (negotiated) {
+            headers.append("\"Vary\":\"Accept, Accept-Encoding\",");
+        }
+        if (etag != null) {
+            headers.append("\"ETag\":\"").append(etag.replace("\"", "\\\"")).append("\",");
+        }
+        if (cacheControl != null) {
+            headers.append("\"Cache-Control\":\"").append(cacheControl).append("\",");
+        }
+        if (headers.charAt(headers.length() - 1) == ',') {
+            headers.setLength(headers.length() - 1);
+        }
+        return ascii(headers.append("},\"isBase64Encoded\":").append(base64).append(",\"body\":\"").toString());
+    }
+
+    // Holds the start of the body until it is clear whether to compress, then writes the envelope head
+    // and streams the rest: escaped into the string for plain JSON, through base64 for anything else
+    private static final class NegotiatedBody extends OutputStream {
+        private final JsonStringEscapingOutputStream out;
+        private final int statusCode;
+        private final String etag;
+        private final String cacheControl;
+        private final ResponseEncoding encoding;
+        private byte[] pending;
+        private int pendingCount;
+        private OutputStream body;
+
+        NegotiatedBody(JsonStringEscapingOutputStream out, int statusCode, String etag, String cacheControl,
+                       ResponseEncoding encoding) throws IOException {
+            this.out = out;
+            this.statusCode = statusCode;
+            this.etag = etag;
+            this.cacheControl = cacheControl;
+            this.encoding = encoding;
+            if (encoding.gzip()) {
+                pending = new byte[COMPRESSION_MIN_BYTES];
+            } else {
+                start(false);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            if (body == null) {
+                if (pendingCount + len < pending.length) {
+                    System.arraycopy(bytes, off, pending, pendingCount, len);
+                    pendingCount += len;
+                    return;
+                }
+                start(true);
+                body.write(pending, 0, pendingCount);
+            }
+            body.write(bytes, off, len);
+        }
+
+        void finish() throws IOException {
+            if (body == null) {
+                start(false);
+                body.write(pending, 0, pendingCount);
+            }
+            // Ends the gzip stream and the base64 padding; the envelope stays open
+            body.close();
+            out.stopEscaping();
+        }
+
+        private void start(boolean gzip) throws IOException {
+            BodyFormat format = encoding.format();
+            boolean base64 = gzip || format.isBinary();
+            writeHead(out, statusCode, headers(format.contentType(), gzip ? "gzip" : null, etag, cacheControl, true, base64));
+            OutputStream envelope = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] bytes, int off, int len) throws IOException {
+                    out.write(bytes, off, len);
+                }
+            };
+            if (!base64) {
+                out.startEscaping();
+                body = envelope;
+                return;
+            }
+            // Base64 never needs escaping inside the JSON string
+            body = Base64.getEncoder().wrap(envelope);
+            if (gzip) {
+                body = new GZIPOutputStream(body, 8192);
+            }
+        }
+    }
+
+    // Fails the write that would take the response past Lambda's limit
+    private static final class BoundedBuffer extends ByteArrayOutputStream {
+        private final int maxBytes;
+
+        BoundedBuffer(int maxBytes) {
+            super(8192);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            ensureRoom(1);
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int off, int len) {
+            ensureRoom(len);
+            super.write(bytes, off, len);
+        }
+
+        private void ensureRoom(int len) {
+            if (count + len > maxBytes) {
+                throw new IllegalArgumentException("the response would exceed " + maxBytes + " bytes");
+            }
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
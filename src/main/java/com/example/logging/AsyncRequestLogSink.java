@@ -0,0 +1,95 @@
+package com.example.logging;
+
+import com.example.config.ThreadFactories;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands entries to a single writer thread through a {@link RingBuffer}. Request threads only pay
+ * for one CAS; formatting and console I/O happen on the writer, which drains in batches and issues
+ * one write per batch. When the buffer is full entries are dropped and counted rather than making
+ * a request wait for the console.
+ */
+public class AsyncRequestLogSink implements RequestLogSink, AutoCloseable {
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final RingBuffer<RequestLogEntry> buffer;
+    private final OutputStream out;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AsyncRequestLogSink(OutputStream out, int capacity) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.out = out;
+        this.writer = ThreadFactories.named("request-log-", false).newThread(this::drainLoop);
+        this.writer.start();
+    }
+
+    @Override
+    public void accept(RequestLogEntry entry) {
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(16 * 1024);
+        long reportedDrops = 0;
+        while (true) {
+            boolean stopping = !running;
+            int drained = 0;
+            RequestLogEntry entry;
+            while (drained < MAX_BATCH && (entry = buffer.poll()) != null) {
+                try {
+                    RequestLogFormat.writeLine(entry, batch);
+                } catch (IOException e) {
+                    // Writing to memory cannot fail; skip the entry rather than kill the writer
+                }
+                drained++;
+            }
+            long drops = dropped.get();
+            try {
+                if (drops != reportedDrops) {
+                    RequestLogFormat.writeDropped(drops - reportedDrops, batch);
+                    reportedDrops = drops;
+                }
+                if (batch.size() > 0) {
+                    batch.writeTo(out);
+                    out.flush();
+                    batch.reset();
+                }
+            } catch (IOException e) {
+                batch.reset();
+            }
+            if (drained == 0) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // Stops accepting wake-ups and drains whatever is already buffered
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.logging;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Lambda sink: a frozen execution environment cannot run a background writer, so lines are
+ * formatted into a reused buffer during the invocation and handed to the runtime in one
+ * {@link LambdaLogger#log(byte[])} call once the response has been written.
+ */
+public class BufferedRequestLogSink implements RequestLogSink {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4 * 1024);
+
+    @Override
+    public void accept(RequestLogEntry entry) {
+        try {
+            RequestLogFormat.writeLine(entry, buffer);
+        } catch (IOException e) {
+            // Writing to memory cannot fail
+        }
+    }
+
+    public void flushTo(LambdaLogger logger) {
+        if (buffer.size() > 0) {
+            logger.log(buffer.toByteArray());
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.logging;
+
+/**
+ * Masks user fields that may reach a log. Passwords are never logged at all; emails keep their
+ * first character and domain so support can still tell accounts apart.
+ */
+public final class LogRedaction {
+    public static final String REDACTED = "[REDACTED]";
+
+    private LogRedaction() {
+    }
+
+    public static String maskEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.indexOf('@');
+        if (at <= 0) {
+            return REDACTED;
+        }
+        return email.charAt(0) + "***" + email.substring(at);
+    }
+
+    public static String maskSecret(String secret) {
+        return secret == null ? null : REDACTED;
+    }
+}
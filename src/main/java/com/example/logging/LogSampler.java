@@ -0,0 +1,50 @@
+package com.example.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-endpoint sampling for successful requests. Rates are fractions between 0 and 1; endpoints
+ * without their own rate use the default. Server errors are never sampled out (see
+ * {@link RequestLogger}).
+ */
+public final class LogSampler {
+    private final double defaultRate;
+    private final Map<String, Double> endpointRates;
+
+    public LogSampler(double defaultRate, Map<String, Double> endpointRates) {
+        this.defaultRate = defaultRate;
+        this.endpointRates = Map.copyOf(endpointRates);
+    }
+
+    // "GET /users/{userId}=0.01,POST /users=1" -> per-endpoint rates
+    public static LogSampler parse(double defaultRate, String endpointRates) {
+        Map<String, Double> rates = new HashMap<>();
+        if (endpointRates != null && !endpointRates.isBlank()) {
+            for (String pair : endpointRates.split(",")) {
+                int separator = pair.lastIndexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Expected <endpoint>=<rate> but got: " + pair.trim());
+                }
+                rates.put(pair.substring(0, separator).trim(), Double.parseDouble(pair.substring(separator + 1).trim()));
+            }
+        }
+        return new LogSampler(defaultRate, rates);
+    }
+
+    // Lambda handlers have no Spring environment; USER_LOG_SAMPLE_RATE and USER_LOG_ENDPOINT_SAMPLE_RATES mirror user.log.*
+    public static LogSampler fromEnvironment() {
+        String defaultRate = System.getenv("USER_LOG_SAMPLE_RATE");
+        return parse(defaultRate == null || defaultRate.isBlank() ? 1.0 : Double.parseDouble(defaultRate.trim()),
+                System.getenv("USER_LOG_ENDPOINT_SAMPLE_RATES"));
+    }
+
+    public boolean sample(String endpoint) {
+        double rate = endpointRates.getOrDefault(endpoint, defaultRate);
+        if (rate >= 1.0) {
+            return true;
+        }
+        return rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.logging;
+
+import com.example.model.User;
+
+/**
+ * What one request contributes to its log line. Callers only store references here; masking and
+ * JSON formatting happen later, on the writer thread (Spring) or after the response (Lambda).
+ */
+public final class RequestLogEntry {
+    private final String endpoint;
+    private final long startNanos;
+    private long durationNanos;
+    private long timestampMillis;
+    private int status = 200;
+    private String userId;
+    private String username;
+    private String email;
+    private int items = -1;
+    private int failedItems = -1;
+    private Throwable error;
+
+    RequestLogEntry(String endpoint, long startNanos) {
+        this.endpoint = endpoint;
+        this.startNanos = startNanos;
+    }
+
+    public RequestLogEntry status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public RequestLogEntry userId(String userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    // Identifying fields only; the password is never captured and the email is masked when written
+    public RequestLogEntry user(User user) {
+        if (user != null) {
+            this.userId = user.getUserId();
+            this.username = user.getUsername();
+            this.email = user.getEmail();
+        }
+        return this;
+    }
+
+    public RequestLogEntry items(int items) {
+        this.items = items;
+        return this;
+    }
+
+    public RequestLogEntry failedItems(int failedItems) {
+        this.failedItems = failedItems;
+        return this;
+    }
+
+    public RequestLogEntry error(Throwable error) {
+        this.error = error;
+        return this;
+    }
+
+    void complete(long endNanos, long timestampMillis) {
+        this.durationNanos = endNanos - startNanos;
+        this.timestampMillis = timestampMillis;
+    }
+
+    boolean isServerError() {
+        return status >= 500;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    long getDurationNanos() {
+        return durationNanos;
+    }
+
+    long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    String getUserId() {
+        return userId;
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    String getEmail() {
+        return email;
+    }
+
+    int getItems() {
+        return items;
+    }
+
+    int getFailedItems() {
+        return failedItems;
+    }
+
+    Throwable getError() {
+        return error;
+    }
+}
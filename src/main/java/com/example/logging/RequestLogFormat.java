@@ -0,0 +1,64 @@
+package com.example.logging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Renders an entry as a single JSON line. Uses the streaming generator directly so a line costs
+ * one pass over the fields and no intermediate tree or String.
+ */
+final class RequestLogFormat {
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private RequestLogFormat() {
+    }
+
+    static void writeLine(RequestLogEntry entry, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("ts", Instant.ofEpochMilli(entry.getTimestampMillis()).toString());
+            generator.writeStringField("endpoint", entry.getEndpoint());
+            generator.writeNumberField("status", entry.getStatus());
+            generator.writeNumberField("durationMs", entry.getDurationNanos() / 1_000_000.0);
+            writeOptional(generator, "userId", entry.getUserId());
+            writeOptional(generator, "username", entry.getUsername());
+            writeOptional(generator, "email", LogRedaction.maskEmail(entry.getEmail()));
+            if (entry.getItems() >= 0) {
+                generator.writeNumberField("items", entry.getItems());
+            }
+            if (entry.getFailedItems() >= 0) {
+                generator.writeNumberField("failedItems", entry.getFailedItems());
+            }
+            Throwable error = entry.getError();
+            if (error != null) {
+                generator.writeStringField("error", error.getClass().getSimpleName());
+                writeOptional(generator, "message", error.getMessage());
+            }
+            generator.writeEndObject();
+        }
+        out.write('\n');
+    }
+
+    static void writeDropped(long dropped, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("ts", Instant.now().toString());
+            generator.writeStringField("event", "request-log-dropped");
+            generator.writeNumberField("count", dropped);
+            generator.writeEndObject();
+        }
+        out.write('\n');
+    }
+
+    private static void writeOptional(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.logging;
+
+/**
+ * Destination for completed request log entries. {@link #accept} is called on the request path
+ * and must not block on I/O.
+ */
+public interface RequestLogSink {
+    void accept(RequestLogEntry entry);
+}
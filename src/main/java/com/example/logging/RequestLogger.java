@@ -0,0 +1,39 @@
+package com.example.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One structured line per request. {@link #start} records the start time; {@link #finish} applies
+ * the level guard and the endpoint's sample rate before anything is formatted, so a sampled-out
+ * request costs one small object and no I/O. Server errors are always kept.
+ *
+ * <p>Levels come from the {@code requests} logger ({@code logging.level.requests}): INFO keeps
+ * sampled successes and client errors, WARN keeps server errors only, OFF disables the log.
+ */
+public class RequestLogger {
+    private static final Logger levels = LoggerFactory.getLogger("requests");
+
+    private final LogSampler sampler;
+    private final RequestLogSink sink;
+
+    public RequestLogger(LogSampler sampler, RequestLogSink sink) {
+        this.sampler = sampler;
+        this.sink = sink;
+    }
+
+    public RequestLogEntry start(String endpoint) {
+        return new RequestLogEntry(endpoint, System.nanoTime());
+    }
+
+    public void finish(RequestLogEntry entry) {
+        boolean keep = entry.isServerError()
+                ? levels.isWarnEnabled()
+                : levels.isInfoEnabled() && sampler.sample(entry.getEndpoint());
+        if (!keep) {
+            return;
+        }
+        entry.complete(System.nanoTime(), System.currentTimeMillis());
+        sink.accept(entry);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers raw observations between flushes and writes them as CloudWatch Embedded Metric Format
+ * lines. Observations with the same tags share one document (tags become its dimensions), and
+ * every value is sent as recorded, so CloudWatch computes percentiles from the real distribution.
+ */
+public final class EmfMetrics {
+    // CloudWatch accepts at most 100 values per metric in one document; larger series span several lines
+    private static final int MAX_VALUES = 100;
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    public enum Unit {
+        MILLISECONDS("Milliseconds", "milliseconds"),
+        BYTES("Bytes", "bytes"),
+        COUNT("Count", null),
+        NONE("None", null);
+
+        private final String emfName;
+        private final String baseUnit;
+
+        Unit(String emfName, String baseUnit) {
+            this.emfName = emfName;
+            this.baseUnit = baseUnit;
+        }
+
+        String baseUnit() {
+            return baseUnit;
+        }
+    }
+
+    private final String namespace;
+    // Observations arrive from SDK callback threads as well as the handler thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<List<String>, Map<String, Series>> pending = new LinkedHashMap<>();
+
+    EmfMetrics(String namespace) {
+        this.namespace = namespace;
+    }
+
+    void record(String name, Unit unit, double value, String... tags) {
+        List<String> dimensions = Arrays.asList(tags);
+        lock.lock();
+        try {
+            pending.computeIfAbsent(dimensions, key -> new LinkedHashMap<>())
+                    .computeIfAbsent(name, key -> new Series(unit))
+                    .add(value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void discard() {
+        swap();
+    }
+
+    // Writes everything recorded since the last flush in a single write
+    public void flush(OutputStream out) throws IOException {
+        Map<List<String>, Map<String, Series>> batch = swap();
+        if (batch.isEmpty()) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(1024);
+        for (Map.Entry<List<String>, Map<String, Series>> group : batch.entrySet()) {
+            int largest = 0;
+            for (Series series : group.getValue().values()) {
+                largest = Math.max(largest, series.size);
+            }
+            for (int offset = 0; offset < largest; offset += MAX_VALUES) {
+                writeDocument(lines, timestamp, group.getKey(), group.getValue(), offset);
+            }
+        }
+        lines.writeTo(out);
+        out.flush();
+    }
+
+    private Map<List<String>, Map<String, Series>> swap() {
+        lock.lock();
+        try {
+            Map<List<String>, Map<String, Series>> batch = pending;
+            pending = new LinkedHashMap<>();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeDocument(OutputStream out, long timestamp, List<String> tags, Map<String, Series> metrics, int offset) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            generator.writeObjectFieldStart("_aws");
+            generator.writeNumberField("Timestamp", timestamp);
+            generator.writeArrayFieldStart("CloudWatchMetrics");
+            generator.writeStartObject();
+            generator.writeStringField("Namespace", namespace);
+            generator.writeArrayFieldStart("Dimensions");
+            generator.writeStartArray();
+            for (int i = 0; i + 1 < tags.size(); i += 2) {
+                generator.writeString(tags.get(i));
+            }
+            generator.writeEndArray();
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("Metrics");
+            for (Map.Entry<String, Series> metric : metrics.entrySet()) {
+                if (metric.getValue().size > offset) {
+                    generator.writeStartObject();
+                    generator.writeStringField("Name", metric.getKey());
+                    generator.writeStringField("Unit", metric.getValue().unit.emfName);
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+
+            for (int i = 0; i + 1 < tags.size(); i += 2) {
+                generator.writeStringField(tags.get(i), tags.get(i + 1));
+            }
+            for (Map.Entry<String, Series> metric : metrics.entrySet()) {
+                Series series = metric.getValue();
+                if (series.size > offset) {
+                    generator.writeFieldName(metric.getKey());
+                    generator.writeArray(series.values, offset, Math.min(MAX_VALUES, series.size - offset));
+                }
+            }
+            generator.writeEndObject();
+        }
+        out.write('\n');
+    }
+
+    private static final class Series {
+        final Unit unit;
+        double[] values = new double[8];
+        int size;
+
+        Series(Unit unit) {
+            this.unit = unit;
+        }
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meter names and recording helpers shared by the Spring app and the Lambda handlers. Everything
+ * is recorded in Micrometer's global registry, which Spring Boot backs with the Prometheus
+ * registry. When {@link #enableEmf} has been called (Lambda), each observation is also kept raw
+ * for the next Embedded Metric Format flush, so CloudWatch computes percentiles from real values.
+ */
+public final class UserMetrics {
+    public static final String SERVICE_OPERATION = "user.service.operation";
+    public static final String SERVICE_COALESCED = "user.service.coalesced";
+    public static final String CACHE_INVALIDATIONS = "user.cache.invalidations";
+    public static final String CACHE_INVALIDATION_LAG = "user.cache.invalidation.lag";
+    public static final String LAMBDA_INVOCATION = "user.lambda.invocation";
+    public static final String DYNAMODB_CALL = "dynamodb.call";
+    public static final String DYNAMODB_RETRIES = "dynamodb.retries";
+    public static final String DYNAMODB_THROTTLES = "dynamodb.throttles";
+    public static final String DYNAMODB_SHED = "dynamodb.shed";
+    public static final String DYNAMODB_CONSUMED_CAPACITY = "dynamodb.consumed.capacity";
+    public static final String DYNAMODB_REQUEST_SIZE = "dynamodb.request.size";
+    public static final String DYNAMODB_RESPONSE_SIZE = "dynamodb.response.size";
+
+    // p50/p99/p999 from an HdrHistogram-backed window, plus buckets so Prometheus can aggregate across instances
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private static final Map<String, Meter.MeterProvider<Timer>> timers = new ConcurrentHashMap<>();
+    private static final Map<String, Meter.MeterProvider<DistributionSummary>> summaries = new ConcurrentHashMap<>();
+    private static final Map<String, Meter.MeterProvider<Counter>> counters = new ConcurrentHashMap<>();
+    private static volatile EmfMetrics emf;
+
+    private UserMetrics() {
+    }
+
+    public static void recordLatency(String name, long nanos, String... tags) {
+        timers.computeIfAbsent(name, key -> Timer.builder(key)
+                        .publishPercentiles(PERCENTILES)
+                        .publishPercentileHistogram()
+                        .withRegistry(Metrics.globalRegistry))
+                .withTags(tags)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        EmfMetrics current = emf;
+        if (current != null) {
+            current.record(name, EmfMetrics.Unit.MILLISECONDS, nanos / 1_000_000.0, tags);
+        }
+    }
+
+    public static void recordAmount(String name, EmfMetrics.Unit unit, double amount, String... tags) {
+        summaries.computeIfAbsent(name, key -> DistributionSummary.builder(key)
+                        .baseUnit(unit.baseUnit())
+                        .publishPercentiles(PERCENTILES)
+                        .withRegistry(Metrics.globalRegistry))
+                .withTags(tags)
+                .record(amount);
+        EmfMetrics current = emf;
+        if (current != null) {
+            current.record(name, unit, amount, tags);
+        }
+    }
+
+    public static void increment(String name, double amount, String... tags) {
+        counters.computeIfAbsent(name, key -> Counter.builder(key).withRegistry(Metrics.globalRegistry))
+                .withTags(tags)
+                .increment(amount);
+        EmfMetrics current = emf;
+        if (current != null) {
+            current.record(name, EmfMetrics.Unit.COUNT, amount, tags);
+        }
+    }
+
+    // Priming traffic is not real load; drop what it recorded before the first invocation flushes
+    public static void discardPending() {
+        EmfMetrics current = emf;
+        if (current != null) {
+            current.discard();
+        }
+    }
+
+    // Lambda only: there is no scrape endpoint, so observations are also flushed as EMF log lines
+    public static EmfMetrics enableEmf(String namespace) {
+        EmfMetrics current = emf;
+        if (current == null) {
+            current = new EmfMetrics(namespace);
+            emf = current;
+        }
+        return current;
+    }
+}
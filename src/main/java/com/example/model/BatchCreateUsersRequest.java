@@ -0,0 +1,22 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchCreateUsersRequest {
+    @JsonProperty("users")
+    private final List<User> users;
+
+    @JsonCreator
+    public BatchCreateUsersRequest(@JsonProperty("users") List<User> users) {
+        this.users = users;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchGetUsersRequest {
+    @JsonProperty("userIds")
+    private final List<String> userIds;
+
+    @JsonCreator
+    public BatchGetUsersRequest(@JsonProperty("userIds") List<String> userIds) {
+        this.userIds = userIds;
+    }
+
+    public List<String> getUserIds() {
+        return userIds;
+    }
+}
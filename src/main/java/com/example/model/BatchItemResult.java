@@ -0,0 +1,65 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    public enum Status {
+        CREATED,
+        FOUND,
+        NOT_FOUND,
+        FAILED
+    }
+
+    @JsonProperty("userId")
+    private final String userId;
+
+    @JsonProperty("status")
+    private final Status status;
+
+    @JsonProperty("user")
+    private final User user;
+
+    @JsonProperty("error")
+    private final String error;
+
+    public BatchItemResult(String userId, Status status, User user, String error) {
+        this.userId = userId;
+        this.status = status;
+        this.user = user;
+        this.error = error;
+    }
+
+    public static BatchItemResult created(User user) {
+        return new BatchItemResult(user.getUserId(), Status.CREATED, user, null);
+    }
+
+    public static BatchItemResult found(User user) {
+        return new BatchItemResult(user.getUserId(), Status.FOUND, user, null);
+    }
+
+    public static BatchItemResult notFound(String userId) {
+        return new BatchItemResult(userId, Status.NOT_FOUND, null, null);
+    }
+
+    public static BatchItemResult failed(String userId, String error) {
+        return new BatchItemResult(userId, Status.FAILED, null, error);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class BatchResult {
+    @JsonProperty("results")
+    private final List<BatchItemResult> results;
+
+    @JsonProperty("failed")
+    private final int failed;
+
+    public BatchResult(List<BatchItemResult> results) {
+        this.results = results;
+        int failedCount = 0;
+        for (BatchItemResult result : results) {
+            if (result.getStatus() == BatchItemResult.Status.FAILED) {
+                failedCount++;
+            }
+        }
+        this.failed = failedCount;
+    }
+
+    public List<BatchItemResult> getResults() {
+        return results;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+}
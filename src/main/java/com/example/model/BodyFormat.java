@@ -0,0 +1,94 @@
+package com.example.model;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The encodings a user payload can be written in. JSON is the default; Smile and CBOR are binary
+ * JSON for internal callers that ask for them in Accept. They skip the quoting and number
+ * formatting, and Smile back-references repeated field names, which adds up on large pages.
+ * The same serializers write all three, so any generator takes the JSON ObjectMapper's configuration.
+ */
+public enum BodyFormat {
+    JSON("application/json", null),
+    SMILE("application/x-jackson-smile", new SmileFactory()),
+    CBOR("application/cbor", new CBORFactory());
+
+    private final String contentType;
+    private final JsonFactory factory;
+
+    BodyFormat(String contentType, JsonFactory factory) {
+        this.contentType = contentType;
+        this.factory = factory;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public boolean isBinary() {
+        return factory != null;
+    }
+
+    public JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        if (factory == null) {
+            return objectMapper.createGenerator(out, JsonEncoding.UTF8);
+        }
+        JsonGenerator generator = factory.createGenerator(out);
+        generator.setCodec(objectMapper);
+        return generator;
+    }
+
+    // The highest-q format the Accept header names. Wildcards only ever mean JSON, so browsers and
+    // clients that send no Accept are unaffected; on a tie the earlier range wins
+    public static BodyFormat forAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        BodyFormat best = JSON;
+        double bestQuality = 0;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            BodyFormat format = forMediaRange(parts[0].trim());
+            double quality = format == null ? 0 : quality(parts);
+            if (quality > bestQuality) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static BodyFormat forMediaRange(String mediaRange) {
+        if (mediaRange.equals("*/*") || mediaRange.equalsIgnoreCase("application/*")) {
+            return JSON;
+        }
+        for (BodyFormat format : values()) {
+            if (format.contentType.equalsIgnoreCase(mediaRange)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.model;
+
+import com.example.UserService.PreconditionFailedException;
+import com.example.repository.UserProjection;
+
+/**
+ * ETags for user representations, and the If-None-Match / If-Match checks against them.
+ * A versioned user's tag is its version plus the projection served ({@code W/"v3-7f"}), so it costs
+ * nothing to compute and a write always changes it. Users stored before versioning, and pages,
+ * get a 64-bit hash of the attributes they show ({@code W/"h..."}); neither needs the body
+ * serialized first.
+ * <p>
+ * Tags are weak: one tag covers the JSON, Smile and CBOR bodies, gzipped or not, which are the
+ * same data but not the same bytes. Tomcat also refuses to compress a response with a strong tag.
+ */
+public final class ETags {
+    // Clients poll profiles: let them keep a copy, but revalidate it every time (cheap with a 304)
+    public static final String CACHE_REVALIDATE = "private, no-cache";
+    // Tokens, exports
+    public static final String CACHE_NONE = "no-store";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {
+    }
+
+    public static String of(User user, UserProjection projection) {
+        if (user.getVersion() != null) {
+            return "W/\"v" + user.getVersion() + '-' + Integer.toHexString(projection.bits()) + '"';
+        }
+        return "W/\"h" + Long.toHexString(hash(FNV_OFFSET ^ projection.bits(), user, projection)) + '"';
+    }
+
+    public static String of(UserPage page, UserProjection projection) {
+        long hash = FNV_OFFSET ^ projection.bits();
+        for (User user : page.getUsers()) {
+            hash = mix(hash, user.getUserId());
+            hash = user.getVersion() != null ? mix(hash, user.getVersion().toString()) : hash(hash, user, projection);
+        }
+        hash = mix(hash, page.getNextCursor());
+        return "W/\"h" + Long.toHexString(hash) + '"';
+    }
+
+    // If-None-Match uses the weak comparison: W/"x" matches "x" and W/"x" (RFC 9110 13.1.2)
+    public static boolean noneMatchFails(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The version an If-Match header requires: null when there is no header or it is *, which only
+    // requires the user to exist. If-Match uses the strong comparison, which a weak tag never passes
+    // (RFC 9110 13.1.1), so only the version tag sent without its W/ is honoured: the version names
+    // exactly one stored item and is checked atomically. Weak tags, hash tags, and lists naming more
+    // than one version fail the precondition
+    public static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Long version = null;
+        for (String candidate : ifMatch.split(",")) {
+            Long tagged = versionOf(candidate.trim());
+            if (tagged == null || (version != null && !version.equals(tagged))) {
+                throw new PreconditionFailedException(
+                        "If-Match must name the current ETag of a versioned user, without its W/ prefix");
+            }
+            version = tagged;
+        }
+        return version;
+    }
+
+    private static Long versionOf(String tag) {
+        int dash = tag.indexOf('-');
+        if (!tag.startsWith("\"v") || !tag.endsWith("\"") || dash < 0) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(2, dash));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long hash(long hash, User user, UserProjection projection) {
+        for (UserProjection.Attribute attribute : UserProjection.Attribute.values()) {
+            if (projection.includes(attribute)) {
+                hash = mix(hash, value(user, attribute));
+            }
+        }
+        return hash;
+    }
+
+    private static String value(User user, UserProjection.Attribute attribute) {
+        return switch (attribute) {
+            case USER_ID -> user.getUserId();
+            case FIRST_NAME -> user.getFirstName();
+            case LAST_NAME -> user.getLastName();
+            case USERNAME -> user.getUsername();
+            case PASSWORD -> null;
+            case EMAIL -> user.getEmail();
+            case CREATED_AT -> user.getCreatedAt();
+            case VERSION -> user.getVersion() == null ? null : user.getVersion().toString();
+        };
+    }
+
+    // FNV-1a over the UTF-16 units, with a separator so ("ab", "c") and ("a", "bc") differ
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return (hash ^ (value == null ? 0x1 : 0x0)) * FNV_PRIME;
+    }
+}
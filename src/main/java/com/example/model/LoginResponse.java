@@ -0,0 +1,41 @@
+package com.example.model;
+
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// OAuth-style token response; expiresIn is in seconds
+public class LoginResponse {
+    @JsonProperty("accessToken")
+    private final String accessToken;
+
+    @JsonProperty("tokenType")
+    private final String tokenType = "Bearer";
+
+    @JsonProperty("expiresIn")
+    private final long expiresIn;
+
+    @JsonProperty("user")
+    private final UserView user;
+
+    public LoginResponse(String accessToken, long expiresIn, User user) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+        this.user = new UserView(user, UserProjection.READABLE);
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public UserView getUser() {
+        return user;
+    }
+}
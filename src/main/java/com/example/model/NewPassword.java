@@ -1,8 +1,39 @@
 // NewPassword.java
 package com.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Body of PUT /users/{userId}/changepassword
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class NewPassword {
+    @JsonProperty("currentPassword")
+    private String currentPassword;
+
+    @JsonProperty("newPassword")
     private String newPassword;
 
-    // Getters and setters
+    public NewPassword() {
+    }
+
+    public NewPassword(String currentPassword, String newPassword) {
+        this.currentPassword = currentPassword;
+        this.newPassword = newPassword;
+    }
+
+    public String getCurrentPassword() {
+        return currentPassword;
+    }
+
+    public void setCurrentPassword(String currentPassword) {
+        this.currentPassword = currentPassword;
+    }
+
+    public String getNewPassword() {
+        return newPassword;
+    }
+
+    public void setNewPassword(String newPassword) {
+        this.newPassword = newPassword;
+    }
 }
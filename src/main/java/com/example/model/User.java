@@ -1,5 +1,6 @@
 package com.example.model;
 
+import com.example.logging.LogRedaction;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -34,6 +35,10 @@ public class User {
     @JsonProperty("createdAt")
     private String createdAt;
 
+    @Schema(description = "Incremented on every update; send it back with an update to make it conditional")
+    @JsonProperty("version")
+    private Long version;
+
     @JsonCreator
     public User(@JsonProperty("userId") String userId,
                 @JsonProperty("firstName") String firstName,
@@ -107,6 +112,14 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -114,9 +127,10 @@ public class User {
                 ", firstName='" + firstName + '\'' +
                 ", lastName='" + lastName + '\'' +
                 ", username='" + username + '\'' +
-                ", password='" + password + '\'' +
-                ", email='" + email + '\'' +
+                ", password='" + LogRedaction.maskSecret(password) + '\'' +
+                ", email='" + LogRedaction.maskEmail(email) + '\'' +
                 ", createdAt='" + createdAt + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
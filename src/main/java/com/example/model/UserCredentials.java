@@ -1,9 +1,39 @@
 // UserCredentials.java
 package com.example.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Body of POST /auth/login; no toString, so the password can't end up in a log line
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class UserCredentials {
+    @JsonProperty("username")
     private String username;
+
+    @JsonProperty("password")
     private String password;
 
-    // Getters and setters
+    public UserCredentials() {
+    }
+
+    public UserCredentials(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
 }
\ No newline at end of file
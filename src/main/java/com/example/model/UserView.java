@@ -0,0 +1,100 @@
+package com.example.model;
+
+import com.example.repository.UserProjection;
+import com.example.repository.UserProjection.Attribute;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Serializes a {@link User} with only the attributes of a projection. Jackson's {@code @JsonView}
+ * only knows views fixed at compile time, so a {@code fields=} selection is written field by field
+ * here instead, straight from the user without copying it.
+ */
+public final class UserView extends JsonSerializable.Base {
+    private final User user;
+    private final UserProjection projection;
+
+    public UserView(User user, UserProjection projection) {
+        this.user = user;
+        this.projection = projection;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        write(generator, user, projection);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(generator, serializers);
+    }
+
+    public static void write(JsonGenerator generator, User user, UserProjection projection) throws IOException {
+        generator.writeStartObject();
+        writeField(generator, projection, Attribute.USER_ID, user.getUserId());
+        writeField(generator, projection, Attribute.FIRST_NAME, user.getFirstName());
+        writeField(generator, projection, Attribute.LAST_NAME, user.getLastName());
+        writeField(generator, projection, Attribute.USERNAME, user.getUsername());
+        writeField(generator, projection, Attribute.PASSWORD, user.getPassword());
+        writeField(generator, projection, Attribute.EMAIL, user.getEmail());
+        writeField(generator, projection, Attribute.CREATED_AT, user.getCreatedAt());
+        if (projection.includes(Attribute.VERSION)) {
+            generator.writeFieldName(Attribute.VERSION.attributeName());
+            if (user.getVersion() != null) {
+                generator.writeNumber(user.getVersion());
+            } else {
+                generator.writeNull();
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeField(JsonGenerator generator, UserProjection projection, Attribute attribute, String value) throws IOException {
+        if (projection.includes(attribute)) {
+            generator.writeStringField(attribute.attributeName(), value);
+        }
+    }
+
+    // A UserPage with every user written through the projection; same shape as UserPage itself
+    public static final class Page extends JsonSerializable.Base {
+        private final UserPage page;
+        private final UserProjection projection;
+
+        public Page(UserPage page, UserProjection projection) {
+            this.page = page;
+            this.projection = projection;
+        }
+
+        public List<User> getUsers() {
+            return page.getUsers();
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("users");
+            for (User user : page.getUsers()) {
+                write(generator, user, projection);
+            }
+            generator.writeEndArray();
+            if (page.getNextCursor() != null) {
+                generator.writeStringField("nextCursor", page.getNextCursor());
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+            serialize(generator, serializers);
+        }
+    }
+}
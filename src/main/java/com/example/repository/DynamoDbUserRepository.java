@@ -0,0 +1,232 @@
+package com.example.repository;
+
+import com.example.BatchCreateUsers.BatchWriteUsers;
+import com.example.BatchGetUsers.BatchGetUsers;
+import com.example.ChangePassword.UpdatePasswordItem;
+import com.example.CreateUser.PutUniqueUser;
+import com.example.DeleteUser.DeleteUser;
+import com.example.FindUser.QueryUserIndex;
+import com.example.GetUserById.QueryUser;
+import com.example.ListUsers.GetAllUsers;
+import com.example.ListUsers.ParallelScan;
+import com.example.ListUsers.ScanProgress;
+import com.example.config.DynamoDbClientProvider;
+import com.example.model.BatchItemResult;
+import com.example.UpdateUser.UpdateUserItem;
+import com.example.UserService.VersionConflictException;
+import com.example.model.User;
+import com.example.model.UserPage;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link UserRepository} on the async DynamoDB client. Requests and response mapping are shared
+ * with the blocking helpers (QueryUser, PutUniqueUser, ...) so both paths read and write the same items.
+ * The bulk calls run those helpers on the sync client.
+ */
+public class DynamoDbUserRepository implements UserRepository {
+    // Pages buffered per parallel scan segment, and attempts per throttled page
+    private static final int SCAN_QUEUE_CAPACITY = 4;
+    private static final int SCAN_MAX_ATTEMPTS = 5;
+
+    private final Supplier<DynamoDbAsyncClient> client;
+    private final Supplier<DynamoDbClient> syncClient;
+    private final String tableName;
+    private final String uniqueKeysTableName;
+
+    public DynamoDbUserRepository(DynamoDbAsyncClient ddb, String tableName, String uniqueKeysTableName) {
+        this(() -> ddb, tableName, uniqueKeysTableName);
+    }
+
+    // Resolves the client per call so a rebuilt client (e.g. after a SnapStart restore) is picked up
+    public DynamoDbUserRepository(Supplier<DynamoDbAsyncClient> client, String tableName, String uniqueKeysTableName) {
+        this(client, DynamoDbClientProvider::get, tableName, uniqueKeysTableName);
+    }
+
+    public DynamoDbUserRepository(Supplier<DynamoDbAsyncClient> client, Supplier<DynamoDbClient> syncClient,
+                                  String tableName, String uniqueKeysTableName) {
+        this.client = client;
+        this.syncClient = syncClient;
+        this.tableName = tableName;
+        this.uniqueKeysTableName = uniqueKeysTableName;
+    }
+
+    @Override
+    public CompletableFuture<User> create(User user) {
+        return client.get().transactWriteItems(PutUniqueUser.transactionRequest(tableName, uniqueKeysTableName, user))
+                .handle((response, e) -> {
+                    if (e == null) {
+                        return user;
+                    }
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof TransactionCanceledException) {
+                        throw PutUniqueUser.translate((TransactionCanceledException) cause, user);
+                    }
+                    throw completion(e);
+                });
+    }
+
+    @Override
+    public CompletableFuture<User> findById(String userId, UserProjection projection) {
+        return client.get().getItem(QueryUser.getItemRequest(tableName, userId, projection))
+                .thenApply(response -> QueryUser.toUser(response, projection));
+    }
+
+    @Override
+    public CompletableFuture<User> findByUsername(String username) {
+        return client.get().query(QueryUserIndex.indexQuery(tableName, QueryUserIndex.USERNAME_INDEX, "username", username))
+                .thenApply(QueryUserIndex::firstUser);
+    }
+
+    @Override
+    public CompletableFuture<User> findByEmail(String email) {
+        return client.get().query(QueryUserIndex.indexQuery(tableName, QueryUserIndex.EMAIL_INDEX, "email", email))
+                .thenApply(QueryUserIndex::firstUser);
+    }
+
+    @Override
+    public CompletableFuture<UserPage> findPage(int limit, String cursor, UserProjection projection) {
+        try {
+            return client.get().scan(GetAllUsers.pageRequest(tableName, limit, cursor, projection))
+                    .thenApply(response -> GetAllUsers.toPage(response, projection));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<User> update(String userId, User changes) {
+        if (!UpdateUserItem.mayMoveClaims(changes)) {
+            return updateAttributes(userId, changes);
+        }
+        return client.get().getItem(UpdateUserItem.currentRequest(tableName, userId))
+                .thenCompose(response -> {
+                    if (!response.hasItem() || response.item().isEmpty()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    User current = UserItemMapper.toUser(response.item(), UserProjection.READABLE);
+                    UpdateUserItem.checkVersion(current, changes);
+                    if (!UpdateUserItem.movesClaims(current, changes)) {
+                        return updateAttributes(userId, changes);
+                    }
+                    return client.get().transactWriteItems(UpdateUserItem.claimTransaction(tableName, uniqueKeysTableName, current, changes))
+                            .handle((written, e) -> {
+                                if (e == null) {
+                                    return UpdateUserItem.merged(current, changes);
+                                }
+                                Throwable cause = unwrap(e);
+                                if (cause instanceof TransactionCanceledException) {
+                                    throw UpdateUserItem.translate((TransactionCanceledException) cause, current, changes);
+                                }
+                                throw completion(e);
+                            });
+                });
+    }
+
+    // The common case: one UpdateItem, no read
+    private CompletableFuture<User> updateAttributes(String userId, User changes) {
+        return client.get().updateItem(UpdateUserItem.updateRequest(tableName, userId, changes))
+                .handle((response, e) -> {
+                    if (e == null) {
+                        return UserItemMapper.toUser(response.attributes(), UserProjection.READABLE);
+                    }
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        return UpdateUserItem.failedUpdate((ConditionalCheckFailedException) cause, userId, changes.getVersion());
+                    }
+                    throw completion(e);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePassword(String userId, String passwordHash, String expectedHash) {
+        return client.get().updateItem(UpdatePasswordItem.updateRequest(tableName, userId, passwordHash, expectedHash))
+                .handle((response, e) -> {
+                    if (e == null) {
+                        return true;
+                    }
+                    if (unwrap(e) instanceof ConditionalCheckFailedException) {
+                        return false;
+                    }
+                    throw completion(e);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String userId, Long expectedVersion) {
+        return delete(userId, expectedVersion, 1);
+    }
+
+    // The transaction is conditional on the version read. If a write lands in between, a delete with an
+    // expected version fails with VersionConflictException; one without reads the user again and retries
+    private CompletableFuture<Boolean> delete(String userId, Long expectedVersion, int attempt) {
+        return client.get().getItem(DeleteUser.existingUserRequest(tableName, userId))
+                .thenCompose(existing -> {
+                    if (!existing.hasItem() || existing.item().isEmpty()) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    long current = DeleteUser.versionOf(existing.item());
+                    if (expectedVersion != null && expectedVersion != current) {
+                        return CompletableFuture.failedFuture(new VersionConflictException(userId, expectedVersion, current));
+                    }
+                    return client.get().transactWriteItems(DeleteUser.deleteTransaction(tableName, uniqueKeysTableName, userId,
+                                    existing.item()))
+                            .<CompletableFuture<Boolean>>handle((response, e) -> {
+                                if (e == null) {
+                                    return CompletableFuture.completedFuture(true);
+                                }
+                                Throwable cause = unwrap(e);
+                                if (cause instanceof TransactionCanceledException canceled) {
+                                    if (expectedVersion == null && attempt < DeleteUser.MAX_ATTEMPTS
+                                            && DeleteUser.versionChanged(canceled)) {
+                                        return delete(userId, null, attempt + 1);
+                                    }
+                                    throw DeleteUser.translate(canceled, userId, existing.item());
+                                }
+                                throw completion(e);
+                            })
+                            .thenCompose(Function.identity());
+                });
+    }
+
+    @Override
+    public List<BatchItemResult> createAll(List<User> users, Executor executor) {
+        return BatchWriteUsers.putUsers(syncClient.get(), tableName, uniqueKeysTableName, users, executor);
+    }
+
+    @Override
+    public BatchGetUsers.Result findAll(List<String> userIds, Executor executor) {
+        return BatchGetUsers.getUsers(syncClient.get(), tableName, userIds, executor);
+    }
+
+    @Override
+    public void forEach(UserProjection projection, Consumer<User> consumer) {
+        GetAllUsers.forEachUser(syncClient.get(), tableName, projection, consumer);
+    }
+
+    @Override
+    public void scanAll(int segments, boolean ordered, UserProjection projection, ThreadFactory threadFactory, Consumer<User> consumer,
+                        ScanProgress progress) {
+        new ParallelScan(syncClient.get(), tableName, segments, SCAN_QUEUE_CAPACITY, SCAN_MAX_ATTEMPTS, projection, threadFactory)
+                .run(consumer, ordered, progress);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private static CompletionException completion(Throwable e) {
+        return e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+    }
+}
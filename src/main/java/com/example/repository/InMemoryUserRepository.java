@@ -0,0 +1,295 @@
+package com.example.repository;
+
+import com.example.BatchGetUsers.BatchGetUsers;
+import com.example.ListUsers.PageCursor;
+import com.example.ListUsers.ScanProgress;
+import com.example.UpdateUser.UpdateUserItem;
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.VersionConflictException;
+import com.example.model.BatchItemResult;
+import com.example.model.User;
+import com.example.model.UserPage;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * {@link UserRepository} held in memory, for tests, local runs and benchmarks without DynamoDB.
+ * Username and email claims are secondary indexes taken with putIfAbsent, the same claim-or-fail
+ * rule the unique-keys table enforces. Writes to one user are serialized by the map's per-key
+ * compute, so unrelated users never contend on a shared lock. Pages follow userId order.
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> userIds = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<String, String> usernames = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> emails = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<User> create(User user) {
+        try {
+            insert(user);
+            return CompletableFuture.completedFuture(user);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<User> findById(String userId, UserProjection projection) {
+        return CompletableFuture.completedFuture(read(userId, projection));
+    }
+
+    @Override
+    public CompletableFuture<User> findByUsername(String username) {
+        return CompletableFuture.completedFuture(read(usernames.get(username), UserProjection.ALL));
+    }
+
+    @Override
+    public CompletableFuture<User> findByEmail(String email) {
+        return CompletableFuture.completedFuture(read(emails.get(email), UserProjection.ALL));
+    }
+
+    @Override
+    public CompletableFuture<UserPage> findPage(int limit, String cursor, UserProjection projection) {
+        NavigableSet<String> remaining;
+        try {
+            remaining = cursor == null || cursor.isEmpty() ? userIds : userIds.tailSet(lastUserId(cursor), false);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        List<User> page = new ArrayList<>(Math.min(limit, 128));
+        String last = null;
+        boolean more = false;
+        for (String userId : remaining) {
+            User user = read(userId, projection);
+            if (user == null) {
+                continue;
+            }
+            if (page.size() == limit) {
+                more = true;
+                break;
+            }
+            page.add(user);
+            last = userId;
+        }
+        String nextCursor = more ? PageCursor.encode(UserItemMapper.key(last)) : null;
+        return CompletableFuture.completedFuture(new UserPage(page, nextCursor));
+    }
+
+    @Override
+    public CompletableFuture<User> update(String userId, User changes) {
+        User[] updated = new User[1];
+        try {
+            users.computeIfPresent(userId, (id, current) -> {
+                UpdateUserItem.checkVersion(current, changes);
+                moveClaims(id, current, changes);
+                User user = UpdateUserItem.merged(current, changes);
+                user.setPassword(current.getPassword());
+                updated[0] = user;
+                return user;
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(updated[0] == null ? null : project(updated[0], UserProjection.READABLE));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePassword(String userId, String passwordHash, String expectedHash) {
+        boolean[] written = new boolean[1];
+        users.computeIfPresent(userId, (id, current) -> {
+            if (expectedHash != null && !expectedHash.equals(current.getPassword())) {
+                return current;
+            }
+            User user = project(current, UserProjection.ALL);
+            user.setPassword(passwordHash);
+            written[0] = true;
+            return user;
+        });
+        return CompletableFuture.completedFuture(written[0]);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String userId, Long expectedVersion) {
+        User[] removed = new User[1];
+        try {
+            users.computeIfPresent(userId, (id, current) -> {
+                long version = current.getVersion() == null ? 0 : current.getVersion();
+                if (expectedVersion != null && expectedVersion != version) {
+                    throw new VersionConflictException(id, expectedVersion, current.getVersion());
+                }
+                removed[0] = current;
+                return null;
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (removed[0] == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        userIds.remove(userId);
+        release(usernames, removed[0].getUsername(), userId);
+        release(emails, removed[0].getEmail(), userId);
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public List<BatchItemResult> createAll(List<User> users, Executor executor) {
+        List<BatchItemResult> results = new ArrayList<>(users.size());
+        for (User user : users) {
+            try {
+                insert(user);
+                results.add(BatchItemResult.created(user));
+            } catch (RuntimeException e) {
+                results.add(BatchItemResult.failed(user.getUserId(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public BatchGetUsers.Result findAll(List<String> userIds, Executor executor) {
+        Map<String, User> found = new HashMap<>(userIds.size() * 2);
+        for (String userId : userIds) {
+            User user = read(userId, UserProjection.READABLE);
+            if (user != null) {
+                found.put(userId, user);
+            }
+        }
+        return new BatchGetUsers.Result(found, Map.of());
+    }
+
+    @Override
+    public void forEach(UserProjection projection, Consumer<User> consumer) {
+        for (String userId : userIds) {
+            User user = read(userId, projection);
+            if (user != null) {
+                consumer.accept(user);
+            }
+        }
+    }
+
+    // Segments are hash buckets of the userId, like DynamoDB's; each is delivered whole, in key order
+    @Override
+    public void scanAll(int segments, boolean ordered, UserProjection projection, ThreadFactory threadFactory, Consumer<User> consumer,
+                        ScanProgress progress) {
+        List<List<User>> buckets = new ArrayList<>(segments);
+        for (int segment = 0; segment < segments; segment++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (String userId : userIds) {
+            User user = read(userId, projection);
+            if (user != null) {
+                buckets.get(Math.floorMod(userId.hashCode(), segments)).add(user);
+            }
+        }
+        for (List<User> bucket : buckets) {
+            bucket.forEach(consumer);
+            progress.segmentDelivered(bucket.size());
+        }
+    }
+
+    // The claims go first so a losing writer never becomes visible, then are handed back on failure
+    private void insert(User user) {
+        String userId = user.getUserId();
+        claim(usernames, "username", user.getUsername(), userId);
+        try {
+            claim(emails, "email", user.getEmail(), userId);
+        } catch (DuplicateUserException e) {
+            release(usernames, user.getUsername(), userId);
+            throw e;
+        }
+        if (users.putIfAbsent(userId, project(user, UserProjection.ALL)) != null) {
+            release(usernames, user.getUsername(), userId);
+            release(emails, user.getEmail(), userId);
+            throw new IllegalStateException("A user with ID '" + userId + "' already exists");
+        }
+        userIds.add(userId);
+    }
+
+    // Runs inside the user's compute: new claims are all taken before any old one is released
+    private void moveClaims(String userId, User current, User changes) {
+        boolean usernameMoves = changed(current.getUsername(), changes.getUsername());
+        boolean emailMoves = changed(current.getEmail(), changes.getEmail());
+        if (usernameMoves) {
+            claim(usernames, "username", changes.getUsername(), userId);
+        }
+        if (emailMoves) {
+            try {
+                claim(emails, "email", changes.getEmail(), userId);
+            } catch (DuplicateUserException e) {
+                if (usernameMoves) {
+                    release(usernames, changes.getUsername(), userId);
+                }
+                throw e;
+            }
+        }
+        if (usernameMoves) {
+            release(usernames, current.getUsername(), userId);
+        }
+        if (emailMoves) {
+            release(emails, current.getEmail(), userId);
+        }
+    }
+
+    private static void claim(ConcurrentHashMap<String, String> index, String field, String value, String userId) {
+        if (value == null) {
+            return;
+        }
+        String owner = index.putIfAbsent(value, userId);
+        if (owner != null && !owner.equals(userId)) {
+            throw new DuplicateUserException(field, value);
+        }
+    }
+
+    private static void release(ConcurrentHashMap<String, String> index, String value, String userId) {
+        if (value != null) {
+            index.remove(value, userId);
+        }
+    }
+
+    private static boolean changed(String current, String requested) {
+        return requested != null && !Objects.equals(current, requested);
+    }
+
+    private static String lastUserId(String cursor) {
+        AttributeValue userId = PageCursor.decode(cursor).get(UserItemMapper.USER_ID);
+        if (userId == null || userId.s() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return userId.s();
+    }
+
+    private User read(String userId, UserProjection projection) {
+        User user = userId == null ? null : users.get(userId);
+        return user == null ? null : project(user, projection);
+    }
+
+    // Stored users are never handed out, so callers can't change them behind the indexes
+    private static User project(User user, UserProjection projection) {
+        User copy = new User(
+                projection.includes(UserProjection.Attribute.USER_ID) ? user.getUserId() : null,
+                projection.includes(UserProjection.Attribute.FIRST_NAME) ? user.getFirstName() : null,
+                projection.includes(UserProjection.Attribute.LAST_NAME) ? user.getLastName() : null,
+                projection.includes(UserProjection.Attribute.USERNAME) ? user.getUsername() : null,
+                projection.includes(UserProjection.Attribute.PASSWORD) ? user.getPassword() : null,
+                projection.includes(UserProjection.Attribute.EMAIL) ? user.getEmail() : null,
+                projection.includes(UserProjection.Attribute.CREATED_AT) ? user.getCreatedAt() : null);
+        if (projection.includes(UserProjection.Attribute.VERSION)) {
+            copy.setVersion(user.getVersion());
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.repository;
+
+import com.example.BatchGetUsers.BatchGetUsers;
+import com.example.ListUsers.ScanProgress;
+import com.example.metrics.UserMetrics;
+import com.example.model.BatchItemResult;
+import com.example.model.User;
+import com.example.model.UserPage;
+import com.example.resilience.AdaptiveRateLimiter;
+import com.example.resilience.CircuitBreaker;
+import com.example.resilience.CircuitOpenException;
+import com.example.resilience.OverloadedException;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the DynamoDB repository so overload is refused up front instead of being sent, throttled,
+ * retried and finally failed. A single-user call is admitted only while fewer than maxInFlight are
+ * outstanding, the {@link AdaptiveRateLimiter} has a token and the {@link CircuitBreaker} is
+ * closed; otherwise it fails at once with an {@link OverloadedException} the endpoints answer
+ * with 429 (or 503 for an open breaker) and Retry-After. Bulk calls only consult the breaker:
+ * they pace themselves with their own backoff.
+ */
+public class ResilientUserRepository implements UserRepository {
+    private final UserRepository delegate;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ResilientUserRepository(UserRepository delegate, AdaptiveRateLimiter rateLimiter,
+                                   CircuitBreaker circuitBreaker, int maxInFlight) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public AdaptiveRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public CompletableFuture<User> create(User user) {
+        return guarded(() -> delegate.create(user));
+    }
+
+    @Override
+    public CompletableFuture<User> findById(String userId, UserProjection projection) {
+        return guarded(() -> delegate.findById(userId, projection));
+    }
+
+    @Override
+    public CompletableFuture<User> findByUsername(String username) {
+        return guarded(() -> delegate.findByUsername(username));
+    }
+
+    @Override
+    public CompletableFuture<User> findByEmail(String email) {
+        return guarded(() -> delegate.findByEmail(email));
+    }
+
+    @Override
+    public CompletableFuture<UserPage> findPage(int limit, String cursor, UserProjection projection) {
+        return guarded(() -> delegate.findPage(limit, cursor, projection));
+    }
+
+    @Override
+    public CompletableFuture<User> update(String userId, User changes) {
+        return guarded(() -> delegate.update(userId, changes));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updatePassword(String userId, String passwordHash, String expectedHash) {
+        return guarded(() -> delegate.updatePassword(userId, passwordHash, expectedHash));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String userId, Long expectedVersion) {
+        return guarded(() -> delegate.delete(userId, expectedVersion));
+    }
+
+    @Override
+    public List<BatchItemResult> createAll(List<User> users, Executor executor) {
+        return bulk(() -> delegate.createAll(users, executor));
+    }
+
+    @Override
+    public BatchGetUsers.Result findAll(List<String> userIds, Executor executor) {
+        return bulk(() -> delegate.findAll(userIds, executor));
+    }
+
+    @Override
+    public void forEach(UserProjection projection, Consumer<User> consumer) {
+        bulk(() -> {
+            delegate.forEach(projection, consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public void scanAll(int segments, boolean ordered, UserProjection projection, ThreadFactory threadFactory, Consumer<User> consumer,
+                        ScanProgress progress) {
+        bulk(() -> {
+            delegate.scanAll(segments, ordered, projection, threadFactory, consumer, progress);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> guarded(Supplier<CompletableFuture<T>> call) {
+        // The breaker goes last, so a half-open probe it hands out is never refused by the others
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return shed("saturated", new OverloadedException("Too many DynamoDB requests in flight", 1));
+        }
+        if (!rateLimiter.tryAcquire()) {
+            inFlight.decrementAndGet();
+            return shed("rate_limited", new OverloadedException("DynamoDB is throttling, try again shortly",
+                    rateLimiter.retryAfterSeconds()));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            inFlight.decrementAndGet();
+            return shed("circuit_open", new CircuitOpenException(circuitBreaker.retryAfterSeconds()));
+        }
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            completed(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, e) -> completed(e));
+    }
+
+    private <T> T bulk(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            UserMetrics.increment(UserMetrics.DYNAMODB_SHED, 1, "reason", "circuit_open");
+            throw new CircuitOpenException(circuitBreaker.retryAfterSeconds());
+        }
+        try {
+            T result = call.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            record(e);
+            throw e;
+        }
+    }
+
+    private void completed(Throwable e) {
+        inFlight.decrementAndGet();
+        if (e == null) {
+            rateLimiter.onSuccess();
+            circuitBreaker.onSuccess();
+        } else {
+            record(e);
+        }
+    }
+
+    private void record(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (isThrottle(cause)) {
+            // Still throttled after the SDK's retries; DynamoDB is up, so the breaker doesn't count it
+            rateLimiter.onThrottle();
+            circuitBreaker.onSuccess();
+        } else if (isOutage(cause)) {
+            circuitBreaker.onFailure();
+        } else {
+            // Conflicts, validation errors, missing tables: DynamoDB answered
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private static <T> CompletableFuture<T> shed(String reason, OverloadedException e) {
+        UserMetrics.increment(UserMetrics.DYNAMODB_SHED, 1, "reason", reason);
+        return CompletableFuture.failedFuture(e);
+    }
+
+    static boolean isThrottle(Throwable e) {
+        return e instanceof AwsServiceException serviceException && serviceException.isThrottlingException();
+    }
+
+    // Timeouts, connection failures and server errors; wrapped ones too (e.g. inside a RuntimeException from a helper)
+    static boolean isOutage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SdkClientException) {
+                return true;
+            }
+            if (cause instanceof AwsServiceException serviceException) {
+                return serviceException.statusCode() >= 500 && !serviceException.isThrottlingException();
+            }
+        }
+        return false;
+    }
+}
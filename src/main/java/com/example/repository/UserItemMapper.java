@@ -0,0 +1,98 @@
+package com.example.repository;
+
+import com.example.model.User;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The one place a {@link User} is converted to and from a DynamoDB item. The schema is fixed at
+ * compile time: every attribute is read with a single map lookup and written into a map sized
+ * for the full item, with no reflection and no enhanced-client table schema in between.
+ */
+public final class UserItemMapper {
+    public static final String USER_ID = "userId";
+    public static final String FIRST_NAME = "firstName";
+    public static final String LAST_NAME = "lastName";
+    public static final String USERNAME = "username";
+    public static final String PASSWORD = "password";
+    public static final String EMAIL = "email";
+    public static final String CREATED_AT = "createdAt";
+    public static final String VERSION = "version";
+
+    // Eight entries fit without a resize at the default load factor
+    private static final int ITEM_CAPACITY = 11;
+
+    private UserItemMapper() {
+    }
+
+    public static Map<String, AttributeValue> key(String userId) {
+        return Map.of(USER_ID, AttributeValue.fromS(userId));
+    }
+
+    // Null fields are left out; DynamoDB rejects an AttributeValue without a value
+    public static HashMap<String, AttributeValue> toItem(User user) {
+        HashMap<String, AttributeValue> item = new HashMap<>(ITEM_CAPACITY);
+        put(item, USER_ID, user.getUserId());
+        put(item, FIRST_NAME, user.getFirstName());
+        put(item, LAST_NAME, user.getLastName());
+        put(item, USERNAME, user.getUsername());
+        put(item, PASSWORD, user.getPassword());
+        put(item, EMAIL, user.getEmail());
+        put(item, CREATED_AT, user.getCreatedAt());
+        if (user.getVersion() != null) {
+            item.put(VERSION, AttributeValue.fromN(user.getVersion().toString()));
+        }
+        return item;
+    }
+
+    public static User toUser(Map<String, AttributeValue> item) {
+        User user = new User(
+                string(item, USER_ID),
+                string(item, FIRST_NAME),
+                string(item, LAST_NAME),
+                string(item, USERNAME),
+                string(item, PASSWORD),
+                string(item, EMAIL),
+                string(item, CREATED_AT));
+        user.setVersion(number(item, VERSION));
+        return user;
+    }
+
+    // Decodes only the projected attributes; the rest stay null even if the item carries them
+    public static User toUser(Map<String, AttributeValue> item, UserProjection projection) {
+        if (projection.isAll()) {
+            return toUser(item);
+        }
+        User user = new User(
+                projection.includes(UserProjection.Attribute.USER_ID) ? string(item, USER_ID) : null,
+                projection.includes(UserProjection.Attribute.FIRST_NAME) ? string(item, FIRST_NAME) : null,
+                projection.includes(UserProjection.Attribute.LAST_NAME) ? string(item, LAST_NAME) : null,
+                projection.includes(UserProjection.Attribute.USERNAME) ? string(item, USERNAME) : null,
+                projection.includes(UserProjection.Attribute.PASSWORD) ? string(item, PASSWORD) : null,
+                projection.includes(UserProjection.Attribute.EMAIL) ? string(item, EMAIL) : null,
+                projection.includes(UserProjection.Attribute.CREATED_AT) ? string(item, CREATED_AT) : null);
+        if (projection.includes(UserProjection.Attribute.VERSION)) {
+            user.setVersion(number(item, VERSION));
+        }
+        return user;
+    }
+
+    private static void put(Map<String, AttributeValue> item, String name, String value) {
+        if (value != null) {
+            item.put(name, AttributeValue.fromS(value));
+        }
+    }
+
+    private static String string(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value != null ? value.s() : null;
+    }
+
+    // Items written before versioning have no version attribute
+    private static Long number(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value != null && value.n() != null ? Long.valueOf(value.n()) : null;
+    }
+}
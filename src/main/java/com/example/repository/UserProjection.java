@@ -0,0 +1,167 @@
+package com.example.repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * A subset of the user attributes to read. Every possible projection is built once up front,
+ * expression and name placeholders included, so requests only look one up.
+ */
+public final class UserProjection {
+
+    public enum Attribute {
+        USER_ID(UserItemMapper.USER_ID),
+        FIRST_NAME(UserItemMapper.FIRST_NAME),
+        LAST_NAME(UserItemMapper.LAST_NAME),
+        USERNAME(UserItemMapper.USERNAME),
+        PASSWORD(UserItemMapper.PASSWORD),
+        EMAIL(UserItemMapper.EMAIL),
+        CREATED_AT(UserItemMapper.CREATED_AT),
+        VERSION(UserItemMapper.VERSION);
+
+        private static final Attribute[] VALUES = values();
+
+        private final String attributeName;
+
+        Attribute(String attributeName) {
+            this.attributeName = attributeName;
+        }
+
+        public String attributeName() {
+            return attributeName;
+        }
+
+        // Matches the item attribute (and JSON property) name exactly
+        public static Attribute fromName(String name) {
+            for (Attribute attribute : VALUES) {
+                if (attribute.attributeName.equals(name)) {
+                    return attribute;
+                }
+            }
+            throw new IllegalArgumentException("Unknown user attribute: " + name);
+        }
+    }
+
+    private static final int ALL_BITS = (1 << Attribute.VALUES.length) - 1;
+    private static final UserProjection[] BY_BITS = new UserProjection[ALL_BITS + 1];
+
+    static {
+        for (int bits = 1; bits <= ALL_BITS; bits++) {
+            BY_BITS[bits] = new UserProjection(bits);
+        }
+    }
+
+    public static final UserProjection ALL = BY_BITS[ALL_BITS];
+
+    // Everything the read APIs may return; they never read the password hash
+    public static final UserProjection READABLE = ALL.without(Attribute.PASSWORD);
+
+    private final int bits;
+    private final String projectionExpression;
+    private final Map<String, String> expressionAttributeNames;
+
+    private UserProjection(int bits) {
+        this.bits = bits;
+        StringJoiner expression = new StringJoiner(",");
+        Map<String, String> names = new HashMap<>();
+        for (Attribute attribute : Attribute.VALUES) {
+            if ((bits & bit(attribute)) != 0) {
+                // Placeholders keep the expression valid should an attribute name become a reserved word
+                String placeholder = "#" + attribute.attributeName;
+                expression.add(placeholder);
+                names.put(placeholder, attribute.attributeName);
+            }
+        }
+        this.projectionExpression = expression.toString();
+        this.expressionAttributeNames = Map.copyOf(names);
+    }
+
+    public static UserProjection of(Attribute... attributes) {
+        int bits = 0;
+        for (Attribute attribute : attributes) {
+            bits |= bit(attribute);
+        }
+        return of(bits);
+    }
+
+    // Attribute names as they appear on the item; fails with IllegalArgumentException on an unknown name
+    public static UserProjection ofNames(Collection<String> names) {
+        int bits = 0;
+        for (String name : names) {
+            bits |= bit(Attribute.fromName(name));
+        }
+        return of(bits);
+    }
+
+    // Parses a fields= parameter such as "userId,firstName"; null or blank selects every readable attribute
+    public static UserProjection readable(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return READABLE;
+        }
+        int bits = 0;
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Attribute attribute = Attribute.fromName(trimmed);
+            if (attribute == Attribute.PASSWORD) {
+                throw new IllegalArgumentException("password cannot be requested");
+            }
+            bits |= bit(attribute);
+        }
+        return of(bits);
+    }
+
+    private static UserProjection of(int bits) {
+        if (bits == 0) {
+            throw new IllegalArgumentException("A projection needs at least one attribute");
+        }
+        return BY_BITS[bits];
+    }
+
+    public boolean includes(Attribute attribute) {
+        return (bits & bit(attribute)) != 0;
+    }
+
+    // True when every attribute of the other projection is also in this one
+    public boolean covers(UserProjection other) {
+        return (bits & other.bits) == other.bits;
+    }
+
+    public boolean isAll() {
+        return bits == ALL_BITS;
+    }
+
+    public UserProjection with(Attribute attribute) {
+        return of(bits | bit(attribute));
+    }
+
+    public UserProjection without(Attribute attribute) {
+        return of(bits & ~bit(attribute));
+    }
+
+    // Distinct for every projection, e.g. to tell representations of the same user apart in an ETag
+    public int bits() {
+        return bits;
+    }
+
+    public String projectionExpression() {
+        return projectionExpression;
+    }
+
+    public Map<String, String> expressionAttributeNames() {
+        return expressionAttributeNames;
+    }
+
+    private static int bit(Attribute attribute) {
+        return 1 << attribute.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        return "UserProjection" + expressionAttributeNames.values();
+    }
+}
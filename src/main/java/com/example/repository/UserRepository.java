@@ -0,0 +1,75 @@
+package com.example.repository;
+
+import com.example.BatchGetUsers.BatchGetUsers;
+import com.example.ListUsers.ScanProgress;
+import com.example.model.BatchItemResult;
+import com.example.model.User;
+import com.example.model.UserPage;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * Access to stored users. The single-user calls return immediately; the future completes on the
+ * storage client's I/O threads, so callers should not block inside the callbacks. The bulk calls
+ * at the end block until done and are meant for the batch and export endpoints.
+ */
+public interface UserRepository {
+
+    // Fails with DuplicateUserException when the username or email is already claimed
+    CompletableFuture<User> create(User user);
+
+    // Completes with null when no user has the ID
+    default CompletableFuture<User> findById(String userId) {
+        return findById(userId, UserProjection.ALL);
+    }
+
+    // Reads only the projected attributes; the others are null on the returned user
+    CompletableFuture<User> findById(String userId, UserProjection projection);
+
+    CompletableFuture<User> findByUsername(String username);
+
+    CompletableFuture<User> findByEmail(String email);
+
+    // Fails with IllegalArgumentException when the cursor cannot be decoded
+    default CompletableFuture<UserPage> findPage(int limit, String cursor) {
+        return findPage(limit, cursor, UserProjection.ALL);
+    }
+
+    CompletableFuture<UserPage> findPage(int limit, String cursor, UserProjection projection);
+
+    // Applies the non-null attributes of changes and bumps the version. Completes with the updated user,
+    // or null when no user has the ID; fails with VersionConflictException when changes carries a stale
+    // version, and with DuplicateUserException when the new username or email is already claimed
+    CompletableFuture<User> update(String userId, User changes);
+
+    // Stores a new password hash. Completes with false when no user has the ID, or when expectedHash
+    // is given and no longer matches the stored one
+    CompletableFuture<Boolean> updatePassword(String userId, String passwordHash, String expectedHash);
+
+    // Completes with false when no user has the ID
+    default CompletableFuture<Boolean> delete(String userId) {
+        return delete(userId, null);
+    }
+
+    // As delete, but when expectedVersion is given fails with VersionConflictException unless the
+    // user is at that version (0 for a user stored before versioning)
+    CompletableFuture<Boolean> delete(String userId, Long expectedVersion);
+
+    // One result per user, in input order; a user that could not be written is reported, not thrown
+    List<BatchItemResult> createAll(List<User> users, Executor executor);
+
+    // userIds must not contain duplicates; returns every readable attribute, never the password
+    BatchGetUsers.Result findAll(List<String> userIds, Executor executor);
+
+    // Streams every user through the consumer without holding the whole table in memory
+    void forEach(UserProjection projection, Consumer<User> consumer);
+
+    // Reads the projection's attributes of every user in segments on threads from the factory; ordered
+    // delivers segment by segment
+    void scanAll(int segments, boolean ordered, UserProjection projection, ThreadFactory threadFactory, Consumer<User> consumer,
+                 ScanProgress progress);
+}
@@ -0,0 +1,175 @@
+package com.example.resilience;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token bucket whose rate follows DynamoDB's throttling. Until the first throttle
+ * it admits everything and only measures the request rate. A throttle cuts the rate to 70% of
+ * what was being sent (multiplicative decrease); every second without one adds back 5% of the
+ * rate at the last throttle (additive increase). Once the rate is double that, the limiter
+ * steps aside again. Requests beyond the rate are refused instead of being sent to be throttled
+ * and retried, which is what turns a brief throttle into a retry storm.
+ */
+public class AdaptiveRateLimiter {
+    private static final double DECREASE_FACTOR = 0.7;
+    private static final double RECOVERY_PER_SECOND = 0.05;
+    private static final double RELEASE_FACTOR = 2.0;
+    // Every request in flight during a throttle reports it; one cut per window is enough
+    private static final long DECREASE_COOLDOWN_NANOS = 200_000_000L;
+    private static final long SAMPLE_NANOS = 1_000_000_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final double minRate;
+    private final LongSupplier ticker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean limiting;
+
+    // Guarded by lock
+    private double rate;
+    private double tokens;
+    private double rateAtThrottle;
+    private long lastRefill;
+    private long lastIncrease;
+    private long lastDecrease;
+
+    // Admitted requests, sampled about once a second to know the rate being sent when a throttle hits
+    private final LongAdder admitted = new LongAdder();
+    private final AtomicBoolean sampling = new AtomicBoolean();
+    private volatile long sampleStart;
+    private volatile long sampleCount;
+    private volatile double measuredRate;
+
+    public AdaptiveRateLimiter(double minRate) {
+        this(minRate, System::nanoTime);
+    }
+
+    AdaptiveRateLimiter(double minRate, LongSupplier ticker) {
+        this.minRate = minRate;
+        this.ticker = ticker;
+        this.sampleStart = ticker.getAsLong();
+    }
+
+    public boolean tryAcquire() {
+        if (!limiting) {
+            admitted.increment();
+            sample();
+            return true;
+        }
+        lock.lock();
+        try {
+            refill(ticker.getAsLong());
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+        } finally {
+            lock.unlock();
+        }
+        admitted.increment();
+        sample();
+        return true;
+    }
+
+    public void onThrottle() {
+        long now = ticker.getAsLong();
+        lock.lock();
+        try {
+            if (limiting && now - lastDecrease < DECREASE_COOLDOWN_NANOS) {
+                return;
+            }
+            refill(now);
+            double sending = Math.max(sendingRate(now), minRate);
+            if (limiting) {
+                sending = Math.min(sending, rate);
+            }
+            rateAtThrottle = sending;
+            rate = Math.max(minRate, sending * DECREASE_FACTOR);
+            tokens = Math.min(tokens, burst());
+            lastDecrease = now;
+            lastIncrease = now;
+            lastRefill = now;
+            limiting = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        if (!limiting) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        lock.lock();
+        try {
+            if (!limiting) {
+                return;
+            }
+            refill(now);
+            rate += rateAtThrottle * RECOVERY_PER_SECOND * (now - lastIncrease) / NANOS_PER_SECOND;
+            lastIncrease = now;
+            if (rate >= rateAtThrottle * RELEASE_FACTOR) {
+                limiting = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Seconds until the next token, for Retry-After
+    public long retryAfterSeconds() {
+        lock.lock();
+        try {
+            return limiting ? Math.max(1, (long) Math.ceil((1 - tokens) / rate)) : 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isLimiting() {
+        return limiting;
+    }
+
+    // Requests per second currently allowed, or NaN while not limiting
+    public double getRate() {
+        lock.lock();
+        try {
+            return limiting ? rate : Double.NaN;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst(), tokens + rate * (now - lastRefill) / NANOS_PER_SECOND);
+        lastRefill = now;
+    }
+
+    // A tenth of a second's worth, so a recovered bucket doesn't release a full second at once
+    private double burst() {
+        return Math.max(1, rate / 10);
+    }
+
+    // The last full sample, or the current partial one if it is higher (e.g. traffic just ramped up)
+    private double sendingRate(long now) {
+        long elapsed = now - sampleStart;
+        double current = elapsed > SAMPLE_NANOS / 10 ? (admitted.sum() - sampleCount) * NANOS_PER_SECOND / elapsed : 0;
+        return Math.max(measuredRate, current);
+    }
+
+    private void sample() {
+        long now = ticker.getAsLong();
+        if (now - sampleStart >= SAMPLE_NANOS && sampling.compareAndSet(false, true)) {
+            try {
+                long count = admitted.sum();
+                measuredRate = (count - sampleCount) * NANOS_PER_SECOND / (now - sampleStart);
+                sampleCount = count;
+                sampleStart = now;
+            } finally {
+                sampling.set(false);
+            }
+        }
+    }
+}
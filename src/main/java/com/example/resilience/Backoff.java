@@ -0,0 +1,21 @@
+package com.example.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the delay for attempt n is uniform in [0, min(max, base * 2^(n-1))].
+ */
+public final class Backoff {
+
+    private Backoff() {
+    }
+
+    public static long fullJitterMillis(int attempt, long baseMillis, long maxMillis) {
+        long ceiling = Math.min(maxMillis, baseMillis << Math.min(Math.max(attempt - 1, 0), 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public static void sleep(int attempt, long baseMillis, long maxMillis) throws InterruptedException {
+        Thread.sleep(fullJitterMillis(attempt, baseMillis, maxMillis));
+    }
+}
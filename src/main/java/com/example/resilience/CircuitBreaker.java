@@ -0,0 +1,108 @@
+package com.example.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling DynamoDB after a run of consecutive failures (timeouts, connection errors,
+ * 5xx), so requests fail in microseconds instead of each waiting out its own timeouts and
+ * retries. After the open period a single probe is let through: success closes the breaker,
+ * failure opens it again. Client errors and throttles are not failures here; throttles are
+ * the rate limiter's business.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier ticker;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile State state = State.CLOSED;
+
+    // Guarded by lock
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration.toNanos(), System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openNanos, LongSupplier ticker) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+        this.ticker = ticker;
+    }
+
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN && ticker.getAsLong() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+            return state == State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        // Only write when there is something to reset; every request calls this
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+        if (state == State.HALF_OPEN) {
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN) {
+                    state = State.CLOSED;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public void onFailure() {
+        State current = state;
+        if (current == State.OPEN) {
+            return;
+        }
+        if (current == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            lock.lock();
+            try {
+                if (state != State.OPEN) {
+                    state = State.OPEN;
+                    openedAt = ticker.getAsLong();
+                    consecutiveFailures.set(0);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long retryAfterSeconds() {
+        lock.lock();
+        try {
+            long remaining = state == State.OPEN ? openNanos - (ticker.getAsLong() - openedAt) : 0;
+            return Math.max(1, (remaining + 999_999_999L) / 1_000_000_000L);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
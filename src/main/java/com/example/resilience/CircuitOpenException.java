@@ -0,0 +1,9 @@
+package com.example.resilience;
+
+// DynamoDB has been failing and the breaker is open; answered with 503 rather than 429
+public class CircuitOpenException extends OverloadedException {
+
+    public CircuitOpenException(long retryAfterSeconds) {
+        super("DynamoDB is unavailable, try again shortly", retryAfterSeconds);
+    }
+}
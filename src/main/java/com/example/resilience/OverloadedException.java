@@ -0,0 +1,22 @@
+package com.example.resilience;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A DynamoDB call refused before it was sent, because the client is rate limited or already has
+ * too many requests in flight. Callers answer 429 with {@code Retry-After}. It is a
+ * {@link RejectedExecutionException} so the service passes it through and tags it as shed, like
+ * a full password queue.
+ */
+public class OverloadedException extends RejectedExecutionException {
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
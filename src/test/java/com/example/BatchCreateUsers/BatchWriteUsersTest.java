@@ -0,0 +1,91 @@
+package com.example.BatchCreateUsers;
+
+import com.example.model.BatchItemResult;
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchWriteUsersTest {
+
+	// Applies each transaction atomically against a set of claimed keys; the first one is throttled
+	private static class ClaimsTable implements DynamoDbClient {
+		private final Set<String> claims = ConcurrentHashMap.newKeySet();
+		private final AtomicBoolean throttleOnce = new AtomicBoolean(true);
+
+		@Override
+		public synchronized TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+			List<CancellationReason> reasons = new ArrayList<>();
+			boolean failed = false;
+			for (TransactWriteItem item : request.transactItems()) {
+				Put put = item.put();
+				boolean taken = put.tableName().equals("keys") && claims.contains(put.item().get("uniqueKey").s());
+				failed |= taken;
+				reasons.add(CancellationReason.builder().code(taken ? "ConditionalCheckFailed" : "None").build());
+			}
+			if (throttleOnce.getAndSet(false)) {
+				throw TransactionCanceledException.builder()
+						.cancellationReasons(CancellationReason.builder().code("ThrottlingError").build())
+						.build();
+			}
+			if (failed) {
+				throw TransactionCanceledException.builder().cancellationReasons(reasons).build();
+			}
+			for (TransactWriteItem item : request.transactItems()) {
+				if (item.put().tableName().equals("keys")) {
+					claims.add(item.put().item().get("uniqueKey").s());
+				}
+			}
+			return TransactWriteItemsResponse.builder().build();
+		}
+
+		@Override
+		public String serviceName() {
+			return "dynamodb";
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static User user(String userId, String username, String email) {
+		User user = new User(userId, "First", "Last", username, null, email, null);
+		user.setVersion(1L);
+		return user;
+	}
+
+	@Test
+	void claimsKeysAndReportsDuplicatesPerUser() {
+		ClaimsTable table = new ClaimsTable();
+		List<User> users = List.of(
+				user("u-1", "jane", "jane@example.com"),
+				user("u-2", "jane", "other@example.com"),
+				user("u-3", "john", "jane@example.com"),
+				user("u-4", "bob", null));
+
+		List<BatchItemResult> results = BatchWriteUsers.putUsers(table, "users", "keys", users, Runnable::run);
+
+		assertEquals(BatchItemResult.Status.CREATED, results.get(0).getStatus());
+		assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus());
+		assertTrue(results.get(1).getError().contains("username"));
+		assertEquals(BatchItemResult.Status.FAILED, results.get(2).getStatus());
+		assertTrue(results.get(2).getError().contains("email"));
+		assertEquals(BatchItemResult.Status.CREATED, results.get(3).getStatus());
+		assertEquals(Set.of("username#jane", "email#jane@example.com", "username#bob"), table.claims);
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.CacheInvalidation;
+
+import com.example.cache.UserInvalidation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamRecordsTest {
+
+	private static final String EVENT = """
+			{"Records":[
+			  {"eventName":"MODIFY","dynamodb":{"ApproximateCreationDateTime":1700000000,
+			    "Keys":{"userId":{"S":"u-1"}},
+			    "OldImage":{"userId":{"S":"u-1"},"username":{"S":"jane"},"email":{"S":"jane@example.com"},"version":{"N":"1"}},
+			    "NewImage":{"userId":{"S":"u-1"},"username":{"S":"janet"},"email":{"S":"jane@example.com"},"version":{"N":"2"}}}},
+			  {"eventName":"REMOVE","dynamodb":{"ApproximateCreationDateTime":1700000001,
+			    "Keys":{"userId":{"S":"u-2"}},
+			    "OldImage":{"userId":{"S":"u-2"},"username":{"S":"john"},"version":{"N":"4"}}}}
+			]}""";
+
+	@Test
+	void readsVersionsAndTouchedKeys() throws Exception {
+		List<UserInvalidation> invalidations = StreamRecords.toInvalidations(new ObjectMapper().readTree(EVENT), 1_700_000_002_000L);
+		assertEquals(2, invalidations.size());
+
+		UserInvalidation modified = invalidations.get(0);
+		assertEquals("u-1", modified.getUserId());
+		assertEquals(2L, modified.getVersion());
+		assertFalse(modified.isDeleted());
+		assertEquals(List.of("username#jane", "email#jane@example.com", "username#janet"), modified.getUniqueKeys());
+		assertEquals(1_700_000_000_000L, modified.getChangedAt());
+		assertEquals(1_700_000_002_000L, modified.getPublishedAt());
+
+		UserInvalidation removed = invalidations.get(1);
+		assertTrue(removed.isDeleted());
+		assertNull(removed.getVersion());
+		assertEquals(List.of("username#john"), removed.getUniqueKeys());
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.DeleteUser;
+
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.VersionConflictException;
+import com.example.repository.UserItemMapper;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeleteUserTest {
+
+	private static Map<String, AttributeValue> existing(String version) {
+		Map<String, AttributeValue> item = new HashMap<>();
+		item.put(UserItemMapper.USERNAME, AttributeValue.builder().s("jane").build());
+		item.put(UserItemMapper.EMAIL, AttributeValue.builder().s("jane@example.com").build());
+		if (version != null) {
+			item.put(UserItemMapper.VERSION, AttributeValue.builder().n(version).build());
+		}
+		return item;
+	}
+
+	private static TransactionCanceledException canceled(String... codes) {
+		return TransactionCanceledException.builder()
+				.cancellationReasons(Arrays.stream(codes).map(code -> CancellationReason.builder().code(code).build()).toList())
+				.build();
+	}
+
+	@Test
+	void theUserDeleteIsAlwaysConditionalOnTheVersionRead() {
+		TransactWriteItemsRequest request = DeleteUser.deleteTransaction("users", "keys", "u-1", existing("3"));
+
+		assertEquals(3, request.transactItems().size());
+		Delete delete = request.transactItems().get(0).delete();
+		assertEquals("#version = :version", delete.conditionExpression());
+		assertEquals("3", delete.expressionAttributeValues().get(":version").n());
+
+		Delete unversioned = DeleteUser.deleteTransaction("users", "keys", "u-1", existing(null)).transactItems().get(0).delete();
+		assertEquals("attribute_not_exists(#version)", unversioned.conditionExpression());
+	}
+
+	@Test
+	void onlyAFailedUserConditionIsAVersionChange() {
+		assertTrue(DeleteUser.versionChanged(canceled("ConditionalCheckFailed", "None", "None")));
+		assertFalse(DeleteUser.versionChanged(canceled("None", "ConditionalCheckFailed", "None")));
+		assertInstanceOf(VersionConflictException.class,
+				DeleteUser.translate(canceled("ConditionalCheckFailed", "None", "None"), "u-1", existing("3")));
+		assertInstanceOf(TransactionCanceledException.class,
+				DeleteUser.translate(canceled("ThrottlingError", "None", "None"), "u-1", existing("3")));
+	}
+
+	@Test
+	void aClaimHeldByAnotherUserIsAConflict() {
+		DuplicateUserException username = assertInstanceOf(DuplicateUserException.class,
+				DeleteUser.translate(canceled("None", "ConditionalCheckFailed", "None"), "u-1", existing("3")));
+		assertEquals("username", username.getField());
+		DuplicateUserException email = assertInstanceOf(DuplicateUserException.class,
+				DeleteUser.translate(canceled("None", "None", "ConditionalCheckFailed"), "u-1", existing("3")));
+		assertEquals("email", email.getField());
+	}
+}
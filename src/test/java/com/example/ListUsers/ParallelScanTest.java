@@ -0,0 +1,78 @@
+package com.example.ListUsers;
+
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelScanTest {
+
+	// Each segment holds 5 users split over pages of 2, ids "<segment>-<n>"
+	private static class SegmentedTable implements DynamoDbClient {
+		private final AtomicBoolean throttleOnce = new AtomicBoolean(true);
+
+		@Override
+		public ScanResponse scan(ScanRequest request) {
+			if (request.segment() == 1 && throttleOnce.getAndSet(false)) {
+				throw ProvisionedThroughputExceededException.builder().statusCode(400).message("throttled").build();
+			}
+			int start = request.hasExclusiveStartKey()
+					? Integer.parseInt(request.exclusiveStartKey().get("userId").s().split("-")[1]) + 1
+					: 0;
+			List<Map<String, AttributeValue>> items = new ArrayList<>();
+			for (int i = start; i < Math.min(start + 2, 5); i++) {
+				items.add(Map.of("userId", AttributeValue.builder().s(request.segment() + "-" + i).build()));
+			}
+			ScanResponse.Builder response = ScanResponse.builder().items(items).count(items.size());
+			if (start + 2 < 5) {
+				response.lastEvaluatedKey(items.get(items.size() - 1));
+			}
+			return response.build();
+		}
+
+		@Override
+		public String serviceName() {
+			return "dynamodb";
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	@Test
+	void deliversSegmentsInOrderAndRetriesThrottledPages() {
+		List<String> ids = new ArrayList<>();
+		ParallelScan scan = new ParallelScan(new SegmentedTable(), "users", 4, 1, 3);
+
+		ScanProgress progress = scan.run(user -> ids.add(user.getUserId()), true);
+
+		List<String> expected = new ArrayList<>();
+		for (int segment = 0; segment < 4; segment++) {
+			for (int i = 0; i < 5; i++) {
+				expected.add(segment + "-" + i);
+			}
+		}
+		assertEquals(expected, ids);
+		assertEquals(20, progress.getItemsDelivered());
+		assertEquals(4, progress.getSegmentsCompleted());
+		assertEquals(1, progress.getRetries());
+	}
+
+	@Test
+	void unorderedRunDeliversEveryUser() {
+		List<User> users = new ArrayList<>();
+		new ParallelScan(new SegmentedTable(), "users", 8, 2, 3).run(users::add, false);
+		assertEquals(40, users.size());
+	}
+}
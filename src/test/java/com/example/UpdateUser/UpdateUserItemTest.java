@@ -0,0 +1,97 @@
+package com.example.UpdateUser;
+
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.VersionConflictException;
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpdateUserItemTest {
+
+	private static User changes(String firstName, String email, Long version) {
+		User user = new User(null, firstName, null, null, null, email, null);
+		user.setVersion(version);
+		return user;
+	}
+
+	private static User current() {
+		User user = new User("u-1", "Jane", "Doe", "jane", null, "jane@example.com", "2024-01-01T00:00:00");
+		user.setVersion(3L);
+		return user;
+	}
+
+	@Test
+	void sendsOnlyProvidedAttributesAndBumpsTheVersion() {
+		UpdateItemRequest request = UpdateUserItem.updateRequest("users", "u-1", changes("Janet", null, 3L));
+		assertEquals("SET #firstName = :firstName ADD #version :one", request.updateExpression());
+		assertEquals("#version = :expected", request.conditionExpression());
+		assertEquals("3", request.expressionAttributeValues().get(":expected").n());
+		assertEquals(ReturnValue.ALL_NEW, request.returnValues());
+
+		UpdateItemRequest unconditional = UpdateUserItem.updateRequest("users", "u-1", changes("Janet", "j@example.com", null));
+		assertEquals("SET #firstName = :firstName, #email = :email ADD #version :one", unconditional.updateExpression());
+		assertEquals("attribute_exists(#userId)", unconditional.conditionExpression());
+	}
+
+	@Test
+	void rejectsUpdatesWithNothingToChangeOrAPassword() {
+		assertThrows(IllegalArgumentException.class, () -> UpdateUserItem.validate(changes(null, null, 1L)));
+		User withPassword = changes("Janet", null, null);
+		withPassword.setPassword("secret");
+		assertThrows(IllegalArgumentException.class, () -> UpdateUserItem.validate(withPassword));
+	}
+
+	@Test
+	void tellsMissingUsersFromStaleVersions() {
+		ConditionalCheckFailedException missing = ConditionalCheckFailedException.builder().message("failed").build();
+		assertNull(UpdateUserItem.failedUpdate(missing, "u-1", 2L));
+
+		ConditionalCheckFailedException stale = ConditionalCheckFailedException.builder().message("failed")
+				.item(Map.of("userId", AttributeValue.fromS("u-1"), "version", AttributeValue.fromN("5"))).build();
+		VersionConflictException e = assertThrows(VersionConflictException.class, () -> UpdateUserItem.failedUpdate(stale, "u-1", 2L));
+		assertEquals(5L, e.getCurrentVersion());
+	}
+
+	@Test
+	void movesEmailClaimInOneTransaction() {
+		User changes = changes(null, "janet@example.com", 3L);
+		UpdateUserItem.checkVersion(current(), changes);
+		TransactWriteItemsRequest request = UpdateUserItem.claimTransaction("users", "keys", current(), changes);
+		assertEquals(3, request.transactItems().size());
+		assertEquals("email#janet@example.com", request.transactItems().get(1).put().item().get("uniqueKey").s());
+		assertEquals("email#jane@example.com", request.transactItems().get(2).delete().key().get("uniqueKey").s());
+
+		TransactionCanceledException taken = TransactionCanceledException.builder().cancellationReasons(
+				CancellationReason.builder().code("None").build(),
+				CancellationReason.builder().code("ConditionalCheckFailed").build(),
+				CancellationReason.builder().code("None").build()).build();
+		assertInstanceOf(DuplicateUserException.class, UpdateUserItem.translate(taken, current(), changes));
+		// The old claim held by someone else is a conflict too, not a raw cancellation
+		TransactionCanceledException heldElsewhere = TransactionCanceledException.builder().cancellationReasons(
+				CancellationReason.builder().code("None").build(),
+				CancellationReason.builder().code("None").build(),
+				CancellationReason.builder().code("ConditionalCheckFailed").build()).build();
+		assertEquals("email", assertInstanceOf(DuplicateUserException.class,
+				UpdateUserItem.translate(heldElsewhere, current(), changes)).getField());
+
+		User merged = UpdateUserItem.merged(current(), changes);
+		assertEquals("janet@example.com", merged.getEmail());
+		assertEquals("Jane", merged.getFirstName());
+		assertEquals(4L, merged.getVersion());
+
+		assertThrows(VersionConflictException.class, () -> UpdateUserItem.checkVersion(current(), changes(null, "x@example.com", 2L)));
+	}
+}
@@ -0,0 +1,130 @@
+package com.example.auth;
+
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest {
+
+	private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+	private final AtomicLong now = new AtomicLong(1_700_000_000L);
+	private final InMemoryRevocationStore store = new InMemoryRevocationStore();
+	private final RevocationList revocations = new RevocationList(store, 1_000, Duration.ofSeconds(30), now::get);
+	private final TokenService tokenService = new TokenService(KEY, Duration.ofHours(1), revocations, 100, Duration.ofMinutes(5), now::get);
+
+	private static User user(String userId) {
+		return new User(userId, "Jane", "Doe", "jane", null, "jane@example.com", null);
+	}
+
+	@Test
+	void verifiesTheTokensItIssued() {
+		String token = tokenService.issue(user("u-1"));
+
+		TokenClaims claims = tokenService.verify(token);
+		assertEquals("u-1", claims.getSubject());
+		assertEquals("jane", claims.getUsername());
+		assertEquals(now.get() + 3600, claims.getExpiresAt());
+		// A second use is served from the verified cache with the same claims
+		assertEquals(claims.getTokenId(), tokenService.verify(token).getTokenId());
+
+		TokenService otherKey = new TokenService("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII),
+				Duration.ofHours(1), revocations, 100, Duration.ofMinutes(5), now::get);
+		assertThrows(InvalidTokenException.class, () -> otherKey.verify(token));
+	}
+
+	@Test
+	void rejectsTamperedAndUnsignedTokens() {
+		String token = tokenService.issue(user("u-1"));
+		String[] parts = token.split("\\.");
+		String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).replace("u-1", "u-2");
+		String forged = parts[0] + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + '.' + parts[2];
+		assertThrows(InvalidTokenException.class, () -> tokenService.verify(forged));
+
+		String none = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+		assertThrows(InvalidTokenException.class, () -> tokenService.verify(none + '.' + parts[1] + '.'));
+		assertThrows(InvalidTokenException.class, () -> tokenService.verify("not-a-token"));
+		assertThrows(InvalidTokenException.class, () -> tokenService.verify(null));
+	}
+
+	@Test
+	void expiredAndRevokedTokensAreRefusedEvenWhenCached() {
+		String token = tokenService.issue(user("u-1"));
+		TokenClaims claims = tokenService.verify(token);
+
+		tokenService.revoke(claims);
+		assertThrows(InvalidTokenException.class, () -> tokenService.verify(token));
+		assertTrue(store.isRevoked(claims.getTokenId(), now.get()));
+
+		String other = tokenService.issue(user("u-1"));
+		tokenService.verify(other);
+		now.addAndGet(3600);
+		assertThrows(InvalidTokenException.class, () -> tokenService.verify(other));
+		// Once the token has expired its revocation is no longer needed
+		assertFalse(store.isRevoked(claims.getTokenId(), now.get()));
+	}
+
+	@Test
+	void aPasswordChangeCutsOffEveryEarlierTokenOfThatUser() {
+		String earlier = tokenService.issue(user("u-1"));
+		String otherUser = tokenService.issue(user("u-2"));
+		tokenService.verify(earlier);
+		now.addAndGet(10);
+
+		tokenService.revokeAll("u-1");
+		String sameSecond = tokenService.issue(user("u-1"));
+		now.addAndGet(1);
+		String later = tokenService.issue(user("u-1"));
+
+		assertThrows(InvalidTokenException.class, () -> tokenService.verify(earlier));
+		assertDoesNotThrow(() -> tokenService.verify(sameSecond));
+		assertDoesNotThrow(() -> tokenService.verify(later));
+		assertDoesNotThrow(() -> tokenService.verify(otherUser));
+		// Other instances see it once their list reloads from the store
+		RevocationList fresh = new RevocationList(store, 1_000, Duration.ofSeconds(30), now::get);
+		TokenService elsewhere = new TokenService(KEY, Duration.ofHours(1), fresh, 100, Duration.ofMinutes(5), now::get);
+		assertThrows(InvalidTokenException.class, () -> elsewhere.verify(earlier));
+	}
+
+	@Test
+	void revocationsFromOtherInstancesArriveWithTheNextLoad() {
+		String token = tokenService.issue(user("u-1"));
+		TokenClaims claims = tokenService.verify(token);
+
+		// Another instance logged the token out; a fresh list loads it from the store
+		store.revoke(claims.getTokenId(), claims.getExpiresAt());
+		RevocationList fresh = new RevocationList(store, 1_000, Duration.ofSeconds(30), now::get);
+		assertTrue(fresh.isRevoked(claims.getTokenId()));
+		assertFalse(fresh.isRevoked("never-issued"));
+	}
+
+	@Test
+	void ownerOnlyRoutesNeedTheUsersOwnToken() {
+		String authorization = "Bearer " + tokenService.issue(user("u-1"));
+
+		assertDoesNotThrow(() -> tokenService.authorize("PUT", "/users/{userId}", authorization, "u-1"));
+		assertDoesNotThrow(() -> tokenService.authorize("GET", "/users/{userId}", authorization, "u-2"));
+		assertThrows(AccessDeniedException.class, () -> tokenService.authorize("DELETE", "/users/{userId}", authorization, "u-2"));
+		assertThrows(AccessDeniedException.class,
+				() -> tokenService.authorize("PUT", "/users/{userId}/changepassword", authorization, "u-2"));
+		assertThrows(InvalidTokenException.class, () -> tokenService.authorize("GET", "/users", "Basic abc", null));
+
+		assertFalse(RoutePolicy.requiresToken("POST", "/users"));
+		assertFalse(RoutePolicy.requiresToken("POST", "/auth/login"));
+		assertTrue(RoutePolicy.requiresToken("POST", "/auth/logout"));
+		assertTrue(RoutePolicy.requiresToken("POST", "/users:batchGet"));
+		assertFalse(RoutePolicy.requiresToken("GET", "/actuator/prometheus"));
+		assertNull(TokenService.bearerToken("Bearer "));
+	}
+}
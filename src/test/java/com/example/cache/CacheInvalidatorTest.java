@@ -0,0 +1,179 @@
+package com.example.cache;
+
+import com.example.UserService.UserService;
+import com.example.credentials.PasswordHasher;
+import com.example.credentials.PasswordHashing;
+import com.example.model.User;
+import com.example.repository.InMemoryUserRepository;
+import com.example.repository.UserProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheInvalidatorTest {
+
+	private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+	private final FakeFeed feed = new FakeFeed();
+	// When set, reads take their snapshot at once but complete only once it does: a read in flight across a write
+	private volatile CompletableFuture<Void> readGate;
+	private final InMemoryUserRepository repository = new InMemoryUserRepository() {
+		@Override
+		public CompletableFuture<User> findById(String userId, UserProjection projection) {
+			CompletableFuture<Void> gate = readGate;
+			CompletableFuture<User> read = super.findById(userId, projection);
+			return gate == null ? read : read.thenCombine(gate, (user, released) -> user);
+		}
+	};
+	private final PasswordHashing passwordHashing = new PasswordHashing(new PasswordHasher(PasswordHasher.MIN_ITERATIONS), 1, 4);
+	private final UserService userService = new UserService(repository, 100, Duration.ofSeconds(60), 1, false, passwordHashing);
+	private final CacheInvalidator invalidator = new CacheInvalidator(feed, userService::applyInvalidation, userService::clearCaches,
+			Duration.ofSeconds(1), userService.getUserCacheTtl(), now::get);
+
+	@AfterEach
+	void tearDown() {
+		userService.shutdown();
+		passwordHashing.shutdown();
+	}
+
+	private static final class FakeFeed implements InvalidationFeed {
+		final List<UserInvalidation> entries = new ArrayList<>();
+		final AtomicBoolean failing = new AtomicBoolean();
+		int reads;
+
+		@Override
+		public void publish(List<UserInvalidation> invalidations) {
+			entries.addAll(invalidations);
+		}
+
+		@Override
+		public void forEachSince(long sinceMillis, long nowMillis, Consumer<UserInvalidation> consumer) {
+			reads++;
+			if (failing.get()) {
+				throw new IllegalStateException("feed down");
+			}
+			entries.stream().filter(entry -> entry.getPublishedAt() >= sinceMillis).forEach(consumer);
+		}
+	}
+
+	private User createAndCache() {
+		User user = new User("u-1", "Jane", "Doe", "jane", "secret", "jane@example.com", "2024-01-01T00:00:00");
+		user.setVersion(1L);
+		repository.create(user).join();
+		userService.getUserById("u-1");
+		return user;
+	}
+
+	// A write made on another node: straight to the store, then onto the feed
+	private void remoteRename(String firstName, long version) {
+		User changes = new User(null, firstName, null, null, null, null, null);
+		repository.update("u-1", changes).join();
+		feed.publish(List.of(new UserInvalidation("u-1", version, false, List.of(), now.get(), now.get())));
+	}
+
+	private void pollAfter(long millis) {
+		now.addAndGet(millis);
+		invalidator.pollIfDue();
+	}
+
+	@Test
+	void evictsOnlyCopiesOlderThanTheChange() {
+		createAndCache();
+		feed.publish(List.of(new UserInvalidation("u-1", 1L, false, List.of(), now.get(), now.get())));
+		pollAfter(1_000);
+		assertEquals(1, userService.getUserCache().size());
+
+		remoteRename("Janet", 2L);
+		assertEquals("Jane", userService.getUserById("u-1").getFirstName());
+		pollAfter(1_000);
+		assertEquals("Janet", userService.getUserById("u-1").getFirstName());
+
+		// Read again through the overlap: the cached copy is already that new
+		pollAfter(1_000);
+		assertEquals(1, userService.getUserCache().size());
+	}
+
+	@Test
+	void anOlderReadCannotPutADeletedUserBack() {
+		createAndCache();
+		feed.publish(List.of(new UserInvalidation("u-1", null, true, List.of("username#jane"), now.get(), now.get())));
+		pollAfter(1_000);
+		assertEquals(0, userService.getUserCache().size());
+
+		// This node's store hasn't caught up; what it reads must not be cached
+		userService.getUserById("u-1");
+		assertEquals(0, userService.getUserCache().size());
+	}
+
+	@Test
+	void aReadInFlightCannotCacheTheVersionALocalWriteReplaced() {
+		User user = new User("u-1", "Jane", "Doe", "jane", "secret", "jane@example.com", "2024-01-01T00:00:00");
+		user.setVersion(1L);
+		repository.create(user).join();
+		readGate = new CompletableFuture<>();
+		CompletableFuture<User> stale = userService.getUserByIdAsync("u-1");
+		CompletableFuture<Void> gate = readGate;
+		readGate = null;
+
+		userService.updateUser("u-1", new User(null, "Janet", null, null, null, null, null));
+		gate.complete(null);
+		assertEquals("Jane", stale.join().getFirstName());
+		assertEquals("Janet", userService.getUserById("u-1").getFirstName());
+	}
+
+	@Test
+	void aReadInFlightCannotCacheAUserDeletedHere() {
+		createAndCache();
+		userService.getUserCache().invalidate("u-1");
+		readGate = new CompletableFuture<>();
+		CompletableFuture<User> stale = userService.getUserByIdAsync("u-1");
+		CompletableFuture<Void> gate = readGate;
+		readGate = null;
+
+		userService.deleteUser("u-1");
+		gate.complete(null);
+		stale.join();
+		assertEquals(0, userService.getUserCache().size());
+		assertNull(userService.getUserById("u-1"));
+	}
+
+	@Test
+	void aFailedPollIsRetriedAndATooLongGapClearsTheCache() {
+		createAndCache();
+		remoteRename("Janet", 2L);
+		feed.failing.set(true);
+		pollAfter(1_000);
+		assertEquals(1, userService.getUserCache().size());
+
+		feed.failing.set(false);
+		pollAfter(1_000);
+		assertEquals("Janet", userService.getUserById("u-1").getFirstName());
+
+		int reads = feed.reads;
+		remoteRename("Jay", 3L);
+		pollAfter(61_000);
+		assertEquals(reads, feed.reads);
+		assertEquals(0, userService.getUserCache().size());
+		assertTrue(invalidator.getPollAgeMillis() < 1_000);
+	}
+
+	@Test
+	void pollsAtMostOncePerInterval() {
+		pollAfter(1_000);
+		pollAfter(500);
+		assertEquals(1, feed.reads);
+		pollAfter(500);
+		assertEquals(2, feed.reads);
+		assertNull(userService.getUserCache().get("u-1"));
+	}
+}
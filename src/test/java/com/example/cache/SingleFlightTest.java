@@ -0,0 +1,73 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+	private final AtomicInteger coalesced = new AtomicInteger();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final SingleFlight<String, String> flights = new SingleFlight<>(2, coalesced::incrementAndGet);
+
+	private CompletableFuture<String> load(String key, CompletableFuture<String> result) {
+		return flights.load(key, () -> {
+			loads.incrementAndGet();
+			return result;
+		});
+	}
+
+	@Test
+	void concurrentCallersShareOneLoad() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		CompletableFuture<String> first = load("a", pending);
+		CompletableFuture<String> second = load("a", new CompletableFuture<>());
+		assertEquals(1, loads.get());
+		assertEquals(1, coalesced.get());
+
+		// A caller giving up doesn't take the shared load down with it
+		second.cancel(false);
+		pending.complete("alice");
+		assertEquals("alice", first.join());
+		assertEquals(0, flights.getInFlight());
+
+		// Once complete, the next caller loads again
+		assertEquals("bob", load("a", CompletableFuture.completedFuture("bob")).join());
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void failuresReachEveryWaiterAndAreNotKept() {
+		CompletableFuture<String> pending = new CompletableFuture<>();
+		CompletableFuture<String> first = load("a", pending);
+		CompletableFuture<String> second = load("a", pending);
+		IllegalStateException failure = new IllegalStateException("down");
+		pending.completeExceptionally(failure);
+
+		assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+		assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+		assertEquals(0, flights.getInFlight());
+	}
+
+	@Test
+	void loadsAloneBeyondMaxKeysAndAfterForget() {
+		load("a", new CompletableFuture<>());
+		load("b", new CompletableFuture<>());
+		CompletableFuture<String> c = load("c", new CompletableFuture<>());
+		load("c", new CompletableFuture<>());
+		assertEquals(4, loads.get());
+		assertEquals(0, coalesced.get());
+		assertFalse(c.isDone());
+
+		flights.forget("a");
+		load("a", new CompletableFuture<>());
+		assertEquals(5, loads.get());
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TtlCacheTest {
+
+	@Test
+	void countsHitsAndMisses() {
+		TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(1));
+		assertNull(cache.get("a"));
+		cache.put("a", "1");
+		assertEquals("1", cache.get("a"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	void expiresEntriesAfterTtl() {
+		AtomicLong now = new AtomicLong();
+		TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofSeconds(5), now::get);
+		cache.put("a", "1");
+		now.addAndGet(Duration.ofSeconds(4).toNanos());
+		assertEquals("1", cache.get("a"));
+		now.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertNull(cache.get("a"));
+		assertEquals(1, cache.getExpirations());
+	}
+
+	@Test
+	void evictsWhenFull() {
+		TtlCache<Integer, Integer> cache = new TtlCache<>(32, Duration.ofMinutes(1));
+		for (int i = 0; i < 1_000; i++) {
+			cache.put(i, i);
+		}
+		assertTrue(cache.size() <= 32);
+		assertEquals(1_000 - cache.size(), cache.getEvictions());
+	}
+
+	@Test
+	void invalidateRemovesEntry() {
+		TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(1));
+		cache.put("a", "1");
+		cache.invalidate("a");
+		assertNull(cache.get("a"));
+	}
+}
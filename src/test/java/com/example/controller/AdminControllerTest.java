@@ -0,0 +1,87 @@
+package com.example.controller;
+
+import com.example.UserService.UserService;
+import com.example.auth.AuthInterceptor;
+import com.example.auth.InMemoryRevocationStore;
+import com.example.auth.RevocationList;
+import com.example.auth.TokenService;
+import com.example.credentials.PasswordHasher;
+import com.example.credentials.PasswordHashing;
+import com.example.logging.LogSampler;
+import com.example.logging.RequestLogger;
+import com.example.model.User;
+import com.example.repository.InMemoryUserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class AdminControllerTest {
+
+	private final InMemoryUserRepository repository = new InMemoryUserRepository();
+	private final UserService userService = new UserService(repository, 100, Duration.ofSeconds(60), 2, false,
+			new PasswordHashing(new PasswordHasher(PasswordHasher.MIN_ITERATIONS), 1, 16));
+	private final TokenService tokenService = new TokenService(TokenService.signingKey(null), Duration.ofHours(1),
+			new RevocationList(new InMemoryRevocationStore(), 100, Duration.ofSeconds(30)), 100, Duration.ofMinutes(5), Set.of("admin-1"));
+	private final MockMvc mockMvc;
+
+	AdminControllerTest() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		RequestLogger requestLogger = new RequestLogger(new LogSampler(1.0, Map.of()), entry -> { });
+		mockMvc = MockMvcBuilders.standaloneSetup(new AdminController(userService, objectMapper))
+				.addInterceptors(new AuthInterceptor(tokenService, objectMapper, requestLogger))
+				.build();
+		User user = new User("u-1", "Jane", "Doe", "jane", "$pbkdf2-sha256$i=1000$c2FsdA$aGFzaA", "jane@example.com", null);
+		user.setVersion(1L);
+		repository.create(user).join();
+	}
+
+	@AfterEach
+	void tearDown() {
+		userService.shutdown();
+		tokenService.shutdown();
+	}
+
+	private static User user(String userId) {
+		return new User(userId, null, null, userId, null, null, null);
+	}
+
+	@Test
+	void exportNeedsAnAdminToken() throws Exception {
+		assertEquals(401, mockMvc.perform(get("/admin/users/export")).andReturn().getResponse().getStatus());
+		assertEquals(401, mockMvc.perform(get("/admin/users/export/progress")).andReturn().getResponse().getStatus());
+
+		String userToken = "Bearer " + tokenService.issue(user("u-1"));
+		assertEquals(403, mockMvc.perform(get("/admin/users/export").header("Authorization", userToken))
+				.andReturn().getResponse().getStatus());
+	}
+
+	@Test
+	void exportNeverContainsPasswords() throws Exception {
+		String adminToken = "Bearer " + tokenService.issue(user("admin-1"));
+
+		MvcResult started = mockMvc.perform(get("/admin/users/export").param("segments", "2").header("Authorization", adminToken))
+				.andReturn();
+		// The body streams on the async dispatch
+		started.getAsyncResult();
+		MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+		String body = result.getResponse().getContentAsString();
+
+		assertEquals(200, result.getResponse().getStatus());
+		assertTrue(body.contains("\"username\":\"jane\""), body);
+		assertFalse(body.contains("password"), body);
+		assertFalse(body.contains("pbkdf2"), body);
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.controller;
+
+import com.example.UserService.UserServiceApplication;
+import com.example.auth.TokenService;
+import com.example.model.User;
+import com.example.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Tomcat, not MockMvc, does the compressing, so this runs the whole application on a real port
+@SpringBootTest(classes = UserServiceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("local")
+class ResponseCompressionTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository repository;
+
+	@Autowired
+	private TokenService tokenService;
+
+	@Test
+	void largeListPagesAreGzipped() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			User user = new User("u-" + i, "First" + i, "Last" + i, "user" + i, null, "user" + i + "@example.com", null);
+			user.setVersion(1L);
+			repository.create(user).join();
+		}
+		String token = tokenService.issue(new User("u-0", null, null, "user0", null, null, null));
+
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users?limit=50"))
+				.header("Authorization", "Bearer " + token)
+				.header("Accept-Encoding", "gzip")
+				.build();
+		HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+		assertEquals(200, response.statusCode());
+		assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+		assertTrue(response.headers().firstValue("ETag").orElseThrow().startsWith("W/"));
+		try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			JsonNode page = new ObjectMapper().readTree(body);
+			assertEquals(50, page.get("users").size());
+		}
+	}
+}
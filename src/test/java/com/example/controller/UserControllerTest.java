@@ -0,0 +1,151 @@
+package com.example.controller;
+
+import com.example.UserService.UserService;
+import com.example.auth.AuthInterceptor;
+import com.example.auth.InMemoryRevocationStore;
+import com.example.auth.RevocationList;
+import com.example.auth.TokenService;
+import com.example.credentials.PasswordHasher;
+import com.example.credentials.PasswordHashing;
+import com.example.logging.LogSampler;
+import com.example.logging.RequestLogEntry;
+import com.example.logging.RequestLogger;
+import com.example.model.User;
+import com.example.repository.InMemoryUserRepository;
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class UserControllerTest {
+
+	private volatile boolean failExports;
+	private final InMemoryUserRepository repository = new InMemoryUserRepository() {
+		@Override
+		public void forEach(UserProjection projection, Consumer<User> consumer) {
+			super.forEach(projection, consumer);
+			if (failExports) {
+				throw new IllegalStateException("scan failed");
+			}
+		}
+	};
+	private final UserService userService = new UserService(repository, 100, Duration.ofSeconds(60), 2, false,
+			new PasswordHashing(new PasswordHasher(PasswordHasher.MIN_ITERATIONS), 1, 16));
+	private final TokenService tokenService = new TokenService(TokenService.signingKey(null), Duration.ofHours(1),
+			new RevocationList(new InMemoryRevocationStore(), 100, Duration.ofSeconds(30)), 100, Duration.ofMinutes(5));
+	private final List<RequestLogEntry> logged = new CopyOnWriteArrayList<>();
+	private final MockMvc mockMvc;
+
+	UserControllerTest() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		RequestLogger requestLogger = new RequestLogger(new LogSampler(1.0, Map.of()), logged::add);
+		mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, objectMapper, requestLogger, tokenService))
+				.addInterceptors(new AuthInterceptor(tokenService, objectMapper, requestLogger))
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		userService.shutdown();
+		tokenService.shutdown();
+	}
+
+	@Test
+	void rejectionsCarryTheControllersCorsHeaders() throws Exception {
+		MockHttpServletResponse response = mockMvc.perform(get("/users/u-1").header("Origin", "https://app.example.com"))
+				.andReturn().getResponse();
+
+		assertEquals(401, response.getStatus());
+		assertEquals("*", response.getHeader("Access-Control-Allow-Origin"));
+	}
+
+	@Test
+	void batchesCarryingTooManyPasswordsAreRejected() throws Exception {
+		String token = "Bearer " + tokenService.issue(new User("u-0", null, null, "user0", null, null, null));
+		StringBuilder users = new StringBuilder();
+		for (int i = 0; i <= UserService.MAX_BATCH_PASSWORDS; i++) {
+			users.append(i == 0 ? "" : ",").append("{\"username\":\"user").append(i).append("\",\"password\":\"s3cret\"}");
+		}
+
+		MockHttpServletResponse response = mockMvc.perform(post("/users:batchCreate").header("Authorization", token)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"users\":[" + users + "]}")).andReturn().getResponse();
+
+		assertEquals(400, response.getStatus());
+		assertNull(repository.findByUsername("user1").join());
+	}
+
+	@Test
+	void passwordChangesNeedTheCurrentPassword() throws Exception {
+		PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+		repository.create(new User("u-0", "First", "Last", "user0", hasher.hash("old-pass"), "user0@example.com", null)).join();
+		String token = "Bearer " + tokenService.issue(new User("u-0", null, null, "user0", null, null, null));
+
+		MockHttpServletResponse wrong = changePassword(token, "{\"currentPassword\":\"guess\",\"newPassword\":\"new-pass\"}");
+		MockHttpServletResponse missing = changePassword(token, "{\"newPassword\":\"new-pass\"}");
+		MockHttpServletResponse right = changePassword(token, "{\"currentPassword\":\"old-pass\",\"newPassword\":\"new-pass\"}");
+
+		assertEquals(403, wrong.getStatus());
+		assertEquals(400, missing.getStatus());
+		assertEquals(204, right.getStatus());
+		assertTrue(hasher.verify("new-pass", repository.findById("u-0").join().getPassword()));
+	}
+
+	private MockHttpServletResponse changePassword(String token, String body) throws Exception {
+		MvcResult started = mockMvc.perform(put("/users/u-0/changepassword").header("Authorization", token)
+				.contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+		started.getAsyncResult();
+		return mockMvc.perform(asyncDispatch(started)).andReturn().getResponse();
+	}
+
+	@Test
+	void exportsAreLoggedOnceStreamed() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			repository.create(new User("u-" + i, "First", "Last", "user" + i, null, "user" + i + "@example.com", null)).join();
+		}
+		String token = "Bearer " + tokenService.issue(new User("u-0", null, null, "user0", null, null, null));
+
+		MvcResult started = mockMvc.perform(get("/users").param("export", "true").header("Authorization", token)).andReturn();
+		started.getAsyncResult();
+		MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+
+		assertEquals(200, result.getResponse().getStatus());
+		assertEquals(3, new ObjectMapper().readTree(result.getResponse().getContentAsByteArray()).size());
+		List<RequestLogEntry> exports = logged.stream().filter(entry -> entry.getEndpoint().equals("GET /users")).toList();
+		assertEquals(1, exports.size());
+		assertEquals(200, exports.get(0).getStatus());
+	}
+
+	@Test
+	void exportsThatFailMidStreamAreLoggedAsFailures() throws Exception {
+		repository.create(new User("u-0", "First", "Last", "user0", null, "user0@example.com", null)).join();
+		String token = "Bearer " + tokenService.issue(new User("u-0", null, null, "user0", null, null, null));
+		failExports = true;
+
+		MvcResult started = mockMvc.perform(get("/users").param("export", "true").header("Authorization", token)).andReturn();
+		started.getAsyncResult();
+
+		// The 200 went out with the headers; the log line still records what happened to the body
+		List<RequestLogEntry> exports = logged.stream().filter(entry -> entry.getEndpoint().equals("GET /users")).toList();
+		assertEquals(1, exports.size());
+		assertEquals(500, exports.get(0).getStatus());
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.credentials;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+	private final PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+
+	@Test
+	void verifiesOnlyTheHashedPassword() {
+		String encoded = hasher.hash("s3cret");
+		assertTrue(encoded.startsWith("$pbkdf2-sha256$i=1000$"));
+		assertNotEquals(encoded, hasher.hash("s3cret"));
+
+		assertTrue(hasher.verify("s3cret", encoded));
+		assertFalse(hasher.verify("s3cret!", encoded));
+		assertFalse(hasher.verify("s3cret", "$pbkdf2-sha256$i=1000$not-base64!$"));
+		assertFalse(hasher.verify(null, encoded));
+	}
+
+	@Test
+	void flagsHashesMadeWithOtherParameters() {
+		String encoded = hasher.hash("s3cret");
+		assertFalse(hasher.needsRehash(encoded));
+
+		PasswordHasher stronger = new PasswordHasher(2_000);
+		assertTrue(stronger.needsRehash(encoded));
+		// Old hashes still verify after the cost is raised
+		assertTrue(stronger.verify("s3cret", encoded));
+	}
+
+	@Test
+	void acceptsLegacyPlaintextOnceForRehashing() {
+		assertTrue(hasher.verify("plain", "plain"));
+		assertFalse(hasher.verify("plain", "plain2"));
+		assertTrue(hasher.needsRehash("plain"));
+		assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(10));
+	}
+
+	@Test
+	void unknownUsersCostAVerificationOnThePool() {
+		PasswordHashing hashing = new PasswordHashing(hasher, 1, 1);
+		try {
+			assertFalse(hashing.verifyAbsent("s3cret").join());
+			assertFalse(hashing.verifyAbsent(hashing.hasher().hash("s3cret")).join());
+		} finally {
+			hashing.shutdown();
+		}
+	}
+
+	@Test
+	void shedsWorkBeyondTheQueue() throws Exception {
+		PasswordHashing hashing = new PasswordHashing(hasher, 1, 1);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			// Occupy the only thread, then the only queue slot
+			CompletableFuture<Boolean> busy = hashing.submit(() -> {
+				started.countDown();
+				try {
+					return release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			started.await(10, TimeUnit.SECONDS);
+			CompletableFuture<String> queued = hashing.hash("queued");
+
+			CompletableFuture<Boolean> shed = hashing.verify("shed", queued.getNow(null));
+			assertInstanceOf(RejectedExecutionException.class, assertThrows(CompletionException.class, shed::join).getCause());
+
+			release.countDown();
+			assertTrue(busy.join());
+			assertTrue(hasher.verify("queued", queued.join()));
+		} finally {
+			hashing.shutdown();
+		}
+	}
+}
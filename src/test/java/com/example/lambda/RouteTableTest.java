@@ -0,0 +1,56 @@
+package com.example.lambda;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RouteTableTest {
+
+	private final ProxyOperation list = (request, out, logger) -> { };
+	private final ProxyOperation get = (request, out, logger) -> { };
+	private final ProxyOperation delete = (request, out, logger) -> { };
+	private final ProxyOperation batchGet = (request, out, logger) -> { };
+
+	private RouteTable table() {
+		RouteTable table = new RouteTable();
+		table.add("GET", "/users", list);
+		table.add("GET", "/users/{userId}", get);
+		table.add("DELETE", "/users/{userId}", delete);
+		table.add("POST", "/users:batchGet", batchGet);
+		return table;
+	}
+
+	private static ProxyRequest request(String method, String resource, String path) {
+		ProxyRequest request = new ProxyRequest();
+		request.setHttpMethod(method);
+		request.setResource(resource);
+		request.setPath(path);
+		return request;
+	}
+
+	@Test
+	void matchesOnRouteKey() {
+		RouteTable table = table();
+		assertSame(get, table.resolve(request("GET", "/users/{userId}", "/users/42")));
+		assertSame(delete, table.resolve(request("DELETE", "/users/{userId}", "/users/42")));
+		assertSame(batchGet, table.resolve(request("POST", "/users:batchGet", "/users:batchGet")));
+	}
+
+	@Test
+	void fallsBackToPathAndFillsPathParameters() {
+		ProxyRequest request = request("GET", null, "/dev/users/42");
+		assertSame(get, table().resolve(request));
+		assertEquals("42", request.getPathParameters().get("userId"));
+		assertEquals("/users/{userId}", request.getResource());
+	}
+
+	@Test
+	void returnsNullForUnknownRoutes() {
+		RouteTable table = table();
+		assertNull(table.resolve(request("PUT", "/users/{userId}", "/users/42")));
+		assertNull(table.resolve(request("GET", null, "/accounts/42")));
+		assertNull(table.resolve(request("GET", null, "/users/42/sessions")));
+	}
+}
@@ -0,0 +1,182 @@
+package com.example.lambda;
+
+import com.example.model.BodyFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingProxyResponseTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void bodyRoundTripsThroughTheEnvelope() throws Exception {
+		Map<String, String> value = Map.of("name", "quote \" slash \\ newline \n tab \t bell \u0007 caf\u00e9 \u2603");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		StreamingProxyResponse.write(objectMapper, out, 201, generator -> generator.writeObject(value));
+
+		JsonNode envelope = objectMapper.readTree(out.toByteArray());
+		assertEquals(201, envelope.get("statusCode").asInt());
+		assertEquals("application/json", envelope.get("headers").get("Content-Type").asText());
+		assertFalse(envelope.get("isBase64Encoded").asBoolean());
+		assertEquals(value.get("name"), objectMapper.readTree(envelope.get("body").asText()).get("name").asText());
+	}
+
+	@Test
+	void notModifiedCarriesOnlyTheValidators() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		StreamingProxyResponse.writeNotModified(out, "W/\"v3-7f\"", "private, no-cache");
+
+		JsonNode envelope = objectMapper.readTree(out.toByteArray());
+		assertEquals(304, envelope.get("statusCode").asInt());
+		assertEquals("W/\"v3-7f\"", envelope.get("headers").get("ETag").asText());
+		assertEquals("private, no-cache", envelope.get("headers").get("Cache-Control").asText());
+		assertFalse(envelope.get("headers").has("Content-Type"));
+		assertEquals("", envelope.get("body").asText());
+	}
+
+	@Test
+	void gzipsOnlyBodiesWorthCompressing() throws Exception {
+		ResponseEncoding gzip = new ResponseEncoding(BodyFormat.JSON, ResponseEncoding.acceptsGzip("br, gzip;q=0.8"));
+		Map<String, String> small = Map.of("name", "jane");
+		Map<String, String> large = Map.of("name", "jane \"doe\" ".repeat(1_000));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StreamingProxyResponse.write(objectMapper, out, 200, null, null, gzip, generator -> generator.writeObject(small));
+		JsonNode envelope = objectMapper.readTree(out.toByteArray());
+		assertFalse(envelope.get("isBase64Encoded").asBoolean());
+		assertFalse(envelope.get("headers").has("Content-Encoding"));
+		assertEquals("jane", objectMapper.readTree(envelope.get("body").asText()).get("name").asText());
+
+		out = new ByteArrayOutputStream();
+		StreamingProxyResponse.write(objectMapper, out, 200, "W/\"h1\"", null, gzip, generator -> generator.writeObject(large));
+		envelope = objectMapper.readTree(out.toByteArray());
+		assertTrue(envelope.get("isBase64Encoded").asBoolean());
+		assertEquals("gzip", envelope.get("headers").get("Content-Encoding").asText());
+		assertEquals("Accept, Accept-Encoding", envelope.get("headers").get("Vary").asText());
+		byte[] compressed = Base64.getDecoder().decode(envelope.get("body").asText());
+		assertTrue(compressed.length < large.get("name").length() / 10);
+		try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			assertEquals(large.get("name"), objectMapper.readTree(body).get("name").asText());
+		}
+		assertFalse(ResponseEncoding.acceptsGzip("gzip;q=0, br"));
+	}
+
+	@Test
+	void binaryFormatsGoOutBase64() throws Exception {
+		ResponseEncoding smile = new ResponseEncoding(BodyFormat.forAccept("application/x-jackson-smile, application/json;q=0.9"), false);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		StreamingProxyResponse.write(objectMapper, out, 200, null, null, smile, generator -> generator.writeObject(Map.of("name", "jane")));
+
+		JsonNode envelope = objectMapper.readTree(out.toByteArray());
+		assertTrue(envelope.get("isBase64Encoded").asBoolean());
+		assertEquals("application/x-jackson-smile", envelope.get("headers").get("Content-Type").asText());
+		byte[] body = Base64.getDecoder().decode(envelope.get("body").asText());
+		assertEquals("jane", objectMapper.copyWith(new SmileFactory()).readTree(body).get("name").asText());
+	}
+
+	@Test
+	void largeBodiesSpanSeveralBuffers() throws Exception {
+		String large = "\"x\"".repeat(20_000);
+		// The second write reuses the pooled buffer released by the first
+		StreamingProxyResponse.writeText(new ByteArrayOutputStream(), 200, large);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StreamingProxyResponse.writeText(out, 200, large);
+
+		assertEquals(large, objectMapper.readTree(out.toByteArray()).get("body").asText());
+	}
+
+	@Test
+	void failuresAreCommittedOnlyOnceBytesHaveGoneOut() throws Exception {
+		ByteArrayOutputStream early = new ByteArrayOutputStream();
+		assertThrows(IllegalStateException.class, () -> StreamingProxyResponse.write(objectMapper, early, 200, null, null,
+				ResponseEncoding.IDENTITY, generator -> { throw new IllegalStateException("scan failed"); }));
+		// Nothing was sent, so the caller can still answer with an error envelope
+		assertEquals(0, early.size());
+
+		ByteArrayOutputStream late = new ByteArrayOutputStream();
+		ResponseCommittedException committed = assertThrows(ResponseCommittedException.class,
+				() -> StreamingProxyResponse.write(objectMapper, late, 200, null, null, ResponseEncoding.IDENTITY, generator -> {
+					generator.writeStartArray();
+					for (int i = 0; i < 5_000; i++) {
+						generator.writeString("user " + i);
+					}
+					throw new IllegalStateException("scan failed");
+				}));
+		assertTrue(late.size() > 0);
+		assertEquals("scan failed", committed.getCause().getMessage());
+	}
+
+	@Test
+	void bufferedResponsesAreSentWholeOrNotAtAll() throws Exception {
+		StreamingProxyResponse.BodyWriter users = generator -> {
+			generator.writeStartArray();
+			for (int i = 0; i < 5_000; i++) {
+				generator.writeString("user " + i);
+			}
+			generator.writeEndArray();
+		};
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StreamingProxyResponse.writeBuffered(objectMapper, out, 200, null, null, ResponseEncoding.IDENTITY, 1_000_000, users);
+		assertEquals(5_000, objectMapper.readTree(objectMapper.readTree(out.toByteArray()).get("body").asText()).size());
+
+		ByteArrayOutputStream tooLarge = new ByteArrayOutputStream();
+		assertThrows(IllegalArgumentException.class, () -> StreamingProxyResponse.writeBuffered(objectMapper, tooLarge,
+				200, null, null, ResponseEncoding.IDENTITY, 20_000, users));
+		assertEquals(0, tooLarge.size());
+	}
+
+	@Test
+	void parsesOnlyTheRequestFieldsItNeeds() throws Exception {
+		String event = "{\"resource\":\"/users/{userId}\",\"path\":\"/users/42\",\"httpMethod\":\"POST\","
+				+ "\"headers\":{\"Content-Type\":\"application/json\"},\"multiValueHeaders\":{\"Accept\":[\"*/*\"]},"
+				+ "\"queryStringParameters\":null,\"pathParameters\":{\"userId\":\"42\"},"
+				+ "\"requestContext\":{\"identity\":{\"sourceIp\":\"127.0.0.1\"}},"
+				+ "\"body\":\"{\\\"username\\\":\\\"jane\\\"}\",\"isBase64Encoded\":false}";
+
+		ProxyRequest request = parse(event);
+
+		assertEquals("POST", request.getHttpMethod());
+		assertEquals("/users/{userId}", request.getResource());
+		assertEquals("42", request.getPathParameters().get("userId"));
+		assertEquals("application/json", request.getHeader("content-type"));
+		assertEquals(Map.of(), request.getQueryStringParameters());
+		assertEquals("jane", request.readBody(objectMapper, JsonNode.class).get("username").asText());
+	}
+
+	@Test
+	void decodesBase64Bodies() throws Exception {
+		String body = Base64.getEncoder().encodeToString("{\"username\":\"jane\"}".getBytes(StandardCharsets.UTF_8));
+		ProxyRequest request = parse("{\"httpMethod\":\"POST\",\"isBase64Encoded\":true,\"body\":\"" + body + "\"}");
+
+		assertEquals("jane", request.readBody(objectMapper, JsonNode.class).get("username").asText());
+	}
+
+	@Test
+	void rejectsMissingBody() throws Exception {
+		ProxyRequest request = parse("{\"httpMethod\":\"POST\",\"body\":null}");
+
+		assertThrows(IllegalArgumentException.class, () -> request.readBody(objectMapper, JsonNode.class));
+	}
+
+	private ProxyRequest parse(String event) throws Exception {
+		return ProxyRequest.parse(objectMapper.getFactory(), new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)));
+	}
+}
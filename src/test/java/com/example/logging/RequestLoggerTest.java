@@ -0,0 +1,90 @@
+package com.example.logging;
+
+import com.example.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestLoggerTest {
+
+	@Test
+	void writesOneRedactedJsonLinePerRequest() throws Exception {
+		User user = new User("42", "Jane", "Doe", "jane", "hunter2", "jane@example.com", null);
+		RequestLogEntry entry = new RequestLogEntry("GET /users/{userId}", System.nanoTime()).user(user);
+		entry.complete(System.nanoTime(), System.currentTimeMillis());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RequestLogFormat.writeLine(entry, out);
+		String line = out.toString();
+
+		assertTrue(line.endsWith("\n"));
+		assertEquals(1, line.split("\n").length);
+		assertFalse(line.contains("hunter2"));
+		JsonNode json = new ObjectMapper().readTree(line);
+		assertEquals("GET /users/{userId}", json.get("endpoint").asText());
+		assertEquals(200, json.get("status").asInt());
+		assertEquals("j***@example.com", json.get("email").asText());
+		assertFalse(user.toString().contains("hunter2"));
+	}
+
+	@Test
+	void samplesSuccessesButKeepsServerErrors() {
+		List<RequestLogEntry> written = new ArrayList<>();
+		RequestLogger requestLogger = new RequestLogger(new LogSampler(1.0, Map.of("GET /users", 0.0)), written::add);
+
+		requestLogger.finish(requestLogger.start("GET /users"));
+		requestLogger.finish(requestLogger.start("GET /users").status(500));
+		requestLogger.finish(requestLogger.start("POST /users"));
+
+		assertEquals(2, written.size());
+		assertEquals(500, written.get(0).getStatus());
+		assertEquals("POST /users", written.get(1).getEndpoint());
+	}
+
+	@Test
+	void parsesEndpointRates() {
+		LogSampler sampler = LogSampler.parse(0.0, "GET /users/{userId}=1, POST /users:batchGet = 1");
+		assertTrue(sampler.sample("GET /users/{userId}"));
+		assertTrue(sampler.sample("POST /users:batchGet"));
+		assertFalse(sampler.sample("GET /users"));
+	}
+
+	@Test
+	void ringBufferRejectsWhenFullAndReusesSlots() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+		assertSame(0, buffer.poll());
+		assertTrue(buffer.offer(4));
+		for (int i = 1; i <= 4; i++) {
+			assertEquals(i, buffer.poll());
+		}
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	void asyncSinkDrainsOnClose() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AsyncRequestLogSink sink = new AsyncRequestLogSink(out, 1024);
+		RequestLogger requestLogger = new RequestLogger(new LogSampler(1.0, Map.of()), sink);
+		for (int i = 0; i < 100; i++) {
+			requestLogger.finish(requestLogger.start("GET /users"));
+		}
+		sink.close();
+
+		assertEquals(100, out.toString().split("\n").length);
+	}
+}
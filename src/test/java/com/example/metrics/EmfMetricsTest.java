@@ -0,0 +1,61 @@
+package com.example.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmfMetricsTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void writesOneDocumentPerDimensionSet() throws Exception {
+		EmfMetrics metrics = new EmfMetrics("UserService");
+		metrics.record("dynamodb.call", EmfMetrics.Unit.MILLISECONDS, 4.5, "operation", "GetItem");
+		metrics.record("dynamodb.call", EmfMetrics.Unit.MILLISECONDS, 12.0, "operation", "GetItem");
+		metrics.record("dynamodb.call", EmfMetrics.Unit.MILLISECONDS, 7.0, "operation", "Query");
+
+		String[] lines = flush(metrics);
+
+		assertEquals(2, lines.length);
+		JsonNode getItem = objectMapper.readTree(lines[0]);
+		JsonNode directive = getItem.get("_aws").get("CloudWatchMetrics").get(0);
+		assertEquals("UserService", directive.get("Namespace").asText());
+		assertEquals("operation", directive.get("Dimensions").get(0).get(0).asText());
+		assertEquals("Milliseconds", directive.get("Metrics").get(0).get("Unit").asText());
+		assertEquals("GetItem", getItem.get("operation").asText());
+		assertEquals(2, getItem.get("dynamodb.call").size());
+		assertEquals(12.0, getItem.get("dynamodb.call").get(1).asDouble());
+	}
+
+	@Test
+	void splitsLargeSeriesAndClearsAfterFlush() throws Exception {
+		EmfMetrics metrics = new EmfMetrics("UserService");
+		for (int i = 0; i < 250; i++) {
+			metrics.record("user.service.operation", EmfMetrics.Unit.MILLISECONDS, i, "operation", "getUserById");
+		}
+
+		String[] lines = flush(metrics);
+
+		assertEquals(3, lines.length);
+		assertEquals(100, objectMapper.readTree(lines[0]).get("user.service.operation").size());
+		assertEquals(50, objectMapper.readTree(lines[2]).get("user.service.operation").size());
+		assertEquals(0, flushedBytes(metrics));
+	}
+
+	private static String[] flush(EmfMetrics metrics) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		metrics.flush(out);
+		return out.toString().split("\n");
+	}
+
+	private static int flushedBytes(EmfMetrics metrics) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		metrics.flush(out);
+		return out.size();
+	}
+}
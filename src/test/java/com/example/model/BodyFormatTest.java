@@ -0,0 +1,19 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BodyFormatTest {
+
+	@Test
+	void picksTheHighestQualityFormatAndDefaultsToJson() {
+		assertEquals(BodyFormat.JSON, BodyFormat.forAccept(null));
+		assertEquals(BodyFormat.JSON, BodyFormat.forAccept("*/*"));
+		assertEquals(BodyFormat.JSON, BodyFormat.forAccept("text/html, application/xml;q=0.9"));
+		assertEquals(BodyFormat.SMILE, BodyFormat.forAccept("application/x-jackson-smile"));
+		assertEquals(BodyFormat.CBOR, BodyFormat.forAccept("application/json;q=0.5, application/cbor"));
+		assertEquals(BodyFormat.JSON, BodyFormat.forAccept("application/json, application/cbor"));
+		assertEquals(BodyFormat.JSON, BodyFormat.forAccept("application/cbor;q=0, */*;q=0.1"));
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.model;
+
+import com.example.UserService.PreconditionFailedException;
+import com.example.repository.UserProjection;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ETagsTest {
+
+	private static User user(String firstName, Long version) {
+		User user = new User("u-1", firstName, "Doe", "jane", null, "jane@example.com", "2024-01-01T00:00:00");
+		user.setVersion(version);
+		return user;
+	}
+
+	@Test
+	void versionedUsersAreTaggedByVersionAndProjection() {
+		String etag = ETags.of(user("Jane", 3L), UserProjection.READABLE);
+
+		assertTrue(etag.startsWith("W/\"v3-"));
+		assertEquals(etag, ETags.of(user("Janet", 3L), UserProjection.READABLE));
+		assertNotEquals(etag, ETags.of(user("Jane", 4L), UserProjection.READABLE));
+		assertNotEquals(etag, ETags.of(user("Jane", 3L), UserProjection.readable("userId,username")));
+		assertEquals(3L, ETags.requiredVersion(etag.substring(2)));
+	}
+
+	@Test
+	void unversionedUsersAndPagesAreTaggedByContent() {
+		String etag = ETags.of(user("Jane", null), UserProjection.READABLE);
+
+		assertTrue(etag.startsWith("W/\"h"));
+		assertEquals(etag, ETags.of(user("Jane", null), UserProjection.READABLE));
+		assertNotEquals(etag, ETags.of(user("Janet", null), UserProjection.READABLE));
+		// The first name isn't served, so it can't change the representation
+		UserProjection usernames = UserProjection.readable("userId,username");
+		assertEquals(ETags.of(user("Jane", null), usernames), ETags.of(user("Janet", null), usernames));
+
+		String page = ETags.of(new UserPage(List.of(user("Jane", 1L)), "cursor"), UserProjection.READABLE);
+		assertNotEquals(page, ETags.of(new UserPage(List.of(user("Jane", 2L)), "cursor"), UserProjection.READABLE));
+		assertNotEquals(page, ETags.of(new UserPage(List.of(user("Jane", 1L)), null), UserProjection.READABLE));
+	}
+
+	@Test
+	void comparesIfNoneMatchWeaklyAndIfMatchByVersion() {
+		String etag = ETags.of(user("Jane", 3L), UserProjection.READABLE);
+		String opaque = etag.substring(2);
+
+		assertTrue(ETags.noneMatchFails(etag, etag));
+		assertTrue(ETags.noneMatchFails("\"other\", " + opaque, etag));
+		assertTrue(ETags.noneMatchFails("*", etag));
+		assertFalse(ETags.noneMatchFails(null, etag));
+		assertFalse(ETags.noneMatchFails("\"v2-0\"", etag));
+
+		assertNull(ETags.requiredVersion(null));
+		assertNull(ETags.requiredVersion("*"));
+		assertEquals(3L, ETags.requiredVersion(opaque));
+		// If-Match compares strongly, so the weak tag as served never passes
+		assertThrows(PreconditionFailedException.class, () -> ETags.requiredVersion(etag));
+		assertThrows(PreconditionFailedException.class, () -> ETags.requiredVersion("\"h1f\""));
+		assertThrows(PreconditionFailedException.class, () -> ETags.requiredVersion("\"v2-7\", \"v3-7\""));
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.model;
+
+import com.example.repository.UserProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserViewTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private static User user() {
+		return new User("u-1", "Jane", "Doe", "jane", "secret", null, "2024-01-01T00:00:00");
+	}
+
+	@Test
+	void writesOnlyProjectedFields() throws Exception {
+		assertEquals("{\"userId\":\"u-1\",\"firstName\":\"Jane\",\"email\":null}",
+				objectMapper.writeValueAsString(new UserView(user(), UserProjection.readable("email,firstName,userId"))));
+		assertEquals("{\"userId\":\"u-1\",\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"username\":\"jane\","
+						+ "\"email\":null,\"createdAt\":\"2024-01-01T00:00:00\",\"version\":null}",
+				objectMapper.writeValueAsString(new UserView(user(), UserProjection.READABLE)));
+	}
+
+	@Test
+	void writesPagesInTheUserPageShape() throws Exception {
+		UserProjection projection = UserProjection.readable("userId");
+		assertEquals("{\"users\":[{\"userId\":\"u-1\"}],\"nextCursor\":\"abc\"}",
+				objectMapper.writeValueAsString(new UserView.Page(new UserPage(List.of(user()), "abc"), projection)));
+		assertEquals("{\"users\":[]}",
+				objectMapper.writeValueAsString(new UserView.Page(new UserPage(List.of(), null), projection)));
+	}
+}
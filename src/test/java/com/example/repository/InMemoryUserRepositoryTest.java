@@ -0,0 +1,131 @@
+package com.example.repository;
+
+import com.example.UserService.DuplicateUserException;
+import com.example.UserService.VersionConflictException;
+import com.example.model.User;
+import com.example.model.UserPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryUserRepositoryTest {
+
+	private final InMemoryUserRepository repository = new InMemoryUserRepository();
+
+	private static User user(String userId, String username) {
+		User user = new User(userId, "Jane", "Doe", username, "secret", username + "@example.com", "2024-01-01T00:00:00");
+		user.setVersion(1L);
+		return user;
+	}
+
+	private static User changes(String username, Long version) {
+		User changes = new User(null, null, null, username, null, null, null);
+		changes.setVersion(version);
+		return changes;
+	}
+
+	private static Throwable failure(CompletableFuture<?> future) {
+		return assertThrows(CompletionException.class, future::join).getCause();
+	}
+
+	@Test
+	void rejectsAClaimedUsernameOrEmail() {
+		repository.create(user("u-1", "jane")).join();
+
+		assertInstanceOf(DuplicateUserException.class, failure(repository.create(user("u-2", "jane"))));
+		User sameEmail = user("u-3", "janet");
+		sameEmail.setEmail("jane@example.com");
+		assertInstanceOf(DuplicateUserException.class, failure(repository.create(sameEmail)));
+
+		// The failed create gave its username claim back
+		repository.create(user("u-4", "janet")).join();
+		assertEquals("u-1", repository.findByUsername("jane").join().getUserId());
+		assertNull(repository.findById("u-2").join());
+	}
+
+	@Test
+	void updatesMoveClaimsAndCheckTheVersion() {
+		repository.create(user("u-1", "jane")).join();
+		repository.create(user("u-2", "john")).join();
+
+		User updated = repository.update("u-1", changes("janedoe", 1L)).join();
+		assertEquals(2L, updated.getVersion());
+		assertNull(updated.getPassword());
+		assertEquals("secret", repository.findById("u-1").join().getPassword());
+		assertNull(repository.findByUsername("jane").join());
+
+		VersionConflictException conflict = assertInstanceOf(VersionConflictException.class,
+				failure(repository.update("u-1", changes("jd", 1L))));
+		assertEquals(2L, conflict.getCurrentVersion());
+		assertInstanceOf(DuplicateUserException.class, failure(repository.update("u-1", changes("john", null))));
+		assertNull(repository.update("missing", changes("x", null)).join());
+
+		assertTrue(repository.delete("u-1").join());
+		assertFalse(repository.delete("u-1").join());
+		repository.create(user("u-3", "janedoe")).join();
+	}
+
+	@Test
+	void conditionalDeletesCheckTheVersion() {
+		repository.create(user("u-1", "jane")).join();
+
+		VersionConflictException conflict = assertInstanceOf(VersionConflictException.class,
+				failure(repository.delete("u-1", 2L)));
+		assertEquals(1L, conflict.getCurrentVersion());
+		assertEquals("u-1", repository.findByUsername("jane").join().getUserId());
+
+		assertTrue(repository.delete("u-1", 1L).join());
+		assertFalse(repository.delete("u-1", 1L).join());
+		assertNull(repository.findByUsername("jane").join());
+	}
+
+	@Test
+	void pagesFollowUserIdOrder() {
+		for (int i = 5; i >= 1; i--) {
+			repository.create(user("u-" + i, "user" + i)).join();
+		}
+
+		UserPage first = repository.findPage(2, null, UserProjection.READABLE).join();
+		assertEquals(List.of("u-1", "u-2"), first.getUsers().stream().map(User::getUserId).toList());
+		assertNull(first.getUsers().get(0).getPassword());
+
+		List<String> rest = new ArrayList<>();
+		String cursor = first.getNextCursor();
+		while (cursor != null) {
+			UserPage page = repository.findPage(2, cursor, UserProjection.READABLE).join();
+			page.getUsers().forEach(user -> rest.add(user.getUserId()));
+			cursor = page.getNextCursor();
+		}
+		assertEquals(List.of("u-3", "u-4", "u-5"), rest);
+		assertInstanceOf(IllegalArgumentException.class, failure(repository.findPage(2, "not-a-cursor", UserProjection.READABLE)));
+	}
+
+	@Test
+	void onlyOneConcurrentClaimWins() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<CompletableFuture<Boolean>> attempts = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				User user = user("u-" + i, "contested");
+				attempts.add(CompletableFuture.supplyAsync(() -> repository.create(user)
+						.handle((created, e) -> e == null).join(), executor));
+			}
+			long winners = attempts.stream().filter(CompletableFuture::join).count();
+			assertEquals(1, winners);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
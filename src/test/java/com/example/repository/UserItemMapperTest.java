@@ -0,0 +1,73 @@
+package com.example.repository;
+
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserItemMapperTest {
+
+	private static User user() {
+		return new User("u-1", "Jane", "Doe", "jane", "secret", "jane@example.com", "2024-01-01T00:00:00");
+	}
+
+	@Test
+	void roundTripsEveryAttribute() {
+		Map<String, AttributeValue> item = UserItemMapper.toItem(user());
+		assertEquals(7, item.size());
+		assertEquals("jane@example.com", item.get(UserItemMapper.EMAIL).s());
+
+		User user = UserItemMapper.toUser(item);
+		assertEquals(user().toString(), user.toString());
+		assertEquals("secret", user.getPassword());
+	}
+
+	@Test
+	void leavesNullFieldsOutOfTheItem() {
+		Map<String, AttributeValue> item = UserItemMapper.toItem(new User("u-1", null, null, "jane", null, null, null));
+		assertEquals(2, item.size());
+		assertFalse(item.containsKey(UserItemMapper.PASSWORD));
+		assertNull(UserItemMapper.toUser(item).getFirstName());
+	}
+
+	@Test
+	void decodesOnlyProjectedAttributes() {
+		UserProjection projection = UserProjection.ofNames(List.of("userId", "email"));
+		User user = UserItemMapper.toUser(UserItemMapper.toItem(user()), projection);
+		assertEquals("u-1", user.getUserId());
+		assertEquals("jane@example.com", user.getEmail());
+		assertNull(user.getUsername());
+		assertNull(user.getPassword());
+
+		assertEquals("#userId,#email", projection.projectionExpression());
+		assertEquals(Map.of("#userId", "userId", "#email", "email"), projection.expressionAttributeNames());
+	}
+
+	@Test
+	void projectionsCoveringEveryAttributeAreAll() {
+		UserProjection projection = UserProjection.ALL.without(UserProjection.Attribute.PASSWORD)
+				.with(UserProjection.Attribute.PASSWORD);
+		assertSame(UserProjection.ALL, projection);
+		assertThrows(IllegalArgumentException.class, () -> UserProjection.ofNames(List.of("salary")));
+		assertThrows(IllegalArgumentException.class, () -> UserProjection.ofNames(List.of()));
+	}
+
+	@Test
+	void readableFieldsNeverIncludeThePassword() {
+		assertSame(UserProjection.READABLE, UserProjection.readable(null));
+		assertSame(UserProjection.READABLE, UserProjection.readable(" "));
+		assertFalse(UserProjection.READABLE.includes(UserProjection.Attribute.PASSWORD));
+		assertSame(UserProjection.of(UserProjection.Attribute.USER_ID, UserProjection.Attribute.FIRST_NAME),
+				UserProjection.readable("userId, firstName,"));
+		assertThrows(IllegalArgumentException.class, () -> UserProjection.readable("userId,password"));
+		assertThrows(IllegalArgumentException.class, () -> UserProjection.readable(","));
+	}
+}
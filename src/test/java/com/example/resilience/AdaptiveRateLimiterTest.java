@@ -0,0 +1,75 @@
+package com.example.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveRateLimiterTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(5, now::get);
+
+	private void advance(long millis) {
+		now.addAndGet(Duration.ofMillis(millis).toNanos());
+	}
+
+	// 100 requests a second for one second, then the sample is taken
+	private void sendForOneSecond() {
+		for (int i = 0; i < 100; i++) {
+			assertTrue(limiter.tryAcquire());
+			advance(10);
+		}
+		assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	void admitsEverythingUntilAThrottle() {
+		sendForOneSecond();
+		assertFalse(limiter.isLimiting());
+		assertTrue(Double.isNaN(limiter.getRate()));
+	}
+
+	@Test
+	void throttleCutsTheRateToSeventyPercentOfWhatWasSent() {
+		sendForOneSecond();
+		limiter.onThrottle();
+
+		assertTrue(limiter.isLimiting());
+		assertEquals(101 * 0.7, limiter.getRate(), 1e-9);
+		assertFalse(limiter.tryAcquire());
+		assertEquals(1, limiter.retryAfterSeconds());
+
+		// A tenth of a second refills a tenth of the rate, and no more
+		advance(100);
+		int admitted = 0;
+		while (limiter.tryAcquire()) {
+			admitted++;
+		}
+		assertEquals(7, admitted);
+
+		// Further throttles within the cooldown are the same event
+		limiter.onThrottle();
+		assertEquals(101 * 0.7, limiter.getRate(), 1e-9);
+	}
+
+	@Test
+	void recoversAdditivelyAndStepsAsideAtTwiceTheThrottledRate() {
+		sendForOneSecond();
+		limiter.onThrottle();
+
+		advance(10_000);
+		limiter.onSuccess();
+		assertEquals(101 * 0.7 + 101 * 0.05 * 10, limiter.getRate(), 1e-6);
+		assertTrue(limiter.isLimiting());
+
+		advance(16_000);
+		limiter.onSuccess();
+		assertFalse(limiter.isLimiting());
+		assertTrue(limiter.tryAcquire());
+	}
+}
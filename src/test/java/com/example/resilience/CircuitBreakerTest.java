@@ -0,0 +1,50 @@
+package com.example.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private final CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(5).toNanos(), now::get);
+
+	@Test
+	void opensAfterConsecutiveFailuresOnly() {
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire());
+		assertEquals(5, breaker.retryAfterSeconds());
+	}
+
+	@Test
+	void letsOneProbeThroughAfterTheOpenPeriod() {
+		for (int i = 0; i < 3; i++) {
+			breaker.onFailure();
+		}
+		now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+		assertTrue(breaker.tryAcquire());
+		assertFalse(breaker.tryAcquire());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+		now.addAndGet(Duration.ofSeconds(5).toNanos());
+		assertTrue(breaker.tryAcquire());
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.tryAcquire());
+	}
+}
@@ -42,10 +42,16 @@ variable "lambda_function_name_prefix" {
 }
 
 
+variable "lambda_snap_start" {
+  description = "Publish a version per deploy and enable SnapStart on the user handlers; API Gateway invokes that version."
+  type        = bool
+  default     = true
+}
+
 variable "lambda_runtime" {
   description = "Runtime environment for AWS Lambda functions."
   type        = string
-  default     = "java17"
+  default     = "java21"
 }
 
 variable "lambda_timeout" {
@@ -87,7 +93,13 @@ variable "cors_allow_methods" {
 variable "cors_allow_headers" {
   description = "CORS configuration for allowed headers."
   type        = list(string)
-  default     = ["Authorization", "Content-Type"]
+  default     = ["Authorization", "Content-Type", "If-Match", "If-None-Match"]
+}
+
+variable "cors_expose_headers" {
+  description = "CORS configuration for response headers browsers may read."
+  type        = list(string)
+  default     = ["ETag", "Retry-After"]
 }
 
 variable "cors_max_age" {
@@ -120,3 +132,33 @@ variable "dynamodb_table_arn" {
   // Example default value, replace with your actual DynamoDB table ARN or make it required by omitting the default
   default     = "arn:aws:dynamodb:us-east-2:866934333672:table/jordan-user-service"
 }
+
+variable "dynamodb_table_name" {
+  description = "Name of the DynamoDB table holding user items."
+  type        = string
+  default     = "jordan-user-service"
+}
+
+variable "dynamodb_unique_keys_table_name" {
+  description = "Name of the DynamoDB table holding username/email uniqueness markers."
+  type        = string
+  default     = "jordan-user-service-unique-keys"
+}
+
+variable "dynamodb_revoked_tokens_table_name" {
+  description = "Name of the DynamoDB table holding logged-out access tokens until they expire."
+  type        = string
+  default     = "jordan-user-service-revoked-tokens"
+}
+
+variable "dynamodb_cache_invalidations_table_name" {
+  description = "Name of the DynamoDB table the users-table stream consumer writes cache invalidations to."
+  type        = string
+  default     = "jordan-user-service-cache-invalidations"
+}
+
+variable "jwt_secret" {
+  description = "Base64 HMAC key (at least 32 bytes) used to sign access tokens, e.g. openssl rand -base64 32."
+  type        = string
+  sensitive   = true
+}